@@ -0,0 +1,102 @@
+package com.portfolio2025.first.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio2025.first.config.EventDeserializer;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.dto.event.EventCodec;
+import com.portfolio2025.first.dto.event.OrderCreatedEvent;
+import com.portfolio2025.first.dto.event.OrderCreatedEvent.StockOrderEntry;
+import com.portfolio2025.first.dto.event.TradeSavedEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Kafka 이벤트 인코딩 / 디코딩 벤치마크
+ * [08.18]
+ * (추가) EventCodec 바이너리와 이전 방식(Jackson JSON) 비교 - order.created / trade.synced
+ *       디코딩은 컨슈머와 같은 경로(EventDeserializer ByteBuffer)로 측정
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventCodecBenchmark {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 8, 18, 9, 0, 0, 123_000_000);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final EventDeserializer deserializer = new EventDeserializer(objectMapper, Map.of(
+            "order.created", OrderCreatedEvent.class,
+            "trade.synced", TradeSavedEvent.class
+    ));
+
+    private final OrderCreatedEvent orderCreated = new OrderCreatedEvent(1_000L, 7L, 7L, "005930", 3L, 95_000L, "BUY",
+            List.of(new StockOrderEntry(42L, 95_000L, 3L, CREATED_AT)));
+    private final TradeSavedEvent tradeSaved = new TradeSavedEvent(9L,
+            new StockOrderRedisDTO(42L, "005930", 95_000L, 0L, CREATED_AT),
+            new StockOrderRedisDTO(43L, "005930", 95_000L, 2L, CREATED_AT));
+
+    private final byte[] orderCreatedBinary = EventCodec.encode(orderCreated);
+    private final byte[] tradeSavedBinary = EventCodec.encode(tradeSaved);
+    private final byte[] orderCreatedJson;
+    private final byte[] tradeSavedJson;
+
+    public EventCodecBenchmark() {
+        try {
+            orderCreatedJson = objectMapper.writeValueAsBytes(orderCreated);
+            tradeSavedJson = objectMapper.writeValueAsBytes(tradeSaved);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeOrderCreatedBinary() {
+        return EventCodec.encode(orderCreated);
+    }
+
+    @Benchmark
+    public byte[] encodeOrderCreatedJson() throws IOException {
+        return objectMapper.writeValueAsBytes(orderCreated);
+    }
+
+    @Benchmark
+    public Object decodeOrderCreatedBinary() {
+        return deserializer.deserialize("order.created", new RecordHeaders(), ByteBuffer.wrap(orderCreatedBinary));
+    }
+
+    @Benchmark
+    public Object decodeOrderCreatedJson() {
+        return deserializer.deserialize("order.created", new RecordHeaders(), ByteBuffer.wrap(orderCreatedJson));
+    }
+
+    @Benchmark
+    public byte[] encodeTradeSavedBinary() {
+        return EventCodec.encode(tradeSaved);
+    }
+
+    @Benchmark
+    public byte[] encodeTradeSavedJson() throws IOException {
+        return objectMapper.writeValueAsBytes(tradeSaved);
+    }
+
+    @Benchmark
+    public Object decodeTradeSavedBinary() {
+        return deserializer.deserialize("trade.synced", new RecordHeaders(), ByteBuffer.wrap(tradeSavedBinary));
+    }
+
+    @Benchmark
+    public Object decodeTradeSavedJson() {
+        return deserializer.deserialize("trade.synced", new RecordHeaders(), ByteBuffer.wrap(tradeSavedJson));
+    }
+}
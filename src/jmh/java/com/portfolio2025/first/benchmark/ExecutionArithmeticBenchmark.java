@@ -0,0 +1,69 @@
+package com.portfolio2025.first.benchmark;
+
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.PortfolioStock;
+import com.portfolio2025.first.domain.PortfolioType;
+import com.portfolio2025.first.domain.User;
+import com.portfolio2025.first.domain.stock.Stock;
+import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.domain.vo.Money;
+import com.portfolio2025.first.domain.vo.Quantity;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 체결 반영 산술(Money / Quantity 값 객체) 벤치마크
+ * [08.11]
+ * (추가) StockOrder.applyExecution(가중 평균 체결가 + 상태 갱신), PortfolioStock.applyBuy(평균 단가 갱신)
+ *       매 iteration 마다 충분히 큰 주문 / 보유 수량으로 초기화 - 1주씩 체결
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExecutionArithmeticBenchmark {
+
+    private static final Quantity ONE = new Quantity(1L);
+    private static final Money PRICE = new Money(100_000L);
+
+    private StockOrder stockOrder;
+    private PortfolioStock portfolioStock;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        User user = User.createUser("bench", "seoul", "010-0000-0000", "bench@test.com", "bench");
+        Portfolio portfolio = Portfolio.createPortfolio(user, PortfolioType.STOCK);
+        Stock stock = Stock.builder()
+                .stockCode("005930")
+                .stockName("삼성전자")
+                .stockPrice(PRICE)
+                .availableQuantity(new Quantity(Long.MAX_VALUE / 2))
+                .build();
+
+        stockOrder = StockOrder.createStockOrder(stock, new Quantity(Long.MAX_VALUE / 2), PRICE, portfolio);
+        portfolioStock = PortfolioStock.createPortfolioStock(portfolio, stock, new Quantity(1L), PRICE);
+    }
+
+    @Benchmark
+    public StockOrder applyExecution() {
+        stockOrder.applyExecution(ONE, PRICE);
+        return stockOrder;
+    }
+
+    @Benchmark
+    public PortfolioStock applyBuy() {
+        portfolioStock.applyBuy(ONE, PRICE);
+        return portfolioStock;
+    }
+
+    @Benchmark
+    public Money totalCost() {
+        return PRICE.multiply(ONE);
+    }
+}
@@ -0,0 +1,166 @@
+package com.portfolio2025.first.benchmark;
+
+import com.portfolio2025.first.StockSimulatorApplication;
+import com.portfolio2025.first.config.EventSerializer;
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.Order;
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.PortfolioStock;
+import com.portfolio2025.first.domain.PortfolioType;
+import com.portfolio2025.first.domain.User;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.domain.stock.Stock;
+import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.domain.vo.Money;
+import com.portfolio2025.first.domain.vo.Quantity;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.service.TradeExecutionService;
+import jakarta.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * TradeExecutionService.matchSinglePair end-to-end 벤치마크 (내장 H2)
+ * [08.11]
+ * (추가) 주문 / 포트폴리오 / 보유 주식 조회(락) + 체결 반영 + Trade 저장 + 커밋 + AFTER_COMMIT 이벤트까지 한 번에 측정
+ *       Kafka 는 MockProducer 로 대체 - 네트워크 비용 제외
+ *       Redisson 자동 설정은 제외(기동 시 바로 연결함) - RedisTemplate 은 Lettuce 로 대체되고 실제로 호출되지 않음
+ *       체결 대상 주문 한 쌍은 매 호출 전에 새로 저장 (측정값에서 제외)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatchSinglePairBenchmark {
+
+    private static final Money PRICE = new Money(100_000L);
+    private static final Quantity ONE = new Quantity(1L);
+
+    private ConfigurableApplicationContext context;
+    private TradeExecutionService tradeExecutionService;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+
+    private Long buyerPortfolioId;
+    private Long sellerPortfolioId;
+    private Long stockId;
+
+    private MatchingPair pair;
+
+    @Configuration
+    static class BenchmarkKafkaConfig {
+        @Bean
+        public KafkaTemplate<String, String> stringKafkaTemplate() {
+            return new KafkaTemplate<>(() -> new MockProducer<>(true, new StringSerializer(), new StringSerializer()));
+        }
+
+        @Bean
+        public KafkaTemplate<String, Object> eventKafkaTemplate(EventSerializer eventSerializer) {
+            return new KafkaTemplate<>(() -> new MockProducer<>(true, new StringSerializer(), eventSerializer));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        // application.yml 보다 우선하도록 커맨드라인 인자로 전달 (builder.properties 는 기본값 취급)
+        context = new SpringApplicationBuilder(StockSimulatorApplication.class, BenchmarkKafkaConfig.class)
+                .run(
+                        "--spring.main.web-application-type=none",
+                        "--spring.main.lazy-initialization=true",
+                        "--spring.main.allow-bean-definition-overriding=true",
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--matching.journal.enabled=false",
+                        "--matching.loader.mode=never",
+                        "--management.health.redis.enabled=false",
+                        "--spring.autoconfigure.exclude=org.redisson.spring.starter.RedissonAutoConfiguration",
+                        "--logging.level.root=WARN");
+
+        tradeExecutionService = context.getBean(TradeExecutionService.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        transactionTemplate.executeWithoutResult(status -> seed());
+    }
+
+    /** 매수자(현금 예약 완료) / 매도자(보유 주식 예약 완료) / 종목 1개 **/
+    private void seed() {
+        User buyer = User.createUser("buyer", "seoul", "010-0000-0001", "buyer@bench.com", "buyer");
+        User seller = User.createUser("seller", "seoul", "010-0000-0002", "seller@bench.com", "seller");
+        entityManager.persist(buyer);
+        entityManager.persist(seller);
+
+        Portfolio buyerPortfolio = Portfolio.createPortfolio(buyer, PortfolioType.STOCK);
+        buyerPortfolio.deposit(new Money(1_000_000_000_000L));
+        buyerPortfolio.reserveAndDeductCash(new Money(1_000_000_000_000L));
+        Portfolio sellerPortfolio = Portfolio.createPortfolio(seller, PortfolioType.STOCK);
+        entityManager.persist(buyerPortfolio);
+        entityManager.persist(sellerPortfolio);
+
+        Stock stock = Stock.builder()
+                .stockCode("005930")
+                .stockName("삼성전자")
+                .stockPrice(PRICE)
+                .availableQuantity(new Quantity(1_000_000_000L))
+                .build();
+        entityManager.persist(stock);
+
+        PortfolioStock holding = PortfolioStock.createPortfolioStock(
+                sellerPortfolio, stock, new Quantity(1_000_000_000L), new Money(90_000L));
+        holding.reserve(new Quantity(1_000_000_000L));
+        entityManager.persist(holding);
+
+        buyerPortfolioId = buyerPortfolio.getId();
+        sellerPortfolioId = sellerPortfolio.getId();
+        stockId = stock.getId();
+    }
+
+    @Setup(Level.Invocation)
+    public void placeOrders() {
+        pair = transactionTemplate.execute(status -> new MatchingPair(
+                placeOrder(buyerPortfolioId, OrderType.BUY),
+                placeOrder(sellerPortfolioId, OrderType.SELL)));
+    }
+
+    private StockOrderRedisDTO placeOrder(Long portfolioId, OrderType orderType) {
+        Portfolio portfolio = entityManager.find(Portfolio.class, portfolioId);
+        Stock stock = entityManager.find(Stock.class, stockId);
+
+        StockOrder stockOrder = StockOrder.createStockOrder(stock, ONE, PRICE, portfolio);
+        Order order = Order.createSingleOrder(portfolio, stockOrder, orderType, PRICE.multiply(ONE));
+        entityManager.persist(order);
+        entityManager.persist(stockOrder);
+        return StockOrderRedisDTO.from(stockOrder);
+    }
+
+    @Benchmark
+    public void matchSinglePair() {
+        tradeExecutionService.matchSinglePair(pair);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfolio2025.first.benchmark;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.book.OrderBook;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 메모리 호가창 교차 매칭(pair 생성) 벤치마크
+ * [08.11]
+ * (추가) 가격대 수(levels) x 가격대당 주문 수(ordersPerLevel) 만큼 쌓인 호가창을 한 번에 훑는 비용 측정
+ *       매 호출마다 호가창을 새로 채움 - 측정값에는 매칭 비용만 포함
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderBookMatchingBenchmark {
+
+    private static final String STOCK_CODE = "005930";
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 11, 9, 0);
+
+    @Param({"10", "100"})
+    private int levels;
+
+    @Param({"10"})
+    private int ordersPerLevel;
+
+    private OrderBook book;
+
+    @Setup(Level.Invocation)
+    public void fillBook() {
+        book = new OrderBook(STOCK_CODE);
+        long id = 1;
+        for (int level = 0; level < levels; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                book.add(OrderType.SELL, new StockOrderRedisDTO(
+                        id++, STOCK_CODE, 100_000L + level * 100L, 3L, NOW.plusNanos(id * 1_000_000)));
+                book.add(OrderType.BUY, new StockOrderRedisDTO(
+                        id++, STOCK_CODE, 100_000L + level * 100L, 2L, NOW.plusNanos(id * 1_000_000)));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<MatchingPair> matchCrossing() {
+        return book.matchCrossing(Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,48 @@
+package com.portfolio2025.first.benchmark;
+
+import com.portfolio2025.first.domain.book.PriorityKey;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 가격 - 시간 우선순위 키 계산 벤치마크
+ * [08.11]
+ * (추가) PriorityKey 생성 / ZSET member 변환 / 복원 / 비교 비용
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PriorityKeyBenchmark {
+
+    private final StockOrderRedisDTO order = new StockOrderRedisDTO(
+            123_456_789L, "005930", 95_000L, 3L, LocalDateTime.of(2025, 8, 11, 9, 0, 0, 123_000_000));
+    private final PriorityKey other = new PriorityKey(1_754_902_800_123L, 123_456_790L);
+    private final String member = PriorityKey.of(order).toMember();
+
+    @Benchmark
+    public PriorityKey of() {
+        return PriorityKey.of(order);
+    }
+
+    @Benchmark
+    public String toMember() {
+        return PriorityKey.of(order).toMember();
+    }
+
+    @Benchmark
+    public PriorityKey fromMember() {
+        return PriorityKey.fromMember(member);
+    }
+
+    @Benchmark
+    public int compare() {
+        return PriorityKey.of(order).compareTo(other);
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfolio2025.first.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.portfolio2025.first.dto.StockOrderRedisCodec;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * StockOrderRedisDTO 인코딩 / 디코딩 벤치마크
+ * [08.11]
+ * (추가) 호가창 HASH 고정 길이 인코딩(StockOrderRedisCodec)과 이전 방식(Jackson JSON) 비교
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StockOrderRedisCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final StockOrderRedisDTO order = new StockOrderRedisDTO(
+            42L, "005930", 95_000L, 3L, LocalDateTime.of(2025, 8, 11, 9, 0, 0, 123_000_000));
+    private final String encoded = StockOrderRedisCodec.encode(order);
+    private final String json;
+
+    public StockOrderRedisCodecBenchmark() {
+        try {
+            json = objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public String encodeFixedWidth() {
+        return StockOrderRedisCodec.encode(order);
+    }
+
+    @Benchmark
+    public StockOrderRedisDTO decodeFixedWidth() {
+        return StockOrderRedisCodec.decode(42L, "005930", encoded);
+    }
+
+    @Benchmark
+    public String encodeJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(order);
+    }
+
+    @Benchmark
+    public StockOrderRedisDTO decodeJson() throws JsonProcessingException {
+        return objectMapper.readValue(json, StockOrderRedisDTO.class);
+    }
+}
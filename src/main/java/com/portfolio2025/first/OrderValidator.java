@@ -2,8 +2,13 @@ package com.portfolio2025.first;
 
 import com.portfolio2025.first.domain.Order;
 import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
 import com.portfolio2025.first.repository.OrderRepository;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -13,6 +18,12 @@ import org.springframework.stereotype.Component;
  *
  * [07.30]
  *
+ * [08.16]
+ * (추가) findOrdersWithRetry - 배치 컨슈머용, 묶음 전체를 IN 쿼리 한 번으로 조회하고 못 찾은 주문만 다시 조회
+ *
+ * [08.17]
+ * (삭제) findOrderWithRetry - 컨슈머는 이벤트 값으로 바로 호가창 적재, 이전 형식 이벤트만 findOrdersWithRetry 사용
+ * (추가) validate(RestingStockOrderDTO) - 이벤트에서 만든 호가창 적재 값 검증 (StockOrder 검증과 같은 기준)
  *
  * [고민]
  *
@@ -28,19 +39,23 @@ public class OrderValidator {
     private final OrderRepository orderRepository;
 
     /**
-     * 주문 ID로 조회하며 최대 5회 재시도
+     * 주문 ID 묶음을 IN 쿼리로 조회 - 못 찾은 ID 만 최대 5회 재조회 (재조회 간격은 묶음 전체에 한 번)
+     * 끝까지 못 찾은 주문은 결과에서 빠짐
      */
-    public Order findOrderWithRetry(Long orderId) throws InterruptedException {
-        for (int i = 0; i < MAX_RETRY; i++) {
-            Optional<Order> optional = orderRepository.findByIdWithStockOrders(orderId);
-            if (optional.isPresent()) {
-                log.info("✅ Order 조회 성공 (시도 {}): orderId={}", i + 1, orderId);
-                return optional.get();
+    public Map<Long, Order> findOrdersWithRetry(Collection<Long> orderIds) throws InterruptedException {
+        Map<Long, Order> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>(orderIds);
+        for (int i = 0; i < MAX_RETRY && !missing.isEmpty(); i++) {
+            if (i > 0) {
+                log.warn("🔁 Order 묶음 조회 재시도 {}회차: 남은 주문 {}건", i + 1, missing.size());
+                Thread.sleep(RETRY_DELAY_MS);
+            }
+            for (Order order : orderRepository.findAllByIdsWithStockOrders(missing)) {
+                found.put(order.getId(), order);
+                missing.remove(order.getId());
             }
-            log.warn("🔁 Order 조회 재시도 {}회차: orderId={}", i + 1, orderId);
-            Thread.sleep(RETRY_DELAY_MS);
         }
-        throw new IllegalStateException("❌ Order not found after retries: orderId=" + orderId);
+        return found;
     }
 
     /**
@@ -59,4 +74,25 @@ public class OrderValidator {
             throw new IllegalStateException("종목 정보가 없습니다: stockOrderId=" + stockOrder.getId());
         }
     }
+
+    /**
+     * 이벤트에서 만든 호가창 적재 값 검증 - DB 조회 없이 들어오는 값이라 가격까지 확인
+     */
+    public void validate(RestingStockOrderDTO row) {
+        if (row.getId() == null) {
+            throw new IllegalArgumentException("stockOrderId 가 없습니다.");
+        }
+
+        if (row.getRemainQuantity() == null || row.getRemainQuantity() <= 0) {
+            throw new IllegalStateException("수량이 없거나 0입니다: stockOrderId=" + row.getId());
+        }
+
+        if (row.getRequestedPrice() == null || row.getRequestedPrice() <= 0) {
+            throw new IllegalStateException("가격이 없거나 0입니다: stockOrderId=" + row.getId());
+        }
+
+        if (row.getStockCode() == null || row.getCreatedAt() == null) {
+            throw new IllegalStateException("종목 / 주문 시각 정보가 없습니다: stockOrderId=" + row.getId());
+        }
+    }
 }
@@ -2,9 +2,16 @@ package com.portfolio2025.first;
 
 import com.portfolio2025.first.domain.Order;
 import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Component;
 
 /**
@@ -13,6 +20,11 @@ import org.springframework.stereotype.Component;
  * [07.30]
  * (추가)
  *
+ * [08.16]
+ * (추가) findProcessed / markProcessedAll - 배치 컨슈머용, MGET 한 번 / 파이프라인 한 번으로 묶음 전체 처리
+ * [08.25]
+ * (수정) markProcessedAll 의 SessionCallback 을 타입 파라미터 execute 로 - raw RedisOperations / unchecked 경고 제거
+ *
  * [고민]
  * Redis Register 이라는 클래스명 수정해야 하지 않을까??
  *
@@ -45,4 +57,40 @@ public class RedisRegister {
         redisTemplate.opsForValue().set(key, "true", TTL);
         log.info("✅ Redis 처리 완료 등록: {}", key);
     }
+
+    /**
+     * 묶음 중 이미 처리된 주문 ID - MGET 한 번
+     */
+    public Set<Long> findProcessed(Collection<Long> orderIds) {
+        List<Long> ids = List.copyOf(orderIds);
+        List<String> values = redisTemplate.opsForValue().multiGet(
+                ids.stream().map(id -> ORDER_PROCESSED_PREFIX + id).toList());
+        Set<Long> processed = new HashSet<>();
+        for (int i = 0; values != null && i < ids.size(); i++) {
+            if (values.get(i) != null) {
+                processed.add(ids.get(i));
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * 묶음 처리 완료 등록 - 파이프라인 한 번
+     */
+    public void markProcessedAll(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                // 같은 redisTemplate - 파이프라인 커넥션은 현재 스레드에 묶여 있어서 operations 를 캐스팅하지 않아도 됨
+                for (Long orderId : orderIds) {
+                    redisTemplate.opsForValue().set(ORDER_PROCESSED_PREFIX + orderId, "true", TTL);
+                }
+                return null;
+            }
+        });
+        log.info("✅ Redis 처리 완료 등록: {}건", orderIds.size());
+    }
 }
@@ -0,0 +1,73 @@
+package com.portfolio2025.first.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.portfolio2025.first.dto.event.EventCodec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+/**
+ * Kafka value 역직렬화 EventDeserializer
+ * [08.18]
+ * (추가) deserialize(topic, headers, ByteBuffer) - consumer 가 fetch 버퍼를 그대로 넘겨주는 경로 (byte[] 복사 없음)
+ *       MAGIC 으로 시작하면 EventCodec 바이너리, 아니면 토픽별 타입(jsonTypes)으로 JSON 읽기 - 전환 기간 동안 두 형식 모두 처리
+ *       jsonTypes 에 없는 토픽은 문자열로 반환
+ * (추가) 실패 시 ErrorHandlingDeserializer 와 같은 방식으로 예외를 헤더에 담고 null 반환 - poll 루프가 멈추지 않음
+ *       (ErrorHandlingDeserializer 로 감싸면 ByteBuffer 경로를 쓰지 않아서 직접 처리)
+ *       레코드 리스너는 컨테이너가 헤더를 확인해서 에러 핸들러로, 배치 리스너는 value == null 레코드를 직접 확인
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, Class<?>> jsonTypes;
+
+    public EventDeserializer(ObjectMapper objectMapper, Map<String, Class<?>> jsonTypes) {
+        this.objectMapper = objectMapper;
+        this.jsonTypes = jsonTypes;
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return data == null ? null : deserialize(topic, headers, ByteBuffer.wrap(data));
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+
+        try {
+            return read(topic, data.duplicate());
+        } catch (Exception e) {
+            if (headers == null) {
+                throw new SerializationException("이벤트 역직렬화 실패: topic=" + topic, e);
+            }
+            SerializationUtils.deserializationException(headers, Utils.toArray(data), e, false);
+            return null;
+        }
+    }
+
+    private Object read(String topic, ByteBuffer data) throws Exception {
+        if (EventCodec.isBinary(data)) {
+            return EventCodec.decode(data);
+        }
+
+        Class<?> type = jsonTypes.get(topic);
+        if (type == null) {
+            return StandardCharsets.UTF_8.decode(data).toString();
+        }
+        return objectMapper.readValue(new ByteBufferBackedInputStream(data), type);
+    }
+}
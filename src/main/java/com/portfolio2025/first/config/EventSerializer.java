@@ -0,0 +1,49 @@
+package com.portfolio2025.first.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio2025.first.dto.event.EventCodec;
+import java.nio.charset.StandardCharsets;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka value 직렬화 EventSerializer - producer 하나로 이벤트 / 문자열 / 인코딩된 byte[] 를 모두 발행
+ * [08.18]
+ * (추가) OrderCreatedEvent / TradeSavedEvent -> EventCodec 바이너리 (binary=false 면 JSON - 전환 기간용)
+ *       String -> UTF-8 그대로 (match.request 종목 코드, DLQ JSON)
+ *       byte[] -> 그대로 (outbox 에 이미 인코딩해서 저장한 값)
+ *       그 외 객체 -> JSON
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    private final ObjectMapper objectMapper;
+    private final boolean binary;
+
+    public EventSerializer(ObjectMapper objectMapper, boolean binary) {
+        this.objectMapper = objectMapper;
+        this.binary = binary;
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (data instanceof byte[] encoded) {
+            return encoded;
+        }
+        if (data instanceof String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        try {
+            if (binary && EventCodec.supports(data)) {
+                return EventCodec.encode(data);
+            }
+            return objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            throw new SerializationException("이벤트 직렬화 실패: topic=" + topic + ", type=" + data.getClass().getSimpleName(), e);
+        }
+    }
+}
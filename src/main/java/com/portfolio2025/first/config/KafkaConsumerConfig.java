@@ -1,18 +1,24 @@
 package com.portfolio2025.first.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.portfolio2025.first.dto.event.OrderCreatedEvent;
+import com.portfolio2025.first.dto.event.TradeSavedEvent;
+import com.portfolio2025.first.service.KafkaDlqService;
 import java.util.HashMap;
 import java.util.Map;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
-import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.ContainerProperties.AckMode;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.util.backoff.FixedBackOff;
 
 /**
  * Kafka 이벤트 발행 관련 Config KafkaProducerConfig
@@ -20,13 +26,35 @@ import org.springframework.kafka.support.serializer.JsonDeserializer;
  * [07.30]
  * (추가) "invalid.order.created" 토픽 추가
  *
+ * [08.16]
+ * (추가) batchKafkaListenerContainerFactory - poll 한 번의 레코드를 List 로 받는 배치 리스너 (order.created)
+ *       max.poll.records 로 묶음 크기 조절 (kafka.consumer.max-poll-records)
+ *
+ * [08.18]
+ * (추가) eventConsumerFactory - value 를 EventDeserializer 로 읽음 (바이너리 / JSON 모두, 리스너는 이벤트 객체를 바로 받음)
+ *       order.created / trade.synced 리스너용 eventKafkaListenerContainerFactory / batchEventKafkaListenerContainerFactory
+ *       batchKafkaListenerContainerFactory(String) 는 batchEventKafkaListenerContainerFactory 로 대체
+ * (추가) 레코드 리스너의 역직렬화 실패 -> 재시도 없이 DLQ (checkDeserExWhenValueNull + DefaultErrorHandler)
+ *
  * [고민]
  * send().get() -> 동기 처리를 진행하고 있는 상황( 아닌 경우는 어떤게 있고 어떤 차이가 있는지 알고 있어야 함)
  * 발행에 실패한 경우 DLQ 혹은 fallback 로직을 어떻게 구성할지도 생각해보기
  */
 @Configuration
+@RequiredArgsConstructor
 public class KafkaConsumerConfig {
 
+    private static final Map<String, Class<?>> EVENT_JSON_TYPES = Map.of(
+            "order.created", OrderCreatedEvent.class,
+            "trade.synced", TradeSavedEvent.class
+    );
+
+    private final ObjectMapper objectMapper;
+    private final KafkaDlqService kafkaDlqService;
+
+    @Value("${kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
     @Bean
     public ConsumerFactory<String, String> stringConsumerFactory() {
         Map<String, Object> props = new HashMap<>();
@@ -47,5 +75,62 @@ public class KafkaConsumerConfig {
         return factory;
     }
 
-}
+    @Bean
+    public ConsumerFactory<String, Object> eventConsumerFactory() {
+        return eventConsumerFactory(stringConsumerFactory().getConfigurationProperties());
+    }
+
+    @Bean
+    public ConsumerFactory<String, Object> batchEventConsumerFactory() {
+        Map<String, Object> props = new HashMap<>(stringConsumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        return eventConsumerFactory(props);
+    }
 
+    private ConsumerFactory<String, Object> eventConsumerFactory(Map<String, Object> props) {
+        return new DefaultKafkaConsumerFactory<>(props, StringDeserializer::new,
+                () -> new EventDeserializer(objectMapper, EVENT_JSON_TYPES));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> eventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(eventConsumerFactory());
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL);
+        factory.getContainerProperties().setCheckDeserExWhenValueNull(true); // EventDeserializer 가 남긴 예외 헤더 확인
+        factory.setCommonErrorHandler(dlqErrorHandler());
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchEventConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(AckMode.MANUAL); // 묶음 처리 후 한 번에 커밋
+        return factory;
+    }
+
+    /** 재시도 없이 DLQ - 역직렬화 실패는 원본 byte 그대로, 그 외는 처리 실패로 **/
+    private DefaultErrorHandler dlqErrorHandler() {
+        return new DefaultErrorHandler((record, e) -> {
+            DeserializationException deserializationException = findDeserializationException(e);
+            if (deserializationException != null) {
+                kafkaDlqService.sendParseError(record.topic(), deserializationException.getData(), deserializationException);
+                return;
+            }
+            kafkaDlqService.sendProcessingError(record.topic(), record.value(), e);
+        }, new FixedBackOff(0L, 0L));
+    }
+
+    private DeserializationException findDeserializationException(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeserializationException deserializationException) {
+                return deserializationException;
+            }
+        }
+        return null;
+    }
+}
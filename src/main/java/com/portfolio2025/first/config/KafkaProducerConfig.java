@@ -1,80 +1,186 @@
 package com.portfolio2025.first.config;
 
 
-import com.portfolio2025.first.dto.event.OrderCreatedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.HashMap;
 import java.util.Map;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 /**
  * Kafka 이벤트 발행 관련 Config KafkaProducerConfig
  *
  * [07.30]
  * (추가) "invalid.order.created" 토픽 추가
  *
- * [고민]
+ * [08.14]
+ * (추가) 비동기 발행 전제로 producer 튜닝 값 설정 (kafka.producer.*)
+ *       linger.ms / batch.size / compression.type - 주문이 몰릴 때 여러 레코드를 한 요청으로 묶어서 전송
+ *       enable.idempotence + acks=all - producer 내부 재시도(delivery.timeout.ms 안에서)로 인한 중복 / 순서 뒤바뀜 방지
+ *       max.block.ms - 버퍼가 가득 차거나 메타데이터가 없을 때 send() 호출 스레드가 기다리는 최대 시간
+ * (추가) "publish.failed" 토픽 - 재시도 끝에 발행에 실패한 이벤트 보관 (KafkaDlqService)
+ *
+ * [08.18]
+ * (수정) value 직렬화 StringSerializer -> EventSerializer - 이벤트는 EventCodec 바이너리로 발행
+ *       kafka.producer.event-format=json 이면 JSON 으로 발행 (컨슈머를 먼저 배포하는 전환 기간용, 컨슈머는 두 형식 모두 읽음)
+ * (추가) eventKafkaTemplate(KafkaTemplate<String, Object>) - 이벤트 객체 / outbox byte[] 발행용
+ *       stringKafkaTemplate 도 같은 producer factory 사용 - producer(버퍼 / 전송 스레드 / idempotent PID) 하나를 공유
+ *
+ * [08.19]
+ * (수정) 토픽별 파티션 수를 설정으로 분리 (kafka.topics.*.partitions) - 모든 토픽 2개 고정 -> 토픽 성격에 맞게
+ *       order.created / match.request / trade.synced 는 stockCode 를 key 로 발행 -> 같은 종목은 항상 같은 파티션
+ *       리스너 concurrency 도 같은 값을 따라감 (파티션 하나 = 컨슈머 스레드 하나, 종목 단위 순서 보장)
  *
+ * [08.20]
+ * (추가) "match.failed" 토픽 - 재체결을 포기한 pair 보관 (MatchRetryStage)
  *
+ * [08.25]
+ * (수정) stringKafkaTemplate 은 StringSerializer 로 만든 stringProducerFactory 사용 - ProducerFactory<?, ?> unchecked 캐스팅 제거
+ *       producer 가 둘이 됨 (DLQ 용은 트래픽이 적음) - 이벤트 producer 버퍼가 막혀도 DLQ 발행은 따로 진행
+ *       두 producer 의 설정은 producerConfig() 하나로 유지
+ *
+ * [고민]
+ * 1. 파티션 수는 늘릴 수만 있고 늘리면 key -> 파티션 배정이 바뀜 - 처리 중인 종목의 순서가 잠깐 섞일 수 있으므로 트래픽이 없을 때 변경
+ * 2. 컨슈머 인스턴스를 늘려도 파티션 수 이상으로는 병렬화되지 않음 - 확장 상한을 고려해서 여유 있게 설정
+ * 3. 거래가 한 종목에 몰리면 그 파티션만 바빠짐 (key 기반 분배의 한계)
  */
 @Configuration
+@RequiredArgsConstructor
 public class KafkaProducerConfig {
 
+    private final ObjectMapper objectMapper;
+
+    @Value("${kafka.producer.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${kafka.producer.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String compressionType;
+
+    @Value("${kafka.producer.request-timeout-ms:10000}")
+    private int requestTimeoutMs;
+
+    @Value("${kafka.producer.delivery-timeout-ms:30000}")
+    private int deliveryTimeoutMs; // linger.ms + request.timeout.ms 이상이어야 함 (producer 생성 시 검증)
+
+    @Value("${kafka.producer.max-block-ms:1000}")
+    private long maxBlockMs;
+
+    @Value("${kafka.producer.event-format:binary}")
+    private String eventFormat; // binary | json
+
+    @Value("${kafka.topics.replicas:1}")
+    private int replicas; // 운영 시 2 이상 권장
+
+    @Value("${kafka.topics.match-request.partitions:6}")
+    private int matchRequestPartitions;
+
+    @Value("${kafka.topics.order-created.partitions:6}")
+    private int orderCreatedPartitions;
+
+    @Value("${kafka.topics.trade-synced.partitions:3}")
+    private int tradeSyncedPartitions;
+
+    @Value("${kafka.topics.invalid-order-created.partitions:2}")
+    private int invalidOrderCreatedPartitions;
+
+    @Value("${kafka.topics.publish-failed.partitions:1}")
+    private int publishFailedPartitions;
+
+    @Value("${kafka.topics.match-failed.partitions:1}")
+    private int matchFailedPartitions;
+
     @Bean
     public NewTopic matchRequestTopic() {
-        // match.request 토픽 발행해두기
-        return TopicBuilder.name("match.request")
-                .partitions(2)
-                .replicas(1)  // 운영 시 2 이상 권장
-                .build();
+        // match.request 토픽 발행해두기 - key = stockCode
+        return topic("match.request", matchRequestPartitions);
     }
 
-    // 주문 생성 토픽
+    // 주문 생성 토픽 - key = stockCode
     @Bean
     public NewTopic orderCreatedTopic() {
-        return TopicBuilder.name("order.created")
-                .partitions(2)
-                .replicas(1)
-                .build();
+        return topic("order.created", orderCreatedPartitions);
     }
 
-    // 체결 Sync
+    // 체결 Sync - key = stockCode
     @Bean
     public NewTopic tradeSyncedTopic() {
-        return TopicBuilder.name("trade.synced")
-                .partitions(2)
-                .replicas(1)
-                .build();
+        return topic("trade.synced", tradeSyncedPartitions);
     }
 
     // 주문 생성 DQL 담당하는 토픽
     @Bean
     public NewTopic invalidOrderCreatedTopic() {
-        return TopicBuilder.name("invalid.order.created")
-                .partitions(2)       // 실패 메시지니까 1개로도 충분 (필요시 확장 가능)
-                .replicas(1)         // 운영에선 2~3 추천
+        return topic("invalid.order.created", invalidOrderCreatedPartitions); // 실패 메시지니까 적게 (필요시 확장 가능)
+    }
+
+    // 발행 실패 이벤트 DLQ 토픽
+    @Bean
+    public NewTopic publishFailedTopic() {
+        return topic("publish.failed", publishFailedPartitions);
+    }
+
+    // 재체결 포기 pair DLQ 토픽
+    @Bean
+    public NewTopic matchFailedTopic() {
+        return topic("match.failed", matchFailedPartitions);
+    }
+
+    private NewTopic topic(String name, int partitions) {
+        return TopicBuilder.name(name)
+                .partitions(partitions)
+                .replicas(replicas)
                 .build();
     }
 
-    // String 전용 KafkaTemplate
+    @Bean
+    public EventSerializer eventSerializer() {
+        return new EventSerializer(objectMapper, !"json".equalsIgnoreCase(eventFormat));
+    }
+
+    @Bean
+    public ProducerFactory<String, Object> eventProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfig(), new StringSerializer(), eventSerializer()); // 핵심!
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> eventKafkaTemplate() {
+        return new KafkaTemplate<>(eventProducerFactory());
+    }
+
+    // String 전용 producer - DLQ(KafkaDlqService) 발행용, 이벤트 producer 의 버퍼가 가득 차도 DLQ 는 따로 보낼 수 있음
     @Bean
     public ProducerFactory<String, String> stringProducerFactory() {
-        Map<String, Object> config = new HashMap<>();
-        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class); // 핵심!
-        return new DefaultKafkaProducerFactory<>(config);
+        return new DefaultKafkaProducerFactory<>(producerConfig(), new StringSerializer(), new StringSerializer());
     }
 
     @Bean
     public KafkaTemplate<String, String> stringKafkaTemplate() {
         return new KafkaTemplate<>(stringProducerFactory());
     }
+
+    private Map<String, Object> producerConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5); // idempotent 에서 파티션 순서가 보장되는 최대값 (OutboxRelay 가 의존)
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        config.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, requestTimeoutMs);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+        config.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        return config;
+    }
 }
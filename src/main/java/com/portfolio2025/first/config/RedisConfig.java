@@ -15,6 +15,9 @@ public class RedisConfig {
         redisTemplate.setConnectionFactory(connectionFactory);
         redisTemplate.setKeySerializer(new StringRedisSerializer());
         redisTemplate.setValueSerializer(new StringRedisSerializer());
+        // [08.25] (추가) 호가창 HASH(ORDERS_{stockCode}) 의 field / value 도 문자열 그대로 - Lua 스크립트가 HGET 하는 형식과 같아야 함
+        redisTemplate.setHashKeySerializer(new StringRedisSerializer());
+        redisTemplate.setHashValueSerializer(new StringRedisSerializer());
         return redisTemplate;
     }
 
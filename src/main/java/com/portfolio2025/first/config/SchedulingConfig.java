@@ -0,0 +1,14 @@
+package com.portfolio2025.first.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @Scheduled 활성화 SchedulingConfig
+ * [08.15]
+ * (추가) OutboxRelay 주기 발행 / 정리
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
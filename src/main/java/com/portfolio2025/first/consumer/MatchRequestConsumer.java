@@ -1,27 +1,34 @@
 package com.portfolio2025.first.consumer;
 
-import com.portfolio2025.first.service.TradeService;
+import com.portfolio2025.first.service.MatchingScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+/**
+ * 체결 트리거(match.request) 소비 MatchRequestConsumer
+ * [08.19]
+ * (추가) concurrency = match.request 파티션 수 - key 가 stockCode 라서 한 종목의 트리거는 항상 같은 컨슈머 스레드로 들어옴
+ *       인스턴스를 늘리면 파티션(= 종목 묶음)이 인스턴스 사이에 나눠짐 (matching.book=redis 만 - memory 는 단일 서버, OrderBookOwnerLease)
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class MatchRequestConsumer {
 
-    private final TradeService tradeService;
+    private final MatchingScheduler matchingScheduler;
 
     @KafkaListener(topics = "match.request",
             groupId = "trade-match-group",
-            containerFactory = "stringKafkaListenerContainerFactory"
+            containerFactory = "stringKafkaListenerContainerFactory",
+            concurrency = "${kafka.topics.match-request.partitions:6}"
     )
     public void consumeMatchRequest(String stockCode, Acknowledgment ack) {
         try {
             log.info("[Kafka] Received match.request for stockCode: {}", stockCode);
-            tradeService.matchWithLock(stockCode);
+            matchingScheduler.requestMatch(stockCode); // 종목 담당 워커에 위임 (락 없이 single writer)
 
         } catch (Exception e) {
             ack.acknowledge();
@@ -1,23 +1,32 @@
 package com.portfolio2025.first.consumer;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.portfolio2025.first.OrderValidator;
 import com.portfolio2025.first.RedisRegister;
 import com.portfolio2025.first.domain.Order;
 import com.portfolio2025.first.domain.order.OrderType;
 import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
 import com.portfolio2025.first.dto.event.OrderCreatedEvent;
+import com.portfolio2025.first.exception.OrderBookPushException;
 import com.portfolio2025.first.service.KafkaDlqService;
 import com.portfolio2025.first.service.KafkaProducerService;
-import com.portfolio2025.first.service.RedisStockOrderService;
-import jakarta.annotation.PostConstruct;
+import com.portfolio2025.first.service.OrderBookStore;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
 
 /**
@@ -26,8 +35,33 @@ import org.springframework.stereotype.Component;
  * [07.30]
  * (추가) publishInvalidMessage - 역직렬화 실패를 대비한 재처리 담당한 메서드 호출
  * (추가) initStrategyMap - 초기화 전 미리 주입하면 의존성 문제 발생으로 PostConstruct 활용..
+ * [08.01]
+ * (추가) 메모리 호가창 사용 시 Redis 대신 OrderBookEngine 에 주문 반영
+ * [08.13]
+ * (수정) 주문 타입별 push 전략 맵 제거 - OrderBookStore.push(orderType, dto) 하나로 memory / redis 공통 처리
+ * [08.16]
+ * (추가) consumeOrderCreatedBatch - poll 한 번의 레코드를 묶어서 처리 (kafka.consumer.order-created.batch, 기본 true)
+ *       주문 조회 IN 쿼리 1번 / Redis 중복 확인 MGET 1번 / 호가창 적재 1번(Redis 는 파이프라인) / 처리 완료 등록 파이프라인 1번
+ *       체결 트리거는 묶음 안의 종목마다 한 번만 발행, ack 도 묶음 끝에 한 번
+ *       파싱 / 조회 / 검증 실패는 해당 레코드만 DLQ 로 보내고 나머지는 계속 처리
+ *       false 면 기존 레코드 단위 리스너(consumeOrderCreated)가 대신 시작됨
+ * [08.17]
+ * (수정) 이벤트에 stockOrders 가 있으면 DB 조회 없이 이벤트 값으로 바로 호가창 적재 - 주문 조회 / 재시도 대기 제거
+ *       stockOrders 가 없는 이전 형식 이벤트만 기존처럼 findOrdersWithRetry 로 조회
+ * (수정) consumeOrderCreated 도 processBatch 로 처리 (레코드 1건짜리 묶음) - 두 리스너의 처리 규칙을 하나로 유지
+ * [08.18]
+ * (수정) String + ObjectMapper 파싱 -> EventDeserializer 가 poll 시점에 OrderCreatedEvent 로 읽어서 전달 (바이너리 / JSON)
+ *       역직렬화 실패 레코드는 value == null + 예외 헤더로 들어옴 -> 원본 byte 를 DLQ 로 (레코드 리스너는 컨테이너 에러 핸들러가 처리)
+ *       처리 실패 시 DLQ 에는 이벤트 객체를 넘김 (KafkaDlqService 가 JSON 으로 남김)
+ * [08.19]
+ * (추가) concurrency = order.created 파티션 수 - 파티션마다 컨슈머 스레드 하나 (key = stockCode 라서 종목 단위 순서 유지)
+ * [08.25]
+ * (수정) 호가창 적재가 일부 종목만 실패하면(OrderBookPushException) 그 종목 행이 속한 주문만 DLQ - 나머지는 처리 완료 / 체결 트리거
+ *       처리 완료 등록 / 체결 트리거 실패는 DLQ 로 보내지 않고 로그만 - 이미 호가창에 있는 주문을 DLQ 재처리로 다시 적재하지 않도록
  * [고민]
  * 재시도 + DLQ + Idempotency 방지하는 설계로 진행하기
+ * Redis 호가창은 묶음 전체가 파이프라인 한 번이라 실패하면 어느 행까지 반영됐는지 알 수 없음 -> 묶음 전체 DLQ (재적재는 덮어쓰기)
+ * 처리 완료 등록이 빠진 주문은 같은 이벤트가 다시 오면 한 번 더 적재됨 (호가창 push 는 같은 stockOrderId 를 덮어쓰거나 무시)
  *
  */
 @Component
@@ -35,90 +69,192 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class OrderRequestConsumer {
 
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(OrderRequestConsumer.class);
+
     private final KafkaProducerService kafkaProducerService;
-    private final ObjectMapper objectMapper;
     private final OrderValidator orderValidator;
     private final RedisRegister redisRegister;
     private final KafkaDlqService kafkaDlqService;
-    private final RedisStockOrderService redisStockOrderService;
-
-    private Map<OrderType, Consumer<StockOrder>> redisPushStrategy;
-
-    @PostConstruct
-    public void initStrategyMap() {
-        redisPushStrategy = Map.of(
-                OrderType.BUY, redisStockOrderService::pushBuyOrder,
-                OrderType.SELL, redisStockOrderService::pushSellOrder
-        );
-    }
+    private final OrderBookStore orderBookStore;
 
     @KafkaListener(
             topics = "order.created",
             groupId = "order-prepare-group",
-            containerFactory = "stringKafkaListenerContainerFactory"
+            containerFactory = "eventKafkaListenerContainerFactory",
+            concurrency = "${kafka.topics.order-created.partitions:6}",
+            autoStartup = "#{!${kafka.consumer.order-created.batch:true}}"
     )
-    public void consumeOrderCreated(String message, Acknowledgment ack) throws InterruptedException {
-        log.info("🟢 Kafka Received: {}", message);
-
-        OrderCreatedEvent event = parseEvent(message, ack);
-        if (event == null) return;
-
-        Order order = fetchAndValidateOrder(event, message, ack);
-        if (order == null) return;
-
+    public void consumeOrderCreated(OrderCreatedEvent event, Acknowledgment ack) {
+        log.info("🟢 Kafka Received: {}", event);
         try {
-            processOrder(order, event);
-            redisRegister.markProcessed(order);
-        } catch (Exception e) {
-            kafkaDlqService.sendProcessingError("order.created", message, e);
-            log.error("❌ 주문 처리 중 예외 발생 → DLQ 전송", e);
+            processBatch(List.of(event));
         } finally {
             ack.acknowledge();
         }
     }
 
-    private OrderCreatedEvent parseEvent(String message, Acknowledgment ack) {
+    @KafkaListener(
+            topics = "order.created",
+            groupId = "order-prepare-group",
+            containerFactory = "batchEventKafkaListenerContainerFactory",
+            concurrency = "${kafka.topics.order-created.partitions:6}",
+            autoStartup = "${kafka.consumer.order-created.batch:true}"
+    )
+    public void consumeOrderCreatedBatch(List<ConsumerRecord<String, Object>> records, Acknowledgment ack) {
+        log.info("🟢 Kafka Received batch: {}건", records.size());
         try {
-            OrderCreatedEvent event = objectMapper.readValue(message, OrderCreatedEvent.class);
-            log.info("🟢 Parsed OrderCreatedEvent: {}", event);
-            return event;
-        } catch (JsonProcessingException e) {
-            kafkaDlqService.sendParseError("order.created", message, e);
-            log.error("❌ JSON 파싱 실패 → DLQ 전송", e);
+            processBatch(readEvents(records));
+        } finally {
             ack.acknowledge();
-            return null;
         }
     }
 
-    private Order fetchAndValidateOrder(OrderCreatedEvent event, String message, Acknowledgment ack) {
-        try {
-            Order order = orderValidator.findOrderWithRetry(event.getOrderId());
-            if (redisRegister.isAlreadyProcessed(order)) {
-                log.warn("🔁 Already processed orderId={}", order.getId());
-                ack.acknowledge();
-                return null;
+    /** 묶음 처리 - 레코드별 실패는 DLQ, 호가창 적재 실패는 적재되지 않은 행이 속한 주문만 DLQ **/
+    void processBatch(List<OrderCreatedEvent> received) {
+        // orderId 기준 중복 제거 (같은 묶음에 같은 주문이 두 번 온 경우)
+        Map<Long, OrderCreatedEvent> events = new LinkedHashMap<>();
+        for (OrderCreatedEvent event : received) {
+            events.putIfAbsent(event.getOrderId(), event);
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Set<Long> processed = redisRegister.findProcessed(events.keySet());
+        if (!processed.isEmpty()) {
+            log.warn("🔁 Already processed orderIds={}", processed);
+            events.keySet().removeAll(processed);
+        }
+
+        // stockOrders 가 없는 이전 형식 이벤트만 DB 에서 다시 조회
+        List<Long> legacyOrderIds = events.values().stream()
+                .filter(event -> !event.isSelfContained())
+                .map(OrderCreatedEvent::getOrderId)
+                .toList();
+        Map<Long, Order> orders = Map.of();
+        if (!legacyOrderIds.isEmpty()) {
+            try {
+                orders = orderValidator.findOrdersWithRetry(legacyOrderIds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                legacyOrderIds.forEach(orderId ->
+                        kafkaDlqService.sendProcessingError("order.created", events.get(orderId), e));
+                legacyOrderIds.forEach(events::remove);
+            }
+        }
+
+        List<RestingStockOrderDTO> rows = new ArrayList<>();
+        Map<Long, Long> orderIdByStockOrderId = new HashMap<>();
+        List<Long> acceptedOrderIds = new ArrayList<>();
+        for (OrderCreatedEvent event : events.values()) {
+            Order order = orders.get(event.getOrderId());
+            if (!event.isSelfContained() && order == null) {
+                kafkaDlqService.sendProcessingError("order.created", event,
+                        new IllegalStateException("❌ Order not found after retries: orderId=" + event.getOrderId()));
+                continue;
+            }
+            try {
+                List<RestingStockOrderDTO> eventRows = event.isSelfContained()
+                        ? toRows(event) : toRows(order, OrderType.valueOf(event.getOrderType()));
+                eventRows.forEach(row -> orderIdByStockOrderId.put(row.getId(), event.getOrderId()));
+                rows.addAll(eventRows);
+                acceptedOrderIds.add(event.getOrderId());
+            } catch (Exception e) {
+                kafkaDlqService.sendProcessingError("order.created", event, e);
+                log.error("❌ 주문 검증 실패 → DLQ 전송: orderId={}", event.getOrderId(), e);
             }
-            return order;
+        }
+        if (acceptedOrderIds.isEmpty()) {
+            return;
+        }
+
+        Set<Long> failedOrderIds = pushRows(rows, orderIdByStockOrderId, acceptedOrderIds, events);
+        List<Long> pushedOrderIds = acceptedOrderIds.stream()
+                .filter(orderId -> !failedOrderIds.contains(orderId))
+                .toList();
+        if (pushedOrderIds.isEmpty()) {
+            return;
+        }
+
+        // 여기부터는 이미 호가창에 있는 주문 - 실패해도 DLQ 로 보내지 않음
+        try {
+            redisRegister.markProcessedAll(pushedOrderIds);
         } catch (Exception e) {
-            kafkaDlqService.sendProcessingError("order.created", message, e);
-            log.error("❌ 주문 조회 실패 → DLQ 전송", e);
-            ack.acknowledge();
-            return null;
+            log.error("❌ 처리 완료 등록 실패 (호가창 적재는 완료): orderIds={}", pushedOrderIds, e);
+        }
+        Set<String> stockCodes = new LinkedHashSet<>();
+        for (RestingStockOrderDTO row : rows) {
+            if (!failedOrderIds.contains(orderIdByStockOrderId.get(row.getId()))) {
+                stockCodes.add(row.getStockCode());
+            }
+        }
+        for (String stockCode : stockCodes) {
+            try {
+                kafkaProducerService.publishMatchRequest(stockCode);
+            } catch (Exception e) {
+                log.error("❌ 체결 트리거 발행 실패: stockCode={}", stockCode, e);
+            }
         }
     }
 
-    private void processOrder(Order order, OrderCreatedEvent event) {
-        OrderType orderType = OrderType.valueOf(event.getOrderType());
-        Consumer<StockOrder> redisPusher = redisPushStrategy.get(orderType);
+    /** 호가창 적재 - 적재하지 못한 행이 속한 주문은 DLQ 로 보내고 그 orderId 를 돌려줌 **/
+    private Set<Long> pushRows(List<RestingStockOrderDTO> rows, Map<Long, Long> orderIdByStockOrderId,
+                               List<Long> acceptedOrderIds, Map<Long, OrderCreatedEvent> events) {
+        Set<Long> failedOrderIds = new LinkedHashSet<>();
+        Exception cause = null;
+        try {
+            orderBookStore.pushAll(rows);
+        } catch (OrderBookPushException e) {
+            e.getFailedRows().forEach(row -> failedOrderIds.add(orderIdByStockOrderId.get(row.getId())));
+            cause = e;
+        } catch (Exception e) {
+            failedOrderIds.addAll(acceptedOrderIds);
+            cause = e;
+        }
 
-        if (redisPusher == null) {
-            throw new IllegalArgumentException("❌ 지원하지 않는 주문 타입: " + orderType);
+        if (cause != null) {
+            log.error("❌ 호가창 적재 실패 → DLQ 전송 ({}/{}건)", failedOrderIds.size(), acceptedOrderIds.size(), cause);
+            for (Long orderId : failedOrderIds) {
+                kafkaDlqService.sendProcessingError("order.created", events.get(orderId), cause);
+            }
         }
+        return failedOrderIds;
+    }
 
+    private List<RestingStockOrderDTO> toRows(OrderCreatedEvent event) {
+        List<RestingStockOrderDTO> rows = event.toRows();
+        rows.forEach(orderValidator::validate);
+        return rows;
+    }
+
+    private List<RestingStockOrderDTO> toRows(Order order, OrderType orderType) {
+        List<RestingStockOrderDTO> rows = new ArrayList<>(order.getStockOrders().size());
         for (StockOrder stockOrder : order.getStockOrders()) {
             orderValidator.validate(stockOrder);
-            redisPusher.accept(stockOrder);
-            kafkaProducerService.publishMatchRequest(event.getStockCode());
+            rows.add(RestingStockOrderDTO.of(orderType, StockOrderRedisDTO.from(stockOrder)));
+        }
+        return rows;
+    }
+
+    /** 역직렬화 실패(value == null) 레코드는 원본 byte 를 DLQ 로 보내고 제외 **/
+    private List<OrderCreatedEvent> readEvents(List<ConsumerRecord<String, Object>> records) {
+        List<OrderCreatedEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() instanceof OrderCreatedEvent event) {
+                events.add(event);
+                continue;
+            }
+
+            DeserializationException e = SerializationUtils.getExceptionFromHeader(record,
+                    SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+            if (e != null) {
+                kafkaDlqService.sendParseError("order.created", e.getData(), e);
+            } else {
+                kafkaDlqService.sendParseError("order.created", record.value(),
+                        new IllegalArgumentException("OrderCreatedEvent 가 아닌 레코드입니다: offset=" + record.offset()));
+            }
+            log.error("❌ 이벤트 역직렬화 실패 → DLQ 전송: partition={}, offset={}", record.partition(), record.offset(), e);
         }
+        return events;
     }
 }
@@ -1,47 +1,40 @@
 package com.portfolio2025.first.consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.portfolio2025.first.dto.event.TradeSavedEvent;
-import com.portfolio2025.first.service.RedisStockOrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
+/**
+ * trade.synced 알림 수신 TradeSyncConsumer
+ * [08.08]
+ * (수정) 잔여 수량을 호가창에 다시 push 하던 역할 제거 - 체결 시점에 호가창(Redis / 메모리)에서 제자리로 차감됨
+ *       이제는 체결 완료 알림 용도 (후속 처리 - 알림, 통계 등)
+ * [08.18]
+ * (수정) EventDeserializer 가 읽은 TradeSavedEvent 를 바로 받음 (바이너리 / JSON) - 역직렬화 실패는 컨테이너 에러 핸들러가 DLQ 로
+ * [08.19]
+ * (추가) concurrency = trade.synced 파티션 수 (key = stockCode)
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TradeSyncConsumer {
-    private final ObjectMapper objectMapper;
-    private final RedisStockOrderService redisStockOrderService;
 
     @KafkaListener(
             topics = "trade.synced",
             groupId = "redis-sync",
-            containerFactory = "stringKafkaListenerContainerFactory"
+            containerFactory = "eventKafkaListenerContainerFactory",
+            concurrency = "${kafka.topics.trade-synced.partitions:3}"
     )
-    public void consumeTradeSynced(String message, Acknowledgment ack) {
+    public void consumeTradeSynced(TradeSavedEvent event, Acknowledgment ack) {
         try {
-            TradeSavedEvent event = objectMapper.readValue(message, TradeSavedEvent.class);
-
-            // tradeId 로 조회해서 DB에 성공적으로 반영되었는지 확인하기 (정합성) - 비동기로 처리할 때 주의할 점임
             log.info("[Kafka] trade.synced 수신 - tradeId: {}", event.getTradeId());
-
-            if (event.getBuyDTO() != null && event.getBuyDTO().hasQuantity()) {
-                redisStockOrderService.pushBuyOrderDTO(event.getBuyDTO());
-            }
-
-            if (event.getSellDTO() != null && event.getSellDTO().hasQuantity()) {
-                redisStockOrderService.pushSellOrderDTO(event.getSellDTO());
-            }
-
         } catch (Exception e) {
             log.error("[Kafka] trade.synced 처리 실패: {}", e.getMessage(), e);
-            // 필요시 DLQ로 전송
         } finally {
             ack.acknowledge();
-            log.info("✅ Kafka offset manually committed");
         }
     }
 }
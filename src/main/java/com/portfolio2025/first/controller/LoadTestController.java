@@ -0,0 +1,36 @@
+package com.portfolio2025.first.controller;
+
+import com.portfolio2025.first.dto.LoadTestReportDTO;
+import com.portfolio2025.first.dto.LoadTestRequestDTO;
+import com.portfolio2025.first.loadgen.LoadGenerator;
+import com.portfolio2025.first.loadgen.LoadTestFixture;
+import com.portfolio2025.first.loadgen.LoadTestSeeder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 부하 테스트 실행 API LoadTestController
+ * [08.12]
+ * (추가) TestOrderController 대체 - 사용자 / 종목 시드 생성 후 LoadGenerator 로 주문을 넣고 결과를 반환
+ *       운영 DB 에 시드가 쌓이지 않도록 loadgen.enabled=true 일 때만 등록
+ */
+@RestController
+@RequestMapping("/load-test")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "loadgen.enabled", havingValue = "true")
+public class LoadTestController {
+
+    private final LoadTestSeeder loadTestSeeder;
+    private final LoadGenerator loadGenerator;
+
+    @PostMapping
+    public LoadTestReportDTO run(@RequestBody(required = false) LoadTestRequestDTO request) {
+        LoadTestRequestDTO loadTestRequest = request != null ? request : new LoadTestRequestDTO();
+        LoadTestFixture fixture = loadTestSeeder.seed(loadTestRequest);
+        return loadGenerator.run(loadTestRequest, fixture);
+    }
+}
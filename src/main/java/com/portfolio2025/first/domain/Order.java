@@ -1,6 +1,7 @@
 package com.portfolio2025.first.domain;
 
 
+import com.portfolio2025.first.domain.id.TsidId;
 import com.portfolio2025.first.domain.order.OrderStatus;
 import com.portfolio2025.first.domain.order.OrderType;
 import com.portfolio2025.first.domain.stock.StockOrder;
@@ -14,8 +15,6 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -33,6 +32,8 @@ import lombok.NoArgsConstructor;
  * 매수 Or 매도 주문 StockOrder의 상위 정보를 관리하는 Order
  * [07.26]
  * (수정) createSingleOrder -> BuyOrder 네이밍 수정함
+ * [08.22]
+ * (수정) id 생성 IDENTITY -> TSID(@TsidId) - persist 시 즉시 INSERT 하지 않고 flush 때 batch_size 단위로 묶어서 전송
  *
  * [고민]
  * 1. CREATED, PROCESSING 상태를 명확하게 구분할 수 있어야 함
@@ -44,7 +45,7 @@ import lombok.NoArgsConstructor;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TsidId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
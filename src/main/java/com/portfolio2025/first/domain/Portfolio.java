@@ -17,6 +17,7 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +31,12 @@ import lombok.NoArgsConstructor;
  * [07.26]
  * (수정) releaseAndDeductCash 내 차감은 진행하지 않음, 추가로 naming 수정함
  * (수정) 객체 생성 시 필요없는 인자 부분 제외
+ * [08.23]
+ * (추가) @Version - 주문 접수(현금 예약) / 체결 정산 / 계좌 이체가 같은 포트폴리오를 동시에 수정하면 늦게 커밋한 쪽이 실패 후 재시도
+ *       비관적 락(SELECT ... FOR UPDATE) 없이 읽기 때문에 한 사용자의 주문과 체결이 행 락에서 줄 서지 않음
+ * [08.24]
+ * (수정) availableCash / reservedCash 는 원장 스냅샷 - 주문 예약 / 체결 / 이체는 ledger_entries 에 행을 추가하고 이 행은 수정하지 않음
+ *       현재 잔액 = 스냅샷 + 압축 전 원장 합계 (LedgerService), 스냅샷은 LedgerCompactor 만 갱신 (applyLedgerSnapshot)
  *
  * [고민]
  * 1. 매수 주문을 넣을 때 실제 사용 금액을 차감하고 진행할지 혹은 체결되고 난 이후에 차감을 해야 하는지를 고민함.
@@ -44,6 +51,9 @@ public class Portfolio {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user; // 사용자 연관 (다대일)
@@ -79,9 +89,9 @@ public class Portfolio {
         this.portfolioType = portfolioType;
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
-        this.reservedCash = new Money(0L);
-        this.availableCash = new Money(0L);
-        this.portfolioTotalValue = new Money(0L);
+        this.reservedCash = Money.ZERO;
+        this.availableCash = Money.ZERO;
+        this.portfolioTotalValue = Money.ZERO;
     }
 
     public static Portfolio createPortfolio(User user, PortfolioType portfolioType) {
@@ -120,6 +130,13 @@ public class Portfolio {
 //        this.availableCash = this.availableCash.minus(amount);
     }
 
+    /** 원장 압축 - 압축된 원장 행의 합계를 스냅샷에 더함 **/
+    public void applyLedgerSnapshot(long availableDelta, long reservedDelta) {
+        this.availableCash = new Money(Money.addExact(availableCash.getMoneyValue(), availableDelta));
+        this.reservedCash = new Money(Money.addExact(reservedCash.getMoneyValue(), reservedDelta));
+        this.updatedAt = LocalDateTime.now();
+    }
+
     // 매칭에 실패한 경우 -> Batch로 처리하는 방식도 생각해봐야 함
     public void cancelReservation(Money amount) {
         this.reservedCash = this.reservedCash.minus(amount);
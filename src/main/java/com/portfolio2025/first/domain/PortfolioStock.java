@@ -1,5 +1,6 @@
 package com.portfolio2025.first.domain;
 
+import com.portfolio2025.first.domain.id.TsidId;
 import com.portfolio2025.first.domain.stock.Stock;
 import com.portfolio2025.first.domain.vo.Money;
 import com.portfolio2025.first.domain.vo.Quantity;
@@ -8,12 +9,11 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -24,6 +24,16 @@ import lombok.NoArgsConstructor;
  * 구체적인 체결 내역을 관리하는 PortfolioStock
  * [07.26]
  * (수정) addQuantity -> 네이밍 수정 및 내부 메서드 분리 완료
+ * [08.21]
+ * (수정) 평균 단가 계산에 Money.multiplyExact / addExact 사용 - 보유 수량 * 단가가 long 범위를 넘으면 예외
+ * [08.22]
+ * (수정) id 생성 IDENTITY -> TSID(@TsidId) - 첫 매수로 생기는 보유 종목 INSERT 가 체결 묶음의 다른 쓰기와 함께 flush 됨
+ * [08.23]
+ * (추가) @Version - 매도 주문의 수량 예약과 체결 정산의 수량 차감이 겹치면 버전 충돌로 감지
+ * [08.24]
+ * (수정) portfolioQuantity / reservedQuantity 는 원장 스냅샷 - 매도 예약 / 체결 수량은 ledger_entries 에 기록
+ *       체결 정산은 평균 단가만 갱신 (applyBuy 에 원장 기준 보유 수량 전달), 수량 스냅샷은 LedgerCompactor 가 갱신
+ *       수량이 0 이 되어도 행을 지우지 않음 - 압축 전 원장 행이 남아 있을 수 있음
  *
  * [고민]
  */
@@ -34,9 +44,12 @@ import lombok.NoArgsConstructor;
 public class PortfolioStock {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TsidId
     private Long id;
 
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "portfolio_id", nullable = false)
     private Portfolio portfolio; // Portfolio 연결
@@ -66,7 +79,7 @@ public class PortfolioStock {
         this.portfolio = portfolio;
         this.stock = stock;
         this.portfolioQuantity = portfolioQuantity;
-        this.reservedQuantity = new Quantity(0L);
+        this.reservedQuantity = Quantity.ZERO;
         this.portfolioAveragePrice = portfolioAveragePrice;
         this.lastUpdatedAt = lastUpdatedAt;
     }
@@ -89,14 +102,31 @@ public class PortfolioStock {
         this.lastUpdatedAt = LocalDateTime.now();
     }
 
+    /** 원장 기준 매수 반영 - 보유 수량은 원장에 기록되므로 평균 단가만 갱신 **/
+    public void applyBuy(Quantity heldQuantity, Quantity addedQuantity, Money executedPrice) {
+        updateAveragePrice(heldQuantity.getQuantityValue(), addedQuantity, executedPrice);
+        this.lastUpdatedAt = LocalDateTime.now();
+    }
+
+    /** 원장 압축 - 거래 가능 / 예약 수량 증감을 스냅샷에 더함 (보유 수량 = 거래 가능 + 예약) **/
+    public void applyLedgerSnapshot(long availableDelta, long reservedDelta) {
+        long held = Math.addExact(portfolioQuantity.getQuantityValue(), Math.addExact(availableDelta, reservedDelta));
+        this.portfolioQuantity = new Quantity(held);
+        this.reservedQuantity = new Quantity(Math.addExact(reservedQuantity.getQuantityValue(), reservedDelta));
+        this.lastUpdatedAt = LocalDateTime.now();
+    }
+
     private void updateAveragePrice(Quantity addedQuantity, Money executedPrice) {
-        long currentQty = this.portfolioQuantity.getQuantityValue();
+        updateAveragePrice(this.portfolioQuantity.getQuantityValue(), addedQuantity, executedPrice);
+    }
+
+    private void updateAveragePrice(long currentQty, Quantity addedQuantity, Money executedPrice) {
         long newQty = addedQuantity.getQuantityValue();
 
-        long currentTotal = this.portfolioAveragePrice.getMoneyValue() * currentQty;
-        long newTotal = executedPrice.getMoneyValue() * newQty;
+        long currentTotal = Money.multiplyExact(this.portfolioAveragePrice.getMoneyValue(), currentQty);
+        long newTotal = Money.multiplyExact(executedPrice.getMoneyValue(), newQty);
 
-        long updatedAverage = (currentTotal + newTotal) / (currentQty + newQty);
+        long updatedAverage = Money.addExact(currentTotal, newTotal) / (currentQty + newQty);
         this.portfolioAveragePrice = new Money(updatedAverage);
     }
 
@@ -0,0 +1,59 @@
+package com.portfolio2025.first.domain;
+
+import com.portfolio2025.first.domain.stock.Stock;
+import com.portfolio2025.first.domain.stock.StockOrder;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 여러 MatchingPair 를 한 트랜잭션에서 체결할 때 미리 조회해 둔 엔티티 묶음 SettlementBatch
+ * [08.03]
+ * (추가) 주문 / 보유 주식 / 기존 체결 이력을 IN 쿼리로 한 번에 조회하고, 체결은 메모리에서 순서대로 반영
+ * [08.21]
+ * (추가) 포트폴리오 현금 증감은 pair 마다 Money 를 만들지 않고 long 으로 모았다가 applyCashChanges 에서 한 번에 반영
+ *       매수자 - 예약 현금 차감(체결 금액), 매도자 - 거래 가능 현금 증가(체결 금액)
+ * [08.24]
+ * (삭제) 현금 증감 누적(applyCashChanges) / 보유 종목 삭제 - 현금과 수량 증감은 체결마다 원장에 기록 (LedgerService)
+ *       포트폴리오 행을 수정하지 않으므로 모아서 한 번에 반영할 이유가 없음
+ *
+ * [고민]
+ * 1. 한 배치 안에서 같은 주문이 여러 pair 에 등장할 수 있음 - 같은 엔티티 객체에 순서대로 누적 반영
+ */
+@RequiredArgsConstructor
+public class SettlementBatch {
+    private final Map<Long, StockOrder> stockOrders; // stockOrderId -> StockOrder
+    private final Map<String, PortfolioStock> positions; // portfolioId:stockId -> PortfolioStock
+    private final Set<String> tradedPairKeys; // 이미 체결된 buyOrderId:sellOrderId
+
+    private final Set<String> settledPairKeys = new HashSet<>();
+
+    public Optional<StockOrder> findStockOrder(Long stockOrderId) {
+        return Optional.ofNullable(stockOrders.get(stockOrderId));
+    }
+
+    public Optional<PortfolioStock> findPosition(Portfolio portfolio, Stock stock) {
+        return Optional.ofNullable(positions.get(positionKey(portfolio.getId(), stock.getId())));
+    }
+
+    public void addPosition(PortfolioStock portfolioStock) {
+        positions.put(positionKey(portfolioStock.getPortfolio().getId(), portfolioStock.getStock().getId()),
+                portfolioStock);
+    }
+
+    /** 멱등성 체크 - DB 에 이미 있거나 같은 배치에서 이미 처리한 pair **/
+    public boolean isAlreadyTraded(Long buyOrderId, Long sellOrderId) {
+        String key = pairKey(buyOrderId, sellOrderId);
+        return tradedPairKeys.contains(key) || !settledPairKeys.add(key);
+    }
+
+    public static String positionKey(Long portfolioId, Long stockId) {
+        return portfolioId + ":" + stockId;
+    }
+
+    public static String pairKey(Long buyOrderId, Long sellOrderId) {
+        return buyOrderId + ":" + sellOrderId;
+    }
+}
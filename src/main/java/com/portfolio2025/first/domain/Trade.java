@@ -1,5 +1,6 @@
 package com.portfolio2025.first.domain;
 
+import com.portfolio2025.first.domain.id.TsidId;
 import com.portfolio2025.first.domain.stock.Stock;
 import com.portfolio2025.first.domain.stock.StockOrder;
 import com.portfolio2025.first.domain.vo.Money;
@@ -9,8 +10,6 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -26,6 +25,10 @@ import lombok.NoArgsConstructor;
  * 체결 이력을 관리하는 Trade
  * [07.26]
  * (수정)
+ * [08.21]
+ * (수정) tradeAmount = tradePrice.multiply(tradeQuantity) - 곱셈 범위 초과 검사
+ * [08.22]
+ * (수정) id 생성 IDENTITY -> TSID(@TsidId) - 체결 묶음의 trade INSERT 를 한 번의 배치로 전송
  *
  * [고민]
  *
@@ -38,7 +41,7 @@ import lombok.NoArgsConstructor;
 })
 public class Trade {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TsidId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -90,7 +93,7 @@ public class Trade {
                 .updatedAt(tradedAt)
                 .build();
 
-        trade.tradeAmount = new Money(tradePrice.getMoneyValue() * tradeQuantity.getQuantityValue());
+        trade.tradeAmount = tradePrice.multiply(tradeQuantity); // long 범위 초과 시 예외
         return trade;
     }
 
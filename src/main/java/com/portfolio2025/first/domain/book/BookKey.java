@@ -0,0 +1,22 @@
+package com.portfolio2025.first.domain.book;
+
+import java.util.Comparator;
+
+/**
+ * 호가창 한쪽(bids / asks) 전체를 하나의 정렬 맵으로 관리하기 위한 키 BookKey
+ * [08.13]
+ * (추가) PriceLevel(가격 -> 주문 목록) 2단 구조 대체 - 빈 가격대 삭제와 주문 추가가 경합하면 주문이 유실될 수 있어서
+ *       (가격, PriorityKey) 하나의 키로 ConcurrentSkipListMap 에 바로 넣음 - 첫 원소가 최우선 주문
+ */
+public record BookKey(long price, PriorityKey priorityKey) {
+
+    /** 매수 - 높은 가격 우선, 같은 가격이면 PriorityKey 순 **/
+    public static final Comparator<BookKey> BID_ORDER = Comparator
+            .comparingLong(BookKey::price).reversed()
+            .thenComparing(BookKey::priorityKey);
+
+    /** 매도 - 낮은 가격 우선, 같은 가격이면 PriorityKey 순 **/
+    public static final Comparator<BookKey> ASK_ORDER = Comparator
+            .comparingLong(BookKey::price)
+            .thenComparing(BookKey::priorityKey);
+}
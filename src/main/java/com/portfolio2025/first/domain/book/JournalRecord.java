@@ -0,0 +1,56 @@
+package com.portfolio2025.first.domain.book;
+
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 체결 저널(MatchingJournal)에 기록되는 호가창 변경 한 건 JournalRecord
+ * [08.09]
+ * (추가) ACCEPT - 주문 접수 (quantity = 잔여 수량)
+ *       FILL - 체결 후보로 차감 (quantity = 체결 수량)
+ *       CANCEL - 취소 (quantity 사용 안 함)
+ *       RESTORE - DB 반영 실패로 체결 수량 복구 (quantity = 복구 수량)
+ *
+ * [고민]
+ * 1. 모든 레코드가 주문 정보 전체를 가지고 있어서, 순서대로 적용만 하면 호가창이 그대로 재구성됨
+ */
+public record JournalRecord(Type type, OrderType orderType, String stockCode, long stockOrderId,
+                            long price, long quantity, long createdMillis) {
+
+    public enum Type {
+        ACCEPT(1), FILL(2), CANCEL(3), RESTORE(4);
+
+        private final byte code;
+
+        Type(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte code() {
+            return code;
+        }
+
+        public static Type of(byte code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("알 수 없는 저널 레코드 타입입니다. code=" + code);
+        }
+    }
+
+    public static JournalRecord of(Type type, OrderType orderType, StockOrderRedisDTO dto, long quantity) {
+        return new JournalRecord(type, orderType, dto.getStockCode(), dto.getId(), dto.getRequestedPrice(), quantity,
+                dto.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli());
+    }
+
+    /** quantity 를 잔여 수량으로 담은 주문 스냅샷 **/
+    public StockOrderRedisDTO toDTO() {
+        return new StockOrderRedisDTO(stockOrderId, stockCode, price, quantity,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(createdMillis), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,244 @@
+package com.portfolio2025.first.domain.book;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import lombok.Getter;
+
+/**
+ * 종목 하나에 대한 메모리 호가창 OrderBook
+ * 매수는 높은 가격 우선, 매도는 낮은 가격 우선 - 같은 가격 안에서는 PriorityKey(주문 시각 + sequence) 우선
+ * [08.01]
+ * (추가) matchCrossing - 교차하는 가격대를 한 번에 훑으면서 MatchingPair 목록 생성 (Redis pop/push 왕복 제거)
+ * [08.06]
+ * (추가) stockOrderId -> RestingOrder 인덱스 - 취소 / 정정 / 부분 체결 갱신을 가격대 스캔 없이 ID 로 바로 처리
+ * [08.09]
+ * (추가) fill / restoreOrder - 체결 저널 재생 시 기록된 변경을 ID 기준으로 그대로 다시 적용
+ * [08.13]
+ * (수정) 종목 락(synchronized) 제거 - lock-free 구조로 변경
+ *       bids / asks 는 BookKey(가격 + PriorityKey) 정렬 ConcurrentSkipListMap, 인덱스는 ConcurrentHashMap
+ *       잔여 수량은 RestingOrder 의 CAS 로만 변경 - 접수 / 취소(아무 스레드)와 체결(종목 워커)이 서로 막지 않음
+ *       닫힌(CLOSED) 주문은 발견한 쪽이 맵에서 지움 (조건부 remove 라서 새로 넣은 같은 키의 주문은 지워지지 않음)
+ * [08.25]
+ * (수정) 전량 체결된 주문을 닫는 것은 체결 워커(matchCrossing / restore / 저널 재생)만 - peek / isEmpty 는 건너뛰기만 함
+ *       다른 스레드가 잔여 수량 0 인 순간의 주문을 닫으면 워커가 되돌린(refill) 수량이 사라짐
+ * (수정) matchCrossing 은 매수 / 매도 주문에 체결 중 표시(beginMatch) 후 차감 - 그동안 취소 / 정정은 실패(호출한 쪽에서 재시도)
+ *       매도 차감 실패 시 매수 되돌리기는 항상 성공해야 함 - 실패하면 IllegalStateException
+ * (추가) apply - 저널 레코드 적용을 OrderBookEngine 에서 이동 (저널 재생 / 저널 스냅샷이 같은 규칙 사용)
+ * (추가) forEachLive - 살아 있는 주문 순회 (저널 스냅샷에서 ACCEPT 로 다시 기록)
+ *
+ * [고민]
+ * 1. matchCrossing / restore 는 종목당 한 스레드에서만 호출 (MatchingScheduler) - 체결 워커끼리는 경합하지 않음
+ * 2. depth 는 살아 있는 주문만 세므로 O(n) - 모니터링 용도로만 사용
+ */
+@Getter
+public class OrderBook {
+    private final String stockCode;
+    private final NavigableMap<BookKey, RestingOrder> bids = new ConcurrentSkipListMap<>(BookKey.BID_ORDER); // 매수 호가
+    private final NavigableMap<BookKey, RestingOrder> asks = new ConcurrentSkipListMap<>(BookKey.ASK_ORDER); // 매도 호가
+    private final Map<Long, RestingOrder> index = new ConcurrentHashMap<>(); // stockOrderId -> RestingOrder
+
+    public OrderBook(String stockCode) {
+        this.stockCode = stockCode;
+    }
+
+    public void add(OrderType orderType, StockOrderRedisDTO dto) {
+        if (!dto.hasQuantity()) {
+            return;
+        }
+        insert(new RestingOrder(orderType, dto));
+    }
+
+    public Optional<RestingOrder> find(Long stockOrderId) {
+        return Optional.ofNullable(index.get(stockOrderId)).filter(order -> !order.isClosed());
+    }
+
+    public Optional<RestingOrder> peek(OrderType orderType) {
+        return Optional.ofNullable(liveHead(sideOf(orderType), false));
+    }
+
+    /**
+     * 교차하는 가격대를 순서대로 체결 후보로 만든다.
+     * MatchingPair 에는 체결 직전 스냅샷을 담고, 호가창의 잔여 수량은 제자리에서 차감한다.
+     * 조회 후 차감 전에 취소 / 정정된 주문은 CAS 실패로 건너뛰고 다시 최우선 주문부터 확인한다.
+     */
+    public List<MatchingPair> matchCrossing(int maxPairs) {
+        List<MatchingPair> pairs = new ArrayList<>();
+
+        while (pairs.size() < maxPairs) {
+            RestingOrder buy = liveHead(bids, true);
+            RestingOrder sell = liveHead(asks, true);
+            if (buy == null || sell == null || buy.getPrice() < sell.getPrice()) {
+                break;
+            }
+
+            buy.beginMatch();
+            sell.beginMatch();
+            try {
+                long buyRemain = buy.getRemainQuantity();
+                long sellRemain = sell.getRemainQuantity();
+                long executable = Math.min(buyRemain, sellRemain);
+                if (executable == 0 || !buy.tryFill(buyRemain, executable)) {
+                    continue;
+                }
+                if (!sell.tryFill(sellRemain, executable)) {
+                    // 체결 중 표시 이후에는 매수 주문을 닫을 수 있는 스레드가 없음
+                    if (!buy.refill(executable)) {
+                        throw new IllegalStateException("체결 중인 매수 주문이 닫혀서 수량을 되돌릴 수 없습니다. id="
+                                + buy.getId());
+                    }
+                    continue;
+                }
+
+                pairs.add(new MatchingPair(buy.toDTO(buyRemain), sell.toDTO(sellRemain)));
+                closeIfFilled(buy);
+                closeIfFilled(sell);
+            } finally {
+                buy.endMatch();
+                sell.endMatch();
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * 체결(DB 반영)에 실패한 pair 의 수량을 되돌린다.
+     * 다른 pair 가 같은 주문을 이미 소진했을 수도 있으므로 덮어쓰지 않고 체결 수량만큼 더해준다.
+     */
+    public void restore(MatchingPair pair) {
+        long executable = pair.getExecutableQuantityValue();
+        restoreOrder(OrderType.BUY, pair.getBuyDTO(), executable);
+        restoreOrder(OrderType.SELL, pair.getSellDTO(), executable);
+    }
+
+    /** 특정 주문에 체결 수량 반영 (저널 재생용) - 전량 체결되면 호가창에서 제거, 없는 주문이면 false **/
+    public boolean fill(Long stockOrderId, long quantity) {
+        RestingOrder order = index.get(stockOrderId);
+        if (order == null || order.isClosed()) {
+            return false;
+        }
+        order.fill(quantity);
+        closeIfFilled(order);
+        return true;
+    }
+
+    public boolean cancel(Long stockOrderId) {
+        return close(stockOrderId).isPresent();
+    }
+
+    /** 남은 수량 전체를 가져가면서 호가창에서 제거 - 제거된 주문 스냅샷 반환 **/
+    public Optional<StockOrderRedisDTO> close(Long stockOrderId) {
+        RestingOrder order = index.get(stockOrderId);
+        if (order == null) {
+            return Optional.empty();
+        }
+        long taken = order.close();
+        if (taken == 0) {
+            return Optional.empty();
+        }
+        unlink(order);
+        return Optional.of(order.toDTO(taken));
+    }
+
+    /** 잔여 수량만 변경 - 이전 잔여 수량, 호가창에 없으면 empty **/
+    public Optional<Long> updateQuantity(Long stockOrderId, long remainQuantity) {
+        if (remainQuantity <= 0) {
+            throw new IllegalArgumentException("잔여 수량은 0보다 커야 합니다. 전량 제거는 cancel 사용");
+        }
+        RestingOrder order = index.get(stockOrderId);
+        if (order == null) {
+            return Optional.empty();
+        }
+        long previous = order.updateQuantity(remainQuantity);
+        return previous < 0 ? Optional.empty() : Optional.of(previous);
+    }
+
+    /** 저널 레코드 한 건 적용 - 이미 빠진 주문에 대한 FILL / CANCEL 은 무시 **/
+    public void apply(JournalRecord record) {
+        switch (record.type()) {
+            case ACCEPT -> add(record.orderType(), record.toDTO());
+            case FILL -> fill(record.stockOrderId(), record.quantity());
+            case CANCEL -> cancel(record.stockOrderId());
+            case RESTORE -> restoreOrder(record.orderType(), record.toDTO(), record.quantity());
+        }
+    }
+
+    /** 매수 -> 매도 순서로 살아 있는 주문 전달 (잔여 수량 0 인 체결 중 주문 제외) **/
+    public void forEachLive(Consumer<RestingOrder> consumer) {
+        for (NavigableMap<BookKey, RestingOrder> side : List.of(bids, asks)) {
+            for (RestingOrder order : side.values()) {
+                if (!order.isClosed() && !order.isFilled()) {
+                    consumer.accept(order);
+                }
+            }
+        }
+    }
+
+    public int depth(OrderType orderType) {
+        return (int) sideOf(orderType).values().stream().filter(order -> !order.isClosed()).count();
+    }
+
+    public boolean isEmpty() {
+        return liveHead(bids, false) == null && liveHead(asks, false) == null;
+    }
+
+    /** 호가창에 남아 있으면 수량만 더하고, 이미 빠졌으면 원래 우선순위 자리로 다시 넣는다 **/
+    public void restoreOrder(OrderType orderType, StockOrderRedisDTO dto, long quantity) {
+        RestingOrder resting = index.get(dto.getId());
+        if (resting != null && resting.refill(quantity)) {
+            return;
+        }
+        // PriorityKey 가 그대로이므로 원래 순서 자리로 돌아감 - 닫힌 이전 객체는 덮어씀
+        insert(new RestingOrder(orderType, new StockOrderRedisDTO(
+                dto.getId(), dto.getStockCode(), dto.getRequestedPrice(), quantity, dto.getCreatedAt())));
+    }
+
+    private void insert(RestingOrder order) {
+        index.put(order.getId(), order);
+        sideOf(order.getOrderType()).put(order.getBookKey(), order);
+    }
+
+    /**
+     * 최우선 주문 - 앞에 남아 있는 닫힌 주문은 지우면서 넘어감
+     * 전량 체결된 주문은 체결 워커(closeFilled)만 닫고, 다른 스레드는 건너뛰기만 함
+     */
+    private RestingOrder liveHead(NavigableMap<BookKey, RestingOrder> side, boolean closeFilled) {
+        for (Map.Entry<BookKey, RestingOrder> head : side.entrySet()) {
+            RestingOrder order = head.getValue();
+            if (order.isClosed() || (closeFilled && order.isFilled() && closeIfFilled(order))) {
+                side.remove(head.getKey(), order);
+                continue;
+            }
+            if (order.isFilled()) {
+                continue;
+            }
+            return order;
+        }
+        return null;
+    }
+
+    private boolean closeIfFilled(RestingOrder order) {
+        if (order.closeIfFilled()) {
+            unlink(order);
+            return true;
+        }
+        return false;
+    }
+
+    private void unlink(RestingOrder order) {
+        sideOf(order.getOrderType()).remove(order.getBookKey(), order);
+        index.remove(order.getId(), order);
+    }
+
+    private NavigableMap<BookKey, RestingOrder> sideOf(OrderType orderType) {
+        return orderType == OrderType.BUY ? bids : asks;
+    }
+}
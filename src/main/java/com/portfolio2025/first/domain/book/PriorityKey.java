@@ -0,0 +1,46 @@
+package com.portfolio2025.first.domain.book;
+
+import com.portfolio2025.first.dto.StockOrderRedisCodec;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.ZoneOffset;
+
+/**
+ * 같은 가격 안에서의 시간 우선순위 키 PriorityKey (주문 시각 millis + sequence)
+ * [08.07]
+ * (추가) 기존 score = 가격 * 1e9 ± epoch millis 는 double 정밀도(2^53)를 넘어서 같은 가격 주문의 순서가 뒤섞임
+ *       -> 가격은 ZSET score(정확한 정수 범위), 시간 우선순위는 member 문자열(사전순)로 분리
+ * (추가) toMember - 16자리 hex 두 개를 이어 붙인 고정 길이 문자열이라 사전순 == compareTo 순서
+ *       매수 / 매도 호가, Redis / 메모리 호가창 모두 같은 키를 사용
+ *
+ * [고민]
+ * 1. sequence 는 stockOrderId 사용 - 같은 millis 에 들어온 주문도 저장 순서대로 정렬되고, 재실행해도 순서가 같음
+ * 2. [08.22] stockOrderId 가 TSID 로 바뀜 - 양수 64bit 라 고정 hex 그대로 사용, 같은 서버 안에서는 여전히 저장 순서
+ */
+public record PriorityKey(long timeMillis, long sequence) implements Comparable<PriorityKey> {
+
+    public static final int MEMBER_LENGTH = 32;
+
+    public static PriorityKey of(StockOrderRedisDTO dto) {
+        return new PriorityKey(dto.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli(), dto.getId());
+    }
+
+    public static PriorityKey fromMember(String member) {
+        if (member == null || member.length() != MEMBER_LENGTH) {
+            throw new IllegalArgumentException("호가창 member 형식이 올바르지 않습니다. member=" + member);
+        }
+        return new PriorityKey(
+                Long.parseUnsignedLong(member, 0, 16, 16),
+                Long.parseUnsignedLong(member, 16, MEMBER_LENGTH, 16));
+    }
+
+    /** ZSET member - 같은 score(가격) 안에서는 Redis 가 member 사전순으로 정렬 **/
+    public String toMember() {
+        return StockOrderRedisCodec.fixedHex(timeMillis) + StockOrderRedisCodec.fixedHex(sequence);
+    }
+
+    @Override
+    public int compareTo(PriorityKey other) {
+        int byTime = Long.compare(timeMillis, other.timeMillis);
+        return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,142 @@
+package com.portfolio2025.first.domain.book;
+
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Getter;
+
+/**
+ * 호가창(OrderBook)에 대기 중인 주문 한 건 RestingOrder
+ * [08.01]
+ * (추가) 잔여 수량을 제자리에서 갱신하기 위해 가변 객체로 관리함 - 외부로 나갈 때는 StockOrderRedisDTO 스냅샷으로 변환
+ * [08.06]
+ * (추가) orderType - ID 인덱스만으로 어느 쪽 호가(bids / asks)인지 알 수 있도록 보관
+ * [08.07]
+ * (추가) priorityKey - 같은 가격 안에서의 정렬 기준 (주문 시각 + stockOrderId)
+ * [08.13]
+ * (수정) 잔여 수량 long -> AtomicLong - 락 없이 CAS 로 체결 / 취소 / 복구가 서로 경합해도 한쪽만 성공
+ *       CLOSED(-1) - 호가창에서 빠진 주문 (취소 또는 전량 체결). 닫힌 주문은 다시 열리지 않음
+ * [08.25]
+ * (추가) matching - 체결 워커가 매수 / 매도 수량을 차감하는 동안 표시, 그동안 취소 / 정정은 0(실패)을 반환하고 호출한 쪽이 재시도
+ *       차감 후 되돌리기(refill) 전에 취소가 주문을 닫아서 차감한 수량이 사라지는 일이 없음
+ *
+ * [고민]
+ * 1. 잔여 수량 0 은 체결 워커가 닫기 직전의 잠깐 동안만 존재 (matching 표시 중) - 이 상태에서는 취소 불가
+ */
+@Getter
+public class RestingOrder {
+    private static final long CLOSED = -1L;
+
+    private final Long id; // stockOrderId
+    private final OrderType orderType;
+    private final String stockCode;
+    private final long price;
+    private final LocalDateTime createdAt;
+    private final PriorityKey priorityKey;
+    private final BookKey bookKey;
+    private final AtomicLong remainQuantity;
+    private volatile boolean matching; // 체결 워커가 수량 차감 중
+
+    public RestingOrder(OrderType orderType, StockOrderRedisDTO dto) {
+        this.id = dto.getId();
+        this.orderType = orderType;
+        this.stockCode = dto.getStockCode();
+        this.price = dto.getRequestedPrice();
+        this.createdAt = dto.getCreatedAt();
+        this.priorityKey = PriorityKey.of(dto);
+        this.bookKey = new BookKey(price, priorityKey);
+        this.remainQuantity = new AtomicLong(dto.getRemainQuantity());
+    }
+
+    /** 닫힌 주문은 0 **/
+    public long getRemainQuantity() {
+        return Math.max(0, remainQuantity.get());
+    }
+
+    /** 조회한 잔여 수량(expected)이 그대로일 때만 체결 수량을 차감 - 그 사이 취소 / 정정되었으면 false **/
+    public boolean tryFill(long expected, long quantity) {
+        if (quantity > expected) {
+            throw new IllegalStateException("잔여 수량보다 많이 체결할 수 없습니다. id=" + id);
+        }
+        return remainQuantity.compareAndSet(expected, expected - quantity);
+    }
+
+    /** 저널 재생용 - 현재 잔여 수량에서 차감 **/
+    public void fill(long quantity) {
+        long current = remainQuantity.get();
+        while (current >= 0 && !tryFill(current, quantity)) {
+            current = remainQuantity.get();
+        }
+    }
+
+    /** 체결 수량을 되돌림 - 이미 닫힌 주문이면 false (호출한 쪽에서 새로 넣어야 함) **/
+    public boolean refill(long quantity) {
+        long current;
+        do {
+            current = remainQuantity.get();
+            if (current == CLOSED) {
+                return false;
+            }
+        } while (!remainQuantity.compareAndSet(current, current + quantity));
+        return true;
+    }
+
+    /** 체결 워커 전용 - 차감 / 되돌리기 / 닫기가 끝날 때까지 취소 / 정정을 막음 **/
+    public void beginMatch() {
+        matching = true;
+    }
+
+    public void endMatch() {
+        matching = false;
+    }
+
+    /** 잔여 수량을 변경하고 이전 값을 반환 - 닫혔거나 잔여 수량이 없거나 체결 중이면 -1 **/
+    public long updateQuantity(long quantity) {
+        long current;
+        do {
+            current = remainQuantity.get();
+            if (current <= 0 || matching) {
+                return CLOSED;
+            }
+        } while (!remainQuantity.compareAndSet(current, quantity));
+        return current;
+    }
+
+    /** 남은 수량 전체를 가져가면서 닫음 (취소 / popBest) - 가져간 수량, 닫혔거나 체결 중이면 0 **/
+    public long close() {
+        long current;
+        do {
+            current = remainQuantity.get();
+            if (current <= 0 || matching) {
+                return 0;
+            }
+        } while (!remainQuantity.compareAndSet(current, CLOSED));
+        return current;
+    }
+
+    /** 전량 체결된 주문을 닫음 - 그 사이 복구되었으면 false **/
+    public boolean closeIfFilled() {
+        return remainQuantity.compareAndSet(0, CLOSED);
+    }
+
+    public boolean isFilled() {
+        return remainQuantity.get() == 0;
+    }
+
+    public boolean isClosed() {
+        return remainQuantity.get() == CLOSED;
+    }
+
+    public boolean isMatching() {
+        return matching;
+    }
+
+    public StockOrderRedisDTO toDTO() {
+        return toDTO(getRemainQuantity());
+    }
+
+    public StockOrderRedisDTO toDTO(long quantity) {
+        return new StockOrderRedisDTO(id, stockCode, price, quantity, createdAt);
+    }
+}
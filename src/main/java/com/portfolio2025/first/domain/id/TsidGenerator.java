@@ -0,0 +1,45 @@
+package com.portfolio2025.first.domain.id;
+
+import java.util.EnumSet;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * @TsidId 가 붙은 엔티티의 id 를 persist 시점에 채우는 Hibernate 생성기 TsidGenerator
+ * [08.22]
+ * (추가) Hibernate 가 직접 생성하는 객체라 스프링 빈을 주입받을 수 없음
+ *       -> TsidNodeAllocator 가 노드 번호를 배정한 뒤 install 로 TsidFactory 를 등록
+ * (추가) BeforeExecutionGenerator - INSERT 전에 id 가 정해지므로 Hibernate 가 INSERT 를 flush 까지 미루고 배치로 묶음
+ *
+ * [고민]
+ * 1. 노드 번호 배정 전에 저장하면 예외 - 기본값(노드 0)으로 만들면 여러 서버에서 ID 가 겹칠 수 있음
+ */
+public class TsidGenerator implements BeforeExecutionGenerator {
+
+    private static volatile TsidFactory factory;
+
+    public static void install(TsidFactory tsidFactory) {
+        factory = tsidFactory;
+    }
+
+    public static TsidFactory factory() {
+        TsidFactory current = factory;
+        if (current == null) {
+            throw new IllegalStateException("TSID 노드 번호가 배정되지 않았습니다. (TsidNodeAllocator 초기화 전)");
+        }
+        return current;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return factory().next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,18 @@
+package com.portfolio2025.first.domain.id;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * 엔티티 id 를 TSID(TsidGenerator)로 생성 - @GeneratedValue(strategy = IDENTITY) 대신 사용
+ * [08.22]
+ * (추가) 대량으로 INSERT 되는 Order / StockOrder / Trade / PortfolioStock 에 적용
+ */
+@IdGeneratorType(TsidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TsidId {
+}
@@ -0,0 +1,45 @@
+package com.portfolio2025.first.domain.id;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 서버(프로세스)가 사용 중인 TSID 노드 번호 임대(lease) 정보 TsidNodeLease
+ * [08.22]
+ * (추가) 노드 번호(PK) 하나를 한 서버만 사용 - 먼저 INSERT 한 서버가 가져가고, 같은 번호 INSERT 는 PK 충돌로 실패
+ *       heartbeatAt 이 lease-ttl 보다 오래되면 죽은 서버로 보고 다른 서버가 가져갈 수 있음
+ */
+@Entity
+@Table(name = "tsid_node_leases")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class TsidNodeLease {
+
+    @Id
+    @Column(name = "node_id")
+    private Integer nodeId;
+
+    @Column(nullable = false, length = 100)
+    private String owner; // host:pid:random - 재시작하면 다른 owner
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    public static TsidNodeLease create(int nodeId, String owner, LocalDateTime now) {
+        TsidNodeLease lease = new TsidNodeLease();
+        lease.nodeId = nodeId;
+        lease.owner = owner;
+        lease.heartbeatAt = now;
+        return lease;
+    }
+
+    public boolean isExpired(LocalDateTime expiredBefore) {
+        return heartbeatAt.isBefore(expiredBefore);
+    }
+}
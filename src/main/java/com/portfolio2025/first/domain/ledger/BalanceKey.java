@@ -0,0 +1,28 @@
+package com.portfolio2025.first.domain.ledger;
+
+/**
+ * 원장 잔액 하나를 가리키는 키 BalanceKey (포트폴리오 + 자산 + 구분)
+ * [08.24]
+ * (추가) 자산 번호 0 은 현금, 그 외는 stockId - 현금과 보유 수량을 같은 원장 / 같은 캐시에서 관리
+ */
+public record BalanceKey(long portfolioId, long assetId, LedgerBucket bucket) {
+
+    public static final long CASH_ASSET = 0L;
+
+    public static BalanceKey cash(Long portfolioId, LedgerBucket bucket) {
+        return new BalanceKey(portfolioId, CASH_ASSET, bucket);
+    }
+
+    public static BalanceKey position(Long portfolioId, Long stockId, LedgerBucket bucket) {
+        return new BalanceKey(portfolioId, stockId, bucket);
+    }
+
+    public boolean isCash() {
+        return assetId == CASH_ASSET;
+    }
+
+    /** 음수가 되면 안 되는 잔액 - 캐시에서 차감 시 검증 **/
+    public boolean isGuarded() {
+        return bucket != LedgerBucket.EXTERNAL;
+    }
+}
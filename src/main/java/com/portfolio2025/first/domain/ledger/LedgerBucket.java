@@ -0,0 +1,7 @@
+package com.portfolio2025.first.domain.ledger;
+
+public enum LedgerBucket {
+    AVAILABLE, // 거래 가능 (현금 / 보유 수량)
+    RESERVED, // 주문 접수 시 예약된 금액 / 수량
+    EXTERNAL, // 외부 계좌 입출금의 상대 계정 - 잔액을 검증하지 않음
+}
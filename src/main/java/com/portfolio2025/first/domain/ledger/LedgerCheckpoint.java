@@ -0,0 +1,42 @@
+package com.portfolio2025.first.domain.ledger;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 원장 저널(LedgerJournalFile) 중 DB 에 반영된 위치 LedgerCheckpoint
+ * [08.25]
+ * (추가) flushedRecords - 저널 처음부터 몇 번째 레코드까지 ledger_entries 에 INSERT 했는지
+ *       원장 INSERT 와 같은 트랜잭션에서 갱신 - 재시작 시 이 위치 이후만 다시 INSERT (중복 / 누락 없음)
+ * (추가) 행이 없으면 이 DB 에 한 번도 반영하지 않은 저널 - 다른 DB 에서 남은 저널 파일로 보고 비움
+ */
+@Entity
+@Table(name = "ledger_checkpoints")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(length = 50)
+    private String name; // 저널 이름 (단일 서버 기준 "ledger" 하나)
+
+    @Column(name = "flushed_records", nullable = false)
+    private long flushedRecords;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public static LedgerCheckpoint create(String name, LocalDateTime now) {
+        LedgerCheckpoint checkpoint = new LedgerCheckpoint();
+        checkpoint.name = name;
+        checkpoint.flushedRecords = 0;
+        checkpoint.updatedAt = now;
+        return checkpoint;
+    }
+}
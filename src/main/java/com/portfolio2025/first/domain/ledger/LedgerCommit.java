@@ -0,0 +1,41 @@
+package com.portfolio2025.first.domain.ledger;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 원장을 기록한 트랜잭션이 커밋되었다는 표시 LedgerCommit
+ * [08.25]
+ * (추가) 원장 행은 커밋 전에 저널에만 기록 -> 같은 트랜잭션에서 이 행을 하나 INSERT
+ *       행이 있으면 커밋된 트랜잭션, 없으면 롤백(또는 커밋 전에 서버가 죽음) - 저널 레코드의 txId 로 조회
+ * (추가) 원장 행이 DB 에 반영되면 LedgerWriteBehind 가 같은 트랜잭션에서 삭제
+ *
+ * [고민]
+ * 1. 원장 행(트랜잭션당 2 ~ 수백 행) 대신 트랜잭션당 한 행만 동기 INSERT - 배치 체결처럼 행이 많을수록 이득
+ */
+@Entity
+@Table(name = "ledger_commits")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LedgerCommit {
+
+    @Id
+    @Column(name = "tx_id")
+    private Long txId; // LedgerService 가 트랜잭션마다 발급한 TSID
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public static LedgerCommit create(long txId, LocalDateTime now) {
+        LedgerCommit commit = new LedgerCommit();
+        commit.txId = txId;
+        commit.createdAt = now;
+        return commit;
+    }
+}
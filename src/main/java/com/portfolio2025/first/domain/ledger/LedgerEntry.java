@@ -0,0 +1,87 @@
+package com.portfolio2025.first.domain.ledger;
+
+import com.portfolio2025.first.domain.id.TsidId;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 현금 / 보유 수량 증감 한 줄 LedgerEntry (INSERT 만 하고 수정하지 않음)
+ * [08.24]
+ * (추가) 예약 / 예약 해제 / 체결 / 입출금을 포트폴리오 행 수정 대신 원장 행 추가로 기록 - 행 락 / 버전 충돌이 생기지 않음
+ *       같은 journalId 의 행들은 자산별 합계가 0 (복식 기입) - 한쪽에서 빠진 만큼 다른 쪽에 들어감
+ * (추가) 잔액 = 스냅샷(portfolios / portfolio_stocks 컬럼) + 아직 압축되지 않은 원장 행 합계
+ *
+ * [고민]
+ * 1. 압축(LedgerCompactor)이 스냅샷에 더한 행은 삭제 - 체결 단위 이력은 trade, 주문 단위 이력은 stock_orders 에 남음
+ * 2. FK 없이 id 만 저장 - 원장 쓰기가 포트폴리오 / 종목 엔티티 로딩에 묶이지 않음
+ *
+ * [08.25]
+ * (수정) 커밋 후 원장 저널(LedgerJournalFile)에 먼저 기록하고 LedgerWriteBehind 가 묶음으로 INSERT - id 는 INSERT 시점에 생성
+ */
+@Entity
+@Table(name = "ledger_entries")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LedgerEntry {
+
+    @Id
+    @TsidId
+    private Long id;
+
+    @Column(name = "journal_id", nullable = false)
+    private long journalId; // 함께 기록된 복식 기입 묶음
+
+    @Column(name = "portfolio_id", nullable = false)
+    private long portfolioId;
+
+    @Column(name = "asset_id", nullable = false)
+    private long assetId; // 0 = 현금, 그 외 stockId
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private LedgerBucket bucket;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private LedgerEntryType entryType;
+
+    @Column(nullable = false)
+    private long amount; // 부호 있는 증감 (원 / 주)
+
+    @Column(name = "ref_id")
+    private Long refId; // 체결이면 tradeId
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public static LedgerEntry create(long journalId, BalanceKey key, LedgerEntryType entryType, long amount,
+                                     Long refId, LocalDateTime createdAt) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.journalId = journalId;
+        entry.portfolioId = key.portfolioId();
+        entry.assetId = key.assetId();
+        entry.bucket = key.bucket();
+        entry.entryType = entryType;
+        entry.amount = amount;
+        entry.refId = refId;
+        entry.createdAt = createdAt;
+        return entry;
+    }
+
+    /** 롤백된 INSERT 를 다시 시도할 때 - id 없는 같은 내용의 새 행 **/
+    public LedgerEntry copy() {
+        return create(journalId, balanceKey(), entryType, amount, refId, createdAt);
+    }
+
+    public BalanceKey balanceKey() {
+        return new BalanceKey(portfolioId, assetId, bucket);
+    }
+}
@@ -0,0 +1,8 @@
+package com.portfolio2025.first.domain.ledger;
+
+public enum LedgerEntryType {
+    RESERVE, // 거래 가능 -> 예약 (주문 접수)
+    RELEASE, // 예약 -> 거래 가능 (예약보다 싸게 체결된 차액 등)
+    DEBIT, // 체결 / 출금으로 빠져나감
+    CREDIT, // 체결 / 입금으로 들어옴
+}
@@ -0,0 +1,83 @@
+package com.portfolio2025.first.domain.ledger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 함께 기록되어야 하는 원장 행 묶음 LedgerJournal (복식 기입 한 건)
+ * [08.24]
+ * (추가) debit(차감) / credit(증가) 를 쌓고 validateBalanced 로 자산별 합계가 0 인지 확인 후 기록
+ *       예) 매수 예약 - 현금 AVAILABLE -X / 현금 RESERVED +X
+ *           체결 - 매수자 현금 RESERVED -X / 매도자 현금 AVAILABLE +X, 매도자 수량 RESERVED -q / 매수자 수량 AVAILABLE +q
+ * (추가) 금액 0 인 행은 남기지 않음
+ */
+public class LedgerJournal {
+
+    public record Leg(BalanceKey key, LedgerEntryType type, long amount) {
+    }
+
+    private final Long refId;
+    private final List<Leg> legs = new ArrayList<>(4);
+
+    private LedgerJournal(Long refId) {
+        this.refId = refId;
+    }
+
+    public static LedgerJournal of(Long refId) {
+        return new LedgerJournal(refId);
+    }
+
+    public LedgerJournal debit(BalanceKey key, LedgerEntryType type, long amount) {
+        return add(key, type, -requirePositiveOrZero(amount));
+    }
+
+    public LedgerJournal credit(BalanceKey key, LedgerEntryType type, long amount) {
+        return add(key, type, requirePositiveOrZero(amount));
+    }
+
+    /** from 에서 to 로 같은 금액 이동 - 두 행 모두 같은 유형 **/
+    public LedgerJournal move(BalanceKey from, BalanceKey to, LedgerEntryType type, long amount) {
+        return debit(from, type, amount).credit(to, type, amount);
+    }
+
+    private LedgerJournal add(BalanceKey key, LedgerEntryType type, long amount) {
+        if (amount != 0) {
+            legs.add(new Leg(key, type, amount));
+        }
+        return this;
+    }
+
+    public void validateBalanced() {
+        Map<Long, Long> sumByAsset = new HashMap<>();
+        for (Leg leg : legs) {
+            sumByAsset.merge(leg.key().assetId(), leg.amount(), Math::addExact);
+        }
+        sumByAsset.forEach((assetId, sum) -> {
+            if (sum != 0) {
+                throw new IllegalStateException("원장 분개의 합계가 0 이 아닙니다. assetId=" + assetId + ", 합계=" + sum);
+            }
+        });
+    }
+
+    public boolean isEmpty() {
+        return legs.isEmpty();
+    }
+
+    public List<Leg> getLegs() {
+        return Collections.unmodifiableList(legs);
+    }
+
+    public Long getRefId() {
+        return refId;
+    }
+
+    private static long requirePositiveOrZero(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("원장 금액은 0 이상이어야 합니다. amount=" + amount);
+        }
+        return amount;
+    }
+}
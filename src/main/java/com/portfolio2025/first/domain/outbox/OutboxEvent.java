@@ -0,0 +1,69 @@
+package com.portfolio2025.first.domain.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Kafka 로 발행할 이벤트를 비즈니스 데이터와 같은 트랜잭션에 저장하는 OutboxEvent
+ * [08.15]
+ * (추가) Order / Trade 커밋과 이벤트 저장이 함께 성공하거나 함께 실패 - 커밋 후 발행 실패로 이벤트가 사라지지 않음
+ *       실제 발행은 OutboxRelay 가 PENDING 행을 id 순서로 묶어서 처리
+ * [08.18]
+ * (수정) payload String(JSON) -> byte[] - 저장 시점에 EventSerializer 로 한 번만 인코딩, relay 는 그대로 발행
+ *
+ * [고민]
+ * 1. SENT 행은 보관 기간이 지나면 삭제 (OutboxRelay.purge)
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_status_id", columnList = "status, id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String topic;
+
+    @Column(name = "message_key", length = 100)
+    private String messageKey; // Kafka record key (파티션 결정)
+
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload; // EventSerializer 로 인코딩된 값 (바이너리 또는 JSON)
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;
+
+    private int attempts; // 발행 실패 횟수
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    public static OutboxEvent create(String topic, String messageKey, byte[] payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.topic = topic;
+        event.messageKey = messageKey;
+        event.payload = payload;
+        event.status = OutboxStatus.PENDING;
+        event.createdAt = LocalDateTime.now();
+        return event;
+    }
+}
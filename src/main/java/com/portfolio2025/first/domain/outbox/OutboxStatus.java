@@ -0,0 +1,7 @@
+package com.portfolio2025.first.domain.outbox;
+
+public enum OutboxStatus {
+    PENDING, // 발행 대기
+    SENT, // 발행 완료 (broker ack)
+    FAILED, // 최대 재시도 초과 - DLQ 로 넘김
+}
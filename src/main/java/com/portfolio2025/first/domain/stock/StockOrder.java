@@ -2,6 +2,7 @@ package com.portfolio2025.first.domain.stock;
 
 import com.portfolio2025.first.domain.Order;
 import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.id.TsidId;
 import com.portfolio2025.first.domain.vo.Money;
 import com.portfolio2025.first.domain.vo.Quantity;
 import jakarta.persistence.AttributeOverride;
@@ -11,12 +12,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDateTime;
 import lombok.AccessLevel;
 import lombok.Builder;
@@ -27,6 +27,15 @@ import lombok.NoArgsConstructor;
  * 매수 Or 매도 주문 StockOrder
  * [07.26]
  * (수정) updateQuantity -> 메서드 네이밍 수정 + 내부 로직 분리 (calculateWeightedAverage, updateStockOrderStatus)
+ * [08.21]
+ * (수정) 평균 체결 단가 계산에 Money.multiplyExact / addExact 사용 - 가격 * 수량이 long 범위를 넘으면 예외
+ * [08.22]
+ * (수정) id 생성 IDENTITY -> TSID(@TsidId) - Order 와 함께 저장되는 stock_orders INSERT 도 배치로 묶임
+ * [08.23]
+ * (추가) @Version - 체결(종목 워커)과 주문 수정 / 취소가 같은 주문을 동시에 바꾸면 버전 충돌로 감지
+ * [08.25]
+ * (추가) isExecutable - 진행 중(PENDING / PARTIALLY_FILLED)이고 잔여 수량이 체결 수량 이상인지
+ *       재시도 단계에서 늦게 꺼낸 pair 는 그 사이 취소 / 체결된 주문일 수 있음 - applyExecution 도 같은 조건으로 막음
  *
  * [고민]
  * 1. averageExecutedPrice 구체적 기획 생각해보기
@@ -38,9 +47,12 @@ import lombok.NoArgsConstructor;
 public class StockOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TsidId
     private Long id;
 
+    @Version
+    private Long version;
+
     // 상위 주문 연관 (다대일)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
@@ -101,7 +113,7 @@ public class StockOrder {
         this.stock = stock;
         this.requestedQuantity = requestedQuantity;
         this.requestedPrice = requestedPrice;
-        this.executedQuantity = new Quantity(0L);  // 최초 체결 수량은 0
+        this.executedQuantity = Quantity.ZERO;  // 최초 체결 수량은 0
         this.remainedQuantity = requestedQuantity; // 최초 미체결 수량은 요청 수량과 같음
         this.portfolio = portfolio;
         this.stockOrderStatus = stockOrderStatus;
@@ -131,8 +143,19 @@ public class StockOrder {
         this.updatedAt = LocalDateTime.now();
     }
 
+    // 체결 가능 여부
+    public boolean isExecutable(Quantity executingQuantity) {
+        boolean open = stockOrderStatus == StockOrderStatus.PENDING
+                || stockOrderStatus == StockOrderStatus.PARTIALLY_FILLED;
+        return open && !remainedQuantity.isLowerThan(executingQuantity);
+    }
+
     // 체결 반영
     public void applyExecution(Quantity executingQuantity, Money executingPrice) {
+        if (!isExecutable(executingQuantity)) {
+            throw new IllegalStateException("체결할 수 없는 주문입니다. id=" + id + ", 상태=" + stockOrderStatus
+                    + ", 잔여=" + remainedQuantity + ", 체결=" + executingQuantity);
+        }
         Quantity newExecuted = this.executedQuantity.plus(executingQuantity);
         Money newAveragePrice = calculateWeightedAverage(executingQuantity, executingPrice);
 
@@ -148,13 +171,13 @@ public class StockOrder {
     private Money calculateWeightedAverage(Quantity executingQuantity, Money executingPrice) {
         long prevExecutedQty = this.executedQuantity.getQuantityValue();
         long prevTotal = (this.averageExecutedPrice != null)
-                ? this.averageExecutedPrice.getMoneyValue() * prevExecutedQty
+                ? Money.multiplyExact(this.averageExecutedPrice.getMoneyValue(), prevExecutedQty)
                 : 0L;
 
-        long newTotal = executingQuantity.getQuantityValue() * executingPrice.getMoneyValue();
+        long newTotal = Money.multiplyExact(executingPrice.getMoneyValue(), executingQuantity.getQuantityValue());
         long totalQty = prevExecutedQty + executingQuantity.getQuantityValue();
 
-        return new Money((prevTotal + newTotal) / totalQty);
+        return new Money(Money.addExact(prevTotal, newTotal) / totalQty);
     }
 
     // 주문 상태 갱신 로직
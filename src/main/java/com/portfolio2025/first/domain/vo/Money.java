@@ -1,7 +1,6 @@
 package com.portfolio2025.first.domain.vo;
 
 import jakarta.persistence.Embeddable;
-import java.util.Objects;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -13,26 +12,50 @@ import lombok.NoArgsConstructor;
  * (수정) requireNonNull 메서드 추가(null-checking 담당하는 메서드 추출)
  * (추가) Comparable - compareTo 메서드 구현
  *
- * [고민]
+ * [08.21]
+ * (수정) Long -> long - 박싱 / 언박싱 없이 계산, 컬럼 매핑(@AttributeOverride)은 그대로
+ * (수정) plus / minus / multiply 결과는 검증을 다시 하지 않음 - 0 이상 값끼리의 연산이라 음수가 나올 수 없음
+ *       (외부에서 들어온 값만 생성자에서 검증)
+ * (추가) multiplyExact / addExact - long 범위를 넘으면 조용히 음수로 넘어가던 문제 방지 (IllegalArgumentException)
+ *       엔티티 내부 계산(평균 단가 등)도 같은 메서드 사용
+ * (추가) ZERO - 초기값 공유 (불변이라 엔티티 간 공유해도 안전)
+ * [08.25]
+ * (삭제) MoneyAccumulator - 현금 증감이 원장 분개로 바뀌면서 쓰는 곳이 없어짐
  *
+ * [고민]
+ * 1. 값이 바뀔 때마다 새 객체 - 여러 번 더하는 곳은 multiplyExact / addExact 로 long 계산 후 한 번만 생성
  */
 @Embeddable
 @Getter
 @EqualsAndHashCode
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Money {
-    private Long moneyValue;
+
+    public static final Money ZERO = new Money(0L);
+
+    private long moneyValue;
 
     public Money(Long amount) {
-        if (amount == null || amount < 0) {
+        this(amount == null ? -1L : amount.longValue());
+    }
+
+    public Money(long amount) {
+        if (amount < 0) {
             throw new IllegalArgumentException("금액은 0 이상이어야 합니다.");
         }
         this.moneyValue = amount;
     }
 
+    /** 이미 검증된 계산 결과로 생성 **/
+    private static Money trusted(long amount) {
+        Money money = new Money();
+        money.moneyValue = amount;
+        return money;
+    }
+
     public Money plus(Money other) {
         requireNonNull(other);
-        return new Money(this.moneyValue + other.moneyValue);
+        return trusted(addExact(this.moneyValue, other.moneyValue));
     }
 
     public Money minus(Money other) {
@@ -41,10 +64,10 @@ public class Money {
         if (isLowerThan(other)) {
             throw new IllegalArgumentException("잔액이 부족합니다");
         }
-        return new Money(this.moneyValue - other.moneyValue);
+        return trusted(this.moneyValue - other.moneyValue);
     }
 
-    private void requireNonNull(Money other) {
+    private void requireNonNull(Object other) {
         if (other == null) {
             throw new IllegalArgumentException("인자를 확인해주세요.");
         }
@@ -59,11 +82,29 @@ public class Money {
     }
 
     public Money multiply(Quantity quantity) {
-        return new Money(moneyValue * quantity.getQuantityValue());
+        requireNonNull(quantity);
+        return trusted(multiplyExact(moneyValue, quantity.getQuantityValue()));
     }
 
     public int compareTo(Money other) {
-        return this.moneyValue.compareTo(other.moneyValue);
+        return Long.compare(this.moneyValue, other.moneyValue);
+    }
+
+    /** 가격 * 수량 - long 범위를 넘으면 예외 **/
+    public static long multiplyExact(long price, long quantity) {
+        try {
+            return Math.multiplyExact(price, quantity);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("금액 계산 범위를 초과했습니다. [가격: " + price + ", 수량: " + quantity + "]");
+        }
+    }
+
+    public static long addExact(long amount, long other) {
+        try {
+            return Math.addExact(amount, other);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("금액 계산 범위를 초과했습니다. [" + amount + " + " + other + "]");
+        }
     }
 
     @Override
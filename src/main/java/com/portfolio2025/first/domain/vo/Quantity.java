@@ -12,6 +12,12 @@ import lombok.NoArgsConstructor;
  * (수정) requireNonNull 메서드 추가(null-checking 담당하는 메서드 추출)
  * (추가) Comparable - compareTo 메서드 구현
  *
+ * [08.21]
+ * (수정) Long -> long - 박싱 / 언박싱 없이 계산, 컬럼 매핑(@AttributeOverride)은 그대로
+ * (수정) plus / minus 결과는 검증을 다시 하지 않음, plus 는 long 범위 초과 시 예외
+ * (수정) isLowerThan - 뺄셈 비교(a - b < 0) 대신 직접 비교 (범위 초과 시 결과가 뒤집히던 문제)
+ * (추가) ZERO - 초기값 공유 (불변이라 엔티티 간 공유해도 안전)
+ *
  * [고민]
  *
  */
@@ -21,18 +27,35 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Quantity {
 
-    private Long quantityValue;
+    public static final Quantity ZERO = new Quantity(0L);
+
+    private long quantityValue;
 
     public Quantity(Long quantity) {
-        if (quantity == null || quantity < 0) {
+        this(quantity == null ? -1L : quantity.longValue());
+    }
+
+    public Quantity(long quantity) {
+        if (quantity < 0) {
             throw new IllegalArgumentException("잘못된 수량입니다.");
         }
         this.quantityValue = quantity;
     }
 
+    /** 이미 검증된 계산 결과로 생성 **/
+    private static Quantity trusted(long quantity) {
+        Quantity result = new Quantity();
+        result.quantityValue = quantity;
+        return result;
+    }
+
     public Quantity plus(Quantity otherQuantity) {
         requireNonNull(otherQuantity);
-        return new Quantity(this.quantityValue + otherQuantity.getQuantityValue());
+        try {
+            return trusted(Math.addExact(this.quantityValue, otherQuantity.quantityValue));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("수량 계산 범위를 초과했습니다.");
+        }
     }
 
     public Quantity minus(Quantity otherQuantity) {
@@ -42,11 +65,11 @@ public class Quantity {
             throw new IllegalArgumentException("잔여 수량이 부족합니다.");
         }
 
-        return new Quantity(this.quantityValue - otherQuantity.getQuantityValue());
+        return trusted(this.quantityValue - otherQuantity.quantityValue);
     }
 
     public boolean isLowerThan(Quantity otherQuantity) {
-        return ((quantityValue - otherQuantity.getQuantityValue()) < 0);
+        return this.quantityValue < otherQuantity.quantityValue;
     }
 
     public boolean isZero() {
@@ -54,7 +77,7 @@ public class Quantity {
     }
 
     public int compareTo(Quantity other) {
-        return this.quantityValue.compareTo(other.quantityValue);
+        return Long.compare(this.quantityValue, other.quantityValue);
     }
 
     private void requireNonNull(Quantity otherQuantity) {
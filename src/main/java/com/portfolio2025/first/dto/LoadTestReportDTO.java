@@ -0,0 +1,32 @@
+package com.portfolio2025.first.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 부하 테스트 결과 LoadTestReportDTO
+ * [08.12]
+ * (추가) 처리량 + 주문 접수(placeSingleOrder) 지연 시간 백분위 + 거절 사유별 건수
+ *       targetRate 를 준 경우 지연 시간은 "예정된 시작 시각" 기준 (coordinated omission 보정)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LoadTestReportDTO {
+
+    private long requestedOrders;
+    private long acceptedOrders;
+    private long rejectedOrders;
+    private Map<String, Long> rejectReasons; // 예외 클래스명 -> 건수
+
+    private long elapsedMillis;
+    private double throughputPerSecond; // 접수 성공 기준
+
+    private long p50Micros;
+    private long p90Micros;
+    private long p99Micros;
+    private long p999Micros;
+    private long maxMicros;
+}
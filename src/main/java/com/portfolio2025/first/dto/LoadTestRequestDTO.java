@@ -0,0 +1,33 @@
+package com.portfolio2025.first.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 부하 테스트(LoadGenerator) 실행 조건 LoadTestRequestDTO
+ * [08.12]
+ * (추가) 값을 주지 않은 항목은 아래 기본값 사용 (노트북에서 수십 초 안에 끝나는 규모)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class LoadTestRequestDTO {
+
+    private int users = 100; // 생성할 사용자(= 투자 포트폴리오) 수
+    private int symbols = 20; // 생성할 종목 수
+    private int orders = 10_000; // 전체 주문 수
+    private int threads = 8; // 동시에 주문을 넣는 클라이언트 수
+    private int targetRate = 0; // 초당 목표 주문 수 (0 - 제한 없이 최대한 빠르게)
+
+    private double buyRatio = 0.5; // 매수 주문 비율
+    private double zipfSkew = 1.0; // 종목 인기도 분포 (0 - 균등, 클수록 상위 종목에 집중)
+
+    private long midPrice = 100_000L; // 종목 기준가
+    private long tickSize = 100L; // 호가 단위
+    private int priceSpreadTicks = 10; // 기준가 +- 몇 호가까지 주문을 흩뿌릴지
+    private long maxQuantity = 10L; // 주문 수량은 1 ~ maxQuantity 균등 분포
+
+    private long initialCash = 10_000_000_000L; // 사용자별 투자금
+    private long initialHolding = 1_000_000L; // 사용자별 종목당 보유 수량 (매도 주문용)
+}
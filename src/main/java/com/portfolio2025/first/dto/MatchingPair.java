@@ -9,6 +9,8 @@ import lombok.RequiredArgsConstructor;
  * Matching 진행 시 후보로 선정된 대상들
  * [07.26]
  * (수정)
+ * [08.21]
+ * (추가) getExecutableQuantityValue - 호가창 / 저널처럼 long 만 필요한 곳은 Quantity 객체 없이 사용
  *
  * [고민]
  *
@@ -29,7 +31,11 @@ public class MatchingPair {
     }
 
     public Quantity getExecutableQuantity() {
-        return new Quantity(Math.min(buyDTO.getRemainQuantity(), sellDTO.getRemainQuantity()));
+        return new Quantity(getExecutableQuantityValue());
+    }
+
+    public long getExecutableQuantityValue() {
+        return Math.min(buyDTO.getRemainQuantity(), sellDTO.getRemainQuantity());
     }
 
     public MatchingPair afterExecution(Quantity executableQuantity) {
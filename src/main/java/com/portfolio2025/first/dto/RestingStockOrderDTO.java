@@ -0,0 +1,34 @@
+package com.portfolio2025.first.dto;
+
+import com.portfolio2025.first.domain.order.OrderType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 호가창 재구성용으로 stock_orders 에서 바로 읽어오는 대기 주문 한 줄 RestingStockOrderDTO
+ * [08.10]
+ * (추가) 엔티티 대신 JPQL 생성자 projection 으로 조회 - 영속성 컨텍스트에 쌓이지 않아서 수백만 건도 스트리밍 가능
+ * [08.16]
+ * (추가) of - 배치 컨슈머가 접수한 주문을 OrderBookStore.pushAll 로 한 번에 적재할 때 사용
+ */
+@Getter
+@AllArgsConstructor
+public class RestingStockOrderDTO {
+
+    private Long id; // stockOrderId
+    private String stockCode;
+    private Long requestedPrice;
+    private Long remainQuantity;
+    private LocalDateTime createdAt;
+    private OrderType orderType;
+
+    public static RestingStockOrderDTO of(OrderType orderType, StockOrderRedisDTO dto) {
+        return new RestingStockOrderDTO(dto.getId(), dto.getStockCode(), dto.getRequestedPrice(),
+                dto.getRemainQuantity(), dto.getCreatedAt(), orderType);
+    }
+
+    public StockOrderRedisDTO toRedisDTO() {
+        return new StockOrderRedisDTO(id, stockCode, requestedPrice, remainQuantity, createdAt);
+    }
+}
@@ -0,0 +1,51 @@
+package com.portfolio2025.first.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 호가창 HASH(ORDERS_{stockCode}) 에 저장하는 주문 값의 고정 길이 인코딩 StockOrderRedisCodec
+ * [08.06]
+ * (추가) JSON(약 110 byte, 파싱 필요) 대신 가격 / 잔여 수량 / 주문 시각(epoch millis)을 16자리 hex 3개로 이어 붙임 (48 byte)
+ *       id / stockCode 는 HASH field / key 에 이미 있으므로 값에 넣지 않음
+ *       Lua 스크립트에서도 string.sub + tonumber(.., 16) 만으로 가격을 읽을 수 있음 (pop-match-pairs.lua)
+ *
+ * [고민]
+ * 1. Lua number 는 double - 가격 / 수량 / 시각 모두 2^53 미만이라 정밀도 문제 없음
+ */
+public final class StockOrderRedisCodec {
+
+    private static final int FIELD_WIDTH = 16;
+    private static final int ENCODED_LENGTH = FIELD_WIDTH * 3;
+
+    private StockOrderRedisCodec() {
+    }
+
+    public static String encode(StockOrderRedisDTO dto) {
+        long createdMillis = dto.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli();
+        return fixedHex(dto.getRequestedPrice()) + fixedHex(dto.getRemainQuantity()) + fixedHex(createdMillis);
+    }
+
+    public static StockOrderRedisDTO decode(Long stockOrderId, String stockCode, String encoded) {
+        if (encoded == null || encoded.length() != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("호가창 주문 인코딩 형식이 올바르지 않습니다. stockOrderId=" + stockOrderId);
+        }
+        long price = field(encoded, 0);
+        long remainQuantity = field(encoded, 1);
+        long createdMillis = field(encoded, 2);
+        return new StockOrderRedisDTO(stockOrderId, stockCode, price, remainQuantity,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(createdMillis), ZoneOffset.UTC));
+    }
+
+    /** 16자리 0-padding hex - 길이가 고정이라 사전순 비교 == 숫자 비교 **/
+    public static String fixedHex(long value) {
+        String digits = Long.toHexString(value);
+        return "0".repeat(FIELD_WIDTH - digits.length()) + digits;
+    }
+
+    private static long field(String encoded, int index) {
+        int start = index * FIELD_WIDTH;
+        return Long.parseUnsignedLong(encoded, start, start + FIELD_WIDTH, 16);
+    }
+}
@@ -0,0 +1,214 @@
+package com.portfolio2025.first.dto.event;
+
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.dto.event.OrderCreatedEvent.StockOrderEntry;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kafka 이벤트(order.created / trade.synced) 의 버전 있는 바이너리 인코딩 EventCodec
+ * [08.18]
+ * (추가) JSON(필드명 + ISO 시각 문자열, 파싱 시 토큰 단위 처리) 대신 고정 순서 바이너리
+ *       헤더 3 byte = MAGIC(0xB1) + VERSION + TYPE, 이후 TYPE 별 필드를 정해진 순서로 기록
+ *       숫자는 8 byte big-endian, 시각은 epoch millis(UTC), 문자열은 길이(1 byte) + UTF-8
+ *       ORDER_CREATED : orderId, userId, portfolioId, quantity, price, stockCode, orderType, stockOrders 수(2 byte) + [stockOrderId, price, quantity, createdAt]
+ *       TRADE_SAVED   : tradeId, buy [id, stockCode, price, remainQuantity, createdAt], sell [...]
+ * (추가) decode(ByteBuffer) - 레코드 버퍼에서 바로 읽음 (byte[] 복사 / 중간 문자열 / JSON 트리 없음)
+ *       MAGIC 으로 시작하지 않으면 JSON 으로 보고 EventDeserializer 가 Jackson 으로 처리 (이전 형식 호환)
+ *
+ * [08.25]
+ * (수정) stockOrders 수(2 byte) / 문자열 길이(1 byte)를 넘으면 잘라서 쓰지 않고 IllegalArgumentException
+ *       기존에는 (short) / (byte) 캐스팅으로 길이가 잘려서 읽는 쪽이 엉뚱한 위치부터 읽었음
+ *
+ * [고민]
+ * 1. 0xB1 은 UTF-8 의 첫 byte 가 될 수 없는 값 - JSON 문자열과 헷갈릴 일이 없음
+ * 2. 필드 추가 / 순서 변경 시 VERSION 을 올리고 decode 에서 이전 VERSION 도 읽도록 유지
+ * 3. 시각은 millis 까지만 - 호가창 시간 우선순위(PriorityKey) / Redis 인코딩과 같은 정밀도
+ */
+public final class EventCodec {
+
+    public static final byte MAGIC = (byte) 0xB1;
+    public static final byte VERSION = 1;
+
+    private static final byte TYPE_ORDER_CREATED = 1;
+    private static final byte TYPE_TRADE_SAVED = 2;
+
+    private static final int HEADER_LENGTH = 3;
+    private static final int STOCK_ORDER_ENTRY_LENGTH = Long.BYTES * 4;
+    private static final int MAX_STOCK_ORDERS = 0xFFFF; // 2 byte unsigned
+    private static final int MAX_STRING_LENGTH = 0xFF; // 1 byte unsigned
+
+    private EventCodec() {
+    }
+
+    public static boolean supports(Object event) {
+        return event instanceof OrderCreatedEvent || event instanceof TradeSavedEvent;
+    }
+
+    public static byte[] encode(Object event) {
+        if (event instanceof OrderCreatedEvent orderCreated) {
+            return encodeOrderCreated(orderCreated);
+        }
+        if (event instanceof TradeSavedEvent tradeSaved) {
+            return encodeTradeSaved(tradeSaved);
+        }
+        throw new IllegalArgumentException("바이너리 인코딩을 지원하지 않는 이벤트입니다: " + event.getClass().getSimpleName());
+    }
+
+    /** 바이너리 형식인지 (position 은 움직이지 않음) **/
+    public static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() >= HEADER_LENGTH && buffer.get(buffer.position()) == MAGIC;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && isBinary(ByteBuffer.wrap(data));
+    }
+
+    /** buffer 의 position 부터 읽음 - 호출한 쪽 buffer 를 건드리지 않도록 duplicate 에서 읽기 **/
+    public static Object decode(ByteBuffer source) {
+        ByteBuffer buffer = source.duplicate();
+        if (!isBinary(buffer)) {
+            throw new IllegalArgumentException("바이너리 이벤트 형식이 아닙니다.");
+        }
+        buffer.get(); // MAGIC
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("지원하지 않는 이벤트 버전입니다: " + version);
+        }
+
+        byte type = buffer.get();
+        return switch (type) {
+            case TYPE_ORDER_CREATED -> decodeOrderCreated(buffer);
+            case TYPE_TRADE_SAVED -> decodeTradeSaved(buffer);
+            default -> throw new IllegalArgumentException("알 수 없는 이벤트 타입입니다: " + type);
+        };
+    }
+
+    private static byte[] encodeOrderCreated(OrderCreatedEvent event) {
+        byte[] stockCode = utf8(event.getStockCode());
+        byte[] orderType = utf8(event.getOrderType());
+        List<StockOrderEntry> entries = event.isSelfContained() ? event.getStockOrders() : List.of();
+        if (entries.size() > MAX_STOCK_ORDERS) {
+            throw new IllegalArgumentException("한 이벤트에 담을 수 있는 stockOrders 는 최대 " + MAX_STOCK_ORDERS
+                    + "건입니다. orderId=" + event.getOrderId() + ", size=" + entries.size());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + Long.BYTES * 5
+                + 1 + stockCode.length + 1 + orderType.length
+                + Short.BYTES + STOCK_ORDER_ENTRY_LENGTH * entries.size());
+        header(buffer, TYPE_ORDER_CREATED);
+        buffer.putLong(required(event.getOrderId(), "orderId"));
+        buffer.putLong(required(event.getUserId(), "userId"));
+        buffer.putLong(required(event.getPortfolioId(), "portfolioId"));
+        buffer.putLong(required(event.getQuantity(), "quantity"));
+        buffer.putLong(required(event.getPrice(), "price"));
+        putString(buffer, stockCode);
+        putString(buffer, orderType);
+
+        buffer.putShort((short) entries.size());
+        for (StockOrderEntry entry : entries) {
+            buffer.putLong(required(entry.getStockOrderId(), "stockOrderId"));
+            buffer.putLong(required(entry.getPrice(), "price"));
+            buffer.putLong(required(entry.getQuantity(), "quantity"));
+            buffer.putLong(toMillis(entry.getCreatedAt()));
+        }
+        return buffer.array();
+    }
+
+    private static OrderCreatedEvent decodeOrderCreated(ByteBuffer buffer) {
+        long orderId = buffer.getLong();
+        long userId = buffer.getLong();
+        long portfolioId = buffer.getLong();
+        long quantity = buffer.getLong();
+        long price = buffer.getLong();
+        String stockCode = getString(buffer);
+        String orderType = getString(buffer);
+
+        int count = Short.toUnsignedInt(buffer.getShort());
+        List<StockOrderEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new StockOrderEntry(buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                    toDateTime(buffer.getLong())));
+        }
+        return new OrderCreatedEvent(orderId, userId, portfolioId, stockCode, quantity, price, orderType,
+                entries.isEmpty() ? null : entries);
+    }
+
+    private static byte[] encodeTradeSaved(TradeSavedEvent event) {
+        byte[] buyCode = utf8(event.getBuyDTO().getStockCode());
+        byte[] sellCode = utf8(event.getSellDTO().getStockCode());
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + Long.BYTES
+                + (Long.BYTES * 4 + 1) * 2 + buyCode.length + sellCode.length);
+        header(buffer, TYPE_TRADE_SAVED);
+        buffer.putLong(required(event.getTradeId(), "tradeId"));
+        putStockOrder(buffer, event.getBuyDTO(), buyCode);
+        putStockOrder(buffer, event.getSellDTO(), sellCode);
+        return buffer.array();
+    }
+
+    private static TradeSavedEvent decodeTradeSaved(ByteBuffer buffer) {
+        long tradeId = buffer.getLong();
+        return new TradeSavedEvent(tradeId, getStockOrder(buffer), getStockOrder(buffer));
+    }
+
+    private static void putStockOrder(ByteBuffer buffer, StockOrderRedisDTO dto, byte[] stockCode) {
+        buffer.putLong(required(dto.getId(), "stockOrderId"));
+        putString(buffer, stockCode);
+        buffer.putLong(required(dto.getRequestedPrice(), "requestedPrice"));
+        buffer.putLong(required(dto.getRemainQuantity(), "remainQuantity"));
+        buffer.putLong(toMillis(dto.getCreatedAt()));
+    }
+
+    private static StockOrderRedisDTO getStockOrder(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        String stockCode = getString(buffer);
+        long price = buffer.getLong();
+        long remainQuantity = buffer.getLong();
+        return new StockOrderRedisDTO(id, stockCode, price, remainQuantity, toDateTime(buffer.getLong()));
+    }
+
+    private static void header(ByteBuffer buffer, byte type) {
+        buffer.put(MAGIC).put(VERSION).put(type);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = required(value, "string").getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("문자열 필드는 UTF-8 " + MAX_STRING_LENGTH + " byte 이하여야 합니다. length=" + bytes.length);
+        }
+        return bytes;
+    }
+
+    /** bytes 는 utf8() 로 길이를 검사한 값 - 버퍼 크기를 계산하기 전에 거부하기 위해 검사는 utf8 에서 한 번만 **/
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.put((byte) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Byte.toUnsignedInt(buffer.get());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return required(dateTime, "createdAt").toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    private static <T> T required(T value, String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("이벤트 필수 값이 없습니다: " + name);
+        }
+        return value;
+    }
+}
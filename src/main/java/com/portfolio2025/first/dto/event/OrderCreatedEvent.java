@@ -1,6 +1,14 @@
 package com.portfolio2025.first.dto.event;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.portfolio2025.first.domain.Order;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -11,6 +19,15 @@ import lombok.ToString;
  * StockOrder 생성시 Event 발행, 데이터 구조 형태
  * Consumer에서 인자로 받은 데이터 구조
  * MatchRequest, OrderPrepare
+ *
+ * [08.17]
+ * (추가) stockOrders - 호가창 적재에 필요한 값(stockOrderId, 가격, 수량, 주문 시각)을 이벤트에 모두 담음
+ *       컨슈머가 DB 를 다시 조회하지 않고 바로 호가창에 넣을 수 있음 (커밋 가시성 대기 + 최대 1초 재시도 제거)
+ *       시간 우선순위 sequence 는 stockOrderId 그대로 사용 (PriorityKey 참고)
+ * (추가) from - 저장(IDENTITY insert)이 끝난 Order 로 이벤트 생성
+ *
+ * [고민]
+ * stockOrders 가 없는 이전 형식 이벤트(토픽에 남아있는 것)는 컨슈머에서 기존처럼 DB 조회로 처리
  */
 
 @Getter
@@ -25,4 +42,59 @@ public class OrderCreatedEvent {
     private Long quantity;
     private Long price;
     private String orderType; // "BUY"
+    private List<StockOrderEntry> stockOrders;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @ToString
+    public static class StockOrderEntry {
+        private Long stockOrderId; // 시간 우선순위 sequence 로도 사용
+        private Long price;
+        private Long quantity; // 미체결 수량 (생성 시점이라 요청 수량과 같음)
+        private LocalDateTime createdAt;
+    }
+
+    public static OrderCreatedEvent from(Order order) {
+        StockOrder first = order.getStockOrders().getFirst();
+        List<StockOrderEntry> entries = new ArrayList<>(order.getStockOrders().size());
+        for (StockOrder stockOrder : order.getStockOrders()) {
+            if (stockOrder.getId() == null) {
+                throw new IllegalStateException("저장되지 않은 주문으로 이벤트를 만들 수 없습니다: orderId=" + order.getId());
+            }
+            entries.add(new StockOrderEntry(
+                    stockOrder.getId(),
+                    stockOrder.getRequestedPrice().getMoneyValue(),
+                    stockOrder.getRemainedQuantity().getQuantityValue(),
+                    stockOrder.getCreatedAt()
+            ));
+        }
+
+        return new OrderCreatedEvent(
+                order.getId(),
+                order.getUser().getId(),
+                first.getPortfolio().getId(),
+                first.getStock().getStockCode(),
+                first.getRequestedQuantity().getQuantityValue(),
+                first.getRequestedPrice().getMoneyValue(),
+                order.getOrderType().name(),
+                entries
+        );
+    }
+
+    /** 호가창 적재에 필요한 값이 이벤트에 모두 들어있는지 (이전 형식이면 false) **/
+    @JsonIgnore
+    public boolean isSelfContained() {
+        return stockOrders != null && !stockOrders.isEmpty();
+    }
+
+    public List<RestingStockOrderDTO> toRows() {
+        OrderType type = OrderType.valueOf(orderType);
+        List<RestingStockOrderDTO> rows = new ArrayList<>(stockOrders.size());
+        for (StockOrderEntry entry : stockOrders) {
+            rows.add(new RestingStockOrderDTO(entry.getStockOrderId(), stockCode, entry.getPrice(),
+                    entry.getQuantity(), entry.getCreatedAt(), type));
+        }
+        return rows;
+    }
 }
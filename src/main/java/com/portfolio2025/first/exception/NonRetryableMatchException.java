@@ -1,7 +1,30 @@
 package com.portfolio2025.first.exception;
 
+import com.portfolio2025.first.domain.order.OrderType;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * [08.25]
+ * (추가) restorableSides - 아직 체결 가능한 쪽(호가창에 체결 수량을 되돌려야 하는 쪽)
+ *       비어 있으면 되돌리지 않음, 두 쪽 모두면 pair 전체를 되돌림 (MatchRetryStage.deadLetter)
+ */
 public class NonRetryableMatchException extends RuntimeException {
+
+    private final Set<OrderType> restorableSides;
+
     public NonRetryableMatchException(String message) {
+        this(message, EnumSet.noneOf(OrderType.class));
+    }
+
+    public NonRetryableMatchException(String message, Set<OrderType> restorableSides) {
         super(message);
+        this.restorableSides = restorableSides.isEmpty()
+                ? EnumSet.noneOf(OrderType.class)
+                : EnumSet.copyOf(restorableSides);
+    }
+
+    public Set<OrderType> getRestorableSides() {
+        return restorableSides;
     }
 }
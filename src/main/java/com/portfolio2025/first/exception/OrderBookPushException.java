@@ -0,0 +1,19 @@
+package com.portfolio2025.first.exception;
+
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import java.util.List;
+
+/** 묶음 적재 중 일부 종목만 실패한 경우 - failedRows 외의 행은 호가창에 적재됨 **/
+public class OrderBookPushException extends RuntimeException {
+
+    private final List<RestingStockOrderDTO> failedRows;
+
+    public OrderBookPushException(List<RestingStockOrderDTO> failedRows, Throwable cause) {
+        super("호가창 적재 실패 (" + failedRows.size() + "건): " + cause.getMessage(), cause);
+        this.failedRows = List.copyOf(failedRows);
+    }
+
+    public List<RestingStockOrderDTO> getFailedRows() {
+        return failedRows;
+    }
+}
@@ -2,7 +2,7 @@ package com.portfolio2025.first.listener;
 
 
 import com.portfolio2025.first.dto.event.OrderCreatedEvent;
-import com.portfolio2025.first.service.KafkaProducerService;
+import com.portfolio2025.first.service.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -13,6 +13,13 @@ import org.springframework.transaction.event.TransactionalEventListener;
  * 매수 혹은 매도 주문 생성 이후 REDIS에 반영 위한 event 발행
  * 후속 처리 가능함
  * Transaction commit 이후 동기적으로 이벤트 발행 처리하기 - AFTER_COMMIT
+ * [08.14]
+ * (수정) 발행은 비동기 - 여기서는 producer 버퍼에 넣기만 하고 결과(실패 시 DLQ)는 KafkaProducerService 콜백에서 처리
+ * [08.15]
+ * (수정) AFTER_COMMIT 직접 발행 -> BEFORE_COMMIT 에 outbox 저장 - 주문과 이벤트가 같은 트랜잭션으로 커밋
+ *       발행 실패 시 로그만 남기고 이벤트가 사라지던 문제 해결, 실제 발행은 OutboxRelay
+ * [08.19]
+ * (수정) key orderId -> stockCode - 같은 종목의 주문은 같은 파티션에서 순서대로 호가창에 적재
  */
 
 
@@ -21,18 +28,11 @@ import org.springframework.transaction.event.TransactionalEventListener;
 @Slf4j
 public class OrderRedisSyncListener {
 
-    private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
     public void handleOrderCreatedEvent(OrderCreatedEvent event) {
-        log.info("[KafkaOrderEventListener] 트랜잭션 커밋 후 Kafka 발행: {}", event);
-        try {
-            kafkaProducerService.publishOrderCreated(event);
-            log.info("✅ Kafka publish success: {}", event);
-        } catch (Exception e) {
-            log.error("❌ Kafka publish failed for event: {}", event, e);
-            // 테스트 중이면 재시도나 fallback 전략을 여기에 넣을 수도 있음
-
-        }
+        log.info("[KafkaOrderEventListener] 커밋 전 outbox 저장: {}", event);
+        outboxService.append("order.created", event.getStockCode(), event);
     }
 }
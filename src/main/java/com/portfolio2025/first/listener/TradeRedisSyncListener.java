@@ -1,9 +1,7 @@
 package com.portfolio2025.first.listener;
 
-import com.portfolio2025.first.dto.StockOrderRedisDTO;
 import com.portfolio2025.first.dto.event.TradeSavedEvent;
-import com.portfolio2025.first.service.KafkaProducerService;
-import com.portfolio2025.first.service.RedisStockOrderService;
+import com.portfolio2025.first.service.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -14,6 +12,12 @@ import org.springframework.transaction.event.TransactionalEventListener;
  * 체결 객체 생성 이후 Redis 반영 위한 event 발행
  * 후속 처리 가능
  * Transaction commit 이후 동기적으로 이벤트 발행 처리하기 - AFTER_COMMIT
+ * [08.08]
+ * (수정) 잔여 수량은 호가창에서 이미 제자리 차감되므로 trade.synced 는 체결 완료 알림 용도로만 사용
+ * [08.15]
+ * (수정) AFTER_COMMIT 직접 발행 -> BEFORE_COMMIT 에 outbox 저장 - Trade 와 이벤트가 같은 트랜잭션으로 커밋
+ * [08.19]
+ * (수정) key tradeId -> stockCode - 같은 종목의 체결 알림은 체결 순서대로 소비
  */
 
 @Component
@@ -21,13 +25,12 @@ import org.springframework.transaction.event.TransactionalEventListener;
 @Slf4j
 public class TradeRedisSyncListener {
 
-    private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
 
-    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
     public void handleTradeSavedEvent(TradeSavedEvent event) {
         log.info("[RedisSync] TradeSavedEvent 수신 - tradeId: {}", event.getTradeId());
 
-        // ✅ Kafka로 그대로 이벤트 발행
-        kafkaProducerService.publishTradeSyncRequest(event);
+        outboxService.append("trade.synced", event.getBuyDTO().getStockCode(), event);
     }
 }
@@ -0,0 +1,64 @@
+package com.portfolio2025.first.loadgen;
+
+import java.util.Arrays;
+
+/**
+ * 부하 테스트 요청 지연 시간(ns)을 모아서 백분위를 계산하는 LatencyRecorder
+ * [08.12]
+ * (추가) 워커 스레드마다 하나씩 사용 (동기화 없음) -> 종료 후 merge 해서 한 번만 정렬
+ *       표본 전체를 보관하므로 p99.9 / max 도 근사 없이 정확함 (주문 100만 건 = 8MB)
+ */
+public class LatencyRecorder {
+
+    private long[] samples;
+    private int count;
+    private boolean sorted;
+
+    public LatencyRecorder(int expectedCount) {
+        this.samples = new long[Math.max(16, expectedCount)];
+    }
+
+    public void record(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = latencyNanos;
+        sorted = false;
+    }
+
+    public void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            record(other.samples[i]);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /** percentile 은 0 ~ 100 (nearest-rank) **/
+    public long percentileMicros(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        sortIfNecessary();
+        // 99.9 같은 값은 double 오차로 999.0000001 이 되어 한 칸 밀리므로 아주 작은 값을 빼고 올림
+        int rank = (int) Math.ceil(percentile * count / 100.0 - 1e-9);
+        return samples[Math.min(count, Math.max(1, rank)) - 1] / 1_000;
+    }
+
+    public long maxMicros() {
+        if (count == 0) {
+            return 0;
+        }
+        sortIfNecessary();
+        return samples[count - 1] / 1_000;
+    }
+
+    private void sortIfNecessary() {
+        if (!sorted) {
+            Arrays.sort(samples, 0, count);
+            sorted = true;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.portfolio2025.first.loadgen;
+
+import com.portfolio2025.first.dto.LoadTestReportDTO;
+import com.portfolio2025.first.dto.LoadTestRequestDTO;
+import com.portfolio2025.first.dto.StockOrderRequestDTO;
+import com.portfolio2025.first.service.BuyOrderProcessor;
+import com.portfolio2025.first.service.SellOrderProcessor;
+import com.portfolio2025.first.service.StockOrderProcessor;
+import com.portfolio2025.first.service.StockOrderService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 여러 사용자 / 종목에 매수 / 매도 주문을 동시에 넣고 처리량과 지연 시간을 측정하는 LoadGenerator
+ * [08.12]
+ * (추가) TestOrderController(사용자 2명, 종목 1개, 2주 고정) 대체 - 실제와 비슷한 경합 상황 재현
+ *       종목은 Zipf 분포, 가격은 기준가 +- priceSpreadTicks 호가 균등 분포 -> 매수 / 매도 가격이 겹쳐서 실제 체결이 일어남
+ *       StockOrderService.placeSingleOrder 를 그대로 호출 (포트폴리오 락 / 예약 / 저장 / AFTER_COMMIT Kafka 발행까지 포함)
+ * (추가) targetRate 를 주면 주문마다 예정된 시작 시각을 정해두고 그 시각부터 지연 시간을 잼
+ *       서버가 밀려서 늦게 보낸 주문의 대기 시간도 포함됨 (coordinated omission 보정)
+ * [08.25]
+ * (수정) LoadTestController 와 같이 loadgen.enabled=true 일 때만 빈 등록 - 운영 서버에는 시드 / 부하 생성기가 뜨지 않음
+ *
+ * [고민]
+ * 1. 주문 접수 지연만 측정 - 체결까지의 지연은 matching.pass.executed 등 지표로 따로 확인
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "loadgen.enabled", havingValue = "true")
+public class LoadGenerator {
+
+    private final StockOrderService stockOrderService;
+    private final BuyOrderProcessor buyOrderProcessor;
+    private final SellOrderProcessor sellOrderProcessor;
+
+    public LoadTestReportDTO run(LoadTestRequestDTO request, LoadTestFixture fixture) {
+        if (request.getThreads() < 1 || request.getOrders() < 1) {
+            throw new IllegalArgumentException("스레드 수와 주문 수는 1 이상이어야 합니다.");
+        }
+
+        ZipfSampler symbolSampler = new ZipfSampler(fixture.stockCodes().size(), request.getZipfSkew());
+        AtomicInteger issued = new AtomicInteger();
+        LongAdder accepted = new LongAdder();
+        Map<String, LongAdder> rejectReasons = new ConcurrentHashMap<>();
+        long intervalNanos = request.getTargetRate() > 0 ? 1_000_000_000L / request.getTargetRate() : 0;
+
+        AtomicInteger clientIndex = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(request.getThreads(), r -> {
+            Thread thread = new Thread(r, "load-client-" + clientIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        log.info("[LoadTest] 시작 - 주문 {}건, 클라이언트 {}개, 목표 {}/s, 종목 {}개(skew {}), 사용자 {}명",
+                request.getOrders(), request.getThreads(), request.getTargetRate() > 0 ? request.getTargetRate() : "max",
+                fixture.stockCodes().size(), request.getZipfSkew(), fixture.userIds().size());
+
+        long startedAt = System.nanoTime();
+        List<Future<LatencyRecorder>> futures = new ArrayList<>(request.getThreads());
+        for (int i = 0; i < request.getThreads(); i++) {
+            futures.add(clients.submit(() -> {
+                LatencyRecorder recorder = new LatencyRecorder(request.getOrders() / request.getThreads() + 1);
+                int sequence;
+                while ((sequence = issued.getAndIncrement()) < request.getOrders()) {
+                    long scheduledAt = intervalNanos > 0 ? startedAt + sequence * intervalNanos : System.nanoTime();
+                    waitUntil(scheduledAt);
+                    try {
+                        placeRandomOrder(request, fixture, symbolSampler);
+                        accepted.increment();
+                    } catch (Exception e) {
+                        rejectReasons.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                    }
+                    recorder.record(System.nanoTime() - scheduledAt);
+                }
+                return recorder;
+            }));
+        }
+
+        LatencyRecorder latencies = new LatencyRecorder(request.getOrders());
+        try {
+            for (Future<LatencyRecorder> future : futures) {
+                latencies.merge(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("부하 테스트가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("부하 테스트 클라이언트 실행 실패", e.getCause());
+        } finally {
+            clients.shutdownNow();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+
+        Map<String, Long> reasons = new TreeMap<>();
+        rejectReasons.forEach((reason, count) -> reasons.put(reason, count.sum()));
+        long rejected = reasons.values().stream().mapToLong(Long::longValue).sum();
+
+        LoadTestReportDTO report = new LoadTestReportDTO(
+                request.getOrders(), accepted.sum(), rejected, reasons,
+                elapsedMillis, accepted.sum() * 1_000.0 / elapsedMillis,
+                latencies.percentileMicros(50), latencies.percentileMicros(90),
+                latencies.percentileMicros(99), latencies.percentileMicros(99.9), latencies.maxMicros());
+        log.info("[LoadTest] 완료 - {}", report);
+        return report;
+    }
+
+    private void placeRandomOrder(LoadTestRequestDTO request, LoadTestFixture fixture, ZipfSampler symbolSampler) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        Long userId = fixture.userIds().get(random.nextInt(fixture.userIds().size()));
+        String stockCode = fixture.stockCodes().get(symbolSampler.next());
+        int tickOffset = random.nextInt(-request.getPriceSpreadTicks(), request.getPriceSpreadTicks() + 1);
+        long price = Math.max(request.getTickSize(), request.getMidPrice() + tickOffset * request.getTickSize());
+        long quantity = random.nextLong(1, request.getMaxQuantity() + 1);
+
+        StockOrderProcessor processor = random.nextDouble() < request.getBuyRatio()
+                ? buyOrderProcessor
+                : sellOrderProcessor;
+        stockOrderService.placeSingleOrder(new StockOrderRequestDTO(stockCode, quantity, price, userId), processor);
+    }
+
+    private static void waitUntil(long scheduledAt) {
+        long remaining;
+        while ((remaining = scheduledAt - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
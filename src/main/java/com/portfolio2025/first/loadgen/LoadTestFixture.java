@@ -0,0 +1,11 @@
+package com.portfolio2025.first.loadgen;
+
+import java.util.List;
+
+/**
+ * LoadTestSeeder 가 만든 부하 테스트 대상 - 주문을 넣을 사용자 id / 종목 코드(인기 순)
+ * [08.12]
+ * (추가) stockCodes 의 index 가 ZipfSampler 순위 (0번이 가장 많이 거래됨)
+ */
+public record LoadTestFixture(String runId, List<Long> userIds, List<String> stockCodes) {
+}
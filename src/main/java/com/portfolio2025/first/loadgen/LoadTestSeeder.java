@@ -0,0 +1,124 @@
+package com.portfolio2025.first.loadgen;
+
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.PortfolioStock;
+import com.portfolio2025.first.domain.PortfolioType;
+import com.portfolio2025.first.domain.User;
+import com.portfolio2025.first.domain.stock.Stock;
+import com.portfolio2025.first.domain.vo.Money;
+import com.portfolio2025.first.domain.vo.Quantity;
+import com.portfolio2025.first.dto.LoadTestRequestDTO;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 부하 테스트용 사용자 / 포트폴리오 / 현금 / 보유 주식 / 종목을 한 번에 생성하는 LoadTestSeeder
+ * [08.12]
+ * (추가) 계좌 개설 / 이체 API 를 거치지 않고 포트폴리오에 바로 입금 - 수천 명도 몇 초 안에 준비
+ *       BATCH_SIZE 마다 flush + clear 해서 영속성 컨텍스트가 커지지 않게 함
+ *       종목은 이미 있으면 재사용 (같은 DB 에 여러 번 실행 가능), 사용자는 runId 로 구분해서 매번 새로 생성
+ * [08.25]
+ * (수정) LoadTestController 와 같이 loadgen.enabled=true 일 때만 빈 등록 - 운영 서버에는 시드 / 부하 생성기가 뜨지 않음
+ *
+ * [고민]
+ * 1. IDENTITY 전략이라 INSERT 가 JDBC 배치로 묶이지 않음 - 대량 생성 시 가장 느린 부분
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "loadgen.enabled", havingValue = "true")
+public class LoadTestSeeder {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String STOCK_CODE_PREFIX = "LD";
+
+    private final EntityManager entityManager;
+
+    @Transactional
+    public LoadTestFixture seed(LoadTestRequestDTO request) {
+        if (request.getUsers() < 1 || request.getSymbols() < 1) {
+            throw new IllegalArgumentException("사용자 수와 종목 수는 1 이상이어야 합니다.");
+        }
+        long startedAt = System.nanoTime();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        List<String> stockCodes = new ArrayList<>(request.getSymbols());
+        List<Long> stockIds = seedStocks(request, stockCodes);
+        List<Long> userIds = seedUsers(request, runId, stockIds);
+
+        log.info("[LoadTest] 시드 생성 완료 - runId: {}, 사용자 {}명, 종목 {}개, {}ms",
+                runId, userIds.size(), stockCodes.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        return new LoadTestFixture(runId, userIds, stockCodes);
+    }
+
+    /** 종목 코드 순서대로 stock id 를 반환 **/
+    private List<Long> seedStocks(LoadTestRequestDTO request, List<String> stockCodes) {
+        List<Long> stockIds = new ArrayList<>(request.getSymbols());
+        for (int i = 0; i < request.getSymbols(); i++) {
+            String stockCode = STOCK_CODE_PREFIX + String.format("%04d", i);
+            Long stockId = entityManager.createQuery(
+                            "SELECT s.id FROM Stock s WHERE s.stockCode = :stockCode", Long.class)
+                    .setParameter("stockCode", stockCode)
+                    .getResultStream()
+                    .findFirst()
+                    .orElseGet(() -> createStock(request, stockCode));
+            stockCodes.add(stockCode);
+            stockIds.add(stockId);
+        }
+        return stockIds;
+    }
+
+    private Long createStock(LoadTestRequestDTO request, String stockCode) {
+        Stock stock = Stock.builder()
+                .stockCode(stockCode)
+                .stockName("부하테스트-" + stockCode)
+                .stockPrice(new Money(request.getMidPrice()))
+                .availableQuantity(new Quantity(request.getInitialHolding() * request.getUsers()))
+                .build();
+        entityManager.persist(stock);
+        return stock.getId();
+    }
+
+    private List<Long> seedUsers(LoadTestRequestDTO request, String runId, List<Long> stockIds) {
+        List<Long> userIds = new ArrayList<>(request.getUsers());
+        List<User> pending = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < request.getUsers(); i++) {
+            String loginId = "load-" + runId + "-" + i;
+            User user = User.createUser(loginId, "load-test", null, loginId + "@load.test", loginId);
+            Portfolio portfolio = Portfolio.createPortfolio(user, PortfolioType.STOCK);
+            portfolio.deposit(new Money(request.getInitialCash()));
+            entityManager.persist(user); // cascade 로 portfolio 까지 저장
+
+            // 매도 주문이 보유 수량 부족으로 거절되지 않도록 모든 종목을 보유한 상태로 시작
+            // clear 이후에도 쓸 수 있도록 종목은 reference 로 연결 (SELECT 없이 FK 만 사용)
+            for (Long stockId : stockIds) {
+                entityManager.persist(PortfolioStock.createPortfolioStock(
+                        portfolio, entityManager.getReference(Stock.class, stockId),
+                        new Quantity(request.getInitialHolding()), new Money(request.getMidPrice())));
+            }
+
+            pending.add(user);
+            if (pending.size() == BATCH_SIZE) {
+                flushAndClear(pending, userIds);
+            }
+        }
+        flushAndClear(pending, userIds);
+        return userIds;
+    }
+
+    private void flushAndClear(List<User> pending, List<Long> userIds) {
+        entityManager.flush();
+        for (User user : pending) {
+            userIds.add(user.getId());
+        }
+        pending.clear();
+        entityManager.clear();
+    }
+}
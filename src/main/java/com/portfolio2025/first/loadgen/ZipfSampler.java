@@ -0,0 +1,53 @@
+package com.portfolio2025.first.loadgen;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 0 ~ size-1 중 하나를 Zipf 분포(k 번째 확률 ∝ 1 / k^skew)로 뽑는 ZipfSampler
+ * [08.12]
+ * (추가) 부하 테스트에서 종목 선택용 - 실제 거래처럼 소수 인기 종목에 주문이 몰리는 상황 재현
+ *       누적 확률 배열을 미리 만들어 두고 이진 탐색 (O(log n), 공유해도 안전)
+ *
+ * [고민]
+ * 1. skew = 0 이면 균등 분포, 1 근처가 일반적인 인기도 분포
+ */
+public final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    public ZipfSampler(int size, double skew) {
+        if (size < 1) {
+            throw new IllegalArgumentException("표본 크기는 1 이상이어야 합니다. size=" + size);
+        }
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew 는 0 이상이어야 합니다. skew=" + skew);
+        }
+
+        cumulative = new double[size];
+        double sum = 0;
+        for (int k = 0; k < size; k++) {
+            sum += 1.0 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= sum;
+        }
+        cumulative[size - 1] = 1.0; // 부동소수 오차로 마지막 값이 1 미만이 되는 경우 방지
+    }
+
+    public int next() {
+        return sample(ThreadLocalRandom.current().nextDouble());
+    }
+
+    /** uniform 은 [0, 1) 구간 값 **/
+    public int sample(double uniform) {
+        int index = Arrays.binarySearch(cumulative, uniform);
+        // 정확히 일치하면 그 다음 칸부터가 해당 구간 (누적값 경계는 다음 원소 몫)
+        return index >= 0 ? Math.min(index + 1, cumulative.length - 1) : -index - 1;
+    }
+
+    public int size() {
+        return cumulative.length;
+    }
+}
@@ -0,0 +1,9 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.ledger.LedgerCheckpoint;
+import java.time.LocalDateTime;
+
+public interface LedgerCheckpointRepository extends BaseRepository<LedgerCheckpoint, String> {
+    /** from 위치에서 to 위치로 이동 - 다른 곳에서 먼저 옮겼으면 0 **/
+    int advance(String name, long from, long to, LocalDateTime now);
+}
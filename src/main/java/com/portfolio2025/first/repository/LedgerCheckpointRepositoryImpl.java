@@ -0,0 +1,26 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.ledger.LedgerCheckpoint;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class LedgerCheckpointRepositoryImpl extends BaseRepositoryImpl<LedgerCheckpoint, String>
+        implements LedgerCheckpointRepository {
+    public LedgerCheckpointRepositoryImpl(EntityManager em) {
+        super(em, LedgerCheckpoint.class);
+    }
+
+    @Override
+    public int advance(String name, long from, long to, LocalDateTime now) {
+        String jpql = "UPDATE LedgerCheckpoint c SET c.flushedRecords = :to, c.updatedAt = :now "
+                + "WHERE c.name = :name AND c.flushedRecords = :from";
+        return em.createQuery(jpql)
+                .setParameter("to", to)
+                .setParameter("now", now)
+                .setParameter("name", name)
+                .setParameter("from", from)
+                .executeUpdate();
+    }
+}
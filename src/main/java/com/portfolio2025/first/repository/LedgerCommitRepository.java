@@ -0,0 +1,12 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.ledger.LedgerCommit;
+import java.util.Collection;
+import java.util.List;
+
+public interface LedgerCommitRepository extends BaseRepository<LedgerCommit, Long> {
+    /** 커밋 표시가 남아 있는 txId 만 **/
+    List<Long> findExistingTxIds(Collection<Long> txIds);
+
+    int deleteByTxIds(Collection<Long> txIds);
+}
@@ -0,0 +1,34 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.ledger.LedgerCommit;
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class LedgerCommitRepositoryImpl extends BaseRepositoryImpl<LedgerCommit, Long> implements LedgerCommitRepository {
+    public LedgerCommitRepositoryImpl(EntityManager em) {
+        super(em, LedgerCommit.class);
+    }
+
+    @Override
+    public List<Long> findExistingTxIds(Collection<Long> txIds) {
+        if (txIds.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("SELECT c.txId FROM LedgerCommit c WHERE c.txId IN :txIds", Long.class)
+                .setParameter("txIds", txIds)
+                .getResultList();
+    }
+
+    @Override
+    public int deleteByTxIds(Collection<Long> txIds) {
+        if (txIds.isEmpty()) {
+            return 0;
+        }
+        return em.createQuery("DELETE FROM LedgerCommit c WHERE c.txId IN :txIds")
+                .setParameter("txIds", txIds)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,17 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface LedgerEntryRepository extends BaseRepository<LedgerEntry, Long> {
+    /** 아직 압축되지 않은 원장 행의 잔액별 합계 (캐시 초기화용) **/
+    Map<BalanceKey, Long> sumByBalanceKey();
+
+    /** 압축 대상 - id(기록 순서) 순으로 최대 limit 건 **/
+    List<LedgerEntry> findOldest(int limit);
+
+    int deleteByIds(Collection<Long> ids);
+}
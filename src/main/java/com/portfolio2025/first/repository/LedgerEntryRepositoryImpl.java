@@ -0,0 +1,46 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class LedgerEntryRepositoryImpl extends BaseRepositoryImpl<LedgerEntry, Long> implements LedgerEntryRepository {
+    public LedgerEntryRepositoryImpl(EntityManager em) {
+        super(em, LedgerEntry.class);
+    }
+
+    @Override
+    public Map<BalanceKey, Long> sumByBalanceKey() {
+        String jpql = "SELECT e.portfolioId, e.assetId, e.bucket, SUM(e.amount) FROM LedgerEntry e "
+                + "GROUP BY e.portfolioId, e.assetId, e.bucket";
+        Map<BalanceKey, Long> sums = new HashMap<>();
+        for (Object[] row : em.createQuery(jpql, Object[].class).getResultList()) {
+            sums.put(new BalanceKey((Long) row[0], (Long) row[1], (LedgerBucket) row[2]), (Long) row[3]);
+        }
+        return sums;
+    }
+
+    @Override
+    public List<LedgerEntry> findOldest(int limit) {
+        return em.createQuery("SELECT e FROM LedgerEntry e ORDER BY e.id", LedgerEntry.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return em.createQuery("DELETE FROM LedgerEntry e WHERE e.id IN :ids")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+}
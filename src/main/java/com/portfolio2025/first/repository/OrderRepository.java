@@ -1,9 +1,14 @@
 package com.portfolio2025.first.repository;
 
 import com.portfolio2025.first.domain.Order;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface OrderRepository extends BaseRepository<Order, Long>{
     /** JOIN FETCH : Order and StockOrder**/
     Optional<Order> findByIdWithStockOrders(Long orderId);
+
+    /** 배치 컨슈머용 IN 조회 - JOIN FETCH : Order and StockOrder **/
+    List<Order> findAllByIdsWithStockOrders(Collection<Long> orderIds);
 }
@@ -2,6 +2,7 @@ package com.portfolio2025.first.repository;
 
 import com.portfolio2025.first.domain.Order;
 import jakarta.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Repository;
@@ -25,4 +26,18 @@ public class OrderRepositoryImpl extends BaseRepositoryImpl<Order, Long> impleme
 
         return result.stream().findFirst();
     }
+
+    @Override
+    public List<Order> findAllByIdsWithStockOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery(
+                        "SELECT DISTINCT o FROM Order o " +
+                                "JOIN FETCH o.stockOrders so " +
+                                "JOIN FETCH so.stock " +
+                                "WHERE o.id IN :orderIds", Order.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+    }
 }
@@ -0,0 +1,19 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.outbox.OutboxEvent;
+import com.portfolio2025.first.domain.outbox.OutboxStatus;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends BaseRepository<OutboxEvent, Long> {
+    /** 발행 대기 이벤트를 id(저장 순서) 순으로 최대 limit 건 **/
+    List<OutboxEvent> findPending(int limit);
+
+    /** 벌크 상태 변경 - 변경된 행 수 **/
+    int updateStatus(Collection<Long> ids, OutboxStatus status, LocalDateTime sentAt);
+
+    int increaseAttempts(Collection<Long> ids);
+
+    int deleteSentBefore(LocalDateTime threshold);
+}
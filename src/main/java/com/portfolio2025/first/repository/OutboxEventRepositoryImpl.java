@@ -0,0 +1,58 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.outbox.OutboxEvent;
+import com.portfolio2025.first.domain.outbox.OutboxStatus;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class OutboxEventRepositoryImpl extends BaseRepositoryImpl<OutboxEvent, Long> implements OutboxEventRepository {
+    public OutboxEventRepositoryImpl(EntityManager em) {
+        super(em, OutboxEvent.class);
+    }
+
+    @Override
+    public List<OutboxEvent> findPending(int limit) {
+        String jpql = "SELECT e FROM OutboxEvent e WHERE e.status = :status ORDER BY e.id";
+        return em.createQuery(jpql, OutboxEvent.class)
+                .setParameter("status", OutboxStatus.PENDING)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int updateStatus(Collection<Long> ids, OutboxStatus status, LocalDateTime sentAt) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String jpql = "UPDATE OutboxEvent e SET e.status = :status, e.sentAt = :sentAt WHERE e.id IN :ids";
+        return em.createQuery(jpql)
+                .setParameter("status", status)
+                .setParameter("sentAt", sentAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public int increaseAttempts(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        String jpql = "UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids";
+        return em.createQuery(jpql)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    @Override
+    public int deleteSentBefore(LocalDateTime threshold) {
+        String jpql = "DELETE FROM OutboxEvent e WHERE e.status = :status AND e.sentAt < :threshold";
+        return em.createQuery(jpql)
+                .setParameter("status", OutboxStatus.SENT)
+                .setParameter("threshold", threshold)
+                .executeUpdate();
+    }
+}
@@ -3,14 +3,26 @@ package com.portfolio2025.first.repository;
 import com.portfolio2025.first.domain.Portfolio;
 import com.portfolio2025.first.domain.PortfolioType;
 import com.portfolio2025.first.domain.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PortfolioRepository extends BaseRepository<Portfolio, Long>{
     Optional<Portfolio> findByUserAndType(User user, PortfolioType portfolioType);
 
+    /** PESSIMISTIC_WRITE - 락 순서 정책(OptimisticRetryExecutor)을 따르는 곳에서만 사용 **/
     Optional<Portfolio> findByIdForUpdate(Long portfolioId);
 
+    /** 락 없음 - 주문 접수는 @Version 충돌 시 재시도 **/
     Optional<Portfolio> findByUserIdAndPortfolioType(Long userId, PortfolioType portfolioType);
 
+    Optional<Portfolio> findByUserIdAndPortfolioTypeForUpdate(Long userId, PortfolioType portfolioType);
+
     boolean existsByUserIdAndPortfolioType(Long userId, PortfolioType portfolioType);
+
+    /** 원장 압축용 - id 오름차순 **/
+    List<Portfolio> findAllByIds(Collection<Long> portfolioIds);
+
+    /** 원장 캐시 초기화용 현금 스냅샷 - [portfolioId, availableCash, reservedCash] **/
+    List<Long[]> findCashSnapshots();
 }
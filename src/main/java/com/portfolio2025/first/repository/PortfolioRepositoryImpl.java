@@ -5,6 +5,7 @@ import com.portfolio2025.first.domain.PortfolioType;
 import com.portfolio2025.first.domain.User;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Repository;
@@ -39,10 +40,23 @@ public class PortfolioRepositoryImpl extends BaseRepositoryImpl<Portfolio, Long>
         return result.stream().findFirst();
     }
 
+    // 락 없이 조회 - 동시 수정은 @Version 으로 감지
     @Override
     public Optional<Portfolio> findByUserIdAndPortfolioType(Long userId, PortfolioType portfolioType) {
         String jpql = "SELECT p FROM Portfolio p WHERE p.user.id = :userId AND p.portfolioType = :type";
 
+        List<Portfolio> result = em.createQuery(jpql, Portfolio.class)
+                .setParameter("userId", userId)
+                .setParameter("type", portfolioType)
+                .getResultList();
+
+        return result.stream().findFirst();
+    }
+
+    @Override
+    public Optional<Portfolio> findByUserIdAndPortfolioTypeForUpdate(Long userId, PortfolioType portfolioType) {
+        String jpql = "SELECT p FROM Portfolio p WHERE p.user.id = :userId AND p.portfolioType = :type";
+
         List<Portfolio> result = em.createQuery(jpql, Portfolio.class)
                 .setParameter("userId", userId)
                 .setParameter("type", portfolioType)
@@ -75,4 +89,24 @@ public class PortfolioRepositoryImpl extends BaseRepositoryImpl<Portfolio, Long>
 
         return count > 0;
     }
+
+    @Override
+    public List<Portfolio> findAllByIds(Collection<Long> portfolioIds) {
+        if (portfolioIds.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("SELECT p FROM Portfolio p WHERE p.id IN :ids ORDER BY p.id", Portfolio.class)
+                .setParameter("ids", portfolioIds)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long[]> findCashSnapshots() {
+        String jpql = "SELECT p.id, p.availableCash.moneyValue, p.reservedCash.moneyValue FROM Portfolio p";
+        return em.createQuery(jpql, Object[].class)
+                .getResultList()
+                .stream()
+                .map(row -> new Long[]{(Long) row[0], (Long) row[1], (Long) row[2]})
+                .toList();
+    }
 }
@@ -3,9 +3,22 @@ package com.portfolio2025.first.repository;
 import com.portfolio2025.first.domain.Portfolio;
 import com.portfolio2025.first.domain.PortfolioStock;
 import com.portfolio2025.first.domain.stock.Stock;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PortfolioStockRepository extends BaseRepository<PortfolioStock, Long> {
-    // 추가 기능
+    // 추가 기능 - 락 없음 (@Version)
     Optional<PortfolioStock> findByPortfolioAndStock(Portfolio portfolio, Stock stock);
+
+    /** 배치 체결용 IN 조회 **/
+    List<PortfolioStock> findAllByPortfoliosAndStocks(Collection<Portfolio> portfolios, Collection<Stock> stocks);
+
+    Optional<PortfolioStock> findByPortfolioIdAndStockId(Long portfolioId, Long stockId);
+
+    /** 원장 압축용 IN 조회 - 두 목록의 모든 조합 중 존재하는 행 **/
+    List<PortfolioStock> findAllByPortfolioIdsAndStockIds(Collection<Long> portfolioIds, Collection<Long> stockIds);
+
+    /** 원장 캐시 초기화용 수량 스냅샷 - [portfolioId, stockId, portfolioQuantity, reservedQuantity] **/
+    List<Long[]> findQuantitySnapshots();
 }
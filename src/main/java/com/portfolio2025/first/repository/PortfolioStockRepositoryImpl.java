@@ -4,7 +4,7 @@ import com.portfolio2025.first.domain.Portfolio;
 import com.portfolio2025.first.domain.PortfolioStock;
 import com.portfolio2025.first.domain.stock.Stock;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Repository;
@@ -15,7 +15,7 @@ public class PortfolioStockRepositoryImpl extends BaseRepositoryImpl <PortfolioS
         super(em, PortfolioStock.class);
     }
 
-    // PESSIMISTIC_WRITE - DB 락 반영함
+    // 락 없이 조회 - 매도 예약과 체결 정산의 동시 수정은 @Version 으로 감지
     @Override
     public Optional<PortfolioStock> findByPortfolioAndStock(Portfolio portfolio, Stock stock) {
         String jqpl = "select ps from PortfolioStock ps where "
@@ -24,9 +24,63 @@ public class PortfolioStockRepositoryImpl extends BaseRepositoryImpl <PortfolioS
         List<PortfolioStock> resultList = em.createQuery(jqpl, PortfolioStock.class)
                 .setParameter("portfolio", portfolio)
                 .setParameter("stock", stock)
-                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
                 .getResultList();
 
         return resultList.stream().findFirst();
     }
+
+    // 락 없이 조회 (@Version), 정렬은 id 순서 유지
+    @Override
+    public List<PortfolioStock> findAllByPortfoliosAndStocks(Collection<Portfolio> portfolios,
+                                                             Collection<Stock> stocks) {
+        if (portfolios.isEmpty() || stocks.isEmpty()) {
+            return List.of();
+        }
+        String jpql = "select ps from PortfolioStock ps where "
+                + "ps.portfolio in :portfolios and ps.stock in :stocks order by ps.id";
+
+        return em.createQuery(jpql, PortfolioStock.class)
+                .setParameter("portfolios", portfolios)
+                .setParameter("stocks", stocks)
+                .getResultList();
+    }
+
+    @Override
+    public Optional<PortfolioStock> findByPortfolioIdAndStockId(Long portfolioId, Long stockId) {
+        String jpql = "select ps from PortfolioStock ps where "
+                + "ps.portfolio.id = :portfolioId and ps.stock.id = :stockId";
+
+        return em.createQuery(jpql, PortfolioStock.class)
+                .setParameter("portfolioId", portfolioId)
+                .setParameter("stockId", stockId)
+                .getResultStream()
+                .findFirst();
+    }
+
+    @Override
+    public List<PortfolioStock> findAllByPortfolioIdsAndStockIds(Collection<Long> portfolioIds,
+                                                                 Collection<Long> stockIds) {
+        if (portfolioIds.isEmpty() || stockIds.isEmpty()) {
+            return List.of();
+        }
+        String jpql = "select ps from PortfolioStock ps where "
+                + "ps.portfolio.id in :portfolioIds and ps.stock.id in :stockIds order by ps.id";
+
+        return em.createQuery(jpql, PortfolioStock.class)
+                .setParameter("portfolioIds", portfolioIds)
+                .setParameter("stockIds", stockIds)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long[]> findQuantitySnapshots() {
+        String jpql = "select ps.portfolio.id, ps.stock.id, ps.portfolioQuantity.quantityValue, "
+                + "ps.reservedQuantity.quantityValue from PortfolioStock ps";
+
+        return em.createQuery(jpql, Object[].class)
+                .getResultList()
+                .stream()
+                .map(row -> new Long[]{(Long) row[0], (Long) row[1], (Long) row[2], (Long) row[3]})
+                .toList();
+    }
 }
@@ -2,12 +2,22 @@ package com.portfolio2025.first.repository;
 
 import com.portfolio2025.first.domain.Order;
 import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface StockOrderRepository extends BaseRepository<StockOrder, Long>{
     // Override (양방향 연관관계, 서로 추가해줘야 함)
     void save(StockOrder stockOrder, Order order);
 
-    /** PESSIMISTIC_WRITE 락 동반 **/
+    /** 락 없음 - 동시 수정은 @Version 으로 감지 **/
     Optional<StockOrder> findByIdWithAllRelations(Long id);
+
+    /** 배치 체결용 IN 조회 - 락 없음 (@Version), id 순서 **/
+    List<StockOrder> findAllByIdsWithAllRelations(Collection<Long> ids);
+
+    /** 호가창 재구성용 - PENDING / PARTIALLY_FILLED 주문을 종목 순서로 스트리밍 (트랜잭션 안에서 close 필요) **/
+    Stream<RestingStockOrderDTO> streamRestingOrders();
 }
@@ -2,9 +2,14 @@ package com.portfolio2025.first.repository;
 
 import com.portfolio2025.first.domain.Order;
 import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.domain.stock.StockOrderStatus;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -17,7 +22,7 @@ public class StockOrderRepositoryImpl extends BaseRepositoryImpl<StockOrder, Lon
         em.persist(stockOrder);
     }
 
-    /** StockOrder - order (-user) - portfolio **/
+    /** StockOrder - order (-user) - portfolio, 락 없음 (@Version) **/
     @Override
     public Optional<StockOrder> findByIdWithAllRelations(Long stockOrderId) {
         return em.createQuery("""
@@ -29,8 +34,49 @@ public class StockOrderRepositoryImpl extends BaseRepositoryImpl<StockOrder, Lon
                 WHERE so.id = :id
             """, StockOrder.class)
                 .setParameter("id", stockOrderId)
-                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
                 .getResultStream()
                 .findFirst();
     }
+
+    /** StockOrder - order (-user) - portfolio - stock, 락 없음 (@Version) - 조인된 users / portfolios 까지 잠그던 FOR UPDATE 제거 **/
+    @Override
+    public List<StockOrder> findAllByIdsWithAllRelations(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("""
+                SELECT so FROM StockOrder so
+                JOIN FETCH so.order o
+                JOIN FETCH o.user u
+                JOIN FETCH so.portfolio p
+                JOIN FETCH p.user pu
+                JOIN FETCH so.stock s
+                WHERE so.id IN :ids
+                ORDER BY so.id
+            """, StockOrder.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 생성자 projection + forward-only 커서
+     * MySQL Connector/J 는 fetchSize = Integer.MIN_VALUE 일 때만 결과를 한 줄씩 스트리밍함 (그 외에는 전체를 메모리에 적재)
+     */
+    @Override
+    public Stream<RestingStockOrderDTO> streamRestingOrders() {
+        return em.createQuery("""
+                SELECT new com.portfolio2025.first.dto.RestingStockOrderDTO(
+                    so.id, s.stockCode, so.requestedPrice.moneyValue, so.remainedQuantity.quantityValue,
+                    so.createdAt, o.orderType)
+                FROM StockOrder so
+                JOIN so.stock s
+                JOIN so.order o
+                WHERE so.stockOrderStatus IN :statuses
+                ORDER BY s.stockCode, so.id
+            """, RestingStockOrderDTO.class)
+                .setParameter("statuses", List.of(StockOrderStatus.PENDING, StockOrderStatus.PARTIALLY_FILLED))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Integer.MIN_VALUE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
 }
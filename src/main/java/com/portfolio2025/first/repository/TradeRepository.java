@@ -1,7 +1,12 @@
 package com.portfolio2025.first.repository;
 
 import com.portfolio2025.first.domain.Trade;
+import java.util.Collection;
+import java.util.List;
 
 public interface TradeRepository extends BaseRepository<Trade, Long> {
     boolean existsByBuyOrderAndSellOrder(Long buyOrderId, Long sellOrderId);
+
+    /** 배치 멱등성 체크용 - [buyOrderId, sellOrderId] 목록 **/
+    List<Long[]> findTradedOrderIds(Collection<Long> buyOrderIds, Collection<Long> sellOrderIds);
 }
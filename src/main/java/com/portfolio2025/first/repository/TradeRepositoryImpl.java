@@ -2,6 +2,8 @@ package com.portfolio2025.first.repository;
 
 import com.portfolio2025.first.domain.Trade;
 import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -19,4 +21,20 @@ public class TradeRepositoryImpl extends BaseRepositoryImpl<Trade, Long> impleme
                 .getSingleResult();
         return count > 0;
     }
+
+    @Override
+    public List<Long[]> findTradedOrderIds(Collection<Long> buyOrderIds, Collection<Long> sellOrderIds) {
+        if (buyOrderIds.isEmpty() || sellOrderIds.isEmpty()) {
+            return List.of();
+        }
+        String jpql = "SELECT t.buyOrder.id, t.sellOrder.id FROM Trade t "
+                + "WHERE t.buyOrder.id IN :buyOrderIds AND t.sellOrder.id IN :sellOrderIds";
+        return em.createQuery(jpql, Object[].class)
+                .setParameter("buyOrderIds", buyOrderIds)
+                .setParameter("sellOrderIds", sellOrderIds)
+                .getResultList()
+                .stream()
+                .map(row -> new Long[]{(Long) row[0], (Long) row[1]})
+                .toList();
+    }
 }
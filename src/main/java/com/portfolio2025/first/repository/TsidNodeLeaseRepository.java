@@ -0,0 +1,14 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.id.TsidNodeLease;
+import java.time.LocalDateTime;
+
+public interface TsidNodeLeaseRepository extends BaseRepository<TsidNodeLease, Integer> {
+    /** 만료된 임대만 가져옴 - 다른 서버가 먼저 가져갔으면 0 **/
+    int takeOver(int nodeId, String owner, LocalDateTime now, LocalDateTime expiredBefore);
+
+    /** 내 임대의 heartbeat 갱신 - 다른 서버에 넘어갔으면 0 **/
+    int renew(int nodeId, String owner, LocalDateTime now);
+
+    int release(int nodeId, String owner);
+}
@@ -0,0 +1,44 @@
+package com.portfolio2025.first.repository;
+
+import com.portfolio2025.first.domain.id.TsidNodeLease;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDateTime;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class TsidNodeLeaseRepositoryImpl extends BaseRepositoryImpl<TsidNodeLease, Integer> implements TsidNodeLeaseRepository {
+    public TsidNodeLeaseRepositoryImpl(EntityManager em) {
+        super(em, TsidNodeLease.class);
+    }
+
+    @Override
+    public int takeOver(int nodeId, String owner, LocalDateTime now, LocalDateTime expiredBefore) {
+        String jpql = "UPDATE TsidNodeLease l SET l.owner = :owner, l.heartbeatAt = :now "
+                + "WHERE l.nodeId = :nodeId AND l.heartbeatAt < :expiredBefore";
+        return em.createQuery(jpql)
+                .setParameter("owner", owner)
+                .setParameter("now", now)
+                .setParameter("nodeId", nodeId)
+                .setParameter("expiredBefore", expiredBefore)
+                .executeUpdate();
+    }
+
+    @Override
+    public int renew(int nodeId, String owner, LocalDateTime now) {
+        String jpql = "UPDATE TsidNodeLease l SET l.heartbeatAt = :now WHERE l.nodeId = :nodeId AND l.owner = :owner";
+        return em.createQuery(jpql)
+                .setParameter("now", now)
+                .setParameter("nodeId", nodeId)
+                .setParameter("owner", owner)
+                .executeUpdate();
+    }
+
+    @Override
+    public int release(int nodeId, String owner) {
+        String jpql = "DELETE FROM TsidNodeLease l WHERE l.nodeId = :nodeId AND l.owner = :owner";
+        return em.createQuery(jpql)
+                .setParameter("nodeId", nodeId)
+                .setParameter("owner", owner)
+                .executeUpdate();
+    }
+}
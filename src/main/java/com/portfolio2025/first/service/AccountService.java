@@ -17,6 +17,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 /**
  * 계좌 관련 로직
+ * [08.23]
+ * (유지) 외부 계좌 입출금은 비관적 락 유지 - Account 는 버전이 없고, 재시도하면 안 되는 외부 이동이라 대기가 더 안전
+ *       락 순서 정책(OptimisticRetryExecutor) 그대로 users -> accounts -> portfolios 순서로만 잠금
+ * [08.24]
+ * (수정) 포트폴리오 쪽 입출금은 원장 기록 (LedgerService - 상대 계정 EXTERNAL) - 포트폴리오 행은 잠그지 않고 조회만
+ *       출금 가능 여부는 원장 잔액 캐시에서 검증 (부족하면 IllegalArgumentException, 계좌 입금 전이라 함께 롤백)
  *
  */
 
@@ -28,6 +34,7 @@ public class AccountService {
     private final UserRepository userRepository;
     private final AccountRepository accountRepository;
     private final PortfolioRepository portfolioRepository;
+    private final LedgerService ledgerService;
 
     private void validateAccountCreateInput(User user, CreateAccountRequestDTO requestDTO) {
         if (user == null) {
@@ -64,7 +71,7 @@ public class AccountService {
                 .orElseThrow(() -> new IllegalArgumentException("사용자 정보가 없습니다."));
         Account account = accountRepository.findByAccountNumberWithLock(dto.getAccountNumber())
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        Portfolio portfolio = portfolioRepository.findByIdForUpdate(dto.getPortfolioId())
+        Portfolio portfolio = portfolioRepository.findById(dto.getPortfolioId())
                 .orElseThrow(() -> new IllegalArgumentException("Portfolio not found"));
 
         // 메서드화 하기
@@ -72,7 +79,7 @@ public class AccountService {
 
         Money amount = dto.toMoney();
         account.withdraw(amount); // 계좌에서 인출하고
-        portfolio.deposit(amount); // 포트폴리오에 입금
+        ledgerService.depositCash(portfolio, amount); // 포트폴리오에 입금 (원장)
     }
 
     private void validatePortfolioOwnership(Portfolio portfolio, User user) {
@@ -88,14 +95,14 @@ public class AccountService {
                 .orElseThrow(() -> new IllegalArgumentException("사용자 정보가 없습니다."));
         Account account = accountRepository.findByAccountNumberWithLock(dto.getAccountNumber())
                 .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        Portfolio portfolio = portfolioRepository.findByIdForUpdate(dto.getPortfolioId())
+        Portfolio portfolio = portfolioRepository.findById(dto.getPortfolioId())
                 .orElseThrow(() -> new IllegalArgumentException("Portfolio not found"));
 
         validatePortfolioOwnership(portfolio, user);
 
         Money amount = dto.toMoney();
 
-        portfolio.withdraw(amount); // 포트폴리오에서 출금
+        ledgerService.withdrawCash(portfolio, amount); // 포트폴리오에서 출금 (원장, 잔액 검증)
         account.deposit(amount); // 계좌에 입금
     }
 
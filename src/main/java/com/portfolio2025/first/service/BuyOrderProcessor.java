@@ -17,6 +17,10 @@ import org.springframework.stereotype.Component;
  *
  * [07.30]
  * (수정) 매수 주문 생성 시 주식의 수량은 따로 검증하지 않아도 되기 때문에 제외함(차라리 제한 로직을 두는게 더 나을 듯 - 최대 100개만)
+ * [08.24]
+ * (수정) 현금 예약은 Portfolio 행 수정 대신 원장 기록 (LedgerService.reserveCash) - 잔액 검증은 메모리 잔액 CAS
+ * [08.25]
+ * (수정) 잔액 검증은 포트폴리오 샤드 락 안의 메모리 연산, 원장 행은 커밋 후 저널 -> DB 는 LedgerWriteBehind 가 나중에 반영
  *
  * [고민]
  *
@@ -27,11 +31,12 @@ import org.springframework.stereotype.Component;
 public class BuyOrderProcessor implements StockOrderProcessor {
 
     private final ApplicationEventPublisher eventPublisher;
+    private final LedgerService ledgerService;
 
     @Override
     public void reserve(Portfolio portfolio, Stock stock, Quantity quantity, Money totalPrice) {
         // 매수 시 제한을 걸어야 하는 경우 이 곳에서 가능함
-        portfolio.reserveAndDeductCash(totalPrice); // 검증 + 실제 차감까지 진행함 - 네이밍 수정
+        ledgerService.reserveCash(portfolio, totalPrice); // 검증 + 거래 가능 -> 예약 이동을 원장에 기록
     }
 
     @Override
@@ -42,16 +47,8 @@ public class BuyOrderProcessor implements StockOrderProcessor {
     }
 
     @Override
-    public void publishEvent(Order order, Portfolio portfolio, Stock stock, Quantity quantity, Money price) {
-        OrderCreatedEvent event = new OrderCreatedEvent(
-                order.getId(),
-                portfolio.getUser().getId(),
-                portfolio.getId(),
-                stock.getStockCode(),
-                quantity.getQuantityValue(),
-                price.getMoneyValue(),
-                OrderType.BUY.name()
-        );
+    public void publishEvent(Order order) {
+        OrderCreatedEvent event = OrderCreatedEvent.from(order);
         // OrderRedisSyncListener에서 해당 이벤트 감지
         eventPublisher.publishEvent(event);
     }
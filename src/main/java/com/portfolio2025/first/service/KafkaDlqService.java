@@ -2,6 +2,11 @@ package com.portfolio2025.first.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.dto.event.EventCodec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +18,18 @@ import org.springframework.stereotype.Component;
  * Parse error or processing error 상황.
  * [07.30]
  *
+ * [08.14]
+ * (추가) sendPublishError - producer 재시도 후에도 발행에 실패한 이벤트를 publish.failed 토픽에 원본 topic / key 와 함께 보관
+ * (수정) DLQ 전송 결과를 콜백으로 확인 - DLQ 전송까지 실패하면 원본 메시지를 로그로 남김 (마지막 보관 수단)
+ *
+ * [08.18]
+ * (수정) 원본 메시지를 String 대신 Object 로 받음 - 이벤트 객체 / 바이너리 byte[] / 문자열
+ *       DLQ 에는 사람이 읽고 다시 발행할 수 있는 JSON 으로 남김 (바이너리는 EventCodec 으로 풀어서 JSON, 못 풀면 Base64)
+ *
+ * [08.20]
+ * (추가) sendMatchError - 재체결을 포기한 pair 를 match.failed 토픽에 보관 (key = stockCode)
+ *       호가창에서 빠진 수량이라 복구 시 필요한 주문 id / 가격 / 체결 수량을 함께 남김
+ *
  * [고민]
  * DQL 토픽 별로 구분해서 진행하는 방식도 가능함 - 인터페이스로 공통 기능을 추상화 하는 방식은 어떨까?
  */
@@ -25,40 +42,95 @@ public class KafkaDlqService {
     private final ObjectMapper objectMapper;
 
     private static final String DLQ_TOPIC = "invalid.order.created";
+    private static final String PUBLISH_DLQ_TOPIC = "publish.failed";
+    private static final String MATCH_DLQ_TOPIC = "match.failed";
 
     /**
      * JSON 파싱 실패 시 호출
      */
-    public void sendParseError(String topic, String rawMessage, Exception e) {
+    public void sendParseError(String topic, Object rawMessage, Exception e) {
         sendToDlq("parse_error", topic, rawMessage, e);
     }
 
     /**
      * 처리 중 예외 발생 시 호출
      */
-    public void sendProcessingError(String topic, String rawMessage, Exception e) {
+    public void sendProcessingError(String topic, Object rawMessage, Exception e) {
         sendToDlq("processing_error", topic, rawMessage, e);
     }
 
+    /**
+     * 발행 실패 시 호출 (KafkaProducerService 콜백 스레드)
+     */
+    public void sendPublishError(String topic, String key, Object rawMessage, Throwable e) {
+        send(PUBLISH_DLQ_TOPIC, key, Map.of(
+                "type", "publish_error",
+                "topic", topic,
+                "key", String.valueOf(key),
+                "message", toMessage(rawMessage),
+                "error", String.valueOf(e.getMessage())
+        ));
+    }
+
+    /**
+     * 재체결 포기 시 호출 (MatchRetryStage)
+     */
+    public void sendMatchError(String stockCode, MatchingPair pair, int attempts, Throwable e) {
+        send(MATCH_DLQ_TOPIC, stockCode, Map.of(
+                "type", "match_error",
+                "stockCode", stockCode,
+                "buyStockOrderId", pair.getBuyDTO().getId(),
+                "sellStockOrderId", pair.getSellDTO().getId(),
+                "buyPrice", pair.getBuyDTO().getRequestedPrice(),
+                "sellPrice", pair.getSellDTO().getRequestedPrice(),
+                "quantity", pair.getExecutableQuantityValue(),
+                "attempts", attempts,
+                "error", String.valueOf(e.getMessage())
+        ));
+    }
+
     /**
      * 공통 DLQ 전송 처리
      */
-    private void sendToDlq(String errorType, String originalTopic, String message, Exception e) {
-        Map<String, Object> payload = Map.of(
+    private void sendToDlq(String errorType, String originalTopic, Object message, Exception e) {
+        send(DLQ_TOPIC, null, Map.of(
                 "type", errorType,
                 "topic", originalTopic,
-                "message", message,
-                "error", e.getMessage()
-        );
+                "message", toMessage(message),
+                "error", String.valueOf(e.getMessage())
+        ));
+    }
 
+    private void send(String dlqTopic, String key, Map<String, Object> payload) {
         try {
             String json = objectMapper.writeValueAsString(payload);
-            stringKafkaTemplate.send(DLQ_TOPIC, json);
-            log.warn("📦 DLQ 전송 완료: {}", json);
+            stringKafkaTemplate.send(dlqTopic, key, json).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("❌ DLQ 전송 실패 - 원본 보관: {}", json, ex);
+                    return;
+                }
+                log.warn("📦 DLQ 전송 완료: {}", json);
+            });
         } catch (JsonProcessingException ex) {
             log.error("❌ DLQ 직렬화 실패", ex);
         } catch (Exception ex) {
             log.error("❌ DLQ 전송 실패", ex);
         }
     }
+
+    /** DLQ 에 남길 원본 - 문자열은 그대로, 이벤트 / 바이너리는 JSON **/
+    private String toMessage(Object raw) {
+        if (raw == null || raw instanceof String) {
+            return String.valueOf(raw);
+        }
+        if (raw instanceof byte[] bytes && !EventCodec.isBinary(bytes)) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        try {
+            Object event = raw instanceof byte[] bytes ? EventCodec.decode(ByteBuffer.wrap(bytes)) : raw;
+            return objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            return raw instanceof byte[] bytes ? Base64.getEncoder().encodeToString(bytes) : String.valueOf(raw);
+        }
+    }
 }
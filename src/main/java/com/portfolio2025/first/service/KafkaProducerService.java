@@ -1,17 +1,22 @@
 package com.portfolio2025.first.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.portfolio2025.first.dto.event.OrderCreatedEvent;
 import com.portfolio2025.first.dto.event.TradeSavedEvent;
-import java.util.HashMap;
-import java.util.Map;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Kafka 이벤트 발행을 담당하는 서비스 KafkaProducerService
@@ -19,52 +24,138 @@ import org.springframework.transaction.annotation.Transactional;
  * [07.30]
  * (수정) 매수 주문 생성 시 주식의 수량은 따로 검증하지 않아도 되기 때문에 제외함(차라리 제한 로직을 두는게 더 나을 듯 - 최대 100개만)
  *
+ * [08.14]
+ * (수정) send().get() 동기 발행 -> 비동기 발행 + 완료 콜백 - 주문 요청 스레드가 브로커 응답(ack)을 기다리지 않음
+ * (수정) REQUIRES_NEW 트랜잭션 제거 - DB 작업이 없는데 AFTER_COMMIT 리스너에서 커넥션을 하나 더 잡아서
+ *       동시 요청이 많으면 커넥션 풀이 고갈되던 문제 해결
+ * (추가) 전송 중(ack 대기) 레코드 수를 Semaphore 로 제한 - 브로커가 느려지면 발행 스레드가 잠깐 기다림(backpressure)
+ *       기다려도 자리가 나지 않으면 버퍼에 쌓지 않고 바로 DLQ 로 넘김
+ * (추가) 실패 처리 - producer 가 delivery.timeout.ms 안에서 재시도(idempotent)한 뒤에도 실패하면 KafkaDlqService 로 넘김
+ *       호출한 쪽으로 예외를 던지지 않음
+ * (추가) kafka.publish.inflight / kafka.publish.failed 지표
+ *
+ * [08.15]
+ * (추가) sendAsync - 발행 결과를 future 로 돌려주는 경로 (OutboxRelay), 실패 시 DLQ 대신 outbox 에 남겨서 재시도
+ *       order.created / trade.synced 는 outbox 를 거쳐서 발행됨 - publishOrderCreated / publishTradeSyncRequest 는 직접 발행용
+ *
+ * [08.18]
+ * (수정) 이벤트를 JSON 문자열로 바꾸지 않고 그대로 eventKafkaTemplate 에 넘김 - EventSerializer 가 바이너리로 인코딩
+ *       sendAsync 는 Object(이벤트 / outbox byte[] / 문자열)를 받음
+ *
+ * [08.19]
+ * (수정) order.created / trade.synced 도 stockCode 를 key 로 발행 - match.request 와 같은 종목 -> 파티션 배정
+ *
+ * [08.25]
+ * (수정) 발행 실패 처리(DLQ 전송)를 producer I/O 스레드가 아니라 failureExecutor 에서 실행
+ *       send 콜백은 producer 의 네트워크 스레드에서 돌아서, 그 안에서 send 가 막히면(버퍼 / 메타데이터 대기) 다른 레코드 전송도 멈춤
+ * (수정) failureExecutor 대기 큐에 상한(failure-queue-capacity) - 브로커 장애로 실패가 몰려도 메모리에 무한히 쌓지 않음
+ *       넘친 실패 처리는 예외 없이 버리고(producer 스레드로 예외가 올라가지 않도록) error 로그 + kafka.publish.failure.rejected 지표
  *
  * [고민]
- * send().get() -> 동기 처리를 진행하고 있는 상황( 아닌 경우는 어떤게 있고 어떤 차이가 있는지 알고 있어야 함)
- * 발행에 실패한 경우 DLQ 혹은 fallback 로직을 어떻게 구성할지도 생각해보기
+ * 발행 실패 시 DLQ 도 같은 브로커라서 함께 실패할 수 있음 - 유실되면 안 되는 이벤트는 outbox 사용
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KafkaProducerService {
 
-    private final KafkaTemplate<String, String> stringKafkaTemplate; // Match 트리거 역할
-    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, Object> eventKafkaTemplate; // 이벤트 + Match 트리거(종목 코드 문자열)
+    private final KafkaDlqService kafkaDlqService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.producer.max-in-flight-sends:10000}")
+    private int maxInFlightSends;
+
+    @Value("${kafka.producer.backpressure-timeout-ms:500}")
+    private long backpressureTimeoutMs;
+
+    @Value("${kafka.producer.failure-queue-capacity:10000}")
+    private int failureQueueCapacity;
+
+    private Semaphore inFlightPermits;
+    private Counter failedCounter;
+    private Counter rejectedCounter;
+    private ThreadPoolExecutor failureExecutor;
+
+    @PostConstruct
+    public void init() {
+        inFlightPermits = new Semaphore(maxInFlightSends);
+        failedCounter = meterRegistry.counter("kafka.publish.failed");
+        rejectedCounter = meterRegistry.counter("kafka.publish.failure.rejected");
+        failureExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(failureQueueCapacity),
+                r -> new Thread(r, "kafka-publish-failure"),
+                (task, executor) -> {
+                    rejectedCounter.increment();
+                    log.error("[Kafka] 발행 실패 처리 대기 큐가 가득 찼거나 종료됨 - DLQ 로 넘기지 못하고 버림. capacity={}",
+                            failureQueueCapacity);
+                });
+        meterRegistry.gauge("kafka.publish.inflight", inFlightPermits,
+                permits -> maxInFlightSends - permits.availablePermits());
+    }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW) // 같은 스레드, 하지만 기존 트랜잭션 중단 후 새로운 트랜잭션 시작
     public void publishOrderCreated(OrderCreatedEvent event) {
-        try {
-            String json = objectMapper.writeValueAsString(event);
-            stringKafkaTemplate.send("order.created", event.getOrderId().toString(), json).get(); // 동기 처리 중
-            log.info("[Kafka] order.created 이벤트 발행 성공: orderId={}\n json={}", event.getOrderId(), json);
-        } catch (Exception e) {
-            log.error("[Kafka] order.created 이벤트 발행 실패: orderId={}, 이유={}", event.getOrderId(), e.getMessage(), e);
-            throw new RuntimeException("Kafka 발행 실패: orderId = " + event.getOrderId(), e);
-        }
+        send("order.created", event.getStockCode(), event);
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW) // 같은 스레드, 하지만 기존 트랜잭션 중단 후 새로운 트랜잭션 시작
     public void publishMatchRequest(String stockCode) {
+        // stockCode 를 key 로 - 같은 종목은 항상 같은 파티션 -> 한 서버(컨슈머)만 체결 담당
+        send("match.request", stockCode, stockCode);
+    }
+
+    public void publishTradeSyncRequest(TradeSavedEvent event) {
+        send("trade.synced", event.getBuyDTO().getStockCode(), event);
+    }
+
+    /** 비동기 발행 - 호출 스레드는 버퍼에 넣고 바로 반환, 실패 처리는 failureExecutor 에서 **/
+    private void send(String topic, String key, Object value) {
+        sendAsync(topic, key, value).whenCompleteAsync((ignored, e) -> {
+            if (e != null) {
+                onFailure(topic, key, value, e instanceof CompletionException ? e.getCause() : e);
+            }
+        }, failureExecutor);
+    }
+
+    /**
+     * 발행 결과(ack)를 future 로 돌려줌 - 실패해도 DLQ 로 넘기지 않음 (OutboxRelay 가 다음 주기에 재시도)
+     * backpressure 대기는 동일하게 적용
+     */
+    public CompletableFuture<Void> sendAsync(String topic, String key, Object value) {
+        if (!acquirePermit()) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "전송 대기 레코드가 가득 찼습니다. max-in-flight-sends=" + maxInFlightSends));
+        }
+
         try {
-            stringKafkaTemplate.send("match.request", stockCode).get();
-            log.info("[Kafka] match.request 발행 성공: stockCode={}", stockCode);
-        } catch (Exception e) {
-            log.error("[Kafka] match.request 발행 실패: stockCode={}, 이유={}", stockCode, e.getMessage(), e);
-            throw new RuntimeException("Kafka 발행 실패: stockCode = " + stockCode, e);
+            return eventKafkaTemplate.send(topic, key, value)
+                    .whenComplete((result, e) -> inFlightPermits.release())
+                    .thenAccept(result -> log.debug("[Kafka] {} 발행 성공: key={}, partition={}, offset={}", topic, key,
+                            result.getRecordMetadata().partition(), result.getRecordMetadata().offset()));
+        } catch (RuntimeException e) {
+            // max.block.ms 초과(메타데이터 / 버퍼), 직렬화 실패 등 send() 자체가 실패한 경우
+            inFlightPermits.release();
+            return CompletableFuture.failedFuture(e);
         }
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW) // 같은 스레드, 하지만 기존 트랜잭션 중단 후 새로운 트랜잭션 시작
-    public void publishTradeSyncRequest(TradeSavedEvent event) {
+    private boolean acquirePermit() {
         try {
-            String json = objectMapper.writeValueAsString(event);
-            stringKafkaTemplate.send("trade.synced", event.getTradeId().toString(), json).get();
-            log.info("[Kafka] trade.synced 이벤트 발행 성공: tradeId={}\n json={}", event.getTradeId(), json);
-        } catch (Exception e) {
-            log.error("[Kafka] trade.synced 이벤트 발행 실패: tradeId={}, 이유={}", event.getTradeId(), e.getMessage(), e);
-            throw new RuntimeException("Kafka 발행 실패: tradeId = " + event.getTradeId(), e);
+            return inFlightPermits.tryAcquire(backpressureTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        failureExecutor.shutdown();
+        failureExecutor.awaitTermination(5, TimeUnit.SECONDS); // 남은 DLQ 전송은 마저 보냄
+    }
+
+    private void onFailure(String topic, String key, Object value, Throwable e) {
+        failedCounter.increment();
+        log.error("[Kafka] {} 이벤트 발행 실패: key={}, 이유={}", topic, key, e.getMessage(), e);
+        kafkaDlqService.sendPublishError(topic, key, value, e);
+    }
 }
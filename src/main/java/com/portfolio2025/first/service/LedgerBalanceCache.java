@@ -0,0 +1,212 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerJournal.Leg;
+import com.portfolio2025.first.repository.LedgerEntryRepository;
+import com.portfolio2025.first.repository.PortfolioRepository;
+import com.portfolio2025.first.repository.PortfolioStockRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 원장 잔액(스냅샷 + 압축 전 원장 합계)을 메모리에 유지하는 LedgerBalanceCache
+ * [08.24]
+ * (추가) 시작 시 스냅샷 컬럼 + 원장 합계로 전체 잔액을 한 번에 적재 (REPEATABLE READ 한 트랜잭션 - 압축과 겹쳐도 일관된 값)
+ *       이후 잔액 변경은 모두 이 서버의 LedgerService 를 거치므로 캐시가 곧 현재 잔액
+ * (추가) 적재되지 않은 키 = 시작 이후 처음 쓰는 잔액 -> 원장 행이 아직 없으므로 스냅샷 컬럼만 읽어서 적재
+ *
+ * [08.25]
+ * (수정) 잔액의 기준(authoritative)을 DB 가 아니라 이 캐시로 - 원장 행은 LedgerWriteBehind 가 나중에 DB 에 반영
+ *       적재 전에 저널에만 있는 원장 행을 먼저 DB 에 반영(recover) 후 합계를 읽음
+ * (수정) 키별 CAS -> 포트폴리오 단위 샤드(shards 개)로 나누고 샤드마다 락 하나
+ *       한 포트폴리오의 현금 / 보유 수량은 같은 샤드 - 분개의 차감 검증과 반영을 한 번에 (일부만 차감됐다가 되돌리는 일 없음)
+ *       여러 포트폴리오에 걸친 분개(체결)는 샤드 번호 순서로 락 (교착 없음)
+ * (수정) 스냅샷 적재(DB 조회)는 락 밖에서 - 락을 잡은 동안은 메모리 연산만
+ * (수정) 증가(increase)는 적재된 키에만 - 적재는 LedgerService 가 원장 행을 저널에 넘기기 전에 (load)
+ *       넘긴 뒤에 적재하면 그 사이 반영(flush) + 압축이 끝난 스냅샷을 읽어서 같은 금액이 두 번 더해질 수 있음
+ *       키마다 처음 넣은 스냅샷만 쓰므로(putIfAbsent) 스냅샷은 항상 그 키의 어떤 원장 행보다 먼저 읽은 값
+ *
+ * [고민]
+ * 1. 단일 서버 기준 - 다른 서버가 같은 포트폴리오 원장을 쓰면 캐시가 어긋남 (포트폴리오별로 서버를 나눠야 함)
+ * 2. 전체 잔액을 메모리에 올림 - 포트폴리오 수 * (현금 2 + 보유 종목 * 2) 개, 비활성 포트폴리오 정리는 아직 없음
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerBalanceCache {
+
+    private final PortfolioRepository portfolioRepository;
+    private final PortfolioStockRepository portfolioStockRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerWriteBehind ledgerWriteBehind;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${ledger.cache.shards:16}")
+    private int shardCount;
+
+    private Shard[] shards;
+
+    @PostConstruct
+    public void warmUp() {
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+        ledgerWriteBehind.recover();
+
+        long startedAt = System.nanoTime();
+        TransactionTemplate snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTemplate.setReadOnly(true);
+
+        snapshotTemplate.executeWithoutResult(status -> {
+            for (Long[] row : portfolioRepository.findCashSnapshots()) {
+                put(BalanceKey.cash(row[0], LedgerBucket.AVAILABLE), row[1]);
+                put(BalanceKey.cash(row[0], LedgerBucket.RESERVED), row[2]);
+            }
+            for (Long[] row : portfolioStockRepository.findQuantitySnapshots()) {
+                put(BalanceKey.position(row[0], row[1], LedgerBucket.AVAILABLE), row[2] - row[3]);
+                put(BalanceKey.position(row[0], row[1], LedgerBucket.RESERVED), row[3]);
+            }
+            ledgerEntryRepository.sumByBalanceKey().forEach((key, sum) -> {
+                if (key.isGuarded()) {
+                    shardOf(key).balances.computeIfAbsent(key, k -> new Slot(0L)).value += sum;
+                }
+            });
+        });
+        int keys = 0;
+        for (Shard shard : shards) {
+            keys += shard.balances.size();
+        }
+        log.info("[Ledger] 잔액 캐시 적재 완료 - {}건, 샤드 {}개, {}ms",
+                keys, shardCount, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    public long balance(BalanceKey key) {
+        load(key);
+        Shard shard = shardOf(key);
+        shard.lock.lock();
+        try {
+            return shard.balances.get(key).value;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * 차감 행(음수 금액)을 모두 반영하거나 하나도 반영하지 않음
+     * @return 잔액이 부족한 키 (모두 반영했으면 null)
+     */
+    public BalanceKey tryDecrease(List<Leg> debits) {
+        Map<BalanceKey, Long> required = new LinkedHashMap<>();
+        Map<Integer, Shard> involved = new TreeMap<>();
+        for (Leg leg : debits) {
+            load(leg.key());
+            required.merge(leg.key(), -leg.amount(), Math::addExact);
+            Shard shard = shardOf(leg.key());
+            involved.put(shard.index, shard);
+        }
+
+        involved.values().forEach(shard -> shard.lock.lock());
+        try {
+            for (Map.Entry<BalanceKey, Long> entry : required.entrySet()) {
+                if (shardOf(entry.getKey()).balances.get(entry.getKey()).value < entry.getValue()) {
+                    return entry.getKey();
+                }
+            }
+            required.forEach((key, amount) -> shardOf(key).balances.get(key).value -= amount);
+            return null;
+        } finally {
+            involved.values().forEach(shard -> shard.lock.unlock());
+        }
+    }
+
+    public void increase(BalanceKey key, long amount) {
+        Shard shard = shardOf(key);
+        shard.lock.lock();
+        try {
+            Slot slot = shard.balances.get(key);
+            if (slot == null) {
+                throw new IllegalStateException("원장 행을 기록하기 전에 적재하지 않은 잔액입니다. key=" + key);
+            }
+            slot.value = Math.addExact(slot.value, amount);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private Shard shardOf(BalanceKey key) {
+        return shards[Math.floorMod(Long.hashCode(key.portfolioId()), shards.length)];
+    }
+
+    /** 처음 쓰는 키면 스냅샷 적재 - 동시에 적재해도 같은 스냅샷을 읽음, 먼저 넣은 쪽을 사용 **/
+    public void load(BalanceKey key) {
+        Shard shard = shardOf(key);
+        shard.lock.lock();
+        try {
+            if (shard.balances.containsKey(key)) {
+                return;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+
+        long snapshot = loadSnapshot(key);
+        shard.lock.lock();
+        try {
+            shard.balances.putIfAbsent(key, new Slot(snapshot));
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void put(BalanceKey key, long snapshot) {
+        shardOf(key).balances.put(key, new Slot(snapshot));
+    }
+
+    private long loadSnapshot(BalanceKey key) {
+        boolean available = key.bucket() == LedgerBucket.AVAILABLE;
+        if (key.isCash()) {
+            return portfolioRepository.findById(key.portfolioId())
+                    .map(p -> available ? p.getAvailableCash().getMoneyValue() : p.getReservedCash().getMoneyValue())
+                    .orElse(0L);
+        }
+        return portfolioStockRepository.findByPortfolioIdAndStockId(key.portfolioId(), key.assetId())
+                .map(ps -> available
+                        ? ps.getPortfolioQuantity().getQuantityValue() - ps.getReservedQuantity().getQuantityValue()
+                        : ps.getReservedQuantity().getQuantityValue())
+                .orElse(0L);
+    }
+
+    /** 포트폴리오 묶음 하나 - balances 는 lock 을 잡고만 접근 **/
+    private static final class Shard {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<BalanceKey, Slot> balances = new HashMap<>();
+
+        private Shard(int index) {
+            this.index = index;
+        }
+    }
+
+    private static final class Slot {
+        private long value;
+
+        private Slot(long value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.PortfolioStock;
+import com.portfolio2025.first.domain.SettlementBatch;
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import com.portfolio2025.first.repository.LedgerEntryRepository;
+import com.portfolio2025.first.repository.PortfolioRepository;
+import com.portfolio2025.first.repository.PortfolioStockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 원장 행을 스냅샷 컬럼(portfolios / portfolio_stocks)으로 접어 넣는 LedgerCompactor
+ * [08.24]
+ * (추가) 주기적으로 오래된 원장 행을 id 순서로 batch-size 만큼 조회 -> 잔액별 합계를 스냅샷에 더함 -> 읽은 행만 삭제 (한 트랜잭션)
+ *       스냅샷 + 원장 합계는 압축 전후로 같음 - 잔액 캐시(LedgerBalanceCache)는 건드리지 않음
+ *       가득 찬 묶음이면 바로 다음 묶음 처리 (OutboxRelay 와 같은 방식)
+ * (추가) 스냅샷 행은 압축만 수정 - 평균 단가를 갱신하는 체결 정산과 겹치면 @Version 충돌 -> OptimisticRetryExecutor 로 재실행
+ * (추가) EXTERNAL(외부 입출금 상대 계정)은 스냅샷 컬럼이 없음 - 합계만 버리고 행은 함께 삭제
+ *
+ * [고민]
+ * 1. 워터마크(id 이하 전부) 대신 읽은 id 만 삭제 - 늦게 커밋된 작은 id 의 행도 다음 주기에 빠짐없이 압축
+ * 2. 보유 종목 행이 없는 수량 원장은 압축하지 않고 남김 (정상 흐름에서는 첫 매수 체결이 행을 만듦)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ledger.compaction.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerCompactor {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final PortfolioRepository portfolioRepository;
+    private final PortfolioStockRepository portfolioStockRepository;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ledger.compaction.batch-size:1000}")
+    private int batchSize;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter compactedCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        compactedCounter = meterRegistry.counter("ledger.compaction.entries");
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.compaction.interval-ms:1000}")
+    public void compact() {
+        try {
+            while (compactOnce() == batchSize) {
+                // 밀린 원장 행이 더 있음 - 바로 다음 묶음
+            }
+        } catch (ConcurrencyFailureException e) {
+            // 체결 정산이 같은 보유 종목 행을 계속 수정 중 - 원장 행은 그대로 남아 있으므로 다음 주기에 다시 압축
+            log.warn("[Ledger] 원장 압축 충돌 - 다음 주기에 재시도: {}", e.getMessage());
+        } catch (Exception e) {
+            log.error("[Ledger] 원장 압축 중 예외 발생", e);
+        }
+    }
+
+    /** 한 묶음 압축 - 압축한 원장 행 수 반환 (건너뛴 행이 있으면 batch-size 보다 작아서 반복이 멈춤) **/
+    public int compactOnce() {
+        Integer read = optimisticRetryExecutor.execute("ledger.compact",
+                () -> transactionTemplate.execute(status -> compactBatch()));
+        return read == null ? 0 : read;
+    }
+
+    private int compactBatch() {
+        List<LedgerEntry> entries = ledgerEntryRepository.findOldest(batchSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        // EXTERNAL 은 바로 삭제 대상, 나머지는 (포트폴리오, 자산)별 거래 가능 / 예약 합계
+        List<Long> compactedIds = new ArrayList<>(entries.size());
+        Map<AssetKey, AssetDelta> deltas = new LinkedHashMap<>();
+        for (LedgerEntry entry : entries) {
+            if (entry.getBucket() == LedgerBucket.EXTERNAL) {
+                compactedIds.add(entry.getId());
+                continue;
+            }
+            deltas.computeIfAbsent(new AssetKey(entry.getPortfolioId(), entry.getAssetId()), k -> new AssetDelta())
+                    .add(entry);
+        }
+
+        Set<Long> portfolioIds = new TreeSet<>();
+        Set<Long> stockIds = new TreeSet<>();
+        for (AssetKey key : deltas.keySet()) {
+            portfolioIds.add(key.portfolioId());
+            if (key.assetId() != BalanceKey.CASH_ASSET) {
+                stockIds.add(key.assetId());
+            }
+        }
+        Map<Long, Portfolio> portfolios = new HashMap<>();
+        portfolioRepository.findAllByIds(portfolioIds).forEach(p -> portfolios.put(p.getId(), p));
+        Map<String, PortfolioStock> positions = new HashMap<>();
+        portfolioStockRepository.findAllByPortfolioIdsAndStockIds(portfolioIds, stockIds)
+                .forEach(ps -> positions.put(
+                        SettlementBatch.positionKey(ps.getPortfolio().getId(), ps.getStock().getId()), ps));
+
+        deltas.forEach((key, delta) -> {
+            if (key.assetId() == BalanceKey.CASH_ASSET) {
+                Portfolio portfolio = portfolios.get(key.portfolioId());
+                if (portfolio == null) {
+                    log.warn("[Ledger] 포트폴리오가 없어 압축하지 않습니다. portfolioId={}", key.portfolioId());
+                    return;
+                }
+                portfolio.applyLedgerSnapshot(delta.available, delta.reserved);
+            } else {
+                PortfolioStock position = positions.get(SettlementBatch.positionKey(key.portfolioId(), key.assetId()));
+                if (position == null) {
+                    log.warn("[Ledger] 보유 종목 행이 없어 압축하지 않습니다. portfolioId={}, stockId={}",
+                            key.portfolioId(), key.assetId());
+                    return;
+                }
+                position.applyLedgerSnapshot(delta.available, delta.reserved);
+            }
+            compactedIds.addAll(delta.entryIds);
+        });
+
+        // 스냅샷 UPDATE 와 원장 DELETE 가 함께 커밋 - 잔액 합계는 압축 전후로 같음
+        ledgerEntryRepository.deleteByIds(compactedIds);
+        compactedCounter.increment(compactedIds.size());
+        return compactedIds.size();
+    }
+
+    private record AssetKey(long portfolioId, long assetId) {
+    }
+
+    /** 한 (포트폴리오, 자산)의 압축 대상 합계 **/
+    private static final class AssetDelta {
+        private long available;
+        private long reserved;
+        private final List<Long> entryIds = new ArrayList<>();
+
+        private void add(LedgerEntry entry) {
+            if (entry.getBucket() == LedgerBucket.RESERVED) {
+                reserved = Math.addExact(reserved, entry.getAmount());
+            } else {
+                available = Math.addExact(available, entry.getAmount());
+            }
+            entryIds.add(entry.getId());
+        }
+    }
+}
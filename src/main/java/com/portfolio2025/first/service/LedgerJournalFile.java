@@ -0,0 +1,361 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import com.portfolio2025.first.domain.ledger.LedgerEntryType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 원장 행을 DB 반영 전에 먼저 기록하는 append-only 원장 저널 LedgerJournalFile
+ * [08.25]
+ * (추가) MatchingJournal 과 같은 방식 - 파일을 구간(window) 단위로 mmap 해서 고정 길이(64 byte) 레코드를 순차 기록
+ *       원장 행 하나 = 레코드 하나, 레코드 순서 = DB 반영 순서 (LedgerWriteBehind 가 앞에서부터 INSERT)
+ * (추가) read - 재시작 시 DB 에 반영된 위치(LedgerCheckpoint) 이후 레코드만 다시 읽음
+ * (추가) reset - 다른 DB 에서 남은 저널이면 비우고 처음부터 기록
+ * (수정) 커밋 전(beforeCommit)에 기록 - 레코드마다 트랜잭션 번호(txId)를 남겨서 커밋 여부는 ledger_commits 로 판단
+ *       한 번의 append 는 전부 기록되거나 하나도 기록되지 않은 것으로 취급 (실패하면 쓰기 위치를 되돌림)
+ * (수정) 파일 하나 -> 구간(window) 하나당 세그먼트 파일 하나 (path.첫 레코드 번호)
+ *       truncateBefore - DB 반영 위치보다 앞의 세그먼트는 삭제 (저널이 계속 커지지 않음)
+ * (수정) force - 종료 시에만 -> force-interval-ms 주기 + 마지막 force 이후 force-bytes 이상 기록하면 바로
+ *       OS 장애 시 잃을 수 있는 구간이 시간 / 크기로 제한됨
+ *
+ * 레코드 구조 (64 byte)
+ * [0] type(1 = 원장 행) | [1] bucket | [2] entryType | [3] 예약 | [4..7] crc32 | [8..15] txId(0 = 트랜잭션 밖)
+ * [16..23] journalId | [24..31] portfolioId | [32..39] assetId | [40..47] amount | [48..55] refId(0 = 없음)
+ * [56..63] createdMillis
+ *
+ * [고민]
+ * 1. bucket / entryType 은 enum 순서(ordinal)로 기록 - 상수를 추가할 때는 끝에만 추가해야 함
+ * 2. force 사이에 OS 가 죽으면 마지막 구간은 유실될 수 있음 - 커밋 표시(ledger_commits)는 DB 에 있으므로 어긋남은 로그로 확인
+ */
+@Slf4j
+@Component
+public class LedgerJournalFile {
+
+    /** 저널에 기록된 원장 행 하나와 그 행을 만든 트랜잭션 번호 **/
+    public record Logged(long txId, LedgerEntry entry) {
+    }
+
+    static final int RECORD_SIZE = 64;
+    private static final byte ENTRY = 1;
+    private static final int CRC_OFFSET = 4;
+
+    @Value("${ledger.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ledger.journal.path:./data/ledger.journal}")
+    private String path;
+
+    @Value("${ledger.journal.window-size-mb:64}")
+    private int windowSizeMb;
+
+    @Value("${ledger.journal.force-bytes:1048576}")
+    private long forceBytes;
+
+    private Path directory;
+    private String prefix;
+    private final TreeMap<Long, Path> segments = new TreeMap<>(); // 첫 레코드 번호 -> 세그먼트 파일
+
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowSize;
+    private long segmentSize;
+    private long unforced;
+
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final CRC32 crc32 = new CRC32();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Path file = Path.of(path).toAbsolutePath();
+            directory = file.getParent();
+            prefix = file.getFileName() + ".";
+            Files.createDirectories(directory);
+            windowSize = ((long) windowSizeMb * 1024 * 1024 / RECORD_SIZE) * RECORD_SIZE;
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+                for (Path segment : stream) {
+                    String suffix = segment.getFileName().toString().substring(prefix.length());
+                    if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                        segments.put(Long.parseLong(suffix), segment);
+                    }
+                }
+            }
+            long first = segments.isEmpty() ? 0 : segments.firstKey();
+            long end = scan(first, entry -> { });
+            mapWindow(end * RECORD_SIZE);
+            log.info("[Ledger] 원장 저널 열기 - path: {}, 세그먼트: {}개, 레코드: {} ~ {}",
+                    file, segments.size(), first, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("원장 저널을 열 수 없습니다. path=" + path, e);
+        }
+    }
+
+    /** 기록된 레코드 수 (삭제된 세그먼트 포함 - 레코드 번호는 처음부터 이어짐) **/
+    public synchronized long size() {
+        return enabled ? (windowStart + window.position()) / RECORD_SIZE : 0;
+    }
+
+    /** fromRecord 번째 레코드부터 끝까지 순서대로 전달 - 전달한 레코드 수 반환 **/
+    public synchronized long read(long fromRecord, Consumer<Logged> consumer) {
+        if (!enabled) {
+            return 0;
+        }
+        if (!segments.isEmpty() && fromRecord < segments.firstKey()) {
+            throw new IllegalStateException("이미 삭제된 원장 저널 구간입니다. 요청=" + fromRecord
+                    + ", 남은 첫 레코드=" + segments.firstKey());
+        }
+        try {
+            return scan(fromRecord, consumer) - fromRecord;
+        } catch (IOException e) {
+            throw new UncheckedIOException("원장 저널 읽기 실패", e);
+        }
+    }
+
+    public synchronized void append(long txId, List<LedgerEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        long start = windowStart + window.position();
+        try {
+            for (LedgerEntry entry : entries) {
+                if (window.remaining() < RECORD_SIZE) {
+                    mapWindow(windowStart + window.position());
+                }
+                encode(txId, entry);
+                window.put(scratch);
+            }
+        } catch (RuntimeException e) {
+            // 일부만 기록된 레코드는 다음 append 가 덮어씀 (그 전에 죽어도 커밋 표시가 없어서 반영되지 않음)
+            mapWindow(start);
+            throw e;
+        }
+        unforced += (long) entries.size() * RECORD_SIZE;
+        if (unforced >= forceBytes) {
+            force();
+        }
+    }
+
+    /** 마지막 force 이후 기록분을 디스크에 내림 **/
+    @Scheduled(fixedDelayString = "${ledger.journal.force-interval-ms:200}")
+    public synchronized void force() {
+        if (channel == null || unforced == 0) {
+            return;
+        }
+        window.force();
+        unforced = 0;
+    }
+
+    /** beforeRecord 보다 앞의 레코드만 담긴 세그먼트 삭제 (DB 에 반영이 끝난 구간) - 삭제한 세그먼트 수 반환 **/
+    public synchronized int truncateBefore(long beforeRecord) {
+        if (!enabled) {
+            return 0;
+        }
+        int deleted = 0;
+        while (segments.size() > 1) {
+            Map.Entry<Long, Path> oldest = segments.firstEntry();
+            Long next = segments.higherKey(oldest.getKey());
+            if (next > beforeRecord) {
+                break;
+            }
+            delete(oldest.getValue());
+            segments.pollFirstEntry();
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /** 기록을 모두 지우고 처음부터 다시 기록 **/
+    public synchronized void reset() {
+        if (!enabled) {
+            return;
+        }
+        closeChannel();
+        segments.values().forEach(this::delete);
+        segments.clear();
+        mapWindow(0);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        window.force();
+        unforced = 0;
+        closeChannel();
+    }
+
+    /** startRecord 부터 유효한 레코드를 전달하고, 마지막 유효 레코드 다음 레코드 번호를 반환 **/
+    private long scan(long startRecord, Consumer<Logged> consumer) throws IOException {
+        long record = startRecord;
+        Long first = segments.floorKey(startRecord);
+        if (first == null) {
+            return record;
+        }
+        for (Map.Entry<Long, Path> segment : segments.tailMap(first, true).entrySet()) {
+            if (segment.getKey() > record) {
+                return record; // 앞 세그먼트가 끝까지 차지 않았음
+            }
+            try (FileChannel readChannel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                long offset = (record - segment.getKey()) * RECORD_SIZE;
+                long size = readChannel.size() / RECORD_SIZE * RECORD_SIZE - offset;
+                if (size <= 0) {
+                    continue;
+                }
+                MappedByteBuffer readWindow = readChannel.map(MapMode.READ_ONLY, offset, size);
+                while (readWindow.remaining() >= RECORD_SIZE) {
+                    readWindow.get(scratch);
+                    Logged entry = decode();
+                    if (entry == null) {
+                        return record;
+                    }
+                    consumer.accept(entry);
+                    record++;
+                }
+            }
+        }
+        return record;
+    }
+
+    /** start(byte) 가 들어 있는 세그먼트를 쓰기용으로 매핑 - 현재 세그먼트 끝이면 새 세그먼트 */
+    private void mapWindow(long start) {
+        try {
+            if (channel != null && start >= windowStart && start < windowStart + segmentSize) {
+                window.position((int) (start - windowStart));
+                return;
+            }
+            long record = start / RECORD_SIZE;
+            Map.Entry<Long, Path> segment = segments.floorEntry(record);
+            if (segment != null && segment.getKey() != record) {
+                long existing = Files.size(segment.getValue()) / RECORD_SIZE;
+                if (record >= segment.getKey() + existing) {
+                    segment = null; // 끝까지 찬 세그먼트 - 다음 세그먼트를 새로 만듦
+                }
+            }
+            closeChannel();
+            long first = segment == null ? record : segment.getKey();
+            // 되돌린 위치보다 뒤의 세그먼트는 버림 (실패한 append 가 만든 것)
+            while (!segments.isEmpty() && segments.lastKey() > first) {
+                delete(segments.pollLastEntry().getValue());
+            }
+            Path file = segment == null ? directory.resolve(prefix + first) : segment.getValue();
+            channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segmentSize = channel.size() > 0 ? channel.size() / RECORD_SIZE * RECORD_SIZE : windowSize;
+            window = channel.map(MapMode.READ_WRITE, 0, segmentSize);
+            windowStart = first * RECORD_SIZE;
+            window.position((int) (start - windowStart));
+            segments.put(first, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("원장 저널 매핑 실패", e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (unforced > 0) {
+                window.force();
+                unforced = 0;
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("원장 저널 닫기 실패", e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void delete(Path segment) {
+        try {
+            Files.deleteIfExists(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("원장 저널 세그먼트 삭제 실패. path=" + segment, e);
+        }
+    }
+
+    private void encode(long txId, LedgerEntry entry) {
+        ByteBuffer buffer = ByteBuffer.wrap(scratch);
+        buffer.put(ENTRY)
+                .put((byte) entry.getBucket().ordinal())
+                .put((byte) entry.getEntryType().ordinal())
+                .put((byte) 0)
+                .putInt(0)
+                .putLong(txId)
+                .putLong(entry.getJournalId())
+                .putLong(entry.getPortfolioId())
+                .putLong(entry.getAssetId())
+                .putLong(entry.getAmount())
+                .putLong(entry.getRefId() == null ? 0L : entry.getRefId())
+                .putLong(entry.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli());
+        buffer.putInt(CRC_OFFSET, checksum());
+    }
+
+    /** 비어 있거나(기록 끝) 체크섬이 맞지 않으면(기록 도중 중단) null **/
+    private Logged decode() {
+        ByteBuffer buffer = ByteBuffer.wrap(scratch);
+        if (buffer.get(0) != ENTRY) {
+            return null;
+        }
+        int storedCrc = buffer.getInt(CRC_OFFSET);
+        buffer.putInt(CRC_OFFSET, 0);
+        if (storedCrc != checksum()) {
+            log.warn("[Ledger] 체크섬 불일치 레코드 발견 - 이후 레코드는 무시합니다.");
+            return null;
+        }
+
+        LedgerBucket bucket = LedgerBucket.values()[scratch[1]];
+        LedgerEntryType entryType = LedgerEntryType.values()[scratch[2]];
+        buffer.position(8);
+        long txId = buffer.getLong();
+        long journalId = buffer.getLong();
+        BalanceKey key = new BalanceKey(buffer.getLong(), buffer.getLong(), bucket);
+        long amount = buffer.getLong();
+        long refId = buffer.getLong();
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(buffer.getLong()), ZoneOffset.UTC);
+        return new Logged(txId,
+                LedgerEntry.create(journalId, key, entryType, amount, refId == 0 ? null : refId, createdAt));
+    }
+
+    private int checksum() {
+        crc32.reset();
+        crc32.update(scratch, 0, RECORD_SIZE);
+        return (int) crc32.getValue();
+    }
+}
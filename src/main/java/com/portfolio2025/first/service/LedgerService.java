@@ -0,0 +1,235 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.id.TsidGenerator;
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import com.portfolio2025.first.domain.ledger.LedgerEntryType;
+import com.portfolio2025.first.domain.ledger.LedgerJournal;
+import com.portfolio2025.first.domain.ledger.LedgerJournal.Leg;
+import com.portfolio2025.first.domain.stock.Stock;
+import com.portfolio2025.first.domain.vo.Money;
+import com.portfolio2025.first.domain.vo.Quantity;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 현금 / 보유 수량 변경을 원장에 기록하는 LedgerService
+ * [08.24]
+ * (추가) 포트폴리오 / 보유 종목 행을 수정하지 않고 ledger_entries 에 INSERT 만 - 주문 접수와 체결이 같은 행에서 부딪히지 않음
+ * (추가) 잔액 캐시(LedgerBalanceCache) 반영 순서
+ *       차감 - 기록 즉시 (잔액 검증 포함), 롤백되면 되돌림
+ *       증가 - 커밋 이후 (롤백될 수 있는 입금을 다른 주문이 먼저 쓰지 않도록)
+ *       같은 트랜잭션 안에서는 아직 반영되지 않은 증가분까지 balance 로 조회 가능
+ *
+ * [고민]
+ * 1. 커밋 결과를 알 수 없는 경우(STATUS_UNKNOWN) - 차감은 유지하고 증가는 버림 (캐시가 실제보다 작게 - 초과 예약 없음), 재시작 시 다시 적재
+ * 2. 체결 정산의 예약 차감이 부족하면 정합성 문제 - IllegalStateException 으로 묶음 전체 롤백
+ *
+ * [08.25]
+ * (수정) 원장 INSERT 를 트랜잭션에서 제거 - 커밋 후 원장 행을 LedgerWriteBehind 로 넘김 (저널 기록 후 DB 에는 묶음으로 나중에 반영)
+ *       주문 접수의 잔액 판단은 메모리(샤드 락 + 덧셈)만으로 끝나고 DB 락 / INSERT 를 기다리지 않음
+ *       롤백되면 차감만 되돌리면 되고 저널 / DB 에는 아무것도 남지 않음
+ * (수정) 차감 검증은 분개 단위로 한 번에 (LedgerBalanceCache.tryDecrease) - 일부만 차감됐다가 되돌리는 과정 없음
+ * (수정) 원장 행 저널 기록을 커밋 후 -> 커밋 직전(beforeCommit)으로
+ *       커밋 후 기록은 그 사이에 서버가 죽으면 원장 행이 유실되고, 기록 실패가 이미 커밋된 호출자에게 예외로 올라감
+ *       트랜잭션마다 커밋 표시(LedgerCommit) 한 행을 같은 트랜잭션에 INSERT - 저널에는 있지만 결과를 모르는 행은 이 표시로 판단
+ *       저널 기록이 실패하면 커밋 전이므로 업무 트랜잭션도 롤백 (차감은 afterCompletion 에서 복구)
+ * (추가) 주문 정정 - 이전 예약 해제(RELEASE) + 새 예약(RESERVE)을 한 분개로 (rereserveCash / rereservePosition)
+ *       잔액 캐시 반영은 키별로 합산한 차액만 - 해제분(증가)은 커밋 후 반영이라 따로 검증하면 해제한 금액을 재예약에 쓰지 못함
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    private final LedgerBalanceCache ledgerBalanceCache;
+    private final LedgerWriteBehind ledgerWriteBehind;
+
+    /** 매수 주문 - 거래 가능 현금을 예약 **/
+    public void reserveCash(Portfolio portfolio, Money amount) {
+        post(LedgerJournal.of(null).move(
+                BalanceKey.cash(portfolio.getId(), LedgerBucket.AVAILABLE),
+                BalanceKey.cash(portfolio.getId(), LedgerBucket.RESERVED),
+                LedgerEntryType.RESERVE, amount.getMoneyValue()));
+    }
+
+    /** 매도 주문 - 거래 가능 수량을 예약 **/
+    public void reservePosition(Portfolio portfolio, Stock stock, Quantity quantity) {
+        post(LedgerJournal.of(null).move(
+                BalanceKey.position(portfolio.getId(), stock.getId(), LedgerBucket.AVAILABLE),
+                BalanceKey.position(portfolio.getId(), stock.getId(), LedgerBucket.RESERVED),
+                LedgerEntryType.RESERVE, quantity.getQuantityValue()));
+    }
+
+    /** 매수 주문 정정 - 이전 주문의 예약을 해제하고 새 주문 금액으로 다시 예약 (한 분개) **/
+    public void rereserveCash(Portfolio portfolio, Money previous, Money next) {
+        BalanceKey available = BalanceKey.cash(portfolio.getId(), LedgerBucket.AVAILABLE);
+        BalanceKey reserved = BalanceKey.cash(portfolio.getId(), LedgerBucket.RESERVED);
+        post(LedgerJournal.of(null)
+                .move(reserved, available, LedgerEntryType.RELEASE, previous.getMoneyValue())
+                .move(available, reserved, LedgerEntryType.RESERVE, next.getMoneyValue()));
+    }
+
+    /** 매도 주문 정정 - 이전 주문의 예약 수량을 해제하고 새 주문 수량으로 다시 예약 (한 분개) **/
+    public void rereservePosition(Portfolio portfolio, Stock stock, Quantity previous, Quantity next) {
+        BalanceKey available = BalanceKey.position(portfolio.getId(), stock.getId(), LedgerBucket.AVAILABLE);
+        BalanceKey reserved = BalanceKey.position(portfolio.getId(), stock.getId(), LedgerBucket.RESERVED);
+        post(LedgerJournal.of(null)
+                .move(reserved, available, LedgerEntryType.RELEASE, previous.getQuantityValue())
+                .move(available, reserved, LedgerEntryType.RESERVE, next.getQuantityValue()));
+    }
+
+    /** 외부 계좌 -> 포트폴리오 **/
+    public void depositCash(Portfolio portfolio, Money amount) {
+        post(LedgerJournal.of(null)
+                .debit(BalanceKey.cash(portfolio.getId(), LedgerBucket.EXTERNAL), LedgerEntryType.DEBIT,
+                        amount.getMoneyValue())
+                .credit(BalanceKey.cash(portfolio.getId(), LedgerBucket.AVAILABLE), LedgerEntryType.CREDIT,
+                        amount.getMoneyValue()));
+    }
+
+    /** 포트폴리오 -> 외부 계좌 **/
+    public void withdrawCash(Portfolio portfolio, Money amount) {
+        post(LedgerJournal.of(null)
+                .debit(BalanceKey.cash(portfolio.getId(), LedgerBucket.AVAILABLE), LedgerEntryType.DEBIT,
+                        amount.getMoneyValue())
+                .credit(BalanceKey.cash(portfolio.getId(), LedgerBucket.EXTERNAL), LedgerEntryType.CREDIT,
+                        amount.getMoneyValue()));
+    }
+
+    /** 현재 잔액 - 캐시 + 현재 트랜잭션에서 기록했지만 아직 캐시에 반영하지 않은 증가분 **/
+    public long balance(BalanceKey key) {
+        PendingCredits pending = currentPendingCredits(false);
+        long uncommitted = pending == null ? 0L : pending.credits.getOrDefault(key, 0L);
+        return ledgerBalanceCache.balance(key) + uncommitted;
+    }
+
+    /**
+     * 분개 기록 - 합계 검증 -> 차감 먼저 캐시 반영(부족하면 IllegalArgumentException) -> 커밋 직전 원장 행 저널 기록
+     */
+    public void post(LedgerJournal journal) {
+        if (journal.isEmpty()) {
+            return;
+        }
+        journal.validateBalanced();
+
+        // 같은 키는 합산해서 반영 - 해제 후 재예약(정정)처럼 한 분개 안에서 같은 잔액을 빼고 더하면 차액만 검증
+        Map<BalanceKey, Long> net = new LinkedHashMap<>();
+        for (Leg leg : journal.getLegs()) {
+            if (!leg.key().isGuarded()) {
+                continue;
+            }
+            // 증가할 키도 저널에 넘기기 전에 적재 - 넘긴 뒤 적재하면 반영 + 압축된 스냅샷에 한 번 더 더해질 수 있음
+            ledgerBalanceCache.load(leg.key());
+            net.merge(leg.key(), leg.amount(), Math::addExact);
+        }
+        List<Leg> debits = new ArrayList<>(2);
+        List<Leg> credits = new ArrayList<>(2);
+        net.forEach((key, amount) -> {
+            if (amount < 0) {
+                debits.add(new Leg(key, LedgerEntryType.DEBIT, amount));
+            } else if (amount > 0) {
+                credits.add(new Leg(key, LedgerEntryType.CREDIT, amount));
+            }
+        });
+        // 같은 트랜잭션의 미반영 증가분은 커밋 전이라 차감 검증에 쓰지 않음
+        BalanceKey insufficient = debits.isEmpty() ? null : ledgerBalanceCache.tryDecrease(debits);
+        if (insufficient != null) {
+            long requested = debits.stream().filter(leg -> leg.key().equals(insufficient))
+                    .mapToLong(leg -> -leg.amount()).sum();
+            throw new IllegalArgumentException(insufficientMessage(insufficient) + " [잔액: "
+                    + ledgerBalanceCache.balance(insufficient) + ", 요청: " + requested + "]");
+        }
+
+        long journalId = TsidGenerator.factory().next();
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerEntry> entries = new ArrayList<>(journal.getLegs().size());
+        for (Leg leg : journal.getLegs()) {
+            entries.add(LedgerEntry.create(journalId, leg.key(), leg.type(), leg.amount(), journal.getRefId(), now));
+        }
+
+        PendingCredits pending;
+        try {
+            pending = currentPendingCredits(true);
+        } catch (RuntimeException e) {
+            // 커밋 표시 INSERT 실패 - 아직 등록된 동기화가 없으므로 여기서 차감을 되돌림
+            debits.forEach(leg -> ledgerBalanceCache.increase(leg.key(), -leg.amount()));
+            throw e;
+        }
+        if (pending == null) {
+            ledgerWriteBehind.append(entries);
+            credits.forEach(leg -> ledgerBalanceCache.increase(leg.key(), leg.amount()));
+            return;
+        }
+        debits.forEach(leg -> pending.debits.merge(leg.key(), -leg.amount(), Math::addExact));
+        credits.forEach(leg -> pending.credits.merge(leg.key(), leg.amount(), Math::addExact));
+        pending.entries.addAll(entries);
+    }
+
+    private static String insufficientMessage(BalanceKey key) {
+        if (key.bucket() == LedgerBucket.RESERVED) {
+            return "예약된 " + (key.isCash() ? "금액" : "수량") + "보다 많이 차감할 수 없습니다.";
+        }
+        return key.isCash() ? "보유 현금이 부족하여 주문을 예약할 수 없습니다." : "예약할 수 있는 수량이 부족합니다.";
+    }
+
+    /** 트랜잭션마다 하나 - 커밋 직전 저널 기록, 커밋 후 증가분 반영, 롤백 시 차감분 복구 **/
+    private PendingCredits currentPendingCredits(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingCredits pending = (PendingCredits) TransactionSynchronizationManager.getResource(this);
+        if (pending == null && create) {
+            pending = new PendingCredits();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private final class PendingCredits implements TransactionSynchronization {
+        private final Map<BalanceKey, Long> credits = new HashMap<>();
+        private final Map<BalanceKey, Long> debits = new HashMap<>();
+        private final List<LedgerEntry> entries = new ArrayList<>();
+        private final long txId = ledgerWriteBehind.begin();
+        private LedgerWriteBehind.Prepared prepared;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // 커밋 전에 저널에 남김 - 실패하면 예외로 트랜잭션 롤백
+            if (!entries.isEmpty()) {
+                prepared = ledgerWriteBehind.prepare(txId, entries);
+            }
+        }
+
+        @Override
+        public void afterCommit() {
+            credits.forEach(ledgerBalanceCache::increase);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(LedgerService.this);
+            if (prepared != null) {
+                ledgerWriteBehind.complete(prepared, status);
+            }
+            if (status == STATUS_ROLLED_BACK) {
+                debits.forEach(ledgerBalanceCache::increase);
+            } else if (status == STATUS_UNKNOWN) {
+                log.error("[Ledger] 커밋 결과를 알 수 없어 증가분을 캐시에 반영하지 않습니다. 원장 행은 커밋 표시로 판단합니다. 대상: {}건",
+                        entries.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.id.TsidGenerator;
+import com.portfolio2025.first.domain.ledger.LedgerCheckpoint;
+import com.portfolio2025.first.domain.ledger.LedgerCommit;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import com.portfolio2025.first.repository.LedgerCheckpointRepository;
+import com.portfolio2025.first.repository.LedgerCommitRepository;
+import com.portfolio2025.first.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 원장 행을 저널에 먼저 기록하고 DB 에는 나중에 묶어서 반영하는 LedgerWriteBehind
+ * [08.25]
+ * (추가) 원장 저널(LedgerJournalFile) 기록 + 메모리 대기열 추가만 (DB 왕복 없음)
+ *       주문 접수 / 체결 정산 트랜잭션은 ledger_entries INSERT 를 기다리지 않음
+ * (추가) flush - 주기적으로 대기열 앞에서부터 batch-size 만큼 INSERT + 반영 위치(LedgerCheckpoint) 갱신을 한 트랜잭션으로
+ *       저널 순서 그대로 반영, 실패한 묶음은 다음 주기에 같은 순서로 다시 시도 (OutboxRelay 와 같은 방식)
+ * (추가) recover - 시작 시 반영 위치 이후의 저널 레코드를 DB 에 먼저 반영 (잔액 캐시 적재 전)
+ *       원장 행 id(@TsidId)가 필요하므로 TsidNodeAllocator 를 생성자로 받아서 노드 번호 배정이 먼저 끝나도록 함
+ * (수정) 커밋 후 기록 -> 커밋 전 기록(write-ahead)
+ *       begin - 트랜잭션 번호(txId) 발급 + 같은 트랜잭션에 커밋 표시(LedgerCommit) INSERT
+ *       prepare(beforeCommit) - 저널 기록, 실패하면 예외가 커밋 전에 올라가서 업무 트랜잭션도 롤백
+ *       complete(afterCompletion) - 커밋 / 롤백 결과 기록, 결과가 정해지기 전의 묶음부터는 반영하지 않고 기다림
+ *       반영 - 커밋된 묶음만 INSERT, 롤백된 묶음은 건너뜀, 결과를 모르면(서버 재시작 / STATUS_UNKNOWN) 커밋 표시 행으로 판단
+ * (추가) 반영이 끝나면 반영 위치보다 앞의 저널 세그먼트 삭제 (LedgerJournalFile.truncateBefore)
+ *
+ * [고민]
+ * 1. DB 의 원장은 메모리 잔액보다 늦음 - 잔액 조회는 항상 LedgerService(메모리) 기준
+ * 2. 결과가 정해지지 않은 트랜잭션 하나가 뒤 묶음 반영을 막음 - 커밋 직전 ~ 직후 사이라 길어야 수 ms
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LedgerWriteBehind {
+
+    static final String CHECKPOINT = "ledger";
+    static final long NO_TRANSACTION = 0L;
+
+    private final LedgerJournalFile ledgerJournalFile;
+    private final TsidNodeAllocator tsidNodeAllocator;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final LedgerCommitRepository ledgerCommitRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ledger.write-behind.batch-size:1000}")
+    private int batchSize;
+
+    private final Queue<Prepared> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Object flushLock = new Object();
+    private final List<Prepared> inFlight = new ArrayList<>(); // 반영에 실패한 묶음 - 다음 flush 에서 먼저 처리
+    private long flushedRecords;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter flushedCounter;
+
+    /** 한 트랜잭션이 저널에 기록한 원장 행 묶음 **/
+    public static final class Prepared {
+        private final long txId;
+        private final List<LedgerEntry> entries;
+        private volatile Outcome outcome;
+
+        private Prepared(long txId, List<LedgerEntry> entries, Outcome outcome) {
+            this.txId = txId;
+            this.entries = new ArrayList<>(entries);
+            this.outcome = outcome;
+        }
+    }
+
+    private enum Outcome {
+        PENDING, COMMITTED, ROLLED_BACK, UNKNOWN
+    }
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flushedCounter = meterRegistry.counter("ledger.write-behind.flushed");
+        meterRegistry.gauge("ledger.write-behind.pending", pending);
+    }
+
+    /** 저널에만 있고 DB 에 없는 원장 행을 반영 - 반영한 행 수 반환 **/
+    public long recover() {
+        if (!ledgerJournalFile.isEnabled()) {
+            log.warn("[Ledger] 원장 저널 비활성화 - 서버가 죽으면 DB 에 반영되지 않은 원장 행은 유실됩니다.");
+            return 0;
+        }
+        if (tsidNodeAllocator.getNode() < 0) {
+            throw new IllegalStateException("TSID 노드 번호 배정 전에는 원장 저널을 복구할 수 없습니다.");
+        }
+        synchronized (flushLock) {
+            LedgerCheckpoint checkpoint = transactionTemplate.execute(
+                    status -> ledgerCheckpointRepository.findById(CHECKPOINT).orElse(null));
+            if (checkpoint == null) {
+                if (ledgerJournalFile.size() > 0) {
+                    log.warn("[Ledger] 이 DB 에 반영한 적 없는 원장 저널입니다 - 비우고 새로 기록합니다. 레코드: {}건",
+                            ledgerJournalFile.size());
+                    ledgerJournalFile.reset();
+                }
+                transactionTemplate.executeWithoutResult(status ->
+                        ledgerCheckpointRepository.save(LedgerCheckpoint.create(CHECKPOINT, LocalDateTime.now())));
+                flushedRecords = 0;
+                return 0;
+            }
+
+            flushedRecords = checkpoint.getFlushedRecords();
+            if (ledgerJournalFile.size() < flushedRecords) {
+                throw new IllegalStateException("원장 저널이 DB 반영 위치보다 짧습니다. 저널="
+                        + ledgerJournalFile.size() + ", 반영 위치=" + flushedRecords);
+            }
+
+            // 같은 txId 레코드는 연속으로 기록됨 - 재시작 전 결과는 모두 커밋 표시 행으로 판단
+            List<Prepared> unflushed = new ArrayList<>();
+            ledgerJournalFile.read(flushedRecords, logged -> {
+                Prepared last = unflushed.isEmpty() ? null : unflushed.getLast();
+                if (last == null || last.txId != logged.txId() || logged.txId() == NO_TRANSACTION) {
+                    unflushed.add(new Prepared(logged.txId(), List.of(), logged.txId() == NO_TRANSACTION
+                            ? Outcome.COMMITTED : Outcome.UNKNOWN));
+                    last = unflushed.getLast();
+                }
+                last.entries.add(logged.entry());
+            });
+            long from = flushedRecords;
+            long records = unflushed.stream().mapToLong(p -> p.entries.size()).sum();
+            unflushed.forEach(queue::add);
+            pending.addAndGet(records);
+            while (flushOnce() > 0) {
+                // 재시작 전 트랜잭션은 모두 결과가 정해져 있음 - 끝까지 반영
+            }
+            ledgerJournalFile.truncateBefore(flushedRecords);
+            log.info("[Ledger] 원장 저널 복구 완료 - 반영 위치: {} -> {}, 다시 읽은 행: {}건, 트랜잭션: {}건",
+                    from, flushedRecords, records, unflushed.size());
+            return records;
+        }
+    }
+
+    /**
+     * 현재 트랜잭션의 번호 발급 - 저널이 켜져 있으면 같은 트랜잭션에 커밋 표시를 남김
+     */
+    public long begin() {
+        long txId = TsidGenerator.factory().next();
+        if (ledgerJournalFile.isEnabled()) {
+            ledgerCommitRepository.save(LedgerCommit.create(txId, LocalDateTime.now()));
+        }
+        return txId;
+    }
+
+    /** 커밋 직전 - 저널 순서와 대기열 순서가 같도록 함께 기록, 결과는 complete 로 알려줌 **/
+    public Prepared prepare(long txId, List<LedgerEntry> entries) {
+        return enqueue(new Prepared(txId, entries, Outcome.PENDING));
+    }
+
+    public void complete(Prepared prepared, int status) {
+        prepared.outcome = switch (status) {
+            case TransactionSynchronization.STATUS_COMMITTED -> Outcome.COMMITTED;
+            case TransactionSynchronization.STATUS_ROLLED_BACK -> Outcome.ROLLED_BACK;
+            default -> Outcome.UNKNOWN;
+        };
+    }
+
+    /** 트랜잭션 밖에서 기록된 원장 행 - 바로 반영 대상 **/
+    public void append(List<LedgerEntry> entries) {
+        enqueue(new Prepared(NO_TRANSACTION, entries, Outcome.COMMITTED));
+    }
+
+    private Prepared enqueue(Prepared prepared) {
+        synchronized (this) {
+            ledgerJournalFile.append(prepared.txId, prepared.entries);
+            queue.add(prepared);
+        }
+        pending.addAndGet(prepared.entries.size());
+        return prepared;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.write-behind.interval-ms:20}")
+    public void flush() {
+        try {
+            while (flushOnce() > 0) {
+                // 결과가 정해진 원장 행이 더 있음 - 바로 다음 묶음
+            }
+        } catch (Exception e) {
+            log.error("[Ledger] 원장 DB 반영 중 예외 발생 - 다음 주기에 재시도", e);
+        }
+    }
+
+    /** 결과가 정해진 앞쪽 묶음을 batch-size 까지 반영 - 처리한 저널 레코드 수 반환 **/
+    public int flushOnce() {
+        synchronized (flushLock) {
+            int records = inFlight.stream().mapToInt(p -> p.entries.size()).sum();
+            while (true) {
+                Prepared head = queue.peek();
+                if (head == null || head.outcome == Outcome.PENDING) {
+                    break;
+                }
+                if (!inFlight.isEmpty() && records + head.entries.size() > batchSize) {
+                    break;
+                }
+                inFlight.add(queue.poll());
+                records += head.entries.size();
+            }
+            if (inFlight.isEmpty()) {
+                return 0;
+            }
+
+            write(inFlight, records);
+            inFlight.clear();
+            pending.addAndGet(-records);
+            ledgerJournalFile.truncateBefore(flushedRecords);
+            return records;
+        }
+    }
+
+    public long pendingCount() {
+        return pending.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            while (flushOnce() > 0) {
+                // 종료 전 대기열을 비움 - 실패하면 재시작 시 저널에서 복구
+            }
+        } catch (Exception e) {
+            log.warn("[Ledger] 종료 중 원장 DB 반영 실패 - 재시작 시 저널에서 복구합니다. 남은 행: {}건", pending.get());
+        }
+    }
+
+    private void write(List<Prepared> batch, int records) {
+        long from = flushedRecords;
+        long to = from + records;
+        Set<Long> txIds = new HashSet<>();
+        Set<Long> unknown = new HashSet<>();
+        for (Prepared prepared : batch) {
+            if (prepared.txId != NO_TRANSACTION) {
+                txIds.add(prepared.txId);
+                if (prepared.outcome == Outcome.UNKNOWN) {
+                    unknown.add(prepared.txId);
+                }
+            }
+        }
+
+        int inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                Set<Long> committed = new HashSet<>(ledgerCommitRepository.findExistingTxIds(unknown));
+                int saved = 0;
+                for (Prepared prepared : batch) {
+                    if (prepared.outcome == Outcome.COMMITTED || committed.contains(prepared.txId)) {
+                        prepared.entries.forEach(ledgerEntryRepository::save);
+                        saved += prepared.entries.size();
+                    }
+                }
+                ledgerCommitRepository.deleteByTxIds(txIds);
+                if (ledgerJournalFile.isEnabled()
+                        && ledgerCheckpointRepository.advance(CHECKPOINT, from, to, LocalDateTime.now()) != 1) {
+                    throw new IllegalStateException("원장 저널 반영 위치가 맞지 않습니다. 예상 위치=" + from);
+                }
+                return saved;
+            });
+        } catch (RuntimeException e) {
+            // 롤백된 INSERT 에서 받은 id 는 버리고 같은 내용으로 다시 시도
+            batch.forEach(prepared -> prepared.entries.replaceAll(LedgerEntry::copy));
+            throw e;
+        }
+        flushedRecords = to;
+        flushedCounter.increment(inserted);
+    }
+}
@@ -0,0 +1,198 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.exception.NonRetryableMatchException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 체결(DB 반영)에 실패한 pair 를 잠시 빼두었다가 지수 백오프로 다시 체결하는 MatchRetryStage
+ * [08.20]
+ * (추가) TradeService 가 실패한 pair 를 호가창에 되돌리고 sleep(100) 후 다시 꺼내던 방식 대체
+ *       되돌린 pair 는 바로 다시 교차해서 같은 pair 만 반복 - 그동안 종목 워커가 멈춰서 다른 교차 주문도 체결되지 않았음
+ *       실패한 pair 는 호가창에 되돌리지 않고 여기서 보관 -> 체결 패스는 나머지 교차 주문을 계속 처리
+ * (추가) 대기 시간 = initial-backoff-ms * 2^(실패 횟수 - 1), 최대 max-backoff-ms
+ *       대기가 끝나면 종목별 ready 큐에 넣고 체결 트리거 -> 종목 담당 워커가 다음 패스 시작 시 꺼내서 재체결 (single writer 유지)
+ * (추가) max-attempts 를 넘긴 pair / 재시도해도 소용없는 실패(NonRetryableMatchException)는 match.failed(DLQ) 로
+ * (추가) matching.retry.scheduled / matching.retry.exhausted 지표, matching.retry.pending 게이지
+ * [08.25]
+ * (수정) max-attempts 를 넘긴 pair 는 DLQ 로 보내기 전에 체결 수량을 호가창에 되돌림 (OrderBookStore.restore)
+ *       기존에는 호가창에서 빠진 수량이 DB 에는 미체결로 남아 있는데 다시 체결될 길이 없었음
+ *       메모리 호가창 저널에는 커밋된 체결만 FILL 로 남으므로 되돌린 수량은 재시작 후에도 그대로
+ * (수정) 재시도 불필요 실패(NonRetryableMatchException)도 아직 체결 가능한 쪽은 호가창에 되돌린 뒤 DLQ
+ *       기존에는 한쪽이 취소된 pair 를 DLQ 로 보내면 상대 주문의 체결 수량이 호가창에서 영영 빠져 있었음
+ *       한쪽만 되돌릴 때는 바로 (취소 / 없는 쪽은 호가창에 없으므로 같은 pair 로 다시 교차하지 않음)
+ *       두 쪽 모두 되돌릴 때는 체결 패스가 끝난 뒤(restoreDeferred) - 바로 되돌리면 같은 패스에서 같은 pair 를 다시 꺼냄
+ *
+ * [고민]
+ * 1. 보관 중인 pair 는 호가창에서 빠진 상태 - 그 사이 뒤 순번 주문이 먼저 체결될 수 있음 (체결 가격 / 수량은 꺼낸 시점 그대로)
+ * 2. 메모리에만 보관 - 서버가 내려가면 사라짐 (저널에는 FILL 이 없어서 재시작 후 호가창에 수량이 돌아오고 다시 교차)
+ * 3. 되돌린 주문은 다시 교차해서 처음부터 재시도 (장애가 이어지면 DLQ 도 반복)
+ *    두 주문 모두 열려 있는데 입력이 잘못된 pair(금액 범위 초과)는 다음 트리거마다 다시 DLQ - 수량을 잃는 것보다는 나음
+ * 4. retry / deadLetter 는 종목 담당 워커에서만 호출 - restore 도 popMatchPairs 와 같은 스레드에서 실행됨
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MatchRetryStage {
+
+    private final KafkaDlqService kafkaDlqService;
+    private final OrderBookStore orderBookStore;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${matching.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${matching.retry.initial-backoff-ms:100}")
+    private long initialBackoffMs;
+
+    @Value("${matching.retry.max-backoff-ms:5000}")
+    private long maxBackoffMs;
+
+    private final Map<String, Queue<PendingMatch>> ready = new ConcurrentHashMap<>();
+    private final Map<String, Queue<MatchingPair>> deferred = new ConcurrentHashMap<>(); // 패스가 끝난 뒤 되돌릴 pair
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile Consumer<String> dueListener = stockCode -> { };
+
+    private ScheduledExecutorService timer;
+    private Counter scheduledCounter;
+    private Counter exhaustedCounter;
+    private Counter restoredCounter;
+
+    /** 재시도 대기 중인 pair 와 지금까지 실패한 횟수 **/
+    public record PendingMatch(MatchingPair pair, int attempts) {
+    }
+
+    @PostConstruct
+    public void init() {
+        timer = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "match-retry-timer"));
+        scheduledCounter = meterRegistry.counter("matching.retry.scheduled");
+        exhaustedCounter = meterRegistry.counter("matching.retry.exhausted");
+        restoredCounter = meterRegistry.counter("matching.retry.restored");
+        meterRegistry.gauge("matching.retry.pending", pending);
+    }
+
+    /** 대기가 끝난 종목을 알려줄 곳 - MatchingScheduler 가 체결 트리거로 등록 **/
+    public void onDue(Consumer<String> listener) {
+        this.dueListener = listener;
+    }
+
+    /** 실패한 pair 를 백오프 후 다시 체결하도록 예약 - 최대 횟수를 넘기면 호가창에 되돌리고 DLQ **/
+    public void retry(String stockCode, MatchingPair pair, int attempts, Exception cause) {
+        if (attempts >= maxAttempts) {
+            restore(stockCode, pair);
+            deadLetter(stockCode, pair, attempts, cause);
+            return;
+        }
+
+        long delayMs = backoffMs(attempts);
+        pending.incrementAndGet();
+        scheduledCounter.increment();
+        log.warn("[MatchRetry] {}ms 후 재체결 ({}회 실패) - stockCode: {}, buy: {}, sell: {}", delayMs, attempts,
+                stockCode, pair.getBuyDTO().getId(), pair.getSellDTO().getId());
+
+        timer.schedule(() -> {
+            ready.computeIfAbsent(stockCode, code -> new ConcurrentLinkedQueue<>()).add(new PendingMatch(pair, attempts));
+            dueListener.accept(stockCode);
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** 더 이상 재시도하지 않음 - match.failed 로 보관, 재시도 불필요 실패는 아직 체결 가능한 쪽을 호가창에 되돌림 **/
+    public void deadLetter(String stockCode, MatchingPair pair, int attempts, Exception cause) {
+        exhaustedCounter.increment();
+        log.error("[MatchRetry] 재체결 포기 → DLQ ({}회 실패) - stockCode: {}, buy: {}, sell: {}, 이유: {}", attempts,
+                stockCode, pair.getBuyDTO().getId(), pair.getSellDTO().getId(), cause.getMessage());
+        kafkaDlqService.sendMatchError(stockCode, pair, attempts, cause);
+
+        if (cause instanceof NonRetryableMatchException nonRetryable) {
+            restoreLiveSides(stockCode, pair, nonRetryable.getRestorableSides());
+        }
+    }
+
+    private void restoreLiveSides(String stockCode, MatchingPair pair, Set<OrderType> sides) {
+        if (sides.size() == OrderType.values().length) {
+            deferred.computeIfAbsent(stockCode, code -> new ConcurrentLinkedQueue<>()).add(pair);
+            return;
+        }
+        for (OrderType side : sides) {
+            try {
+                orderBookStore.restore(pair, side);
+                restoredCounter.increment();
+            } catch (Exception e) {
+                log.error("[MatchRetry] 호가창 되돌리기 실패 - stockCode: {}, {}: {}, 이유: {}", stockCode, side,
+                        side == OrderType.BUY ? pair.getBuyDTO().getId() : pair.getSellDTO().getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /** 체결 패스가 끝난 뒤 pair 전체를 되돌림 - 종목 담당 워커에서만 호출 **/
+    public void restoreDeferred(String stockCode) {
+        Queue<MatchingPair> queue = deferred.get(stockCode);
+        if (queue == null) {
+            return;
+        }
+        MatchingPair pair;
+        while ((pair = queue.poll()) != null) {
+            restore(stockCode, pair);
+        }
+    }
+
+    /** 되돌리기에 실패해도 DLQ 기록은 남김 - 수량은 DLQ 메시지로 수동 복구 **/
+    private void restore(String stockCode, MatchingPair pair) {
+        try {
+            orderBookStore.restore(pair);
+            restoredCounter.increment();
+        } catch (Exception e) {
+            log.error("[MatchRetry] 호가창 되돌리기 실패 - stockCode: {}, buy: {}, sell: {}, 이유: {}", stockCode,
+                    pair.getBuyDTO().getId(), pair.getSellDTO().getId(), e.getMessage(), e);
+        }
+    }
+
+    /** 대기가 끝난 pair 를 모두 꺼냄 - 종목 담당 워커에서만 호출 **/
+    public List<PendingMatch> drainDue(String stockCode) {
+        Queue<PendingMatch> queue = ready.get(stockCode);
+        if (queue == null || queue.isEmpty()) {
+            return List.of();
+        }
+
+        List<PendingMatch> due = new ArrayList<>();
+        PendingMatch next;
+        while ((next = queue.poll()) != null) {
+            due.add(next);
+        }
+        pending.addAndGet(-due.size());
+        return due;
+    }
+
+    long backoffMs(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        return Math.min(maxBackoffMs, initialBackoffMs << shift);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        if (pending.get() > 0) {
+            log.warn("[MatchRetry] 재체결 대기 중인 pair {}건을 처리하지 못하고 종료합니다.", pending.get());
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.book.JournalRecord;
+import com.portfolio2025.first.domain.book.JournalRecord.Type;
+import com.portfolio2025.first.domain.book.OrderBook;
+import com.portfolio2025.first.domain.order.OrderType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 메모리 호가창 변경 내역을 순서대로 기록하는 append-only 체결 저널 MatchingJournal
+ * [08.09]
+ * (추가) 파일을 구간(window) 단위로 mmap 해서 고정 길이(48 byte) 레코드를 순차 기록 - write 시스템 콜 / Redis 왕복 없음
+ * (추가) replay - 서버 재시작 시 처음부터 읽어서 OrderBookEngine 호가창을 같은 순서로 재구성 (DB 재조회 없음)
+ *       레코드마다 CRC32 를 두어서 기록 도중 죽은 마지막 레코드(torn write)는 버리고 그 위치부터 이어서 기록
+ *
+ * 레코드 구조 (48 byte)
+ * [0] type | [1] side | [2..3] 예약 | [4..7] crc32 | [8..15] stockCode(ASCII) | [16..23] stockOrderId
+ * [24..31] price | [32..39] quantity | [40..47] createdMillis
+ *
+ * [08.25]
+ * (추가) compact - 저널 앞부분을 살아 있는 주문의 ACCEPT 스냅샷으로 바꾸고 이후 레코드만 이어 붙임 (저널 절단)
+ *       1) 현재 끝 위치까지를 락 없이 별도 OrderBook 에 재생 -> 살아 있는 주문만 path.compact 에 ACCEPT 로 기록
+ *       2) 락 안에서 그 사이 추가된 레코드를 복사 -> force -> path.compact 를 path 로 원자적 교체 -> 다시 매핑
+ *       스냅샷 재생 결과 == 원래 저널 재생 결과 (같은 OrderBook.apply 규칙), 재시작 재생 시간이 살아 있는 주문 수에 비례
+ *       교체 전에 죽으면 원래 저널이 그대로 남고, 다음 open 에서 남은 path.compact 를 지움
+ * (추가) compact-interval-ms 주기로 확인 - 레코드가 compact-min-records 이상이고 직전 스냅샷의 2배를 넘으면 실행
+ *
+ * [고민]
+ * 1. mmap 은 프로세스가 죽어도 page cache 에 남지만 OS 장애까지 보장하려면 force 필요 - 종료 / 스냅샷 교체 시에만 force
+ * 2. 스냅샷 2단계(남은 레코드 복사 + 교체) 동안은 append 가 대기함 - 1단계 이후 추가된 레코드 양에 비례
+ */
+@Slf4j
+@Component
+public class MatchingJournal {
+
+    static final int RECORD_SIZE = 48;
+    private static final int STOCK_CODE_LENGTH = 8;
+    private static final int CRC_OFFSET = 4;
+
+    @Value("${matching.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${matching.journal.path:./data/matching.journal}")
+    private String path;
+
+    @Value("${matching.journal.window-size-mb:64}")
+    private int windowSizeMb;
+
+    @Value("${matching.journal.compact-min-records:500000}")
+    private long compactMinRecords;
+
+    private Path file;
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowSize;
+    private long snapshotRecords; // 마지막 스냅샷에 기록된 ACCEPT 수
+
+    private final byte[] scratch = new byte[RECORD_SIZE]; // append 전용 - 재생 / 스냅샷은 각자 버퍼 사용
+    private final CRC32 crc32 = new CRC32();
+    private final Object compactLock = new Object();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            file = Path.of(path);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.deleteIfExists(compactPath()); // 교체 전에 중단된 스냅샷
+            channel = openChannel();
+            // window 경계에서 레코드가 잘리지 않도록 레코드 크기의 배수로 맞춤
+            windowSize = ((long) windowSizeMb * 1024 * 1024 / RECORD_SIZE) * RECORD_SIZE;
+
+            long end = scan(0, channel.size(), record -> { });
+            mapWindow(end);
+            log.info("[Journal] 체결 저널 열기 - path: {}, 기존 레코드: {}건", file, end / RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("체결 저널을 열 수 없습니다. path=" + path, e);
+        }
+    }
+
+    /** 저널 처음부터 유효한 레코드를 순서대로 전달 **/
+    public synchronized long replay(Consumer<JournalRecord> consumer) {
+        if (!enabled) {
+            return 0;
+        }
+        try {
+            return scan(0, channel.size(), consumer) / RECORD_SIZE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("체결 저널 재생 실패", e);
+        }
+    }
+
+    public synchronized void append(JournalRecord record) {
+        if (!enabled) {
+            return;
+        }
+        if (window.remaining() < RECORD_SIZE) {
+            mapWindow(windowStart + window.position());
+        }
+        encode(record, scratch, crc32);
+        window.put(scratch);
+    }
+
+    /** 기록된 레코드 수 **/
+    public synchronized long size() {
+        return enabled ? (windowStart + window.position()) / RECORD_SIZE : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${matching.journal.compact-interval-ms:60000}")
+    public void compactIfNeeded() {
+        if (!enabled) {
+            return;
+        }
+        long records = size();
+        if (records >= compactMinRecords && records > snapshotRecords * 2) {
+            compact();
+        }
+    }
+
+    /** 저널을 살아 있는 주문 스냅샷 + 이후 레코드로 교체 - 반환값은 교체 후 레코드 수 **/
+    public long compact() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (compactLock) {
+            long startedAt = System.currentTimeMillis();
+            Path compactPath = compactPath();
+            try (FileChannel compacted = FileChannel.open(compactPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                // 1. 여기까지는 append 와 겹치지 않는 구간 - 락 없이 재생
+                long snapshotEnd = size() * RECORD_SIZE;
+                long accepted = writeSnapshot(snapshotEnd, compacted);
+
+                // 2. 그 사이 추가된 레코드를 옮기고 교체
+                synchronized (this) {
+                    long before = windowStart + window.position();
+                    long tail = before - snapshotEnd;
+                    for (long copied = 0; copied < tail; ) {
+                        copied += channel.transferTo(snapshotEnd + copied, tail - copied, compacted);
+                    }
+                    compacted.force(true);
+
+                    window.force();
+                    channel.close();
+                    Files.move(compactPath, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    channel = openChannel();
+                    long after = accepted * RECORD_SIZE + tail;
+                    mapWindow(after);
+                    snapshotRecords = accepted;
+
+                    log.info("[Journal] 체결 저널 스냅샷 - 레코드: {} -> {}건 (살아 있는 주문 {}건), {}ms",
+                            before / RECORD_SIZE, after / RECORD_SIZE, accepted,
+                            System.currentTimeMillis() - startedAt);
+                    return after / RECORD_SIZE;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("체결 저널 스냅샷 실패", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        window.force();
+        channel.close();
+        channel = null;
+    }
+
+    /** 처음부터 end 까지 재생한 호가창의 살아 있는 주문을 ACCEPT 로 기록 - 기록한 주문 수 반환 **/
+    private long writeSnapshot(long end, FileChannel target) throws IOException {
+        Map<String, OrderBook> books = new HashMap<>();
+        scan(0, end, record -> books.computeIfAbsent(record.stockCode(), OrderBook::new).apply(record));
+
+        List<JournalRecord> live = new ArrayList<>();
+        for (OrderBook book : books.values()) {
+            book.forEachLive(order -> live.add(
+                    JournalRecord.of(Type.ACCEPT, order.getOrderType(), order.toDTO(), order.getRemainQuantity())));
+        }
+
+        byte[] buffer = new byte[RECORD_SIZE];
+        CRC32 crc = new CRC32();
+        ByteBuffer out = ByteBuffer.allocate(RECORD_SIZE * 1024);
+        for (JournalRecord record : live) {
+            if (out.remaining() < RECORD_SIZE) {
+                writeFully(out, target);
+            }
+            encode(record, buffer, crc);
+            out.put(buffer);
+        }
+        writeFully(out, target);
+        return live.size();
+    }
+
+    private static void writeFully(ByteBuffer out, FileChannel target) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            target.write(out);
+        }
+        out.clear();
+    }
+
+    /** from 부터 end 까지 유효한 레코드를 전달 - 유효한 마지막 레코드 다음 위치(byte offset)를 반환 **/
+    private long scan(long from, long end, Consumer<JournalRecord> consumer) throws IOException {
+        byte[] buffer = new byte[RECORD_SIZE];
+        CRC32 crc = new CRC32();
+        long position = from;
+
+        while (position + RECORD_SIZE <= end) {
+            long size = Math.min(windowSize, (end - position) / RECORD_SIZE * RECORD_SIZE);
+            MappedByteBuffer readWindow = channel.map(MapMode.READ_ONLY, position, size);
+
+            while (readWindow.remaining() >= RECORD_SIZE) {
+                readWindow.get(buffer);
+                JournalRecord record = decode(buffer, crc);
+                if (record == null) {
+                    return position;
+                }
+                consumer.accept(record);
+                position += RECORD_SIZE;
+            }
+        }
+        return position;
+    }
+
+    private void mapWindow(long start) {
+        try {
+            window = channel.map(MapMode.READ_WRITE, start, windowSize);
+            windowStart = start;
+        } catch (IOException e) {
+            throw new UncheckedIOException("체결 저널 매핑 실패", e);
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private Path compactPath() {
+        return file.resolveSibling(file.getFileName() + ".compact");
+    }
+
+    private static void encode(JournalRecord record, byte[] target, CRC32 crc) {
+        byte[] stockCode = record.stockCode().getBytes(StandardCharsets.US_ASCII);
+        if (stockCode.length > STOCK_CODE_LENGTH) {
+            throw new IllegalArgumentException("종목 코드가 너무 깁니다. stockCode=" + record.stockCode());
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(target);
+        buffer.put(record.type().code())
+                .put((byte) (record.orderType() == OrderType.BUY ? 0 : 1))
+                .putShort((short) 0)
+                .putInt(0)
+                .put(stockCode)
+                .put(new byte[STOCK_CODE_LENGTH - stockCode.length])
+                .putLong(record.stockOrderId())
+                .putLong(record.price())
+                .putLong(record.quantity())
+                .putLong(record.createdMillis());
+        buffer.putInt(CRC_OFFSET, checksum(target, crc));
+    }
+
+    /** 비어 있거나(기록 끝) 체크섬이 맞지 않으면(기록 도중 중단) null **/
+    private static JournalRecord decode(byte[] source, CRC32 crc) {
+        ByteBuffer buffer = ByteBuffer.wrap(source);
+        byte type = buffer.get(0);
+        if (type == 0) {
+            return null;
+        }
+        int storedCrc = buffer.getInt(CRC_OFFSET);
+        buffer.putInt(CRC_OFFSET, 0);
+        if (storedCrc != checksum(source, crc)) {
+            log.warn("[Journal] 체크섬 불일치 레코드 발견 - 이후 레코드는 무시합니다.");
+            return null;
+        }
+
+        buffer.position(8);
+        byte[] stockCode = new byte[STOCK_CODE_LENGTH];
+        buffer.get(stockCode);
+        int codeLength = 0;
+        while (codeLength < STOCK_CODE_LENGTH && stockCode[codeLength] != 0) {
+            codeLength++;
+        }
+
+        return new JournalRecord(
+                Type.of(type),
+                source[1] == 0 ? OrderType.BUY : OrderType.SELL,
+                new String(stockCode, 0, codeLength, StandardCharsets.US_ASCII),
+                buffer.getLong(),
+                buffer.getLong(),
+                buffer.getLong(),
+                buffer.getLong());
+    }
+
+    private static int checksum(byte[] bytes, CRC32 crc) {
+        crc.reset();
+        crc.update(bytes, 0, RECORD_SIZE);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,135 @@
+package com.portfolio2025.first.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 종목(stockCode)마다 정해진 워커 스레드 하나에서만 체결을 실행하는 MatchingScheduler
+ * [08.04]
+ * (추가) 종목 -> 워커 고정 배정 (stockCode hash) - 같은 종목의 호가창은 항상 한 스레드만 수정 (single writer)
+ * (수정) 체결마다 Redisson 분산 락을 잡던 방식 대체 - 락 획득 실패로 트리거가 버려지는 상황 제거
+ *
+ * [08.05]
+ * (추가) 종목별 dirty 플래그로 트리거 병합 - 이미 대기 중인 체결 패스가 있으면 새 트리거는 합쳐짐
+ *       패스 시작 시 플래그를 먼저 내리기 때문에, 실행 중에 들어온 주문은 반드시 다음 패스에서 처리됨
+ * (추가) matching.trigger.received / matching.trigger.coalesced / matching.pass.executed 지표
+ *
+ * [08.20]
+ * (추가) MatchRetryStage 의 백오프가 끝나면 해당 종목 체결 트리거 - 재체결도 종목 담당 워커에서 실행
+ *
+ * [08.25]
+ * (추가) submit - 호가창 취소 같은 작업을 종목 담당 워커에서 실행 (체결 패스 사이에 실행되므로 차감 중인 주문과 겹치지 않음)
+ * (추가) pause / resume - 메모리 호가창 임대를 뺏긴 동안 체결 패스를 건너뜀 (OrderBookOwnerLease)
+ *       건너뛴 종목은 resume 시 다시 트리거
+ *
+ * [고민]
+ * 1. 서버 간 배정은 match.request 를 stockCode 키로 발행해서 Kafka 파티션 소유권으로 보장
+ *    (파티션 수 / 리스너 concurrency 는 kafka.topics.match-request.partitions)
+ *    [08.25] 파티션 소유권으로 나눠지는 것은 matching.book=redis 일 때만 의미 있음
+ *    memory 모드는 order.created / match.request 의 컨슈머 그룹이 달라서 주문이 들어간 서버와 체결하는 서버가 다를 수 있음
+ *    -> OrderBookOwnerLease 로 단일 서버만 기동 (한 서버가 두 토픽의 모든 파티션을 소유)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MatchingScheduler {
+
+    private final TradeService tradeService;
+    private final MatchRetryStage matchRetryStage;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${matching.workers:4}")
+    private int workerCount;
+
+    private final List<ExecutorService> workers = new ArrayList<>();
+    private final Map<String, AtomicBoolean> dirtyFlags = new ConcurrentHashMap<>();
+    private volatile boolean paused;
+
+    private Counter receivedCounter;
+    private Counter coalescedCounter;
+    private Counter passCounter;
+
+    @PostConstruct
+    public void initWorkers() {
+        receivedCounter = meterRegistry.counter("matching.trigger.received");
+        coalescedCounter = meterRegistry.counter("matching.trigger.coalesced");
+        passCounter = meterRegistry.counter("matching.pass.executed");
+
+        for (int i = 0; i < workerCount; i++) {
+            String threadName = "match-worker-" + i;
+            workers.add(Executors.newSingleThreadExecutor(r -> new Thread(r, threadName)));
+        }
+        matchRetryStage.onDue(this::requestMatch);
+        log.info("[MatchingScheduler] 체결 워커 {}개 시작", workerCount);
+    }
+
+    /** 해당 종목 담당 워커에 체결 요청 - 이미 대기 중인 패스가 있으면 합쳐짐 **/
+    public void requestMatch(String stockCode) {
+        receivedCounter.increment();
+        AtomicBoolean dirty = dirtyFlags.computeIfAbsent(stockCode, code -> new AtomicBoolean(false));
+        if (dirty.getAndSet(true)) {
+            coalescedCounter.increment();
+            return;
+        }
+        workerOf(stockCode).execute(() -> runPass(stockCode, dirty));
+    }
+
+    private void runPass(String stockCode, AtomicBoolean dirty) {
+        // 실행 전에 먼저 내림 -> 실행 중 들어온 트리거는 새 패스를 예약함
+        dirty.set(false);
+        if (paused) {
+            log.debug("[MatchingScheduler] 체결 일시 중지 중 - 패스 건너뜀, stockCode: {}", stockCode);
+            return;
+        }
+        passCounter.increment();
+        try {
+            tradeService.match(stockCode);
+        } catch (Exception e) {
+            log.error("[MatchingScheduler] match 실행 중 예외 발생 - stockCode: {}", stockCode, e);
+        }
+    }
+
+    /** 이후 체결 패스를 건너뜀 - 이미 실행 중인 패스는 끝까지 실행 **/
+    public void pause() {
+        paused = true;
+    }
+
+    /** 체결 재개 - 알고 있는 종목 전체를 다시 트리거 (중지 중 건너뛴 패스 보충) **/
+    public void resume() {
+        paused = false;
+        dirtyFlags.keySet().forEach(this::requestMatch);
+    }
+
+    /** 종목 담당 워커에서 작업 실행 - 진행 중인 체결 패스가 끝난 뒤 실행됨 **/
+    public <T> CompletableFuture<T> submit(String stockCode, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, workerOf(stockCode));
+    }
+
+    private ExecutorService workerOf(String stockCode) {
+        return workers.get(Math.floorMod(stockCode.hashCode(), workers.size()));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.forEach(ExecutorService::shutdown);
+        for (ExecutorService worker : workers) {
+            worker.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
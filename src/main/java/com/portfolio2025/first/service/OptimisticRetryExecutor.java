@@ -0,0 +1,96 @@
+package com.portfolio2025.first.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 버전 충돌(@Version) / 락 실패 시 트랜잭션을 처음부터 다시 실행하는 OptimisticRetryExecutor
+ * [08.23]
+ * (추가) Portfolio / PortfolioStock / StockOrder 는 비관적 락 대신 @Version - 충돌하면 커밋 시점에 ObjectOptimisticLockingFailureException
+ *       -> 트랜잭션 밖에서 max-attempts 까지 다시 실행 (새 트랜잭션 / 새 영속성 컨텍스트에서 최신 값을 다시 읽음)
+ * (추가) 대기 시간은 full jitter - random(0 ~ min(max, initial * 2^(n-1))) : 함께 충돌한 요청들이 같은 시점에 다시 부딪히지 않도록
+ * (추가) 지표 - concurrency.retry{operation} (재시도 횟수) / concurrency.retry.exhausted{operation} (포기)
+ *
+ * [락 순서 정책] 비관적 락이 꼭 필요한 곳 (외부 계좌 입출금, 사용자별 생성 작업)
+ * 1. 테이블은 users -> accounts -> portfolios -> portfolio_stocks -> stock_orders 순서로만 잠금 (역순 금지)
+ * 2. 같은 테이블의 여러 행은 id 오름차순 (IN 조회 + ORDER BY id)
+ * 3. 락 조회에 JOIN FETCH 금지 - DB 에 따라 조인된 행까지 잠겨서 1번 순서가 깨짐 (H2 는 조인된 users 까지 잠금)
+ * 4. 같은 행을 낙관적 경로에서도 수정하면 락 경로도 버전이 올라감 - 낙관적 쪽이 충돌을 감지하고 재시도
+ *
+ * [고민]
+ * 1. 바깥에 이미 트랜잭션이 있으면 재시도하지 않고 한 번만 실행 - 롤백 전용이 된 트랜잭션 안에서 다시 실행해도 소용 없음
+ * 2. 재시도 대상은 ConcurrencyFailureException (낙관적 / 비관적 락 실패, 데드락) 만 - 검증 실패는 그대로 던짐
+ * 3. 호출 스레드에서 대기 - 체결 워커는 최대 대기를 짧게 두고, 넘으면 MatchRetryStage 로 넘김
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OptimisticRetryExecutor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${concurrency.retry.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${concurrency.retry.initial-backoff-ms:2}")
+    private long initialBackoffMs;
+
+    @Value("${concurrency.retry.max-backoff-ms:50}")
+    private long maxBackoffMs;
+
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("concurrency.retry.exhausted", "operation", operation).increment();
+                    log.warn("[Retry] {} 재시도 포기 ({}회 충돌): {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                meterRegistry.counter("concurrency.retry", "operation", operation).increment();
+                log.debug("[Retry] {} 충돌 - {}회째 재시도: {}", operation, attempt, e.getMessage());
+                sleep(jitteredBackoffMs(attempt));
+            }
+        }
+    }
+
+    /** attempt 번째 실패 후 대기 시간의 상한 - 실패할 때마다 2배, max 에서 멈춤 **/
+    long backoffCapMs(int attempt) {
+        int shift = Math.min(attempt - 1, 20);
+        return Math.min(maxBackoffMs, initialBackoffMs << shift);
+    }
+
+    long jitteredBackoffMs(int attempt) {
+        return ThreadLocalRandom.current().nextLong(backoffCapMs(attempt) + 1);
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 인터럽트 발생", e);
+        }
+    }
+}
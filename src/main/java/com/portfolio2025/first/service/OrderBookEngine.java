@@ -0,0 +1,193 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.book.JournalRecord;
+import com.portfolio2025.first.domain.book.JournalRecord.Type;
+import com.portfolio2025.first.domain.book.OrderBook;
+import com.portfolio2025.first.domain.book.RestingOrder;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * 종목(stockCode)별 메모리 호가창을 관리하는 OrderBookEngine
+ * [08.01]
+ * (추가) Redis ZSET pop/push 기반 매칭을 대체 - 매칭 한 번에 네트워크 왕복 없이 교차 가격대 전체를 처리
+ * (추가) matching.book=redis 설정 시 기존 RedisStockOrderService 경로 그대로 사용
+ *
+ * [08.09]
+ * (추가) 호가창 변경(접수 / 체결 / 취소 / 복구)을 MatchingJournal 에 순서대로 기록, 재시작 시 저널 재생으로 호가창 복구
+ *       저널 기록은 종목 락 안에서 수행 - 같은 종목의 레코드 순서 == 실제 적용 순서
+ *
+ * [08.10]
+ * (추가) addAll - DB 에서 읽은 대기 주문 묶음을 종목 락 한 번으로 적재 (OrderBookLoader)
+ *
+ * [08.13]
+ * (수정) OrderBookStore 구현체로 변경 - matching.book=memory(기본)일 때만 빈 생성, isEnabled 분기 제거
+ * (수정) 종목 락(synchronized) 제거 - OrderBook 이 lock-free 라서 접수 / 취소가 체결 워커를 기다리지 않음
+ *       ACCEPT 는 호가창 반영 전에 기록 (재생 시 FILL / CANCEL 보다 항상 앞에 옴)
+ *       FILL / RESTORE / CANCEL 은 반영 후 기록 - 취소와 체결이 경합하면 저널 순서가 실제 순서와 다를 수 있어서
+ *       재생 시 이미 빠진 주문에 대한 FILL / CANCEL 은 무시
+ * [08.25]
+ * (수정) 체결 FILL 은 popMatchPairs 가 아니라 DB 커밋 후(confirm)에 기록 - 저널에는 커밋된 체결만 남음
+ *       기존에는 커밋 전에 서버가 죽으면 재생된 호가창이 DB 보다 적은 수량을 가졌음 (재시도 대기 / DLQ pair 포함)
+ *       커밋 전 pair 의 차감은 메모리에만 있으므로 restore 도 RESTORE 를 기록하지 않음 (기록하면 재생 시 두 번 더해짐)
+ *       FILL 은 같은 주문의 다른 변경(CANCEL / 정정)보다 늦게 기록될 수 있지만, 수량 증감은 순서와 무관하고 빠진 주문의 FILL 은 무시됨
+ *
+ * [고민]
+ * 1. 현재는 단일 서버 기준 - (08.25) OrderBookOwnerLease 가 두 번째 서버 기동을 막음
+ * 2. 커밋 후 confirm 전에 서버가 죽으면 재생된 호가창에 이미 체결된 수량이 남음
+ *    다시 교차해도 TradeExecutionService 의 멱등성 체크 / 잔여 수량 확인에서 걸러짐 (DLQ 로 남음)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "matching.book", havingValue = "memory", matchIfMissing = true)
+public class OrderBookEngine implements OrderBookStore {
+
+    private final Map<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final MatchingJournal matchingJournal;
+
+    /** 저널을 처음부터 재생해서 호가창 복구 **/
+    @PostConstruct
+    public void recover() {
+        if (!matchingJournal.isEnabled()) {
+            return;
+        }
+        long startedAt = System.currentTimeMillis();
+        long count = matchingJournal.replay(this::apply);
+        log.info("[OrderBook] 저널 재생 완료 - 레코드: {}건, 종목: {}개, {}ms",
+                count, books.size(), System.currentTimeMillis() - startedAt);
+    }
+
+    @Override
+    public void push(OrderType orderType, StockOrderRedisDTO dto) {
+        matchingJournal.append(JournalRecord.of(Type.ACCEPT, orderType, dto, dto.getRemainQuantity()));
+        bookOf(dto.getStockCode()).add(orderType, dto);
+    }
+
+    /** 같은 종목의 주문 묶음을 한 번에 적재 **/
+    @Override
+    public void pushAll(String stockCode, List<RestingStockOrderDTO> rows) {
+        OrderBook book = bookOf(stockCode);
+        for (RestingStockOrderDTO row : rows) {
+            StockOrderRedisDTO dto = row.toRedisDTO();
+            if (book.find(dto.getId()).isPresent()) {
+                continue; // 저널로 이미 복구된 주문
+            }
+            matchingJournal.append(JournalRecord.of(Type.ACCEPT, row.getOrderType(), dto, dto.getRemainQuantity()));
+            book.add(row.getOrderType(), dto);
+        }
+    }
+
+    @Override
+    public Optional<StockOrderRedisDTO> peekBest(String stockCode, OrderType orderType) {
+        return bookOf(stockCode).peek(orderType).map(RestingOrder::toDTO);
+    }
+
+    @Override
+    public Optional<StockOrderRedisDTO> popBest(String stockCode, OrderType orderType) {
+        OrderBook book = bookOf(stockCode);
+        // 조회와 꺼내기 사이에 다른 스레드가 취소하면 다음 최우선 주문으로 재시도
+        Optional<RestingOrder> best;
+        while ((best = book.peek(orderType)).isPresent()) {
+            Optional<StockOrderRedisDTO> removed = book.close(best.get().getId());
+            if (removed.isPresent()) {
+                appendCancel(stockCode, orderType, removed.get().getId());
+                return removed;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** 교차하는 주문들을 최대 maxPairs 건까지 한 번에 꺼낸다 - 저널 기록은 커밋 후 confirm 에서 **/
+    @Override
+    public List<MatchingPair> popMatchPairs(String stockCode, int maxPairs) {
+        return bookOf(stockCode).matchCrossing(maxPairs);
+    }
+
+    /** DB 커밋이 끝난 pair 의 체결 수량을 저널에 기록 **/
+    @Override
+    public void confirm(List<MatchingPair> pairs) {
+        for (MatchingPair pair : pairs) {
+            long executed = pair.getExecutableQuantityValue();
+            matchingJournal.append(JournalRecord.of(Type.FILL, OrderType.BUY, pair.getBuyDTO(), executed));
+            matchingJournal.append(JournalRecord.of(Type.FILL, OrderType.SELL, pair.getSellDTO(), executed));
+        }
+    }
+
+    /** 커밋하지 못한 pair 수량 복구 - 차감이 저널에 없으므로 메모리 호가창만 되돌림 **/
+    @Override
+    public void restore(MatchingPair pair) {
+        bookOf(pair.getBuyDTO().getStockCode()).restore(pair);
+    }
+
+    @Override
+    public void restore(MatchingPair pair, OrderType orderType) {
+        StockOrderRedisDTO dto = orderType == OrderType.BUY ? pair.getBuyDTO() : pair.getSellDTO();
+        bookOf(dto.getStockCode()).restoreOrder(orderType, dto, pair.getExecutableQuantityValue());
+    }
+
+    /** stockOrderId 인덱스로 바로 취소 - 가격대 스캔 없음 **/
+    @Override
+    public boolean cancel(String stockCode, OrderType orderType, Long stockOrderId) {
+        boolean removed = bookOf(stockCode).cancel(stockOrderId);
+        if (!removed) {
+            log.warn("[OrderBook] 취소 대상 주문이 호가창에 없습니다. stockOrderId={}", stockOrderId);
+            return false;
+        }
+        appendCancel(stockCode, orderType, stockOrderId);
+        return true;
+    }
+
+    /** 잔여 수량 변경은 차이만큼 FILL(감소) / RESTORE(증가) 로 기록 - 재생 시 같은 결과 **/
+    @Override
+    public boolean updateQuantity(String stockCode, OrderType orderType, Long stockOrderId, long remainQuantity) {
+        OrderBook book = bookOf(stockCode);
+        Optional<RestingOrder> order = book.find(stockOrderId);
+        Optional<Long> previous = book.updateQuantity(stockOrderId, remainQuantity);
+        if (order.isEmpty() || previous.isEmpty()) {
+            return false;
+        }
+        long diff = previous.get() - remainQuantity;
+        if (diff != 0) {
+            StockOrderRedisDTO dto = order.get().toDTO(remainQuantity);
+            matchingJournal.append(diff > 0
+                    ? JournalRecord.of(Type.FILL, orderType, dto, diff)
+                    : JournalRecord.of(Type.RESTORE, orderType, dto, -diff));
+        }
+        return true;
+    }
+
+    @Override
+    public long depth(String stockCode, OrderType orderType) {
+        return bookOf(stockCode).depth(orderType);
+    }
+
+    @Override
+    public boolean hasRestingOrders() {
+        return books.values().stream().anyMatch(book -> !book.isEmpty());
+    }
+
+    /** 저널 레코드 한 건을 호가창에 적용 (재생 중에는 다시 기록하지 않음) **/
+    private void apply(JournalRecord record) {
+        bookOf(record.stockCode()).apply(record);
+    }
+
+    private void appendCancel(String stockCode, OrderType orderType, Long stockOrderId) {
+        matchingJournal.append(new JournalRecord(Type.CANCEL, orderType, stockCode, stockOrderId, 0, 0, 0));
+    }
+
+    private OrderBook bookOf(String stockCode) {
+        return books.computeIfAbsent(stockCode, OrderBook::new);
+    }
+}
@@ -0,0 +1,94 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import com.portfolio2025.first.repository.StockOrderRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 서버 시작 시 stock_orders 의 대기 주문(PENDING / PARTIALLY_FILLED)으로 호가창을 재구성하는 OrderBookLoader
+ * [08.10]
+ * (추가) Redis flushAll 등으로 호가창이 비어도 DB 기준으로 복구
+ *       forward-only 커서로 종목 순서대로 스트리밍 -> CHUNK_SIZE 단위로 Redis 파이프라인 / 메모리 호가창에 적재
+ * (추가) SmartInitializingSingleton - Kafka 리스너 컨테이너가 시작되기 전에 적재가 끝나도록 함 (적재 중 체결 방지)
+ * (추가) matching.loader.mode
+ *       if-empty(기본) - 메모리 호가창이 저널로 복구되지 않은 경우에만 적재 / always - 항상 적재 / never - 적재 안 함
+ * [08.11]
+ * (수정) never 면 빈 자체를 만들지 않음 - SmartInitializingSingleton 은 lazy 초기화 대상이 아니라서 Redis 연결까지 끌려옴
+ * [08.13]
+ * (수정) OrderBookStore 로 적재 - if-empty 는 memory / redis 모두 호가창에 대기 주문이 없을 때만 적재
+ *
+ * [고민]
+ * 1. 저널과 DB 가 다를 때(커밋 후 confirm 전 중단 등) 어느 쪽을 기준으로 할지 - 현재는 저널이 있으면 저널 우선
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${matching.loader.mode:if-empty}' != 'never'")
+public class OrderBookLoader implements SmartInitializingSingleton {
+
+    private static final int CHUNK_SIZE = 1_000;
+    private static final String ALWAYS = "always";
+
+    private final StockOrderRepository stockOrderRepository;
+    private final OrderBookStore orderBookStore;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${matching.loader.mode:if-empty}")
+    private String mode;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!ALWAYS.equalsIgnoreCase(mode) && orderBookStore.hasRestingOrders()) {
+            log.info("[Loader] 이미 대기 주문이 있는 호가창이라서 DB 적재를 건너뜁니다.");
+            return;
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> load());
+    }
+
+    /** 트랜잭션 안에서 호출해야 함 - 스트림이 열려 있는 동안 커넥션 유지 **/
+    public long load() {
+        long startedAt = System.nanoTime();
+        long loaded = 0;
+        List<RestingStockOrderDTO> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (Stream<RestingStockOrderDTO> rows = stockOrderRepository.streamRestingOrders()) {
+            for (RestingStockOrderDTO row : (Iterable<RestingStockOrderDTO>) rows::iterator) {
+                // pushAll 은 같은 종목 묶음 단위이므로 종목이 바뀌면 끊어서 적재
+                if (chunk.size() == CHUNK_SIZE
+                        || (!chunk.isEmpty() && !chunk.getLast().getStockCode().equals(row.getStockCode()))) {
+                    flush(chunk);
+                    chunk.clear();
+                }
+                chunk.add(row);
+                loaded++;
+            }
+            flush(chunk);
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        log.info("[Loader] 호가창 재구성 완료 - {}건, {}ms, {} rows/sec ({})",
+                loaded, elapsedMillis, loaded * 1_000 / elapsedMillis,
+                orderBookStore.getClass().getSimpleName());
+        return loaded;
+    }
+
+    private void flush(List<RestingStockOrderDTO> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        orderBookStore.pushAll(chunk.getFirst().getStockCode(), chunk);
+    }
+}
@@ -0,0 +1,141 @@
+package com.portfolio2025.first.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 메모리 호가창(matching.book=memory)을 서버 한 대에서만 띄우도록 막는 OrderBookOwnerLease
+ * [08.25]
+ * (추가) 메모리 호가창은 서버마다 따로 있음 - order.created(order-prepare-group) 를 받은 서버와
+ *       match.request(trade-match-group) 를 받은 서버가 다르면 주문이 들어간 호가창과 체결하는 호가창이 달라짐
+ *       (OrderBookLoader 도 서버마다 DB 의 대기 주문 전체를 적재) -> 메모리 모드는 단일 서버 전용으로 강제
+ * (추가) 기동 시 Redis 에 임대 키(SET NX PX)를 잡아야 빈 초기화 완료 - Kafka 리스너는 그 뒤에 시작
+ *       다른 서버가 잡고 있으면 lease-ttl 동안 기다림 (죽은 서버의 임대가 만료되는 시간), 그래도 못 잡으면 기동 실패
+ * (추가) heartbeat 로 임대 연장, 종료 시 반납 - 연장 / 반납은 owner 가 같을 때만 (RedisLease)
+ * (수정) 임대를 다른 서버에 뺏기면 체결(MatchingScheduler.pause)과 실행 중인 Kafka 리스너를 멈춤
+ *       리스너를 멈추면 파티션이 임대를 가진 서버로 넘어감 - 다시 잡으면 멈췄던 리스너만 다시 시작
+ *       기존에는 error 로그만 남기고 두 서버가 각자 체결을 계속했음
+ *
+ * [고민]
+ * 1. 여러 서버로 늘리려면 matching.book=redis - 호가창이 Redis 에 하나뿐이라 어느 서버가 트리거를 받아도 같은 호가창
+ * 2. GC / 네트워크 정지로 ttl 이상 연장을 못 하면 그 사이 다른 서버가 임대를 가져갈 수 있음
+ *    -> 연장 실패는 다시 잡기를 시도하고, 이미 다른 서버가 잡았다면 이 서버의 체결 / 소비를 멈춤
+ * 3. Redis 에 연결할 수 없어 연장이 예외로 끝나면 임대 상태를 알 수 없음 - 다른 서버도 잡을 수 없으므로 체결은 계속
+ * 4. 메모리 모드도 임대 키 때문에 Redis 가 필요함 (주문 락 Redisson 과 같은 Redis) - 로컬 단일 실행은 enabled=false
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${matching.book:memory}' == 'memory' && ${matching.owner-lease.enabled:true}")
+public class OrderBookOwnerLease {
+
+    static final String LEASE_KEY = "matching:memory:owner";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MatchingScheduler matchingScheduler;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Value("${matching.owner-lease.ttl-ms:30000}")
+    private long leaseTtlMs;
+
+    @Value("${matching.owner-lease.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+
+    private RedisLease lease;
+    private volatile boolean closed;
+    private volatile boolean standingDown;
+    private final List<MessageListenerContainer> stoppedContainers = new ArrayList<>();
+
+    @PostConstruct
+    public void acquire() throws InterruptedException {
+        lease = new RedisLease(redisTemplate, LEASE_KEY, TsidNodeAllocator.ownerName(), leaseTtlMs);
+        long deadline = System.currentTimeMillis() + leaseTtlMs;
+        while (!lease.tryAcquire()) {
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IllegalStateException("메모리 호가창은 서버 한 대에서만 실행할 수 있습니다. 사용 중인 서버: "
+                        + lease.currentOwner() + " (여러 대는 matching.book=redis)");
+            }
+            log.warn("[OrderBook] 다른 서버가 메모리 호가창 임대 중 - {}ms 후 다시 시도", retryIntervalMs);
+            Thread.sleep(retryIntervalMs);
+        }
+        log.info("[OrderBook] 메모리 호가창 임대 완료 - owner={}", lease.getOwner());
+    }
+
+    @Scheduled(fixedDelayString = "${matching.owner-lease.heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (closed) {
+            return;
+        }
+        try {
+            if (lease.isHeld() && lease.renew()) {
+                return;
+            }
+            if (lease.tryAcquire()) {
+                log.warn("[OrderBook] 만료된 메모리 호가창 임대를 다시 잡았습니다 - owner={}", lease.getOwner());
+                resume();
+                return;
+            }
+            log.error("[OrderBook] 다른 서버가 메모리 호가창을 임대 중 - 이 서버의 체결 / 소비를 멈춥니다. "
+                    + "owner={}, 현재: {}", lease.getOwner(), lease.currentOwner());
+            standDown();
+        } catch (Exception e) {
+            log.warn("[OrderBook] 메모리 호가창 임대 연장 실패 - owner={}", lease.getOwner(), e);
+        }
+    }
+
+    /** 체결 패스를 멈추고 실행 중인 리스너를 중지 - 다시 시작할 리스너만 기억 **/
+    private void standDown() {
+        if (standingDown) {
+            return;
+        }
+        standingDown = true;
+        matchingScheduler.pause();
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.stop();
+                stoppedContainers.add(container);
+            }
+        }
+        log.warn("[OrderBook] 체결 / Kafka 리스너 {}개 중지", stoppedContainers.size());
+    }
+
+    private void resume() {
+        if (!standingDown) {
+            return;
+        }
+        matchingScheduler.resume();
+        stoppedContainers.forEach(MessageListenerContainer::start);
+        log.info("[OrderBook] 체결 / Kafka 리스너 {}개 재개", stoppedContainers.size());
+        stoppedContainers.clear();
+        standingDown = false;
+    }
+
+    @PreDestroy
+    public void release() {
+        closed = true;
+        try {
+            lease.release();
+        } catch (Exception e) {
+            log.warn("[OrderBook] 메모리 호가창 임대 반납 실패 - ttl 이후 자동 만료 - owner={}", lease.getOwner(), e);
+        }
+    }
+
+    public boolean isHeld() {
+        return lease != null && lease.isHeld();
+    }
+
+    public boolean isStandingDown() {
+        return standingDown;
+    }
+}
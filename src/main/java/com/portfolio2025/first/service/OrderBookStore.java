@@ -0,0 +1,94 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.exception.OrderBookPushException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 종목별 호가창 저장소 OrderBookStore
+ * [08.13]
+ * (추가) 체결 / 주문 접수 / 정정 코드가 Redis 인지 메모리인지 모르고 호가창을 다루도록 분리
+ *       matching.book=memory(기본) - OrderBookEngine (lock-free, 단일 서버 운영 경로)
+ *       matching.book=redis - RedisStockOrderService (ZSET + HASH + Lua)
+ *       벤치마크 / 테스트에서 Redis 없이 체결 비용만 따로 측정 가능
+ * [08.16]
+ * (추가) pushAll(rows) - 종목이 섞인 묶음 적재, Redis 는 파이프라인 한 번으로 처리
+ * [08.25]
+ * (추가) confirm - DB 커밋이 끝난 pair 를 호가창에 알림 (메모리 호가창은 이때 FILL 을 저널에 기록)
+ *       restore 는 confirm 하지 않은 pair 에만 호출
+ * (수정) pushAll(rows) 기본 구현은 실패한 종목만 OrderBookPushException 으로 알림 - 나머지 종목은 적재된 채로 계속
+ * (추가) restore(pair, orderType) - 재시도 불필요 실패에서 아직 체결 가능한 쪽만 되돌림
+ *
+ * [고민]
+ * 1. popMatchPairs / confirm / restore 는 종목당 한 스레드(MatchingScheduler 워커)에서만 호출한다는 전제
+ */
+public interface OrderBookStore {
+
+    /** 주문 접수 - 같은 stockOrderId 가 이미 있으면 구현체에 따라 덮어쓰거나 무시 **/
+    void push(OrderType orderType, StockOrderRedisDTO dto);
+
+    /** 같은 종목의 대기 주문 묶음 적재 (OrderBookLoader) **/
+    void pushAll(String stockCode, List<RestingStockOrderDTO> rows);
+
+    /**
+     * 여러 종목이 섞인 주문 묶음 적재 (배치 컨슈머) - 기본은 종목별로 나눠서 pushAll
+     * 일부 종목만 실패하면 그 종목의 행만 OrderBookPushException 으로, 그 밖의 예외는 묶음 전체 실패
+     */
+    default void pushAll(List<RestingStockOrderDTO> rows) {
+        Map<String, List<RestingStockOrderDTO>> byStock = new LinkedHashMap<>();
+        for (RestingStockOrderDTO row : rows) {
+            byStock.computeIfAbsent(row.getStockCode(), code -> new ArrayList<>()).add(row);
+        }
+
+        List<RestingStockOrderDTO> failedRows = new ArrayList<>();
+        RuntimeException cause = null;
+        for (Map.Entry<String, List<RestingStockOrderDTO>> entry : byStock.entrySet()) {
+            try {
+                pushAll(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                failedRows.addAll(entry.getValue());
+                cause = cause == null ? e : cause;
+            }
+        }
+        if (cause != null) {
+            throw new OrderBookPushException(failedRows, cause);
+        }
+    }
+
+    /** 가장 우선순위 높은 주문 조회 (호가창에 그대로 남음) **/
+    Optional<StockOrderRedisDTO> peekBest(String stockCode, OrderType orderType);
+
+    /** 가장 우선순위 높은 주문을 호가창에서 꺼냄 **/
+    Optional<StockOrderRedisDTO> popBest(String stockCode, OrderType orderType);
+
+    /** 가격이 교차하는 매수 / 매도 쌍을 최대 maxPairs 건까지 체결 후보로 만든다 - 잔여 수량은 제자리 차감 **/
+    List<MatchingPair> popMatchPairs(String stockCode, int maxPairs);
+
+    /** DB 커밋이 끝난 pair - 기본은 할 일 없음 (Redis 는 popMatchPairs 에서 이미 차감이 확정됨) **/
+    default void confirm(List<MatchingPair> pairs) {
+    }
+
+    /** 체결(DB 반영)에 실패한 pair 의 체결 수량을 되돌린다 - confirm 하지 않은 pair 만 **/
+    void restore(MatchingPair pair);
+
+    /** pair 중 한쪽(orderType)만 체결 수량을 되돌린다 - 상대 주문이 취소 / 삭제되어 다시 체결될 수 없는 경우 **/
+    void restore(MatchingPair pair, OrderType orderType);
+
+    /** stockOrderId 로 취소 - 호가창에 없으면 false **/
+    boolean cancel(String stockCode, OrderType orderType, Long stockOrderId);
+
+    /** 대기 순서는 유지하고 잔여 수량만 변경 - 호가창에 없으면 false **/
+    boolean updateQuantity(String stockCode, OrderType orderType, Long stockOrderId, long remainQuantity);
+
+    long depth(String stockCode, OrderType orderType);
+
+    /** 대기 주문이 하나라도 있는지 (OrderBookLoader if-empty 판단용) **/
+    boolean hasRestingOrders();
+}
@@ -0,0 +1,228 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.outbox.OutboxEvent;
+import com.portfolio2025.first.domain.outbox.OutboxStatus;
+import com.portfolio2025.first.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * outbox_events 의 PENDING 이벤트를 묶어서 Kafka 로 발행하는 OutboxRelay
+ * [08.15]
+ * (추가) 주기적으로 PENDING 을 id 순서로 batch-size 만큼 조회 -> 전부 비동기 send -> ack 를 한꺼번에 기다림
+ *       -> 성공한 id 만 벌크 UPDATE 로 SENT 처리 (한 번의 flush 에 수천 건, DB 왕복은 조회 1 + 갱신 1~2)
+ *       가득 찬 묶음이면 바로 다음 묶음을 이어서 처리 - 밀린 이벤트를 한 주기 안에 따라잡음
+ * (추가) 실패한 이벤트는 attempts 만 올리고 PENDING 으로 남겨서 다음 주기에 재시도
+ *       max-attempts 를 넘으면 FAILED 로 바꾸고 publish.failed(DLQ) 로 넘김
+ * (추가) 보관 기간이 지난 SENT 행 삭제 (purge)
+ *
+ * [08.25]
+ * (추가) 여러 서버 중 Redis 임대(outbox:relay:owner)를 가진 한 대만 relay 실행 - 기본 활성화라 서버를 늘리면 같은 행을 중복 / 역순 발행했음
+ *       SKIP LOCKED 로 행을 나눠 가지면 같은 key 의 이벤트가 서로 다른 서버에서 동시에 나가서 key 별 순서가 깨지므로 임대로 한 대만
+ *       임대는 ttl 의 1/3 이 지나면 relay 주기 안에서 연장, 다른 서버가 가진 동안은 조회하지 않음
+ * (수정) 묶음 전체를 id 순서로 한꺼번에 send - 같은 key(= 같은 파티션) 순서는 idempotent producer(max.in.flight <= 5)가 보장
+ *       같은 key 의 앞 이벤트 send 가 이미 실패로 끝났으면 뒤 이벤트는 보내지 않고 PENDING 유지 (SKIPPED)
+ *       기존에는 실패한 행이 PENDING 으로 남는 동안 뒤 행이 먼저 발행되어 재시도 시 key 별 순서가 뒤집혔음
+ *
+ * [고민]
+ * 1. at-least-once - ack 후 SENT 갱신 전에 서버가 죽으면 재발행됨 (컨슈머는 orderId / tradeId 로 멱등 처리)
+ * 2. 임대 ttl 이상 멈추면(GC 등) 그 사이 다른 서버가 임대를 가져가서 같은 묶음을 한 번 더 보낼 수 있음 - 1번과 같은 중복으로 처리
+ * 3. 보류는 send 시점에 이미 실패한 key 만 - 앞 이벤트가 ack 대기 중에 실패하면 뒤 이벤트는 이미 나간 상태
+ *    idempotent producer 는 같은 파티션의 앞 batch 가 실패(delivery timeout)하면 뒤에 나간 batch 도 실패시키므로 대부분 함께 재시도됨
+ * 4. max-attempts 를 넘겨 DLQ 로 간 이벤트 뒤의 같은 key 이벤트는 다음 주기에 그대로 발행 (DLQ 이벤트는 수동 복구)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    static final String LEASE_KEY = "outbox:relay:owner";
+    private static final CompletableFuture<Outcome> SKIPPED = CompletableFuture.completedFuture(Outcome.SKIPPED);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final KafkaDlqService kafkaDlqService;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Value("${outbox.relay.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.relay.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${outbox.relay.lease.enabled:true}")
+    private boolean leaseEnabled;
+
+    @Value("${outbox.relay.lease.ttl-ms:10000}")
+    private long leaseTtlMs;
+
+    private TransactionTemplate transactionTemplate;
+    private RedisLease lease;
+    private long leaseRenewedAt;
+    private Counter sentCounter;
+    private Counter retryCounter;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        sentCounter = meterRegistry.counter("outbox.relay.sent");
+        retryCounter = meterRegistry.counter("outbox.relay.retry");
+        if (leaseEnabled) {
+            lease = new RedisLease(redisTemplate, LEASE_KEY, TsidNodeAllocator.ownerName(), leaseTtlMs);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:50}")
+    public void relay() {
+        try {
+            if (!holdLease()) {
+                return;
+            }
+            while (flush() == batchSize && holdLease()) {
+                // 가득 찬 묶음을 모두 보냄 - 밀린 이벤트가 더 있으므로 바로 다음 묶음 처리 (실패가 있으면 다음 주기로)
+            }
+        } catch (Exception e) {
+            log.error("[Outbox] relay 실행 중 예외 발생", e);
+        }
+    }
+
+    /** 임대가 없으면 잡고, ttl 의 1/3 이 지났으면 연장 - 다른 서버가 가지고 있으면 false **/
+    boolean holdLease() {
+        if (lease == null) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (lease.isHeld() && now - leaseRenewedAt < leaseTtlMs / 3) {
+            return true;
+        }
+        boolean wasHeld = lease.isHeld();
+        if ((wasHeld && lease.renew()) || lease.tryAcquire()) {
+            if (!wasHeld) {
+                log.info("[Outbox] relay 임대 획득 - owner={}", lease.getOwner());
+            }
+            leaseRenewedAt = now;
+            return true;
+        }
+        if (wasHeld) {
+            log.warn("[Outbox] relay 임대를 잃었습니다 - 현재: {}", lease.currentOwner());
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (lease == null) {
+            return;
+        }
+        try {
+            lease.release();
+        } catch (Exception e) {
+            log.warn("[Outbox] relay 임대 반납 실패 - ttl 이후 자동 만료", e);
+        }
+    }
+
+    /** 한 묶음 발행 - 발행 성공 건수 반환 **/
+    public int flush() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> outboxEventRepository.findPending(batchSize));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        // 전부 바로 send - ack 는 기다리지 않음, 같은 key 의 앞 send 가 이미 실패했으면 뒤 이벤트는 보류
+        List<CompletableFuture<Outcome>> results = new ArrayList<>(batch.size());
+        Set<String> failedKeys = ConcurrentHashMap.newKeySet();
+        for (OutboxEvent event : batch) {
+            String key = event.getMessageKey();
+            if (key != null && failedKeys.contains(key)) {
+                results.add(SKIPPED);
+                continue;
+            }
+            results.add(send(event).whenComplete((outcome, e) -> {
+                if (key != null && outcome == Outcome.FAILED) {
+                    failedKeys.add(key);
+                }
+            }));
+        }
+        // 각 future 는 delivery.timeout.ms 안에 반드시 완료됨
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        List<Long> failedIds = new ArrayList<>();
+        List<OutboxEvent> exhausted = new ArrayList<>();
+        int skipped = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            Outcome outcome = results.get(i).join();
+            if (outcome == Outcome.SENT) {
+                sentIds.add(event.getId());
+            } else if (outcome == Outcome.SKIPPED) {
+                skipped++;
+            } else if (event.getAttempts() + 1 >= maxAttempts) {
+                exhausted.add(event);
+            } else {
+                failedIds.add(event.getId());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEventRepository.updateStatus(sentIds, OutboxStatus.SENT, LocalDateTime.now());
+            outboxEventRepository.increaseAttempts(failedIds);
+            outboxEventRepository.updateStatus(exhausted.stream().map(OutboxEvent::getId).toList(),
+                    OutboxStatus.FAILED, null);
+        });
+
+        sentCounter.increment(sentIds.size());
+        retryCounter.increment(failedIds.size());
+        for (OutboxEvent event : exhausted) {
+            kafkaDlqService.sendPublishError(event.getTopic(), event.getMessageKey(), event.getPayload(),
+                    new IllegalStateException("outbox 최대 재시도 초과: attempts=" + maxAttempts));
+        }
+        if (!failedIds.isEmpty() || !exhausted.isEmpty()) {
+            log.warn("[Outbox] 발행 실패 - 재시도: {}건, DLQ: {}건, 같은 key 뒤 이벤트 보류: {}건",
+                    failedIds.size(), exhausted.size(), skipped);
+        }
+        return sentIds.size();
+    }
+
+    private CompletableFuture<Outcome> send(OutboxEvent event) {
+        return kafkaProducerService.sendAsync(event.getTopic(), event.getMessageKey(), event.getPayload())
+                .handle((ignored, e) -> e == null ? Outcome.SENT : Outcome.FAILED);
+    }
+
+    /** SKIPPED - 같은 key 의 앞 이벤트 send 가 이미 실패해서 보내지 않음 (attempts 그대로 PENDING) **/
+    private enum Outcome {
+        SENT, FAILED, SKIPPED
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.purge-interval-ms:600000}")
+    public void purge() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            log.info("[Outbox] 보관 기간이 지난 SENT 이벤트 {}건 삭제", deleted);
+        }
+    }
+}
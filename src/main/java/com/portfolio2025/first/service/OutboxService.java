@@ -0,0 +1,35 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.config.EventSerializer;
+import com.portfolio2025.first.domain.outbox.OutboxEvent;
+import com.portfolio2025.first.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 발행할 이벤트를 outbox_events 에 저장하는 OutboxService
+ * [08.15]
+ * (추가) 호출한 쪽의 트랜잭션에 참여해야 함(MANDATORY) - 비즈니스 데이터와 이벤트가 같이 커밋 / 롤백
+ *       직렬화 실패는 예외로 던져서 트랜잭션 자체를 롤백 (이벤트 없는 커밋 방지)
+ * [08.18]
+ * (수정) JSON 문자열 대신 EventSerializer 로 Kafka 에 실릴 byte 그대로 저장 (kafka.producer.event-format 에 따라 바이너리 / JSON)
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventSerializer eventSerializer;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String topic, String key, Object event) {
+        try {
+            outboxEventRepository.save(OutboxEvent.create(topic, key, eventSerializer.serialize(topic, event)));
+        } catch (SerializationException e) {
+            throw new IllegalStateException("outbox 이벤트 직렬화 실패: topic=" + topic + ", key=" + key, e);
+        }
+    }
+}
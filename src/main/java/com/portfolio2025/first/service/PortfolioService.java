@@ -47,7 +47,7 @@ public class PortfolioService {
 
     // 유저에 존재하는 포트폴리오 조회하기
     public Portfolio findPortfolioWithLock(Long userId, PortfolioType portfolioType) {
-        return portfolioRepository.findByUserIdAndPortfolioType(userId, portfolioType)
+        return portfolioRepository.findByUserIdAndPortfolioTypeForUpdate(userId, portfolioType)
                 .orElseThrow(() -> new IllegalArgumentException("해당 포트폴리오가 존재하지 않습니다."));
     }
 
@@ -0,0 +1,70 @@
+package com.portfolio2025.first.service;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Redis 키 하나로 잡는 임대 RedisLease - 여러 서버 중 한 대만 실행해야 하는 작업용
+ * [08.25]
+ * (추가) OrderBookOwnerLease(메모리 호가창 단일 서버) / OutboxRelay(단일 활성 relay) 공용
+ *       잡기는 SET NX PX, 연장 / 반납은 owner 가 같을 때만 (renew-lease.lua / release-lease.lua)
+ *
+ * [고민]
+ * 1. 빈이 아니라 사용하는 쪽이 키 / ttl 을 정해서 생성 - 스레드 안전하지 않은 상태는 held 하나 (volatile)
+ */
+public class RedisLease {
+
+    private static final RedisScript<Long> RENEW_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/renew-lease.lua"), Long.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/release-lease.lua"), Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String key;
+    private final String owner;
+    private final long ttlMs;
+    private volatile boolean held;
+
+    public RedisLease(RedisTemplate<String, String> redisTemplate, String key, String owner, long ttlMs) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.owner = owner;
+        this.ttlMs = ttlMs;
+    }
+
+    /** 비어 있으면 잡음 - 이미 내가 잡고 있어도 false (연장은 renew) **/
+    public boolean tryAcquire() {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key, owner, Duration.ofMillis(ttlMs));
+        held = Boolean.TRUE.equals(acquired);
+        return held;
+    }
+
+    /** 내가 잡고 있는 임대만 ttl 만큼 연장 - 실패하면 held 를 내림 **/
+    public boolean renew() {
+        held = Long.valueOf(1L).equals(redisTemplate.execute(RENEW_SCRIPT, List.of(key), owner, String.valueOf(ttlMs)));
+        return held;
+    }
+
+    public void release() {
+        if (held) {
+            held = false;
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), owner);
+        }
+    }
+
+    /** 지금 임대를 가진 owner - 로그 / 기동 실패 메시지용 **/
+    public String currentOwner() {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    public boolean isHeld() {
+        return held;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+}
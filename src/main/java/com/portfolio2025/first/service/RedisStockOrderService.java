@@ -1,15 +1,26 @@
 package com.portfolio2025.first.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.portfolio2025.first.dto.MatchingPair;
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.book.PriorityKey;
+import com.portfolio2025.first.domain.order.OrderType;
 import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import com.portfolio2025.first.dto.StockOrderRedisCodec;
 import com.portfolio2025.first.dto.StockOrderRedisDTO;
-import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 /**
@@ -18,16 +29,62 @@ import org.springframework.stereotype.Service;
  * [07.30]
  * (수정) 매수 주문 생성 시 주식의 수량은 따로 검증하지 않아도 되기 때문에 제외함(차라리 제한 로직을 두는게 더 나을 듯 - 최대 100개만)
  *
+ * [08.02]
+ * (추가) popMatchPairs - Lua 스크립트로 매수/매도 확인 + 가격 교차 검사 + pop 을 한 번의 왕복으로 처리
+ * (수정) popMatchPair - 한쪽만 있거나 가격이 맞지 않을 때 pop 후 다시 push 하던 방식 제거
+ *
+ * [08.06]
+ * (수정) ZSET member 를 주문 JSON 전체 -> stockOrderId 로 변경, 주문 값은 ORDERS_{stockCode} HASH 에 고정 길이로 저장
+ *       - 취소 / 정정 / 잔여 수량 갱신을 JSON 재직렬화 없이 ID 만으로 처리 (ZREM / HSET 모두 O(log n) 이하)
+ *       - 기존에는 member 전체가 같아야 ZREM 이 되어서, 잔여 수량이 바뀐 주문은 삭제가 안 되던 문제도 해결
+ * (수정) ZADD + HSET 은 파이프라인으로 한 번에 전송
+ *
+ * [08.07]
+ * (수정) score = 가격 * 1e9 ± millis (double, 2^53 초과로 시간 순서 유실) -> score = 가격(매수는 -가격), member = PriorityKey
+ *       같은 가격이면 Redis 가 member 사전순(주문 시각 -> stockOrderId)으로 정렬 - 매수 / 매도 동일한 키 사용
+ * (수정) HASH field 는 stockOrderId 16자리 hex (member 뒷부분과 동일) - 취소는 remove-order.lua 에서 member 를 복원해 삭제
+ *
+ * [08.08]
+ * (수정) popMatchPairs - 부분 체결된 주문은 꺼내지 않고 HASH 잔여 수량만 차감 (대기 순서 유지)
+ *       잔여 수량을 trade.synced(Kafka) 왕복 후 다시 push 하던 방식 제거 - 남은 수량은 같은 패스에서 바로 다시 체결 가능
+ * (수정) pushBack -> restore - 체결 실패 시 전체 재삽입이 아니라 체결 수량만큼만 되돌림 (restore-order.lua)
+ *
+ * [08.10]
+ * (추가) bulkPush - 호가창 재구성 시 주문 묶음을 파이프라인 한 번으로 ZADD + HSET (OrderBookLoader)
+ *
+ * [08.13]
+ * (수정) OrderBookStore 구현체로 변경 - matching.book=redis 일 때만 빈 생성
+ * (추가) peekBest / updateQuantity(update-quantity.lua) / depth / hasRestingOrders, cancel 은 삭제 여부 반환
+ *
+ * [08.25]
+ * (수정) bulkPush / push 의 SessionCallback 을 타입 파라미터 execute 로 - raw RedisOperations / unchecked 경고 제거
+ *       파이프라인 커넥션은 현재 스레드에 묶여 있으므로 같은 redisTemplate 으로 명령을 보내도 파이프라인에 들어감
+ * (수정) popBest - ZPOPMIN / HGET / HDEL 세 번의 왕복을 pop-best.lua 한 번으로 (원자적, HASH 값이 없는 member 는 건너뜀)
+ *
  * [고민]
  *
  *
  */
 @Service
 @RequiredArgsConstructor
-public class RedisStockOrderService {
+@ConditionalOnProperty(name = "matching.book", havingValue = "redis")
+public class RedisStockOrderService implements OrderBookStore {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POP_MATCH_PAIRS_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/pop-match-pairs.lua"), List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POP_BEST_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/pop-best.lua"), List.class);
+    private static final RedisScript<Long> REMOVE_ORDER_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/remove-order.lua"), Long.class);
+    private static final RedisScript<Long> RESTORE_ORDER_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/restore-order.lua"), Long.class);
+    private static final RedisScript<Long> UPDATE_QUANTITY_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/update-quantity.lua"), Long.class);
+    private static final String QUEUE_PATTERN = "*_QUEUE_*";
 
     private final RedisTemplate<String, String> redisTemplate;
-    private final ObjectMapper objectMapper;
 
     private String getBuyKey(String stockCode) {
         return "BUY_QUEUE_" + stockCode;
@@ -37,155 +94,254 @@ public class RedisStockOrderService {
         return "SELL_QUEUE_" + stockCode;
     }
 
-    /** Redis에 매수 주문 저장 (SortedSet - ZADD) **/
-    public void pushBuyOrder(StockOrder order) {
-        StockOrderRedisDTO dto = StockOrderRedisDTO.from(order);
-        double score = -dto.getRequestedPrice() * 1_000_000_000L
-                - dto.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli();
-        try {
-            String json = objectMapper.writeValueAsString(dto);
-            redisTemplate.opsForZSet().add(getBuyKey(dto.getStockCode()), json, score); // key - value - score 순서
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매수 주문 JSON 직렬화 실패", e);
-        }
+    private String getOrdersKey(String stockCode) {
+        return "ORDERS_" + stockCode;
     }
 
-    /** Redis에서 가장 우선순위 높은 매수 주문 꺼내기 **/
-    public Optional<StockOrderRedisDTO> popBestBuyOrder(String stockCode) {
-        String key = getBuyKey(stockCode);
-        Set<String> result = redisTemplate.opsForZSet().reverseRange(key, 0, 0);
-        if (result == null || result.isEmpty()) return Optional.empty();
-
-        String json = result.iterator().next();
-        redisTemplate.opsForZSet().remove(key, json); // pop (key - value 형태로 맞는지 확인해야 함)
-        try {
-            return Optional.of(objectMapper.readValue(json, StockOrderRedisDTO.class));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매수 주문 JSON 역직렬화 실패", e);
-        }
+    private String getQueueKey(String stockCode, OrderType orderType) {
+        return orderType == OrderType.BUY ? getBuyKey(stockCode) : getSellKey(stockCode);
+    }
+
+    /** 가격만 score 로 사용 - 2^53 미만 정수라 double 로도 정확함 **/
+    private double buyScore(StockOrderRedisDTO dto) {
+        return -dto.getRequestedPrice();
+    }
+
+    private double sellScore(StockOrderRedisDTO dto) {
+        return dto.getRequestedPrice();
+    }
+
+    private String orderField(Long stockOrderId) {
+        return StockOrderRedisCodec.fixedHex(stockOrderId);
+    }
+
+    /** Redis에 매수 주문 저장 (SortedSet - ZADD) **/
+    public void pushBuyOrder(StockOrder order) {
+        pushBuyOrderDTO(StockOrderRedisDTO.from(order));
     }
 
     /** Redis에 매도 주문 저장 **/
     public void pushSellOrder(StockOrder order) {
-        StockOrderRedisDTO dto = StockOrderRedisDTO.from(order);
-        double score = dto.getRequestedPrice() * 1_000_000_000L
-                + dto.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli();
-        try {
-            String json = objectMapper.writeValueAsString(dto);
-            redisTemplate.opsForZSet().add(getSellKey(dto.getStockCode()), json, score);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매도 주문 JSON 직렬화 실패", e);
+        pushSellOrderDTO(StockOrderRedisDTO.from(order));
+    }
+
+    public void pushBuyOrderDTO(StockOrderRedisDTO buyDTO) {
+        push(getBuyKey(buyDTO.getStockCode()), buyDTO, buyScore(buyDTO));
+    }
+
+    public void pushSellOrderDTO(StockOrderRedisDTO sellDTO) {
+        push(getSellKey(sellDTO.getStockCode()), sellDTO, sellScore(sellDTO));
+    }
+
+    @Override
+    public void push(OrderType orderType, StockOrderRedisDTO dto) {
+        if (orderType == OrderType.BUY) {
+            pushBuyOrderDTO(dto);
+        } else {
+            pushSellOrderDTO(dto);
         }
     }
 
+    @Override
+    public void pushAll(String stockCode, List<RestingStockOrderDTO> rows) {
+        bulkPush(rows);
+    }
+
+    /** 종목이 섞여 있어도 파이프라인 한 번 - 실패하면 어느 행까지 반영됐는지 알 수 없으므로 묶음 전체 실패 **/
+    @Override
+    public void pushAll(List<RestingStockOrderDTO> rows) {
+        bulkPush(rows);
+    }
+
+    /** 주문 묶음을 한 번의 파이프라인으로 적재 - 같은 주문이 이미 있으면 DB 값으로 덮어씀 **/
+    public void bulkPush(List<RestingStockOrderDTO> rows) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                for (RestingStockOrderDTO row : rows) {
+                    StockOrderRedisDTO dto = row.toRedisDTO();
+                    boolean buy = row.getOrderType() == OrderType.BUY;
+                    redisTemplate.opsForHash().put(getOrdersKey(dto.getStockCode()),
+                            orderField(dto.getId()), StockOrderRedisCodec.encode(dto));
+                    redisTemplate.opsForZSet().add(
+                            buy ? getBuyKey(dto.getStockCode()) : getSellKey(dto.getStockCode()),
+                            PriorityKey.of(dto).toMember(),
+                            buy ? buyScore(dto) : sellScore(dto));
+                }
+                return null;
+            }
+        });
+    }
+
+    /** Redis에서 가장 우선순위 높은 매수 주문 꺼내기 - score = -가격 이므로 가장 낮은 score 가 최고가 매수 주문 **/
+    public Optional<StockOrderRedisDTO> popBestBuyOrder(String stockCode) {
+        return popBest(getBuyKey(stockCode), stockCode);
+    }
+
     /** Redis에서 가장 우선순위 높은 매도 주문 꺼내기 **/
     public Optional<StockOrderRedisDTO> popBestSellOrder(String stockCode) {
-        String key = getSellKey(stockCode);
-        Set<String> result = redisTemplate.opsForZSet().range(key, 0, 0);
-        if (result == null || result.isEmpty()) return Optional.empty();
-
-        String json = result.iterator().next();
-        redisTemplate.opsForZSet().remove(key, json); // pop
-        try {
-            return Optional.of(objectMapper.readValue(json, StockOrderRedisDTO.class));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매도 주문 JSON 역직렬화 실패", e);
+        return popBest(getSellKey(stockCode), stockCode);
+    }
+
+    @Override
+    public Optional<StockOrderRedisDTO> popBest(String stockCode, OrderType orderType) {
+        return popBest(getQueueKey(stockCode, orderType), stockCode);
+    }
+
+    /** ZSET 첫 member 로 HASH 값 조회 - 호가창은 그대로 둠 **/
+    @Override
+    public Optional<StockOrderRedisDTO> peekBest(String stockCode, OrderType orderType) {
+        Set<String> best = redisTemplate.opsForZSet().range(getQueueKey(stockCode, orderType), 0, 0);
+        if (best == null || best.isEmpty()) {
+            return Optional.empty();
         }
+        String member = best.iterator().next();
+        Object value = redisTemplate.opsForHash().get(getOrdersKey(stockCode),
+                orderField(PriorityKey.fromMember(member).sequence()));
+        return Optional.ofNullable(value).map(v -> decode(stockCode, member, (String) v));
     }
 
-    /** 수정된 매도 주문 다시 올리기 (기존 데이터 삭제 - 새로 추가) **/
+    /** 수정된 매도 주문 다시 올리기 - 같은 stockOrderId 면 ZADD / HSET 이 덮어씀 **/
     public void pushModifiedSellOrder(StockOrderRedisDTO sellStockOrderDTO) {
-        String key = getSellKey(sellStockOrderDTO.getStockCode());
-        // Redisson 락 고려하지 않은 상황
-        try {
-            String json = objectMapper.writeValueAsString(sellStockOrderDTO);
-            redisTemplate.opsForZSet().remove(key, json);
-            // 점수, 새롭게 추가
-            double score = sellStockOrderDTO.getRequestedPrice() * 1_000_000_000L
-                    + sellStockOrderDTO.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli();
-            redisTemplate.opsForZSet().add(key, json, score);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매도 주문 JSON 직렬화 실패", e);
-        }
+        pushSellOrderDTO(sellStockOrderDTO);
     }
 
-     /** key 안에 value 해당되면 삭제하기) **/
-    public void removeBuyOrder(StockOrderRedisDTO buyStockOrderDTO) {
-        // Redisson 락 고려하지 않은 상황
-        String key = getBuyKey(buyStockOrderDTO.getStockCode());
-        try {
-            String json = objectMapper.writeValueAsString(buyStockOrderDTO);
-            redisTemplate.opsForZSet().remove(key, json);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매수 주문 JSON 직렬화 실패", e);
-        }
+    /** 잔여 수량만 바뀐 경우 - ZSET 순서는 그대로 두고 HASH 값만 갱신 **/
+    public void updateRemainQuantity(StockOrderRedisDTO dto) {
+        redisTemplate.opsForHash().put(getOrdersKey(dto.getStockCode()),
+                orderField(dto.getId()), StockOrderRedisCodec.encode(dto));
+    }
+
+    /** 잔여 수량 필드만 교체 (Lua) - 가격 / 주문 시각 / 대기 순서 유지 **/
+    @Override
+    public boolean updateQuantity(String stockCode, OrderType orderType, Long stockOrderId, long remainQuantity) {
+        Long updated = redisTemplate.execute(UPDATE_QUANTITY_SCRIPT,
+                List.of(getOrdersKey(stockCode)), orderField(stockOrderId),
+                StockOrderRedisCodec.fixedHex(remainQuantity));
+        return Long.valueOf(1L).equals(updated);
+    }
 
+    @Override
+    public boolean cancel(String stockCode, OrderType orderType, Long stockOrderId) {
+        return remove(getQueueKey(stockCode, orderType), stockCode, stockOrderId);
     }
 
-    public void removeSellOrder(StockOrderRedisDTO sellStockOrderDTO) {
-        String key = getSellKey(sellStockOrderDTO.getStockCode());
-        try {
-            String json = objectMapper.writeValueAsString(sellStockOrderDTO);
-            redisTemplate.opsForZSet().remove(key, json);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매도 주문 JSON 직렬화 실패", e);
+    @Override
+    public long depth(String stockCode, OrderType orderType) {
+        Long size = redisTemplate.opsForZSet().zCard(getQueueKey(stockCode, orderType));
+        return size == null ? 0 : size;
+    }
+
+    /** 호가창 키가 하나라도 있는지 - SCAN 으로 첫 키만 확인 (KEYS 사용 안 함) **/
+    @Override
+    public boolean hasRestingOrders() {
+        ScanOptions options = ScanOptions.scanOptions().match(QUEUE_PATTERN).count(100).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            return cursor.hasNext();
         }
     }
 
-    public Optional<MatchingPair> popMatchPair(String stockCode) {
-        Optional<StockOrderRedisDTO> buyStockOrderDTO = popBestBuyOrder(stockCode);
-        Optional<StockOrderRedisDTO> sellStockOrderDTO = popBestSellOrder(stockCode);
+    /** stockOrderId 로 매수 주문 삭제 **/
+    public void removeBuyOrder(String stockCode, Long stockOrderId) {
+        remove(getBuyKey(stockCode), stockCode, stockOrderId);
+    }
 
-        boolean isBuyEmpty = buyStockOrderDTO.isEmpty();
-        boolean isSellEmpty = sellStockOrderDTO.isEmpty();
+    /** stockOrderId 로 매도 주문 삭제 **/
+    public void removeSellOrder(String stockCode, Long stockOrderId) {
+        remove(getSellKey(stockCode), stockCode, stockOrderId);
+    }
 
-        if (isBuyEmpty && isSellEmpty) {
-            System.out.println("[popMatchPair] 매수/매도 모두 없음");
-            return Optional.empty();
-        }
+    /** 가격이 교차하는 매수/매도 한 쌍 꺼내기 **/
+    public Optional<MatchingPair> popMatchPair(String stockCode) {
+        return popMatchPairs(stockCode, 1).stream().findFirst();
+    }
 
-        if (isBuyEmpty) {
-            // 매도 주문만 있음 → 복원
-            pushSellOrderDTO(sellStockOrderDTO.get());
-            System.out.println("[popMatchPair] 매수 없음 → 매도 주문 복원");
-            return Optional.empty();
+    /** 가격이 교차하는 매수/매도 쌍을 최대 maxPairs 건까지 원자적으로 꺼내기 (Lua, 1 round trip) **/
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<MatchingPair> popMatchPairs(String stockCode, int maxPairs) {
+        List<String> members = redisTemplate.execute(POP_MATCH_PAIRS_SCRIPT,
+                List.of(getBuyKey(stockCode), getSellKey(stockCode), getOrdersKey(stockCode)),
+                String.valueOf(maxPairs));
+        if (members == null || members.isEmpty()) {
+            return List.of();
         }
 
-        if (isSellEmpty) {
-            // 매수 주문만 있음 → 복원
-            pushBuyOrderDTO(buyStockOrderDTO.get());
-            System.out.println("[popMatchPair] 매도 없음 → 매수 주문 복원");
-            return Optional.empty();
+        // {buyMember, buyValue, sellMember, sellValue, ...}
+        List<MatchingPair> pairs = new ArrayList<>(members.size() / 4);
+        for (int i = 0; i + 3 < members.size(); i += 4) {
+            pairs.add(new MatchingPair(
+                    decode(stockCode, members.get(i), members.get(i + 1)),
+                    decode(stockCode, members.get(i + 2), members.get(i + 3))));
         }
+        return pairs;
+    }
 
-        // 둘 다 존재 → MatchingPair 반환
-        return Optional.of(new MatchingPair(buyStockOrderDTO.get(), sellStockOrderDTO.get()));
+    /**
+     * 체결(DB 반영)에 실패한 pair 의 수량을 되돌린다.
+     * 호가창에 남아 있으면 체결 수량만큼 더하고, 이미 빠졌으면 원래 member(대기 순서)로 다시 넣는다.
+     */
+    @Override
+    public void restore(MatchingPair pair) {
+        long executed = pair.getExecutableQuantityValue();
+        restoreSide(getBuyKey(pair.getBuyDTO().getStockCode()), pair.getBuyDTO(), buyScore(pair.getBuyDTO()), executed);
+        restoreSide(getSellKey(pair.getSellDTO().getStockCode()), pair.getSellDTO(), sellScore(pair.getSellDTO()), executed);
     }
 
-    public void pushBuyOrderDTO(StockOrderRedisDTO buyDTO) {
-        double score = -buyDTO.getRequestedPrice() * 1_000_000_000L
-                - buyDTO.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli();
-        try {
-            String json = objectMapper.writeValueAsString(buyDTO);
-            redisTemplate.opsForZSet().add(getBuyKey(buyDTO.getStockCode()), json, score); // key - value - score 순서
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매수 주문 JSON 직렬화 실패", e);
+    @Override
+    public void restore(MatchingPair pair, OrderType orderType) {
+        long executed = pair.getExecutableQuantityValue();
+        if (orderType == OrderType.BUY) {
+            restoreSide(getBuyKey(pair.getBuyDTO().getStockCode()), pair.getBuyDTO(), buyScore(pair.getBuyDTO()), executed);
+        } else {
+            restoreSide(getSellKey(pair.getSellDTO().getStockCode()), pair.getSellDTO(), sellScore(pair.getSellDTO()), executed);
         }
     }
 
-    public void pushSellOrderDTO(StockOrderRedisDTO sellDTO) {
-        double score = sellDTO.getRequestedPrice() * 1_000_000_000L
-                + sellDTO.getCreatedAt().atZone(ZoneOffset.UTC).toInstant().toEpochMilli();
-        try {
-            String json = objectMapper.writeValueAsString(sellDTO);
-            redisTemplate.opsForZSet().add(getSellKey(sellDTO.getStockCode()), json, score); // key - value - score 순서
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("매수 주문 JSON 직렬화 실패", e);
+    private void restoreSide(String queueKey, StockOrderRedisDTO dto, double score, long executed) {
+        StockOrderRedisDTO executedPart = new StockOrderRedisDTO(
+                dto.getId(), dto.getStockCode(), dto.getRequestedPrice(), executed, dto.getCreatedAt());
+        redisTemplate.execute(RESTORE_ORDER_SCRIPT,
+                List.of(queueKey, getOrdersKey(dto.getStockCode())),
+                orderField(dto.getId()),
+                PriorityKey.of(dto).toMember(),
+                String.valueOf(score),
+                StockOrderRedisCodec.encode(executedPart),
+                String.valueOf(executed));
+    }
+
+    private void push(String queueKey, StockOrderRedisDTO dto, double score) {
+        String member = PriorityKey.of(dto).toMember();
+        String field = orderField(dto.getId());
+        String value = StockOrderRedisCodec.encode(dto);
+        String ordersKey = getOrdersKey(dto.getStockCode());
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                redisTemplate.opsForHash().put(ordersKey, field, value);
+                redisTemplate.opsForZSet().add(queueKey, member, score); // key - value - score 순서
+                return null;
+            }
+        });
+    }
+
+    /** HASH 값의 주문 시각으로 member 를 복원해서 ZREM + HDEL (Lua, 1 round trip) **/
+    private boolean remove(String queueKey, String stockCode, Long stockOrderId) {
+        Long removed = redisTemplate.execute(REMOVE_ORDER_SCRIPT,
+                List.of(queueKey, getOrdersKey(stockCode)), orderField(stockOrderId));
+        return Long.valueOf(1L).equals(removed);
+    }
+
+    /** ZPOPMIN + HGET + HDEL 을 Lua 한 번으로 - 중간에 다른 클라이언트가 끼어들어 ZSET / HASH 가 어긋나지 않도록 **/
+    private Optional<StockOrderRedisDTO> popBest(String queueKey, String stockCode) {
+        List<?> popped = redisTemplate.execute(POP_BEST_SCRIPT, List.of(queueKey, getOrdersKey(stockCode)));
+        if (popped == null || popped.size() < 2) {
+            return Optional.empty();
         }
+        return Optional.of(decode(stockCode, (String) popped.get(0), (String) popped.get(1)));
     }
 
-    public void pushBack(MatchingPair pair) {
-        pushBuyOrderDTO(pair.getBuyDTO());
-        pushSellOrderDTO(pair.getSellDTO());
+    private StockOrderRedisDTO decode(String stockCode, String member, String value) {
+        return StockOrderRedisCodec.decode(PriorityKey.fromMember(member).sequence(), stockCode, value);
     }
 }
@@ -2,31 +2,34 @@ package com.portfolio2025.first.service;
 
 import com.portfolio2025.first.domain.Order;
 import com.portfolio2025.first.domain.Portfolio;
-import com.portfolio2025.first.domain.PortfolioStock;
 import com.portfolio2025.first.domain.order.OrderType;
 import com.portfolio2025.first.domain.stock.Stock;
 import com.portfolio2025.first.domain.stock.StockOrder;
 import com.portfolio2025.first.domain.vo.Money;
 import com.portfolio2025.first.domain.vo.Quantity;
 import com.portfolio2025.first.dto.event.OrderCreatedEvent;
-import com.portfolio2025.first.repository.PortfolioStockRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+/**
+ * 매도 주문을 담당하는 SellOrderProcessor - implements StockOrderProcessor
+ * [08.24]
+ * (수정) 수량 예약은 PortfolioStock 행 수정 대신 원장 기록 (LedgerService.reservePosition)
+ *       거래 가능 수량(보유 - 예약)이 부족하거나 보유하지 않은 종목이면 IllegalArgumentException
+ * [08.25]
+ * (수정) 수량 검증도 매수와 같이 메모리(포트폴리오 샤드)에서만 - DB 락 / 원장 INSERT 를 기다리지 않음
+ */
 @Component
 @RequiredArgsConstructor
 public class SellOrderProcessor implements StockOrderProcessor {
 
     private final ApplicationEventPublisher eventPublisher;
-    private final PortfolioStockRepository portfolioStockRepository;
+    private final LedgerService ledgerService;
 
     @Override
     public void reserve(Portfolio portfolio, Stock stock, Quantity quantity, Money totalPrice) {
-        PortfolioStock portfolioStock = portfolioStockRepository
-                .findByPortfolioAndStockWithLock(portfolio, stock)
-                .orElseThrow(() -> new IllegalStateException("보유한 주식이 없습니다."));
-        portfolioStock.reserve(quantity);
+        ledgerService.reservePosition(portfolio, stock, quantity);
     }
 
     @Override
@@ -37,16 +40,8 @@ public class SellOrderProcessor implements StockOrderProcessor {
     }
 
     @Override
-    public void publishEvent(Order order, Portfolio portfolio, Stock stock, Quantity quantity, Money price) {
-        OrderCreatedEvent event = new OrderCreatedEvent(
-                order.getId(),
-                portfolio.getUser().getId(),
-                portfolio.getId(),
-                stock.getStockCode(),
-                quantity.getQuantityValue(),
-                price.getMoneyValue(),
-                OrderType.SELL.name()
-        );
+    public void publishEvent(Order order) {
+        OrderCreatedEvent event = OrderCreatedEvent.from(order);
 
         eventPublisher.publishEvent(event);
     }
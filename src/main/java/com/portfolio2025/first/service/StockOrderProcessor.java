@@ -13,7 +13,7 @@ public interface StockOrderProcessor {
     // 주문 생성
     Order createOrder(Portfolio portfolio, Stock stock, Quantity quantity, Money unitPrice);
     // Kafka 이벤트 발행하기
-    void publishEvent(Order order, Portfolio portfolio, Stock stock, Quantity quantity, Money price);
+    void publishEvent(Order order);
     // 매수 or 매도인지?
     OrderType getOrderType();
 }
@@ -3,7 +3,6 @@ package com.portfolio2025.first.service;
 import com.portfolio2025.first.domain.Order;
 import com.portfolio2025.first.domain.Portfolio;
 import com.portfolio2025.first.domain.PortfolioType;
-import com.portfolio2025.first.domain.User;
 import com.portfolio2025.first.domain.order.OrderType;
 import com.portfolio2025.first.domain.stock.Stock;
 import com.portfolio2025.first.domain.stock.StockOrder;
@@ -18,16 +17,22 @@ import com.portfolio2025.first.repository.OrderRepository;
 import com.portfolio2025.first.repository.PortfolioRepository;
 import com.portfolio2025.first.repository.StockOrderRepository;
 import com.portfolio2025.first.repository.StockRepository;
-import com.portfolio2025.first.repository.UserRepository;
-import java.nio.file.AccessDeniedException;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * 매수, 매도 주문 생성을 담당하는 StockOrderService
@@ -35,6 +40,25 @@ import org.springframework.transaction.annotation.Transactional;
  * [07.30]
  * (수정) portfolio 조회 시 비관적 락 적용
  * (수정) flush() 메서드 제외 -> flush() 해야 하는 상황은 어떤게 있을지도 고민해보기
+ * [08.23]
+ * (삭제) User 행 락 / portfolio 비관적 락 - 한 사용자의 주문과 체결 정산이 행 락에서 줄 서던 문제
+ *       Portfolio / PortfolioStock 의 @Version 으로 동시 수정을 감지하고, 충돌하면 트랜잭션 전체를 다시 실행 (OptimisticRetryExecutor)
+ * (수정) placeSingleOrder 는 재시도를 위해 트랜잭션 밖에서 시작 - 시도마다 TransactionTemplate 으로 새 트랜잭션
+ *       사용자 조회는 포트폴리오 조회(user_id 조건)로 대체
+ * [08.24]
+ * (수정) 현금 / 수량 예약은 원장 INSERT (LedgerService) - 주문 접수는 포트폴리오 / 보유 종목 행을 수정하지 않음
+ *       남은 버전 충돌은 주문 INSERT 뿐이라 재시도는 거의 일어나지 않음
+ * [08.25]
+ * (수정) 정정 시 호가창 취소 결과 확인 - 체결 워커가 차감 중인 주문은 잠깐 취소되지 않으므로 몇 번 재시도
+ *       끝내 취소되지 않으면(이미 체결 후보로 빠졌거나 아직 호가창에 없음) 새 주문을 만들지 않고 IllegalStateException
+ * (수정) 정정도 접수와 같이 TransactionTemplate + OptimisticRetryExecutor 로 실행 - 기존에는 트랜잭션 없이 실행되어
+ *       취소 상태 변경이 반영되지 않고, outbox 리스너(BEFORE_COMMIT)도 실행되지 않았음
+ * (수정) 정정 시 기존 예약 해제 + 새 주문 예약을 원장 분개 한 건으로 (LedgerService.rereserveCash / rereservePosition)
+ *       기존에는 새 주문을 예약 없이 저장하고, 취소된 주문의 예약도 거래 가능으로 돌려주지 않았음
+ * (수정) 호가창 취소는 DB 작업이 끝난 뒤 마지막에 - 롤백되면 원래 순번으로 다시 올림
+ * (수정) 호가창 취소를 종목 담당 체결 워커(MatchingScheduler.submit)에서 실행하고 결과를 기다림
+ *       기존에는 락을 잡은 요청 스레드에서 sleep 하며 재시도 - 체결 워커가 차감 중이면 정정이 그대로 실패했음
+ * (수정) 권한 없음은 IllegalArgumentException (트랜잭션 콜백 안에서 checked 예외를 던질 수 없음)
  *
  * [고민]
  * 1. DTO 생성 중복 로직이 많이 발생하는 상황
@@ -45,24 +69,40 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class StockOrderService {
 
-    private final UserRepository userRepository;
     private final StockRepository stockRepository;
     private final OrderRepository orderRepository;
     private final PortfolioRepository portfolioRepository;
 
     private final RedissonClient redissonClient;
     private final StockOrderRepository stockOrderRepository;
-    private final RedisStockOrderService redisStockOrderService;
+    private final OrderBookStore orderBookStore;
+    private final MatchingScheduler matchingScheduler;
     private final ApplicationEventPublisher eventPublisher;
+    private final LedgerService ledgerService;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${matching.cancel-timeout-ms:3000}")
+    private long cancelTimeoutMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
-     * 매수 또는 매도 단일 주문 공통 로직 (분산 락 같이 포함시켜야 함)
+     * 매수 또는 매도 단일 주문 공통 로직 - 버전 충돌 시 새 트랜잭션으로 다시 실행
      */
-    @Transactional
     public void placeSingleOrder(StockOrderRequestDTO dto, StockOrderProcessor processor) {
-        // 1. 조회
-        User user = findUserWithLock(dto.getUserId());
-        Portfolio portfolio = getDefaultPortfolioWithLock(user.getId());
+        optimisticRetryExecutor.run("order.place",
+                () -> transactionTemplate.executeWithoutResult(status -> placeSingleOrderOnce(dto, processor)));
+    }
+
+    private void placeSingleOrderOnce(StockOrderRequestDTO dto, StockOrderProcessor processor) {
+        // 1. 조회 (락 없음 - 잔액 검증은 원장 잔액 캐시에서)
+        Portfolio portfolio = getDefaultPortfolio(dto.getUserId());
         Stock stock = findStockByStockCode(dto.getStockCode());
 
         // 2. 계산
@@ -78,11 +118,11 @@ public class StockOrderService {
         orderRepository.save(order);
 
         // 5. 이벤트 발행
-        processor.publishEvent(order, portfolio, stock, quantity, unitPrice);
+        processor.publishEvent(order);
     }
 
     /**
-     * 주문 수정 로직
+     * 주문 수정 로직 - 주문 단위 락 안에서 접수와 같이 버전 충돌 시 새 트랜잭션으로 다시 실행
      */
     public void modifyStockOrder(ModifyStockOrderRequestDTO dto) {
         // lock:stockOrder - 주문 관련 락 Key
@@ -94,87 +134,114 @@ public class StockOrderService {
             if (!available) {
                 throw new IllegalStateException("다른 사용자가 해당 주문을 수정 중입니다.");
             }
+            optimisticRetryExecutor.run("order.modify",
+                    () -> transactionTemplate.executeWithoutResult(status -> modifyStockOrderOnce(dto)));
 
-            // 트랜잭션 추가해야 하는데 락과 분리되서 진행되어야 함 - 아래 로직은 따로 빼서 @Transactional 붙이고 호출하는 방식으로
-            // 2. StockOrder 조회 + 상태 확인
-            StockOrder stockOrder = stockOrderRepository.findByIdWithAllRelations(dto.getStockOrderId())
-                    .orElseThrow(() -> new IllegalArgumentException("해당 주문이 존재하지 않습니다."));
-
-            // 사용자 권한 확인
-            Long orderOwnerId = stockOrder.getOrder().getUser().getId();
-            if (!orderOwnerId.equals(dto.getUserId())) {
-                throw new AccessDeniedException("해당 주문에 대한 수정 권한이 없습니다.");
-            }
-
-            // 주문 상태 확인
-            if (stockOrder.getStockOrderStatus() != StockOrderStatus.PENDING) {
-                throw new IllegalStateException("체결 중이거나 완료된 주문은 수정할 수 없습니다.");
-            }
-
-            // 3. 기존 주문 취소 처리
-            // 주문 상태 변경
-            stockOrder.updateStatus(StockOrderStatus.CANCELLED);
-
-            // Redis 삭제 (BUY / SELL 구분 필요)
-            StockOrderRedisDTO dtoForRedis = StockOrderRedisDTO.from(stockOrder);
-
-            if (stockOrder.getOrder().getOrderType() == OrderType.BUY) {
-                redisStockOrderService.removeBuyOrder(dtoForRedis);
-            } else {
-                // 매도 주문일 경우 매도용 삭제 메서드 추가 필요
-                redisStockOrderService.removeSellOrder(dtoForRedis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("락 획득 중 인터럽트 발생", e);
+        } finally {
+            if (lock.isHeldByCurrentThread()) {
+                lock.unlock();
             }
+        }
+    }
 
-            // 4. 새 주문 생성 및 저장
-            Quantity newQuantity = new Quantity(dto.getRequestedQuantity());
-            Money newPrice = new Money(dto.getRequestedPrice());
+    private void modifyStockOrderOnce(ModifyStockOrderRequestDTO dto) {
+        // 1. StockOrder 조회 + 상태 확인
+        StockOrder stockOrder = stockOrderRepository.findByIdWithAllRelations(dto.getStockOrderId())
+                .orElseThrow(() -> new IllegalArgumentException("해당 주문이 존재하지 않습니다."));
 
-            StockOrder newStockOrder = StockOrder.createStockOrder(
-                    stockOrder.getStock(), newQuantity, newPrice, stockOrder.getPortfolio()
-            );
+        // 사용자 권한 확인
+        Long orderOwnerId = stockOrder.getOrder().getUser().getId();
+        if (!orderOwnerId.equals(dto.getUserId())) {
+            throw new IllegalArgumentException("해당 주문에 대한 수정 권한이 없습니다.");
+        }
 
-            OrderType orderType = stockOrder.getOrder().getOrderType();
+        // 주문 상태 확인
+        if (stockOrder.getStockOrderStatus() != StockOrderStatus.PENDING) {
+            throw new IllegalStateException("체결 중이거나 완료된 주문은 수정할 수 없습니다.");
+        }
 
-            Money totalPrice = newPrice.multiply(newQuantity);
-            Order newOrder = Order.createSingleOrder(
-                    stockOrder.getPortfolio(), newStockOrder, orderType, totalPrice
-            );
+        // 2. 기존 주문 취소 처리 (커밋 시 반영)
+        stockOrder.updateStatus(StockOrderStatus.CANCELLED);
+
+        // 3. 새 주문 생성 + 예약 이동 - 기존 예약 해제 후 새 주문 금액 / 수량으로 다시 예약 (부족하면 여기서 실패)
+        OrderType orderType = stockOrder.getOrder().getOrderType();
+        Portfolio portfolio = stockOrder.getPortfolio();
+        Stock stock = stockOrder.getStock();
+        Quantity newQuantity = new Quantity(dto.getRequestedQuantity());
+        Money newPrice = new Money(dto.getRequestedPrice());
+        Money totalPrice = newPrice.multiply(newQuantity);
+
+        if (orderType == OrderType.BUY) {
+            ledgerService.rereserveCash(portfolio,
+                    stockOrder.getRequestedPrice().multiply(stockOrder.getRemainedQuantity()), totalPrice);
+        } else {
+            ledgerService.rereservePosition(portfolio, stock, stockOrder.getRemainedQuantity(), newQuantity);
+        }
 
-            orderRepository.save(newOrder);
+        StockOrder newStockOrder = StockOrder.createStockOrder(stock, newQuantity, newPrice, portfolio);
+        Order newOrder = Order.createSingleOrder(portfolio, newStockOrder, orderType, totalPrice);
+        orderRepository.save(newOrder);
 
-            // 5. Kafka 발행, Redis 업데이트 (afterCommit) - 신규 주문 생성과 동일하게 진행
-            StockOrder updatedStockOrder = newOrder.getStockOrders().getFirst();
+        // 4. 이벤트 발행 - 트랜잭션 안에서 발행해야 outbox 리스너(BEFORE_COMMIT)가 같은 트랜잭션에 기록
+        eventPublisher.publishEvent(OrderCreatedEvent.from(newOrder));
 
-            OrderCreatedEvent event = new OrderCreatedEvent(
-                    newOrder.getId(),
-                    updatedStockOrder.getPortfolio().getUser().getId(),
-                    updatedStockOrder.getPortfolio().getId(),
-                    updatedStockOrder.getStock().getStockCode(),
-                    updatedStockOrder.getRequestedQuantity().getQuantityValue(),
-                    updatedStockOrder.getRequestedPrice().getMoneyValue(),
-                    newOrder.getOrderType().name()
-            );
+        // 5. 호가창 삭제 (BUY / SELL 구분 필요) - 실패 가능한 DB 작업이 끝난 뒤 마지막에
+        cancelOnBook(stock.getStockCode(), orderType, StockOrderRedisDTO.from(stockOrder));
+    }
 
-            eventPublisher.publishEvent(event);
+    /**
+     * 호가창 취소는 종목 담당 체결 워커에서 실행 - 체결 패스 사이에 실행되므로 차감 중인 주문과 겹치지 않음
+     * 취소되지 않으면(호가창에 없음 / 이미 체결 후보로 빠짐) 정정 중단, 롤백되면 취소된 주문을 원래 순번으로 다시 올림
+     */
+    private void cancelOnBook(String stockCode, OrderType orderType, StockOrderRedisDTO snapshot) {
+        CompletableFuture<Boolean> cancelled = matchingScheduler.submit(stockCode,
+                () -> orderBookStore.cancel(stockCode, orderType, snapshot.getId()));
+        relistOnRollback(orderType, snapshot, cancelled);
 
-        } catch (InterruptedException | AccessDeniedException e) {
+        boolean removed;
+        try {
+            removed = cancelled.get(cancelTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("호가창 취소가 지연되어 주문을 수정할 수 없습니다. 잠시 후 다시 시도해주세요.");
+        } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            throw new RuntimeException("락 획득 중 인터럽트 발생", e);
-        } finally {
-            if (lock.isHeldByCurrentThread()) {
-                lock.unlock();
-            }
+            throw new IllegalStateException("호가창 취소 대기 중 인터럽트 발생", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("호가창 취소 실패", e.getCause());
+        }
+        if (!removed) {
+            log.warn("[Order] 호가창 취소 실패 - 정정하지 않습니다. stockOrderId={}", snapshot.getId());
+            throw new IllegalStateException("체결 중이거나 호가창에 없는 주문은 수정할 수 없습니다.");
         }
     }
 
-    private Portfolio getDefaultPortfolioWithLock(Long userId) {
-        return portfolioRepository.findByUserIdAndPortfolioTypeWithLock(userId, PortfolioType.STOCK)
-                .orElseThrow(() -> new IllegalArgumentException("투자용 포트폴리오가 존재하지 않습니다."));
+    /** 트랜잭션이 롤백되면(버전 충돌 / 커밋 실패 / 취소 대기 초과) 호가창에서 지운 주문을 원래 순번으로 다시 올림 **/
+    private void relistOnRollback(OrderType orderType, StockOrderRedisDTO snapshot, CompletableFuture<Boolean> cancelled) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    return;
+                }
+                // 대기 시간을 넘겨 아직 실행 전이어도 워커가 취소를 마친 뒤에 다시 올림
+                cancelled.thenAccept(removed -> {
+                    if (removed) {
+                        orderBookStore.push(orderType, snapshot);
+                    }
+                });
+            }
+        });
     }
 
-    private User findUserWithLock(Long userId) {
-        return userRepository.findByIdForUpdate(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        private Portfolio getDefaultPortfolio(Long userId) {
+        return portfolioRepository.findByUserIdAndPortfolioType(userId, PortfolioType.STOCK)
+                .orElseThrow(() -> new IllegalArgumentException("투자용 포트폴리오가 존재하지 않습니다."));
     }
 
     private Stock findStockByStockCode(String stockCode) {
@@ -4,7 +4,13 @@ import com.portfolio2025.first.domain.MatchingContext;
 import com.portfolio2025.first.domain.MatchingPair;
 import com.portfolio2025.first.domain.Portfolio;
 import com.portfolio2025.first.domain.PortfolioStock;
+import com.portfolio2025.first.domain.SettlementBatch;
 import com.portfolio2025.first.domain.Trade;
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntryType;
+import com.portfolio2025.first.domain.ledger.LedgerJournal;
+import com.portfolio2025.first.domain.order.OrderType;
 import com.portfolio2025.first.domain.stock.Stock;
 import com.portfolio2025.first.domain.stock.StockOrder;
 import com.portfolio2025.first.domain.vo.Money;
@@ -18,15 +24,53 @@ import com.portfolio2025.first.repository.StockOrderRepository;
 import com.portfolio2025.first.repository.TradeRepository;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.client.RedisConnectionException;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * MatchingPair 를 실제 체결(DB 반영)하는 TradeExecutionService
+ * [08.03]
+ * (추가) matchPairs - 한 종목에서 한 번에 매칭된 pair 전체를 하나의 트랜잭션으로 체결 (커밋 1회)
+ * (수정) 주문 / 보유 주식 / 기존 체결 이력을 pair 마다 조회하지 않고 IN 쿼리로 한 번에 조회 - SettlementBatch
+ * [08.21]
+ * (수정) 현금 증감은 pair 마다 price.multiply(quantity) 로 Money 를 만들지 않고 SettlementBatch 에 long 으로 누적
+ *       묶음 체결이 끝난 뒤 포트폴리오마다 한 번 반영 (applyCashChanges) - 같은 트랜잭션이라 결과는 동일
+ * [08.23]
+ * (수정) 주문 / 보유 주식 조회에서 PESSIMISTIC_WRITE 제거 - @Version 으로 커밋 시점에 충돌 감지
+ *       버전 충돌 / 락 실패(ConcurrencyFailureException)는 감싸지 않고 그대로 던짐 - TradeService 가 바로 다시 실행
+ * [08.24]
+ * (수정) 현금 / 수량 정산은 체결마다 원장 분개 한 건 (refId = tradeId) - 포트폴리오 / 보유 종목 행의 잔액을 수정하지 않음
+ *       매수자 현금 RESERVED -> 매도자 현금 AVAILABLE, 매도자 수량 RESERVED -> 매수자 수량 AVAILABLE
+ *       매수 지정가보다 싸게 체결된 차액은 매수자 예약에서 거래 가능으로 RELEASE (기존에는 예약에 계속 남아 있었음)
+ * (수정) 보유 종목 행은 매수자 평균 단가만 갱신 - 첫 매수면 수량 0 스냅샷으로 생성
+ * [08.25]
+ * (추가) 멱등성 체크 다음에 두 주문이 아직 체결 가능한지 확인 (StockOrder.isExecutable)
+ *       재시도 단계(MatchRetryStage)에서 꺼낸 pair 는 그 사이 취소 / 체결되었을 수 있음 - IllegalStateException -> DLQ
+ * (수정) IllegalArgumentException(없는 StockOrder, Money / Quantity 범위 초과)도 NonRetryableMatchException 으로 변환
+ *       기존에는 TradeService 의 기타 예외로 떨어져서 같은 입력으로 max-attempts 만큼 재시도한 뒤에야 DLQ
+ * (추가) NonRetryableMatchException 에 아직 체결 가능한 쪽(restorableSides)을 담음
+ *       취소 / 없는 주문 쪽은 빼고, 상대 주문만 호가창에 되돌리도록 (popMatchPairs 가 이미 양쪽에서 체결 수량을 차감)
+ *
+ * [고민]
+ * 1. 배치 중 한 건이라도 실패하면 전체 롤백 - 호출하는 쪽(TradeService)에서 한 건씩 재처리
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -36,38 +80,116 @@ public class TradeExecutionService {
     private final PortfolioStockRepository portfolioStockRepository;
     private final StockOrderRepository stockOrderRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final LedgerService ledgerService;
 
     @Transactional
     public void matchSinglePair(MatchingPair pair) {
+        settle(List.of(pair));
+    }
+
+    /** 같은 종목에서 매칭된 pair 들을 한 트랜잭션으로 체결 **/
+    @Transactional
+    public void matchPairs(List<MatchingPair> pairs) {
+        settle(pairs);
+    }
+
+    private void settle(List<MatchingPair> pairs) {
         try {
-            // 1. 체결 대상 정보 조회 및 검증 -> Idempotency check -> saveTrade() 하는 과정에서 이뤄짐
-            MatchingContext context = loadAndValidateEntities(pair);
+            // 1. 체결 대상 정보 일괄 조회 (주문, 보유 주식, 기존 체결 이력)
+            SettlementBatch batch = loadSettlementBatch(pairs);
 
-            // 2. 포트폴리오 및 현금 처리
-            processPortfolioUpdates(context);
+            for (MatchingPair pair : pairs) {
+                MatchingContext context = loadAndValidateEntities(pair, batch);
 
-            // 3. 주문 수량 갱신 (Order도 반영 완료)
-            updateOrderStates(context);
+                // 2. 멱등성 체크 -> 이미 체결된 pair 는 아무것도 반영하지 않음
+                Long buyOrderId = context.getBuyOrder().getId();
+                Long sellOrderId = context.getSellOrder().getId();
+                if (batch.isAlreadyTraded(buyOrderId, sellOrderId)) {
+                    log.warn("[Trade] 이미 체결된 거래입니다. 저장을 생략합니다. buyOrderId={}, sellOrderId={}",
+                            buyOrderId, sellOrderId);
+                    continue;
+                }
 
-            // 4. 체결 이력 저장 -> Trade 관련 UNIQUE 제약 반영 완료 + 이벤트 발행까지
-            saveTradeAndPublishEvent(context, pair);
+                // 3. 두 주문이 아직 열려 있고 잔여 수량이 충분한지 확인 (늦게 재시도된 pair)
+                validateExecutable(context);
 
-            // 5. Redis 동기화 -> (수정 해보기) Redis 상태 변경을 DB 커밋 후 실행하도록 분리 - TradeRedisSyncListener
-//            syncRedisAfterExecution(pair, context.getExecutableQuantity());
+                // 4. 매수자 평균 단가 갱신 (원장 반영 전 보유 수량 기준)
+                updateBuyerPosition(context, batch);
+
+                // 5. 주문 수량 갱신 (Order도 반영 완료)
+                updateOrderStates(context);
+
+                // 6. 체결 이력 저장 + 이벤트 발행 (Redis 동기화는 커밋 이후 TradeRedisSyncListener 에서 진행)
+                Long tradeId = saveTradeAndPublishEvent(context, pair);
+
+                // 7. 현금 / 수량 이동을 원장에 기록
+                postSettlementJournal(context, tradeId);
+            }
 
-        } catch (EntityNotFoundException | IllegalStateException e) {
-            throw new NonRetryableMatchException(e.getMessage()); // 구조적 문제
+        } catch (EntityNotFoundException | IllegalStateException | IllegalArgumentException e) {
+            // 구조적 문제(금액 범위 초과 등) - 두 주문 모두 열려 있으므로 pair 전체를 되돌림
+            throw new NonRetryableMatchException(e.getMessage(), EnumSet.allOf(OrderType.class));
+        } catch (ConcurrencyFailureException e) {
+            throw e; // 버전 충돌 - 새 트랜잭션으로 다시 실행하면 해결 (OptimisticRetryExecutor)
         } catch (RedisConnectionException | DataAccessException e) {
             throw new RetryableMatchException(e.getMessage()); // 일시적 장애
         }
     }
 
-    private MatchingContext loadAndValidateEntities(MatchingPair pair) {
+    /** N+1 문제 방지 - JOIN FETCH + IN 쿼리로 한 번에 조회 **/
+    private SettlementBatch loadSettlementBatch(List<MatchingPair> pairs) {
+        Set<Long> stockOrderIds = new TreeSet<>();
+        Set<Long> buyOrderIds = new HashSet<>();
+        Set<Long> sellOrderIds = new HashSet<>();
+        for (MatchingPair pair : pairs) {
+            buyOrderIds.add(pair.getBuyDTO().getId());
+            sellOrderIds.add(pair.getSellDTO().getId());
+        }
+        stockOrderIds.addAll(buyOrderIds);
+        stockOrderIds.addAll(sellOrderIds);
+
+        Map<Long, StockOrder> stockOrders = stockOrderRepository.findAllByIdsWithAllRelations(stockOrderIds)
+                .stream()
+                .collect(Collectors.toMap(StockOrder::getId, Function.identity()));
+
+        Map<String, PortfolioStock> positions = loadPositions(stockOrders.values());
+
+        Set<String> tradedPairKeys = tradeRepository.findTradedOrderIds(buyOrderIds, sellOrderIds)
+                .stream()
+                .map(ids -> SettlementBatch.pairKey(ids[0], ids[1]))
+                .collect(Collectors.toSet());
+
+        return new SettlementBatch(stockOrders, positions, tradedPairKeys);
+    }
+
+    private Map<String, PortfolioStock> loadPositions(Collection<StockOrder> stockOrders) {
+        Map<Long, Portfolio> portfolios = new HashMap<>();
+        Map<Long, Stock> stocks = new HashMap<>();
+        for (StockOrder stockOrder : stockOrders) {
+            portfolios.putIfAbsent(stockOrder.getPortfolio().getId(), stockOrder.getPortfolio());
+            stocks.putIfAbsent(stockOrder.getStock().getId(), stockOrder.getStock());
+        }
+
+        Map<String, PortfolioStock> positions = new HashMap<>();
+        portfolioStockRepository.findAllByPortfoliosAndStocks(portfolios.values(), stocks.values())
+                .forEach(ps -> positions.put(
+                        SettlementBatch.positionKey(ps.getPortfolio().getId(), ps.getStock().getId()), ps));
+        return positions;
+    }
+
+    private MatchingContext loadAndValidateEntities(MatchingPair pair, SettlementBatch batch) {
         Quantity quantity = pair.getExecutableQuantity();
         Money price = new Money(pair.getSellDTO().getRequestedPrice());
 
-        StockOrder buyOrder = loadStockOrder(pair.getBuyDTO());
-        StockOrder sellOrder = loadStockOrder(pair.getSellDTO());
+        Optional<StockOrder> buy = batch.findStockOrder(pair.getBuyDTO().getId());
+        Optional<StockOrder> sell = batch.findStockOrder(pair.getSellDTO().getId());
+        if (buy.isEmpty() || sell.isEmpty()) {
+            Long missingId = buy.isEmpty() ? pair.getBuyDTO().getId() : pair.getSellDTO().getId();
+            throw new NonRetryableMatchException("주문 ID에 해당하는 StockOrder를 찾을 수 없습니다. id=" + missingId,
+                    executableSides(buy.orElse(null), sell.orElse(null), quantity));
+        }
+        StockOrder buyOrder = buy.get();
+        StockOrder sellOrder = sell.get();
 
         Portfolio buyPortfolio = buyOrder.getPortfolio();
         Portfolio sellPortfolio = sellOrder.getPortfolio();
@@ -76,42 +198,43 @@ public class TradeExecutionService {
         return new MatchingContext(buyOrder, sellOrder, buyPortfolio, sellPortfolio, stock, quantity, price);
     }
 
-    /** N+1 문제 방지 - JOIN FETCH 방식 적용 **/
-    // StockOrderRedisDTO dto, String type - refactoring 진행해주기
-    private StockOrder loadStockOrder(StockOrderRedisDTO dto) {
-        // stockOrderId로 조회 (JOIN FETCH 방식 적용)
-        return stockOrderRepository.findByIdWithAllRelations(dto.getId())
-                .orElseThrow(() -> new IllegalArgumentException("주문 ID에 해당하는 StockOrder를 찾을 수 없습니다. id="
-                        + dto.getId()));
+    private void validateExecutable(MatchingContext ctx) {
+        Quantity quantity = ctx.getExecutableQuantity();
+        for (StockOrder stockOrder : List.of(ctx.getBuyOrder(), ctx.getSellOrder())) {
+            if (!stockOrder.isExecutable(quantity)) {
+                throw new NonRetryableMatchException("체결할 수 없는 주문입니다(취소 / 체결 완료). stockOrderId="
+                        + stockOrder.getId() + ", 상태=" + stockOrder.getStockOrderStatus()
+                        + ", 잔여=" + stockOrder.getRemainedQuantity() + ", 체결=" + quantity,
+                        executableSides(ctx.getBuyOrder(), ctx.getSellOrder(), quantity));
+            }
+        }
     }
 
-    private void processPortfolioUpdates(MatchingContext ctx) {
-        handleBuyerPortfolioAndCash(ctx.getBuyPortfolio(), ctx.getStock(), ctx.getExecutableQuantity(), ctx.getExecutablePrice());
-        handleSellerPortfolioAndCash(ctx.getSellPortfolio(), ctx.getStock(), ctx.getExecutableQuantity(), ctx.getExecutablePrice());
+    /** 아직 체결 가능한 쪽 - 호가창에서 차감된 체결 수량을 되돌려야 하는 쪽 (없는 주문은 null) **/
+    private Set<OrderType> executableSides(StockOrder buyOrder, StockOrder sellOrder, Quantity quantity) {
+        Set<OrderType> sides = EnumSet.noneOf(OrderType.class);
+        if (buyOrder != null && buyOrder.isExecutable(quantity)) {
+            sides.add(OrderType.BUY);
+        }
+        if (sellOrder != null && sellOrder.isExecutable(quantity)) {
+            sides.add(OrderType.SELL);
+        }
+        return sides;
     }
 
-    private void updateOrderStates(MatchingContext ctx) {
+        private void updateOrderStates(MatchingContext ctx) {
         StockOrder buyOrder = ctx.getBuyOrder();
         StockOrder sellOrder = ctx.getSellOrder();
 
-        buyOrder.updateQuantity(ctx.getExecutableQuantity(), ctx.getExecutablePrice());
-        sellOrder.updateQuantity(ctx.getExecutableQuantity(), ctx.getExecutablePrice());
+        buyOrder.applyExecution(ctx.getExecutableQuantity(), ctx.getExecutablePrice());
+        sellOrder.applyExecution(ctx.getExecutableQuantity(), ctx.getExecutablePrice());
 
         // ✅ 상위 Order 상태도 업데이트
-        buyOrder.getOrder().aggregateStatusFromChildren();
-        sellOrder.getOrder().aggregateStatusFromChildren();
+        buyOrder.getOrder().aggregateStatusFromStockOrders();
+        sellOrder.getOrder().aggregateStatusFromStockOrders();
     }
 
-    private void saveTradeAndPublishEvent(MatchingContext ctx, MatchingPair pair) {
-        Long buyOrderId = ctx.getBuyOrder().getId();
-        Long sellOrderId = ctx.getSellOrder().getId();
-
-        // 멱등성 체크
-        if (tradeRepository.existsByBuyOrderAndSellOrder(buyOrderId, sellOrderId)) {
-            log.warn("[Trade] 이미 체결된 거래입니다. 저장을 생략합니다. buyOrderId={}, sellOrderId={}", buyOrderId, sellOrderId);
-            return;
-        }
-
+    private Long saveTradeAndPublishEvent(MatchingContext ctx, MatchingPair pair) {
         Trade trade = Trade.createTrade(
                 ctx.getBuyOrder(),
                 ctx.getSellOrder(),
@@ -123,6 +246,7 @@ public class TradeExecutionService {
 
         // 🎯 이벤트 발행 분리
         publishTradeSavedEvent(trade.getId(), pair, ctx.getExecutableQuantity());
+        return trade.getId();
     }
 
     private void publishTradeSavedEvent(Long tradeId, MatchingPair pair, Quantity executedQuantity) {
@@ -141,48 +265,52 @@ public class TradeExecutionService {
         return pair.afterExecution(executableQuantity);
     }
 
-    private void handleBuyerPortfolioAndCash(Portfolio buyer, Stock stock, Quantity quantity,
-                                             Money price) {
-        // 1. 총 체결 금액 계산 = price * quantity
-        Money totalCost = price.multiply(quantity);
-
-        // 2. 주문 등록 시점에 예약된 금액 실제 차감 진행
-        buyer.releaseAndDeductCash(totalCost);
-
-        // 3. 기존 보유 주식 조회
-        Optional<PortfolioStock> maybePortfolioStock =
-                portfolioStockRepository.findByPortfolioAndStock(buyer, stock);
-
-        if (maybePortfolioStock.isPresent()) {
-            // 기존 보유 주식이 있을 경우 수량 + 평균 단가 갱신
-            PortfolioStock portfolioStock = maybePortfolioStock.get();
-            portfolioStock.addQuantity(quantity, price);
-        } else {
-            PortfolioStock newStock = PortfolioStock.createPortfolioStock(buyer, stock, quantity, price);
-            portfolioStockRepository.save(newStock);
-        }
+    private void updateBuyerPosition(MatchingContext ctx, SettlementBatch batch) {
+        Portfolio buyer = ctx.getBuyPortfolio();
+        Stock stock = ctx.getStock();
+        Quantity quantity = ctx.getExecutableQuantity();
+        Money price = ctx.getExecutablePrice();
+
+        // 기존 보유 주식 확인 (배치 조회 결과)
+        batch.findPosition(buyer, stock).ifPresentOrElse(
+                // 기존 보유 주식이 있을 경우 평균 단가 갱신 - 보유 수량은 원장 기준 (같은 배치의 앞선 체결 포함)
+                portfolioStock -> portfolioStock.applyBuy(heldQuantity(buyer, stock), quantity, price),
+                () -> {
+                    PortfolioStock newStock = PortfolioStock.createPortfolioStock(buyer, stock, Quantity.ZERO, price);
+                    portfolioStockRepository.save(newStock);
+                    batch.addPosition(newStock);
+                }
+        );
     }
 
-    private void handleSellerPortfolioAndCash(Portfolio seller, Stock stock, Quantity quantity,
-                                              Money price) {
-        // 1. 총 체결 금액 계산
-        Money totalCost = price.multiply(quantity);
-        // 2. 현금 증가
-        seller.deposit(totalCost);
-
-        // 3. 포트폴리오에서 주식 차감
-        Optional<PortfolioStock> maybePortfolioStock =
-                portfolioStockRepository.findByPortfolioAndStock(seller, stock);
-
-        if (maybePortfolioStock.isPresent()) {
-            PortfolioStock portfolioStock = maybePortfolioStock.get();
+    private Quantity heldQuantity(Portfolio portfolio, Stock stock) {
+        long available = ledgerService.balance(
+                BalanceKey.position(portfolio.getId(), stock.getId(), LedgerBucket.AVAILABLE));
+        long reserved = ledgerService.balance(
+                BalanceKey.position(portfolio.getId(), stock.getId(), LedgerBucket.RESERVED));
+        return new Quantity(available + reserved);
+    }
 
-            boolean isEmpty = portfolioStock.decreaseQuantity(quantity); // 내부에서 reserved도 차감되게 변경
-            if (isEmpty) {
-                portfolioStockRepository.delete(portfolioStock);
-            }
-        } else {
-            throw new IllegalStateException("매도할 주식이 포트폴리오에 없습니다.");
+    private void postSettlementJournal(MatchingContext ctx, Long tradeId) {
+        Long buyerId = ctx.getBuyPortfolio().getId();
+        Long sellerId = ctx.getSellPortfolio().getId();
+        Long stockId = ctx.getStock().getId();
+        long quantity = ctx.getExecutableQuantity().getQuantityValue();
+        long cost = Money.multiplyExact(ctx.getExecutablePrice().getMoneyValue(), quantity);
+        long reservedCost = Money.multiplyExact(ctx.getBuyOrder().getRequestedPrice().getMoneyValue(), quantity);
+
+        LedgerJournal journal = LedgerJournal.of(tradeId)
+                .debit(BalanceKey.cash(buyerId, LedgerBucket.RESERVED), LedgerEntryType.DEBIT, cost)
+                .credit(BalanceKey.cash(sellerId, LedgerBucket.AVAILABLE), LedgerEntryType.CREDIT, cost)
+                .debit(BalanceKey.position(sellerId, stockId, LedgerBucket.RESERVED), LedgerEntryType.DEBIT, quantity)
+                .credit(BalanceKey.position(buyerId, stockId, LedgerBucket.AVAILABLE), LedgerEntryType.CREDIT, quantity)
+                .move(BalanceKey.cash(buyerId, LedgerBucket.RESERVED), BalanceKey.cash(buyerId, LedgerBucket.AVAILABLE),
+                        LedgerEntryType.RELEASE, Math.max(0L, reservedCost - cost));
+        try {
+            ledgerService.post(journal);
+        } catch (IllegalArgumentException e) {
+            // 주문 접수 때 예약된 만큼만 체결되므로 부족하면 구조적 문제
+            throw new IllegalStateException("체결 정산 중 예약 잔액이 부족합니다. tradeId=" + tradeId + ", " + e.getMessage());
         }
     }
 
@@ -1,16 +1,14 @@
 package com.portfolio2025.first.service;
 
-import static jodd.util.ThreadUtil.sleep;
-
 import com.portfolio2025.first.domain.MatchingPair;
 import com.portfolio2025.first.exception.NonRetryableMatchException;
 import com.portfolio2025.first.exception.RetryableMatchException;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
+import com.portfolio2025.first.service.MatchRetryStage.PendingMatch;
+import java.util.List;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
 
 
@@ -23,6 +21,18 @@ import org.springframework.stereotype.Service;
  * 3. 다시 push 혹은 실패한 요청 재시도 하는 상황에 대해서 어떻게 처리할지 - idempotency 고려할 수 있어야 함 (완)
  * 4. 무한루프이기 때문에 retry 관련 제한을 반영할 수 있어야 한다 (완) - Controller 기반에서 하는건지 아니면 Service 내에서 진행하면 되는건지??
  * 5. Redis 반영 역시 이벤트 발행으로 - TransactionalListenerEvent(phase = AFTER_COMMIT) 방식 활용 예정
+ * 6. (08.01) matching.book=memory 인 경우 OrderBookEngine 에서 교차 주문을 한 번에 꺼내서 처리 (Redis 왕복 제거)
+ * 7. (08.02) matching.book=redis 인 경우 Lua 스크립트 한 번으로 교차 주문 N쌍을 원자적으로 꺼냄
+ * 8. (08.03) 꺼낸 pair 묶음은 TradeExecutionService.matchPairs 로 한 번에 커밋 - 실패 시 한 건씩 재처리
+ * 9. (08.04) Redisson 락(matchWithLock) 제거 - MatchingScheduler 가 종목별 워커 스레드 하나에서만 match 호출
+ * 10. (08.08) 부분 체결 잔량은 호가창에서 제자리 차감 - trade.synced 를 기다리지 않고 다음 묶음에서 바로 체결됨
+ * 11. (08.13) 호가창은 OrderBookStore 로만 접근 - memory / redis 분기는 빈 설정(matching.book)으로 결정
+ * 12. (08.20) 실패한 pair 를 호가창에 되돌리고 sleep(100) 하던 재시도 제거 - MatchRetryStage 가 백오프 후 재체결 / DLQ
+ *     체결 패스는 실패한 pair 를 기다리지 않고 나머지 교차 주문을 계속 처리, 패스 시작 시 대기가 끝난 재시도부터 처리
+ * 13. (08.23) 정산은 비관적 락 없이 @Version 으로 충돌 감지 - 다른 종목 워커 / 주문 접수와 같은 포트폴리오를 동시에 수정한 경우
+ *     OptimisticRetryExecutor 가 짧은 jitter 후 바로 다시 실행, 횟수를 넘기면 기존처럼 한 건씩 재처리 / MatchRetryStage
+ * 14. (08.25) 커밋이 끝난 pair 만 orderBookStore.confirm - 메모리 호가창 저널에는 커밋된 체결만 FILL 로 남음
+ * 15. (08.25) 재시도 불필요 실패도 아직 체결 가능한 쪽은 호가창에 되돌림 (MatchRetryStage.deadLetter / restoreDeferred)
  */
 
 @Service
@@ -30,84 +40,78 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class TradeService {
 
-    private final RedisStockOrderService redisStockOrderService;
-    private final TradeExecutionService tradeExecutionService;
-
-    // Redisson 분산 락 적용하기
-    private final RedissonClient redissonClient;
-    // match 실행 하기 전 Lock 획득 여부부터 먼저 확인하기 - 외부에서 먼저 획득한 이후에 Transaction 진행해야 함
-    public void matchWithLock(String stockCode) {
-        String lockKey = "lock:match:" + stockCode;
-        RLock lock = redissonClient.getLock(lockKey);
-        boolean isLocked = false;
+    private static final int MATCH_BATCH_SIZE = 100; // 한 번에 꺼내는 최대 체결 후보 수
 
-        try {
-            // 3초 동안 시도, 10초 후 자동 해제
-            isLocked = lock.tryLock(3, 10, TimeUnit.SECONDS);
-            if (!isLocked) {
-                log.warn("[LOCK] lock 획득 실패 - stockCode: {}", stockCode);
-                return;
-            }
+    private final OrderBookStore orderBookStore;
+    private final TradeExecutionService tradeExecutionService;
+    private final MatchRetryStage matchRetryStage;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
 
-            log.info("[LOCK] lock 획득 성공 - stockCode: {}", stockCode);
-            match(stockCode); // 기존 match 로직 호출
+    /** 체결 상황에 대해서 (핵심 로직) **/
+    public void match(String stockCode) {
+        // 백오프가 끝난 재시도 먼저 - 먼저 꺼낸 pair 가 뒤 순번보다 더 늦어지지 않도록
+        for (PendingMatch pending : matchRetryStage.drainDue(stockCode)) {
+            executeSingle(stockCode, pending.pair(), pending.attempts());
+        }
 
-        } catch (InterruptedException e) {
-            log.error("[LOCK] 락 획득 중 인터럽트 발생 - {}", e.getMessage(), e);
-            Thread.currentThread().interrupt(); // 인터럽트 복구
+        // 교차하는 주문만 체결 후보로 만듦 - 부분 체결 주문은 잔여 수량만 차감되고 제자리에 남음
+        matchPairs(stockCode, () -> orderBookStore.popMatchPairs(stockCode, MATCH_BATCH_SIZE));
 
-        } catch (Exception e) {
-            log.error("[LOCK] match 실행 중 예외 발생 - {}", e.getMessage(), e);
+        // 재시도 불필요로 DLQ 에 보낸 pair 중 두 주문 모두 열려 있는 pair - 같은 패스에서 다시 꺼내지 않도록 마지막에 되돌림
+        matchRetryStage.restoreDeferred(stockCode);
+    }
 
-        } finally {
-            if (isLocked && lock.isHeldByCurrentThread()) {
-                lock.unlock();
-                log.info("[LOCK] 락 해제 완료 - stockCode: {}", stockCode);
-            }
+    /** 호가창에서 교차하는 주문을 묶음으로 꺼내서 체결 - 실패한 pair 는 호가창에서 빠진 채로 재시도 단계로 **/
+    private void matchPairs(String stockCode, Supplier<List<MatchingPair>> pairSource) {
+        List<MatchingPair> pairs;
+        while (!(pairs = pairSource.get()).isEmpty()) {
+            executePairs(stockCode, pairs);
         }
     }
 
-    /** 체결 상황에 대해서 (핵심 로직) **/
-    public void match(String stockCode) {
-        final int MAX_RETRY = 10;
-        int retryCount = 0;
-
-        while (retryCount < MAX_RETRY) {
-            // 1. 매칭 후보지 확인하기
-            Optional<MatchingPair> pairCandidate = redisStockOrderService.popMatchPair(stockCode);
-            if (pairCandidate.isEmpty()) {
-                System.out.println("pairCandidate not found..");
-                break;
-            }
-
-            MatchingPair pair = pairCandidate.get();
-            if (pair.isNotPriceMatchable()) {
-                redisStockOrderService.pushBack(pair);
-                break;
-            }
-
-            try {
-                tradeExecutionService.matchSinglePair(pair);  // 한 건씩 트랜잭션 처리 -> AOP에 맞게 외부 Service 등록
-            } catch (RetryableMatchException e) {
-                retryCount++;
-                log.warn("재시도 가능한 예외 발생 ({}회): {}", retryCount, e.getMessage());
-                redisStockOrderService.pushBack(pair);
-                sleep(100);
-            } catch (NonRetryableMatchException e) {
-                log.error("재시도 불필요 예외 발생: {}", e.getMessage());
-            } catch (Exception e) {
-                retryCount++;
-                log.error("기타 예외 발생 ({}회): {}", retryCount, e.getMessage(), e);
-                redisStockOrderService.pushBack(pair);  // 기본은 재시도 대상으로 처리
-                sleep(100);
-            }
+    /** 한 번에 꺼낸 pair 전체를 하나의 트랜잭션으로 체결, 실패하면 한 건씩 재처리 **/
+    private void executePairs(String stockCode, List<MatchingPair> pairs) {
+        if (pairs.size() > 1 && executeBatch(pairs)) {
+            orderBookStore.confirm(pairs); // 커밋 이후 - confirm 실패가 배치를 다시 실행하지 않도록 try 밖에서
+            return;
         }
+        for (MatchingPair pair : pairs) {
+            executeSingle(stockCode, pair, 0);
+        }
+    }
 
-        if (retryCount >= MAX_RETRY) {
-            log.error("[Match] 최대 재시도 초과 - stockCode: {}", stockCode);
-            // TODO: 필요시 실패 이벤트 발행 or DLQ
+    private boolean executeBatch(List<MatchingPair> pairs) {
+        try {
+            optimisticRetryExecutor.run("match.batch", () -> tradeExecutionService.matchPairs(pairs));
+            return true;
+        } catch (Exception e) {
+            log.warn("[Match] 배치 체결 실패 → 한 건씩 재처리 ({}건): {}", pairs.size(), e.getMessage());
+            return false;
         }
+    }
 
+    /** 한 건씩 트랜잭션 처리 - attempts 는 이 pair 가 이전에 실패한 횟수 **/
+    private void executeSingle(String stockCode, MatchingPair pair, int attempts) {
+        try {
+            optimisticRetryExecutor.run("match.single", () -> tradeExecutionService.matchSinglePair(pair));  // AOP에 맞게 외부 Service 등록
+        } catch (RetryableMatchException e) {
+            log.warn("재시도 가능한 예외 발생: {}", e.getMessage());
+            matchRetryStage.retry(stockCode, pair, attempts + 1, e);
+            return;
+        } catch (ConcurrencyFailureException e) {
+            log.warn("버전 충돌 재시도 초과: {}", e.getMessage());
+            matchRetryStage.retry(stockCode, pair, attempts + 1, e);
+            return;
+        } catch (NonRetryableMatchException e) {
+            log.error("재시도 불필요 예외 발생: {}", e.getMessage());
+            matchRetryStage.deadLetter(stockCode, pair, attempts + 1, e);
+            return;
+        } catch (Exception e) {
+            log.error("기타 예외 발생: {}", e.getMessage(), e);
+            matchRetryStage.retry(stockCode, pair, attempts + 1, e);  // 기본은 재시도 대상으로 처리
+            return;
+        }
+        orderBookStore.confirm(List.of(pair));
     }
 
 }
@@ -0,0 +1,158 @@
+package com.portfolio2025.first.service;
+
+import com.portfolio2025.first.domain.id.TsidFactory;
+import com.portfolio2025.first.domain.id.TsidGenerator;
+import com.portfolio2025.first.domain.id.TsidNodeLease;
+import com.portfolio2025.first.repository.TsidNodeLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 서버마다 겹치지 않는 TSID 노드 번호(0~1023)를 배정하는 TsidNodeAllocator
+ * [08.22]
+ * (추가) id.tsid.node-id 가 0 이상이면 그 번호를 그대로 사용 (배포 도구가 번호를 정해주는 경우)
+ *       -1(기본)이면 tsid_node_leases 에서 비어 있거나 만료된 번호를 임대 - INSERT(PK 충돌 시 다음 번호) / 만료 행은 조건부 UPDATE
+ * (추가) heartbeat 로 임대 갱신, 종료 시 반납 - 갱신에 실패하면(다른 서버가 가져감) 새 번호를 다시 임대
+ * (추가) 빈 초기화 시점에 배정 -> TsidGenerator.install - 이후 @TsidId 엔티티 저장 가능
+ *
+ * [고민]
+ * 1. 서버 간 시계 차이가 lease-ttl 보다 크면 살아 있는 임대를 만료로 볼 수 있음 - ttl 은 heartbeat 주기의 여러 배로 설정
+ * 2. GC / 네트워크 정지로 ttl 이상 heartbeat 를 못 보내면 그 사이 같은 번호를 다른 서버가 쓸 수 있음
+ *    -> 시작 위치를 owner hash 로 흩어서 방금 반납된 번호를 바로 재사용할 가능성을 낮춤
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TsidNodeAllocator {
+
+    private final TsidNodeLeaseRepository tsidNodeLeaseRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${id.tsid.node-id:-1}")
+    private int fixedNodeId;
+
+    @Value("${id.tsid.lease-ttl-ms:60000}")
+    private long leaseTtlMs;
+
+    private final String owner = ownerName();
+    private TransactionTemplate transactionTemplate;
+    private volatile int node = -1;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (fixedNodeId >= 0) {
+            install(fixedNodeId);
+            log.info("[TSID] 고정 노드 번호 사용 - node={}", fixedNodeId);
+            return;
+        }
+        install(allocate());
+        log.info("[TSID] 노드 번호 임대 완료 - node={}, owner={}", node, owner);
+    }
+
+    @Scheduled(fixedDelayString = "${id.tsid.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (fixedNodeId >= 0 || node < 0) {
+            return;
+        }
+        try {
+            Integer renewed = transactionTemplate.execute(status ->
+                    tsidNodeLeaseRepository.renew(node, owner, LocalDateTime.now()));
+            if (renewed == null || renewed == 0) {
+                log.error("[TSID] 노드 임대를 잃어서 새 번호를 임대합니다 - node={}, owner={}", node, owner);
+                install(allocate());
+            }
+        } catch (Exception e) {
+            log.warn("[TSID] 노드 임대 갱신 실패 - node={}", node, e);
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        if (fixedNodeId >= 0 || node < 0) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> tsidNodeLeaseRepository.release(node, owner));
+        } catch (Exception e) {
+            log.warn("[TSID] 노드 임대 반납 실패 - ttl 이후 자동 만료 - node={}", node, e);
+        }
+    }
+
+    int allocate() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiredBefore = now.minus(leaseTtlMs, ChronoUnit.MILLIS);
+        Map<Integer, TsidNodeLease> leases = transactionTemplate.execute(status ->
+                tsidNodeLeaseRepository.findAll().stream()
+                        .collect(Collectors.toMap(TsidNodeLease::getNodeId, Function.identity())));
+
+        int start = Math.floorMod(owner.hashCode(), TsidFactory.MAX_NODE + 1);
+        for (int i = 0; i <= TsidFactory.MAX_NODE; i++) {
+            int candidate = (start + i) & TsidFactory.MAX_NODE;
+            TsidNodeLease lease = leases.get(candidate);
+            if (lease != null && !lease.isExpired(expiredBefore)) {
+                continue;
+            }
+            if (tryClaim(candidate, lease == null, now, expiredBefore)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("임대 가능한 TSID 노드 번호가 없습니다. (최대 " + (TsidFactory.MAX_NODE + 1) + "대)");
+    }
+
+    private boolean tryClaim(int candidate, boolean absent, LocalDateTime now, LocalDateTime expiredBefore) {
+        try {
+            Boolean claimed = transactionTemplate.execute(status -> {
+                if (absent) {
+                    tsidNodeLeaseRepository.save(TsidNodeLease.create(candidate, owner, now));
+                    tsidNodeLeaseRepository.flush();
+                    return true;
+                }
+                return tsidNodeLeaseRepository.takeOver(candidate, owner, now, expiredBefore) == 1;
+            });
+            return Boolean.TRUE.equals(claimed);
+        } catch (DataAccessException e) {
+            // 조회 이후 다른 서버가 같은 번호를 먼저 INSERT - 다음 번호 시도
+            log.debug("[TSID] 노드 번호 선점 실패 - node={}", candidate);
+            return false;
+        }
+    }
+
+    private void install(int nodeId) {
+        TsidGenerator.install(new TsidFactory(nodeId));
+        node = nodeId;
+    }
+
+    public int getNode() {
+        return node;
+    }
+
+    /** 호스트명:pid:임의값 - 재시작한 같은 서버도 다른 owner (OrderBookOwnerLease 도 사용) **/
+    static String ownerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        if (host.length() > 60) {
+            host = host.substring(0, 60);
+        }
+        return host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -68,15 +68,7 @@ public class BuyStockService {
         orderRepository.flush();
 
         // 4. KafkaProducer -> 이벤트 발행하는 시점
-        OrderCreatedEvent event = new OrderCreatedEvent(
-                order.getId(),
-                user.getId(),
-                portfolio.getId(),
-                stock.getStockCode(),
-                quantity.getQuantityValue(),
-                unitPrice.getMoneyValue(),
-                OrderType.BUY.name()
-        );
+        OrderCreatedEvent event = OrderCreatedEvent.from(order);
 
         eventPublisher.publishEvent(event);
     }
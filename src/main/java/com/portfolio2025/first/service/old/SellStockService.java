@@ -71,15 +71,7 @@ public class SellStockService {
         orderRepository.flush();
 
         // 4. Kafka 이벤트 발행
-        OrderCreatedEvent event = new OrderCreatedEvent(
-                order.getId(),
-                portfolio.getUser().getId(),
-                portfolio.getId(),
-                stock.getStockCode(),
-                quantity.getQuantityValue(),
-                requestedPrice.getMoneyValue(),
-                OrderType.SELL.name()
-        );
+        OrderCreatedEvent event = OrderCreatedEvent.from(order);
 
 
         // 5. 커밋 이후에 발행을 등록함
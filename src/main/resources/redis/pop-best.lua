@@ -0,0 +1,19 @@
+-- 가장 우선순위 높은 주문을 호가창에서 꺼낸다 (ZPOPMIN + HGET + HDEL 을 한 번에)
+-- KEYS[1] : BUY_QUEUE_{stockCode} 또는 SELL_QUEUE_{stockCode} (매수는 score = -가격 이라서 둘 다 ZPOPMIN)
+-- KEYS[2] : ORDERS_{stockCode} (field = stockOrderId hex16, value = 가격|잔여수량|주문시각 hex16 고정 길이)
+-- 반환값  : { member, value } / 비어 있으면 빈 배열
+while true do
+    local popped = redis.call('ZPOPMIN', KEYS[1])
+    if #popped == 0 then
+        return {}
+    end
+
+    local member = popped[1]
+    local field = string.sub(member, 17, 32)
+    local value = redis.call('HGET', KEYS[2], field)
+    if value then
+        redis.call('HDEL', KEYS[2], field)
+        return { member, value }
+    end
+    -- HASH 값이 없는 member 는 버리고 다음 주문
+end
@@ -0,0 +1,69 @@
+-- 매수/매도 호가를 확인하고 가격이 교차하는 동안 체결 후보를 만든다 (한 번의 왕복으로 최대 ARGV[1] 쌍)
+-- KEYS[1] : BUY_QUEUE_{stockCode}  (score = -가격, 낮은 score 가 최우선 매수)
+-- KEYS[2] : SELL_QUEUE_{stockCode} (score = 가격, 낮은 score 가 최우선 매도)
+--           member = 주문시각 hex16 .. stockOrderId hex16 (같은 가격이면 사전순 = 시간 우선순위)
+-- KEYS[3] : ORDERS_{stockCode}     (field = stockOrderId hex16, value = 가격|잔여수량|주문시각 16자리 hex 고정 길이)
+-- 반환값  : {buyMember1, buyValue1, sellMember1, sellValue1, ...} - value 는 체결 직전 스냅샷
+-- 전량 체결된 주문만 호가창에서 빠지고, 부분 체결된 주문은 잔여 수량만 제자리에서 차감 (대기 순서 유지)
+local maxPairs = tonumber(ARGV[1])
+local result = {}
+
+local function priceOf(value)
+    return tonumber(string.sub(value, 1, 16), 16)
+end
+
+local function quantityOf(value)
+    return tonumber(string.sub(value, 17, 32), 16)
+end
+
+local function withQuantity(value, quantity)
+    return string.sub(value, 1, 16) .. string.format('%016x', quantity) .. string.sub(value, 33, 48)
+end
+
+local function fieldOf(member)
+    return string.sub(member, 17, 32)
+end
+
+-- 체결 수량만큼 차감, 남은 수량이 없으면 호가창에서 제거
+local function fill(queueKey, member, value, executed)
+    local remain = quantityOf(value) - executed
+    if remain <= 0 then
+        redis.call('ZREM', queueKey, member)
+        redis.call('HDEL', KEYS[3], fieldOf(member))
+    else
+        redis.call('HSET', KEYS[3], fieldOf(member), withQuantity(value, remain))
+    end
+end
+
+local count = 0
+while count < maxPairs do
+    local buy = redis.call('ZRANGE', KEYS[1], 0, 0)[1]
+    local sell = redis.call('ZRANGE', KEYS[2], 0, 0)[1]
+    if not buy or not sell then
+        break
+    end
+
+    local buyValue = redis.call('HGET', KEYS[3], fieldOf(buy))
+    local sellValue = redis.call('HGET', KEYS[3], fieldOf(sell))
+    if not buyValue or not sellValue then
+        -- 값이 없는 유령 member 는 정리하고 다음 후보 확인
+        if not buyValue then redis.call('ZREM', KEYS[1], buy) end
+        if not sellValue then redis.call('ZREM', KEYS[2], sell) end
+    else
+        if priceOf(buyValue) < priceOf(sellValue) then
+            break
+        end
+
+        local executed = math.min(quantityOf(buyValue), quantityOf(sellValue))
+        fill(KEYS[1], buy, buyValue, executed)
+        fill(KEYS[2], sell, sellValue, executed)
+
+        result[#result + 1] = buy
+        result[#result + 1] = buyValue
+        result[#result + 1] = sell
+        result[#result + 1] = sellValue
+        count = count + 1
+    end
+end
+
+return result
@@ -0,0 +1,8 @@
+-- 내가 가진 임대만 반납한다
+-- KEYS[1] : 임대 키
+-- ARGV[1] : owner
+-- 반환값  : 반납되면 1, 다른 owner 이거나 만료됐으면 0
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('DEL', KEYS[1])
+end
+return 0
@@ -0,0 +1,14 @@
+-- stockOrderId 로 호가창에서 주문을 삭제한다
+-- KEYS[1] : BUY_QUEUE_{stockCode} 또는 SELL_QUEUE_{stockCode} (member = 주문시각 hex16 .. stockOrderId hex16)
+-- KEYS[2] : ORDERS_{stockCode} (field = stockOrderId hex16, value = 가격|잔여수량|주문시각 hex16 고정 길이)
+-- ARGV[1] : stockOrderId hex16
+-- 반환값  : 삭제되면 1, 없으면 0
+local value = redis.call('HGET', KEYS[2], ARGV[1])
+if not value then
+    return 0
+end
+
+local member = string.sub(value, 33, 48) .. ARGV[1]
+redis.call('ZREM', KEYS[1], member)
+redis.call('HDEL', KEYS[2], ARGV[1])
+return 1
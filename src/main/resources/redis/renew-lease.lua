@@ -0,0 +1,9 @@
+-- 내가 가진 임대만 연장한다
+-- KEYS[1] : 임대 키
+-- ARGV[1] : owner
+-- ARGV[2] : ttl (ms)
+-- 반환값  : 연장되면 1, 다른 owner 이거나 만료됐으면 0
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+    return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
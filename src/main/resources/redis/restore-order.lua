@@ -0,0 +1,19 @@
+-- 체결(DB 반영)에 실패한 주문의 체결 수량을 호가창에 되돌린다
+-- KEYS[1] : BUY_QUEUE_{stockCode} 또는 SELL_QUEUE_{stockCode}
+-- KEYS[2] : ORDERS_{stockCode}
+-- ARGV[1] : stockOrderId hex16 (HASH field)
+-- ARGV[2] : member (주문시각 hex16 .. stockOrderId hex16) - 원래 대기 순서 그대로
+-- ARGV[3] : score
+-- ARGV[4] : 체결 수량만큼만 담은 주문 value (호가창에서 이미 빠진 경우 사용)
+-- ARGV[5] : 체결 수량
+local value = redis.call('HGET', KEYS[2], ARGV[1])
+if value then
+    -- 아직 대기 중이면 덮어쓰지 않고 체결 수량만큼 더해줌 (다른 pair 가 같은 주문을 이미 소진했을 수 있음)
+    local quantity = tonumber(string.sub(value, 17, 32), 16) + tonumber(ARGV[5])
+    redis.call('HSET', KEYS[2], ARGV[1],
+            string.sub(value, 1, 16) .. string.format('%016x', quantity) .. string.sub(value, 33, 48))
+else
+    redis.call('HSET', KEYS[2], ARGV[1], ARGV[4])
+    redis.call('ZADD', KEYS[1], ARGV[3], ARGV[2])
+end
+return 1
@@ -0,0 +1,12 @@
+-- 대기 순서(ZSET member)는 그대로 두고 주문의 잔여 수량만 바꾼다
+-- KEYS[1] : ORDERS_{stockCode} (field = stockOrderId hex16, value = 가격|잔여수량|주문시각 hex16 고정 길이)
+-- ARGV[1] : stockOrderId hex16
+-- ARGV[2] : 새 잔여 수량 hex16
+-- 반환값  : 변경되면 1, 호가창에 없으면 0
+local value = redis.call('HGET', KEYS[1], ARGV[1])
+if not value then
+    return 0
+end
+
+redis.call('HSET', KEYS[1], ARGV[1], string.sub(value, 1, 16) .. ARGV[2] .. string.sub(value, 33, 48))
+return 1
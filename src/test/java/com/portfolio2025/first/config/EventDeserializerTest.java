@@ -0,0 +1,57 @@
+package com.portfolio2025.first.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio2025.first.dto.event.OrderCreatedEvent;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+class EventDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final EventSerializer binarySerializer = new EventSerializer(objectMapper, true);
+    private final EventSerializer jsonSerializer = new EventSerializer(objectMapper, false);
+    private final EventDeserializer deserializer = new EventDeserializer(objectMapper,
+            Map.of("order.created", OrderCreatedEvent.class));
+
+    private final OrderCreatedEvent event = new OrderCreatedEvent(1L, 2L, 3L, "005930", 4L, 95_000L, "BUY", null);
+
+    @Test
+    @DisplayName("전환 기간 동안 바이너리 / JSON 레코드를 모두 같은 이벤트로 읽는다")
+    void readsBinaryAndJson() {
+        Object fromBinary = deserializer.deserialize("order.created", new RecordHeaders(),
+                ByteBuffer.wrap(binarySerializer.serialize("order.created", event)));
+        Object fromJson = deserializer.deserialize("order.created", new RecordHeaders(),
+                ByteBuffer.wrap(jsonSerializer.serialize("order.created", event)));
+
+        assertThat(fromBinary).usingRecursiveComparison().isEqualTo(event);
+        assertThat(fromJson).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("타입이 등록되지 않은 토픽은 문자열 그대로 읽는다")
+    void readsPlainString() {
+        byte[] data = binarySerializer.serialize("match.request", "005930");
+
+        assertThat(deserializer.deserialize("match.request", new RecordHeaders(), ByteBuffer.wrap(data)))
+                .isEqualTo("005930");
+    }
+
+    @Test
+    @DisplayName("읽을 수 없는 레코드는 예외 대신 null 을 돌려주고 원본과 예외를 헤더에 남긴다")
+    void brokenRecordGoesToHeader() {
+        RecordHeaders headers = new RecordHeaders();
+
+        Object value = deserializer.deserialize("order.created", headers,
+                ByteBuffer.wrap("{broken".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(value).isNull();
+        assertThat(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)).isNotNull();
+    }
+}
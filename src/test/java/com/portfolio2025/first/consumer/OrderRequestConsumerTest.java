@@ -0,0 +1,196 @@
+package com.portfolio2025.first.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.OrderValidator;
+import com.portfolio2025.first.RedisRegister;
+import com.portfolio2025.first.domain.Order;
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.PortfolioType;
+import com.portfolio2025.first.domain.User;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.domain.stock.Stock;
+import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.domain.vo.Money;
+import com.portfolio2025.first.domain.vo.Quantity;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import com.portfolio2025.first.dto.event.OrderCreatedEvent;
+import com.portfolio2025.first.exception.OrderBookPushException;
+import com.portfolio2025.first.service.KafkaDlqService;
+import com.portfolio2025.first.service.KafkaProducerService;
+import com.portfolio2025.first.service.OrderBookStore;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class OrderRequestConsumerTest {
+
+    private KafkaProducerService kafkaProducerService;
+    private OrderValidator orderValidator;
+    private RedisRegister redisRegister;
+    private KafkaDlqService kafkaDlqService;
+    private OrderBookStore orderBookStore;
+    private OrderRequestConsumer consumer;
+
+    private Portfolio portfolio;
+
+    @BeforeEach
+    void setUp() {
+        kafkaProducerService = mock(KafkaProducerService.class);
+        orderValidator = mock(OrderValidator.class);
+        redisRegister = mock(RedisRegister.class);
+        kafkaDlqService = mock(KafkaDlqService.class);
+        orderBookStore = mock(OrderBookStore.class);
+        consumer = new OrderRequestConsumer(kafkaProducerService, orderValidator, redisRegister,
+                kafkaDlqService, orderBookStore);
+
+        User user = User.createUser("tester", "seoul", "010-0000-0000", "tester@test.com", "tester");
+        portfolio = Portfolio.createPortfolio(user, PortfolioType.STOCK);
+    }
+
+    private Order order(long orderId, long stockOrderId, String stockCode) {
+        Stock stock = Stock.createStock(null, new Money(100_000L), stockCode, stockCode, new Quantity(1_000L));
+        StockOrder stockOrder = StockOrder.createStockOrder(stock, new Quantity(3L), new Money(100_000L), portfolio);
+        ReflectionTestUtils.setField(stockOrder, "id", stockOrderId);
+        Order order = Order.createSingleOrder(portfolio, stockOrder, OrderType.BUY, new Money(300_000L));
+        ReflectionTestUtils.setField(order, "id", orderId);
+        return order;
+    }
+
+    private OrderCreatedEvent legacyEvent(long orderId, String stockCode) {
+        return new OrderCreatedEvent(orderId, 1L, 1L, stockCode, 3L, 100_000L, "BUY", null);
+    }
+
+    private OrderCreatedEvent selfContainedEvent(long orderId, long stockOrderId, String stockCode) {
+        return OrderCreatedEvent.from(order(orderId, stockOrderId, stockCode));
+    }
+
+    private ConsumerRecord<String, Object> record(long offset, Object value) {
+        return new ConsumerRecord<>("order.created", 0, offset, null, value);
+    }
+
+    @Test
+    @DisplayName("stockOrders 가 담긴 이벤트는 DB 조회 없이 이벤트 값으로 바로 호가창에 적재한다")
+    void selfContainedEventSkipsDatabase() throws Exception {
+        when(redisRegister.findProcessed(anyCollection())).thenReturn(Set.of());
+
+        consumer.processBatch(List.of(selfContainedEvent(1L, 11L, "005930"), selfContainedEvent(2L, 12L, "000660")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RestingStockOrderDTO>> rows = ArgumentCaptor.forClass(List.class);
+        verify(orderValidator, never()).findOrdersWithRetry(anyCollection());
+        verify(orderBookStore).pushAll(rows.capture());
+        assertThat(rows.getValue()).extracting(RestingStockOrderDTO::getId, RestingStockOrderDTO::getStockCode,
+                        RestingStockOrderDTO::getRemainQuantity, RestingStockOrderDTO::getOrderType)
+                .containsExactly(tuple(11L, "005930", 3L, OrderType.BUY), tuple(12L, "000660", 3L, OrderType.BUY));
+        assertThat(rows.getValue()).allSatisfy(row -> assertThat(row.getCreatedAt()).isNotNull());
+        verify(redisRegister).markProcessedAll(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("묶음 전체를 한 번에 조회 / 적재하고, 체결 트리거는 종목마다 한 번만 발행한다")
+    void processBatchTogether() throws Exception {
+        when(redisRegister.findProcessed(anyCollection())).thenReturn(Set.of());
+        when(orderValidator.findOrdersWithRetry(anyCollection())).thenReturn(Map.of(
+                1L, order(1L, 11L, "005930"),
+                2L, order(2L, 12L, "005930"),
+                3L, order(3L, 13L, "000660")));
+
+        consumer.processBatch(List.of(legacyEvent(1L, "005930"), legacyEvent(2L, "005930"),
+                legacyEvent(3L, "000660"), legacyEvent(1L, "005930")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RestingStockOrderDTO>> rows = ArgumentCaptor.forClass(List.class);
+        verify(orderValidator, times(1)).findOrdersWithRetry(anyCollection());
+        verify(orderBookStore, times(1)).pushAll(rows.capture());
+        assertThat(rows.getValue()).extracting(RestingStockOrderDTO::getId).containsExactly(11L, 12L, 13L);
+        verify(redisRegister).markProcessedAll(List.of(1L, 2L, 3L));
+        verify(kafkaProducerService, times(1)).publishMatchRequest("005930");
+        verify(kafkaProducerService, times(1)).publishMatchRequest("000660");
+    }
+
+    @Test
+    @DisplayName("이미 처리된 주문은 건너뛰고, 역직렬화 실패 / 조회 실패 레코드만 DLQ 로 보낸다")
+    void failedRecordsGoToDlq() throws Exception {
+        when(redisRegister.findProcessed(anyCollection())).thenReturn(Set.of(1L));
+        when(orderValidator.findOrdersWithRetry(anyCollection())).thenReturn(Map.of(2L, order(2L, 12L, "005930")));
+
+        byte[] broken = "{broken".getBytes(StandardCharsets.UTF_8);
+        ConsumerRecord<String, Object> brokenRecord = record(0L, null);
+        SerializationUtils.deserializationException(brokenRecord.headers(), broken,
+                new IllegalArgumentException("broken"), false);
+        OrderCreatedEvent missing = legacyEvent(3L, "005930");
+
+        consumer.consumeOrderCreatedBatch(List.of(brokenRecord, record(1L, legacyEvent(1L, "005930")),
+                record(2L, legacyEvent(2L, "005930")), record(3L, missing)), mock(Acknowledgment.class));
+
+        verify(kafkaDlqService).sendParseError(eq("order.created"), eq(broken), any());
+        verify(kafkaDlqService).sendProcessingError(eq("order.created"), eq(missing), any());
+        verify(kafkaDlqService, times(1)).sendProcessingError(anyString(), any(), any());
+        verify(redisRegister).markProcessedAll(List.of(2L));
+    }
+
+    @Test
+    @DisplayName("일부 종목만 호가창 적재에 실패하면 그 종목 주문만 DLQ 로 보내고 나머지는 처리 완료 / 체결 트리거")
+    void partialPushFailureDeadLettersOnlyFailedOrders() {
+        when(redisRegister.findProcessed(anyCollection())).thenReturn(Set.of());
+        OrderCreatedEvent pushed = selfContainedEvent(1L, 11L, "005930");
+        OrderCreatedEvent failed = selfContainedEvent(2L, 12L, "000660");
+        doThrow(new OrderBookPushException(failed.toRows(), new IllegalStateException("journal down")))
+                .when(orderBookStore).pushAll(anyList());
+
+        consumer.processBatch(List.of(pushed, failed));
+
+        verify(kafkaDlqService).sendProcessingError(eq("order.created"), eq(failed), any());
+        verify(kafkaDlqService, times(1)).sendProcessingError(anyString(), any(), any());
+        verify(redisRegister).markProcessedAll(List.of(1L));
+        verify(kafkaProducerService).publishMatchRequest("005930");
+        verify(kafkaProducerService, never()).publishMatchRequest("000660");
+    }
+
+    @Test
+    @DisplayName("어느 행까지 적재됐는지 모르는 실패(Redis 파이프라인)는 묶음 전체를 DLQ 로 보낸다")
+    void wholePushFailureDeadLettersAll() {
+        when(redisRegister.findProcessed(anyCollection())).thenReturn(Set.of());
+        doThrow(new IllegalStateException("redis down")).when(orderBookStore).pushAll(anyList());
+
+        consumer.processBatch(List.of(selfContainedEvent(1L, 11L, "005930"), selfContainedEvent(2L, 12L, "000660")));
+
+        verify(kafkaDlqService, times(2)).sendProcessingError(eq("order.created"), any(), any());
+        verify(redisRegister, never()).markProcessedAll(anyCollection());
+        verify(kafkaProducerService, never()).publishMatchRequest(anyString());
+    }
+
+    @Test
+    @DisplayName("호가창 적재 이후 처리 완료 등록이 실패해도 DLQ 로 보내지 않고 체결 트리거는 발행한다")
+    void markProcessedFailureDoesNotDeadLetter() {
+        when(redisRegister.findProcessed(anyCollection())).thenReturn(Set.of());
+        doThrow(new IllegalStateException("redis down")).when(redisRegister).markProcessedAll(anyCollection());
+
+        consumer.processBatch(List.of(selfContainedEvent(1L, 11L, "005930")));
+
+        verify(kafkaDlqService, never()).sendProcessingError(anyString(), any(), any());
+        verify(kafkaProducerService).publishMatchRequest("005930");
+    }
+}
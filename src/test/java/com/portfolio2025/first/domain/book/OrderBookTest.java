@@ -0,0 +1,171 @@
+package com.portfolio2025.first.domain.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class OrderBookTest {
+
+    private static final String STOCK_CODE = "005930";
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 1, 9, 0);
+
+    private StockOrderRedisDTO order(long id, long price, long quantity, int secondsLater) {
+        return new StockOrderRedisDTO(id, STOCK_CODE, price, quantity, NOW.plusSeconds(secondsLater));
+    }
+
+    @Test
+    @DisplayName("교차하는 가격대를 한 번에 훑어서 가격 - 시간 우선순위로 체결 후보를 만든다")
+    void matchCrossingLevels() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.SELL, order(1L, 100_000L, 3L, 0));
+        book.add(OrderType.SELL, order(2L, 99_000L, 2L, 1));
+        book.add(OrderType.SELL, order(3L, 100_000L, 5L, 2));
+        book.add(OrderType.BUY, order(4L, 100_000L, 6L, 3));
+
+        List<MatchingPair> pairs = book.matchCrossing(100);
+
+        // 99,000원 매도 먼저 -> 100,000원 매도 중 먼저 들어온 1번
+        assertThat(pairs).extracting(p -> p.getSellDTO().getId()).containsExactly(2L, 1L, 3L);
+        assertThat(pairs).extracting(p -> p.getExecutableQuantity().getQuantityValue()).containsExactly(2L, 3L, 1L);
+        assertThat(book.depth(OrderType.BUY)).isZero();
+        assertThat(book.depth(OrderType.SELL)).isEqualTo(1);
+        assertThat(book.getAsks().firstEntry().getValue().getRemainQuantity()).isEqualTo(4L);
+    }
+
+    @Test
+    @DisplayName("가격이 교차하지 않으면 체결 후보를 만들지 않는다")
+    void noCrossing() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.BUY, order(1L, 90_000L, 1L, 0));
+        book.add(OrderType.SELL, order(2L, 91_000L, 1L, 1));
+
+        assertThat(book.matchCrossing(100)).isEmpty();
+        assertThat(book.depth(OrderType.BUY)).isEqualTo(1);
+        assertThat(book.depth(OrderType.SELL)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("체결 실패한 pair 를 복구하면 체결 수량만큼 다시 호가창에 돌아온다")
+    void restoreFailedPair() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.BUY, order(1L, 100_000L, 10L, 0));
+        book.add(OrderType.SELL, order(2L, 100_000L, 4L, 1));
+        book.add(OrderType.SELL, order(3L, 100_000L, 6L, 2));
+
+        List<MatchingPair> pairs = book.matchCrossing(100);
+        assertThat(pairs).hasSize(2);
+
+        // 첫 번째 pair(매수 1 - 매도 2, 4주)만 실패한 상황
+        book.restore(pairs.get(0));
+
+        assertThat(book.getBids().firstEntry().getValue().getRemainQuantity()).isEqualTo(4L);
+        assertThat(book.getAsks().firstEntry().getValue().getId()).isEqualTo(2L);
+        assertThat(book.matchCrossing(100)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("같은 가격, 같은 시각의 주문은 sequence(stockOrderId) 순서로 체결된다 - 들어온 순서와 무관")
+    void samePriceSameTimeOrderedBySequence() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.SELL, order(12L, 100_000L, 1L, 0));
+        book.add(OrderType.SELL, order(11L, 100_000L, 1L, 0));
+        book.add(OrderType.BUY, order(20L, 100_000L, 2L, 1));
+
+        assertThat(book.matchCrossing(100)).extracting(p -> p.getSellDTO().getId()).containsExactly(11L, 12L);
+    }
+
+    @Test
+    @DisplayName("주문 취소 시 stockOrderId 만으로 호가창에서 제거된다")
+    void cancel() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.BUY, order(1L, 100_000L, 10L, 0));
+        book.add(OrderType.SELL, order(2L, 101_000L, 10L, 1));
+
+        assertThat(book.cancel(1L)).isTrue();
+        assertThat(book.cancel(1L)).isFalse();
+        assertThat(book.depth(OrderType.BUY)).isZero();
+        assertThat(book.find(2L)).isPresent();
+    }
+
+    @Test
+    @DisplayName("전량 체결된 주문은 ID 인덱스에서도 빠지고, 부분 체결 주문은 갱신된 잔량으로 조회된다")
+    void indexFollowsFills() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.BUY, order(1L, 100_000L, 10L, 0));
+        book.add(OrderType.SELL, order(2L, 100_000L, 4L, 1));
+
+        book.matchCrossing(100);
+
+        assertThat(book.find(2L)).isEmpty();
+        assertThat(book.find(1L)).get().extracting(RestingOrder::getRemainQuantity).isEqualTo(6L);
+    }
+
+    @Test
+    @DisplayName("체결 워커가 차감 중인 주문은 취소 / 정정되지 않고, 차감이 끝나면 다시 취소된다")
+    void cancelFailsWhileMatching() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.BUY, order(1L, 100_000L, 10L, 0));
+        RestingOrder resting = book.find(1L).orElseThrow();
+
+        resting.beginMatch();
+        assertThat(book.cancel(1L)).isFalse();
+        assertThat(book.updateQuantity(1L, 5L)).isEmpty();
+        resting.endMatch();
+
+        assertThat(book.cancel(1L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("체결 워커가 아닌 조회는 잔여 수량 0 인 주문을 건너뛰기만 하고 닫지 않아서, 되돌린 수량이 그대로 살아 있다")
+    void peekDoesNotCloseFilledOrder() {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        book.add(OrderType.BUY, order(1L, 100_000L, 10L, 0));
+        book.add(OrderType.BUY, order(2L, 99_000L, 10L, 1));
+        RestingOrder resting = book.find(1L).orElseThrow();
+        resting.tryFill(10L, 10L); // 체결 워커가 매수를 차감한 직후
+
+        assertThat(book.peek(OrderType.BUY)).get().extracting(RestingOrder::getId).isEqualTo(2L);
+        assertThat(book.isEmpty()).isFalse();
+        assertThat(resting.isClosed()).isFalse();
+
+        assertThat(resting.refill(10L)).isTrue(); // 매도 차감 실패로 되돌림
+        assertThat(book.peek(OrderType.BUY)).get().extracting(RestingOrder::getId).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("체결과 취소가 동시에 일어나도 같은 수량이 체결과 취소에 중복으로 잡히지 않는다")
+    void concurrentCancelAndMatch() throws Exception {
+        OrderBook book = new OrderBook(STOCK_CODE);
+        int orderCount = 2_000;
+        for (int i = 1; i <= orderCount; i++) {
+            book.add(OrderType.SELL, order(i, 100_000L, 3L, i));
+            book.add(OrderType.BUY, order(orderCount + i, 100_000L, 3L, i));
+        }
+
+        AtomicLong cancelled = new AtomicLong();
+        Thread canceller = new Thread(() -> {
+            for (long id = 1; id <= orderCount * 2L; id += 2) {
+                book.close(id).ifPresent(dto -> cancelled.addAndGet(dto.getRemainQuantity()));
+            }
+        });
+        canceller.start();
+
+        long filled = 0;
+        List<MatchingPair> pairs;
+        while (!(pairs = book.matchCrossing(10)).isEmpty() || canceller.isAlive()) {
+            filled += pairs.stream().mapToLong(p -> p.getExecutableQuantity().getQuantityValue() * 2).sum();
+        }
+        canceller.join();
+
+        long resting = book.getBids().values().stream().mapToLong(RestingOrder::getRemainQuantity).sum()
+                + book.getAsks().values().stream().mapToLong(RestingOrder::getRemainQuantity).sum();
+        assertThat(filled + cancelled.get() + resting).isEqualTo(orderCount * 2L * 3L);
+    }
+}
@@ -0,0 +1,41 @@
+package com.portfolio2025.first.domain.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PriorityKeyTest {
+
+    @Test
+    @DisplayName("member 문자열의 사전순 정렬은 주문 시각 -> sequence 순서와 같다")
+    void memberOrderMatchesKeyOrder() {
+        List<PriorityKey> keys = List.of(
+                new PriorityKey(1_754_000_000_000L, 0x10L),
+                new PriorityKey(1_754_000_000_000L, 0x9L),
+                new PriorityKey(1_754_000_000_001L, 0x1L),
+                new PriorityKey(1_753_999_999_999L, 0xFFFFL));
+
+        List<PriorityKey> byKey = keys.stream().sorted().toList();
+        List<PriorityKey> byMember = keys.stream()
+                .sorted(Comparator.comparing(PriorityKey::toMember))
+                .toList();
+
+        assertThat(byMember).containsExactlyElementsOf(byKey);
+        assertThat(byKey.getFirst().sequence()).isEqualTo(0xFFFFL);
+    }
+
+    @Test
+    @DisplayName("member 로 변환했다가 다시 복원해도 같은 키다")
+    void roundTrip() {
+        PriorityKey key = PriorityKey.of(new StockOrderRedisDTO(
+                123_456_789L, "005930", 95_000L, 3L, LocalDateTime.of(2025, 8, 7, 9, 0, 0, 5_000_000)));
+
+        assertThat(key.toMember()).hasSize(PriorityKey.MEMBER_LENGTH);
+        assertThat(PriorityKey.fromMember(key.toMember())).isEqualTo(key);
+    }
+}
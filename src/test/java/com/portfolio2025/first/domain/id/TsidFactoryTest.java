@@ -0,0 +1,59 @@
+package com.portfolio2025.first.domain.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class TsidFactoryTest {
+
+    private static final long NOW = TsidFactory.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    @DisplayName("ID 에 생성 시각과 노드 번호가 담기고, 같은 millis 안에서는 순번으로 증가한다")
+    void layout() {
+        TsidFactory factory = new TsidFactory(37, () -> NOW);
+
+        long first = factory.next();
+        long second = factory.next();
+
+        assertThat(first).isPositive();
+        assertThat(second).isEqualTo(first + 1);
+        assertThat(TsidFactory.timestampOf(first)).isEqualTo(NOW);
+        assertThat(TsidFactory.nodeOf(first)).isEqualTo(37);
+    }
+
+    @Test
+    @DisplayName("한 millis 에 4096개를 넘기거나 시계가 뒤로 가도 ID 는 계속 증가한다")
+    void monotonicUnderOverflowAndClockSkew() {
+        AtomicLong clock = new AtomicLong(NOW);
+        TsidFactory factory = new TsidFactory(1, clock::get);
+
+        Set<Long> ids = new HashSet<>();
+        long last = -1;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.set(NOW - 10_000); // 시계 역행
+            }
+            long id = factory.next();
+            assertThat(id).isGreaterThan(last);
+            ids.add(id);
+            last = id;
+        }
+
+        assertThat(ids).hasSize(10_000);
+        assertThat(TsidFactory.timestampOf(last)).isEqualTo(NOW + 2); // 4096개씩 다음 millis 를 미리 사용
+    }
+
+    @Test
+    @DisplayName("노드 번호는 0 ~ 1023 만 허용한다")
+    void nodeRange() {
+        assertThatThrownBy(() -> new TsidFactory(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TsidFactory(TsidFactory.MAX_NODE + 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(TsidFactory.nodeOf(new TsidFactory(TsidFactory.MAX_NODE).next())).isEqualTo(TsidFactory.MAX_NODE);
+    }
+}
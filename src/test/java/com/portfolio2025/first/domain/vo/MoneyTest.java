@@ -0,0 +1,32 @@
+package com.portfolio2025.first.domain.vo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class MoneyTest {
+
+    @Test
+    @DisplayName("가격 * 수량이 long 범위를 넘으면 음수로 넘어가지 않고 예외가 발생한다")
+    void multiplyOverflow() {
+        Money price = new Money(Long.MAX_VALUE / 2);
+
+        assertThatThrownBy(() -> price.multiply(new Quantity(3L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> price.plus(price).plus(price))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new Money(95_000L).multiply(new Quantity(3L))).isEqualTo(new Money(285_000L));
+    }
+
+    @Test
+    @DisplayName("null / 음수 금액과 잔액보다 큰 차감은 기존과 같이 거절한다")
+    void validation() {
+        assertThatThrownBy(() -> new Money((Long) null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Money(-1L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Money(100L).minus(new Money(101L))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Quantity(1L).minus(new Quantity(2L))).isInstanceOf(IllegalArgumentException.class);
+        assertThat(new Quantity(Long.MAX_VALUE).isLowerThan(new Quantity(0L))).isFalse();
+    }
+}
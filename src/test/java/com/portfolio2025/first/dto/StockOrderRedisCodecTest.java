@@ -0,0 +1,31 @@
+package com.portfolio2025.first.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class StockOrderRedisCodecTest {
+
+    @Test
+    @DisplayName("가격 / 잔여 수량 / 주문 시각을 48자리 고정 길이로 인코딩하고 그대로 복원한다")
+    void roundTrip() {
+        StockOrderRedisDTO dto = new StockOrderRedisDTO(
+                42L, "005930", 95_000L, 3L, LocalDateTime.of(2025, 8, 6, 9, 0, 0, 123_000_000));
+
+        String encoded = StockOrderRedisCodec.encode(dto);
+        StockOrderRedisDTO decoded = StockOrderRedisCodec.decode(42L, "005930", encoded);
+
+        assertThat(encoded).hasSize(48);
+        assertThat(decoded).isEqualTo(dto);
+    }
+
+    @Test
+    @DisplayName("길이가 맞지 않는 값은 복원하지 않는다")
+    void rejectMalformed() {
+        assertThatThrownBy(() -> StockOrderRedisCodec.decode(1L, "005930", "{\"id\":1}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
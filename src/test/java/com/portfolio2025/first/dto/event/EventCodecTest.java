@@ -0,0 +1,79 @@
+package com.portfolio2025.first.dto.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.dto.event.OrderCreatedEvent.StockOrderEntry;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class EventCodecTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2025, 8, 18, 9, 0, 0, 123_000_000);
+
+    @Test
+    @DisplayName("OrderCreatedEvent 를 바이너리로 인코딩하고 stockOrders 까지 그대로 복원한다")
+    void orderCreatedRoundTrip() {
+        OrderCreatedEvent event = new OrderCreatedEvent(1_000L, 7L, 8L, "005930", 3L, 95_000L, "SELL",
+                List.of(new StockOrderEntry(42L, 95_000L, 3L, CREATED_AT)));
+
+        byte[] encoded = EventCodec.encode(event);
+        OrderCreatedEvent decoded = (OrderCreatedEvent) EventCodec.decode(ByteBuffer.wrap(encoded));
+
+        assertThat(EventCodec.isBinary(encoded)).isTrue();
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("TradeSavedEvent 는 매수 / 매도 주문을 JSON 보다 작은 크기로 담는다")
+    void tradeSavedRoundTrip() {
+        TradeSavedEvent event = new TradeSavedEvent(9L,
+                new StockOrderRedisDTO(42L, "005930", 95_000L, 0L, CREATED_AT),
+                new StockOrderRedisDTO(43L, "005930", 95_000L, 2L, CREATED_AT));
+
+        byte[] encoded = EventCodec.encode(event);
+        TradeSavedEvent decoded = (TradeSavedEvent) EventCodec.decode(ByteBuffer.wrap(encoded));
+
+        assertThat(encoded).hasSizeLessThan(100);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    @DisplayName("읽는 쪽 버퍼의 position 을 움직이지 않고, 모르는 버전은 거부한다")
+    void rejectUnknownVersion() {
+        byte[] encoded = EventCodec.encode(new OrderCreatedEvent(1L, 1L, 1L, "005930", 1L, 1L, "BUY", null));
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+
+        EventCodec.decode(buffer);
+        assertThat(buffer.position()).isZero();
+
+        encoded[1] = 2;
+        assertThatThrownBy(() -> EventCodec.decode(ByteBuffer.wrap(encoded)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("길이 필드에 담을 수 없는 stockOrders 수 / 문자열은 잘라서 쓰지 않고 거부한다")
+    void rejectOversizedFields() {
+        List<StockOrderEntry> entries = Collections.nCopies(0x10000, new StockOrderEntry(42L, 95_000L, 1L, CREATED_AT));
+        OrderCreatedEvent tooManyEntries = new OrderCreatedEvent(1L, 1L, 1L, "005930", 1L, 1L, "BUY", entries);
+        OrderCreatedEvent tooLongCode = new OrderCreatedEvent(1L, 1L, 1L, "0".repeat(256), 1L, 1L, "BUY", null);
+
+        assertThatThrownBy(() -> EventCodec.encode(tooManyEntries))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("65535");
+        assertThatThrownBy(() -> EventCodec.encode(tooLongCode))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("255");
+
+        OrderCreatedEvent largest = new OrderCreatedEvent(1L, 1L, 1L, "005930", 1L, 1L, "BUY",
+                Collections.nCopies(0xFFFF, new StockOrderEntry(42L, 95_000L, 1L, CREATED_AT)));
+        assertThat(((OrderCreatedEvent) EventCodec.decode(ByteBuffer.wrap(EventCodec.encode(largest))))
+                .getStockOrders()).hasSize(0xFFFF);
+    }
+}
@@ -0,0 +1,141 @@
+package com.portfolio2025.first.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.portfolio2025.first.config.RedisConfig;
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisCodec;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.service.RedisStockOrderService;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * pop-match-pairs.lua 의 가격 / 시간 우선순위를 실제 Redis 로 확인 (localhost:6379 - 다른 통합 테스트와 같은 Redis)
+ * Redis 에 연결할 수 없으면 건너뜀
+ */
+class RedisOrderBookIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 8, 25, 9, 0, 0);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, String> redisTemplate;
+    private RedisStockOrderService redisStockOrderService;
+    private String stockCode;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+        connectionFactory.afterPropertiesSet();
+        Assumptions.assumeTrue(isRedisAvailable(), "Redis(localhost:6379) 에 연결할 수 없어 건너뜀");
+
+        // 운영과 같은 직렬화 설정을 검증하도록 RedisConfig 의 빈 정의를 그대로 사용
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+
+        redisStockOrderService = new RedisStockOrderService(redisTemplate);
+        stockCode = "IT" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (redisTemplate != null) {
+            redisTemplate.delete(List.of("BUY_QUEUE_" + stockCode, "SELL_QUEUE_" + stockCode, "ORDERS_" + stockCode));
+        }
+        connectionFactory.destroy();
+    }
+
+    private boolean isRedisAvailable() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return "PONG".equals(connection.ping());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private StockOrderRedisDTO order(long id, long price, long quantity, LocalDateTime createdAt) {
+        return new StockOrderRedisDTO(id, stockCode, price, quantity, createdAt);
+    }
+
+    @Test
+    @DisplayName("호가창 HASH 는 Lua 스크립트가 HGET 하는 그대로(16자리 hex field, 고정 길이 hex value) 저장된다")
+    void ordersHashIsStoredAsPlainStrings() {
+        StockOrderRedisDTO sell = order(42L, 1_000L, 10L, T0);
+        redisStockOrderService.push(OrderType.SELL, sell);
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            byte[] raw = connection.hashCommands().hGet(
+                    ("ORDERS_" + stockCode).getBytes(StandardCharsets.UTF_8),
+                    StockOrderRedisCodec.fixedHex(42L).getBytes(StandardCharsets.UTF_8));
+            assertThat(raw).isNotNull();
+            assertThat(new String(raw, StandardCharsets.UTF_8)).isEqualTo(StockOrderRedisCodec.encode(sell));
+        }
+        assertThat(redisStockOrderService.popBest(stockCode, OrderType.SELL))
+                .hasValueSatisfying(best -> assertThat(best.getId()).isEqualTo(42L));
+    }
+
+    @Test
+    @DisplayName("같은 가격의 매도는 stockOrderId 와 무관하게 주문 시각 순서로, 시각이 같으면 stockOrderId 순서로 체결된다")
+    void sameSellPriceMatchesInTimeOrder() {
+        // 적재 순서와 stockOrderId 순서를 시간 순서와 일부러 다르게 둠
+        redisStockOrderService.push(OrderType.SELL, order(1L, 1_000L, 10L, T0.plusSeconds(3)));
+        redisStockOrderService.push(OrderType.SELL, order(30L, 1_000L, 10L, T0.plusSeconds(1)));
+        redisStockOrderService.push(OrderType.SELL, order(20L, 1_000L, 10L, T0.plusSeconds(2)));
+        redisStockOrderService.push(OrderType.SELL, order(10L, 1_000L, 10L, T0.plusSeconds(1)));
+        redisStockOrderService.push(OrderType.SELL, order(5L, 990L, 10L, T0.plusSeconds(4))); // 더 싼 매도가 가장 먼저
+        redisStockOrderService.push(OrderType.BUY, order(100L, 1_000L, 100L, T0.plusSeconds(5)));
+
+        List<MatchingPair> pairs = redisStockOrderService.popMatchPairs(stockCode, 10);
+
+        assertThat(pairs).extracting(pair -> pair.getSellDTO().getId())
+                .containsExactly(5L, 10L, 30L, 20L, 1L);
+        assertThat(pairs).extracting(pair -> pair.getBuyDTO().getId()).containsOnly(100L);
+        assertThat(redisStockOrderService.depth(stockCode, OrderType.SELL)).isZero();
+
+        // 매수는 50 만 체결 - 잔여 수량만 줄어든 채 호가창에 남음
+        assertThat(redisStockOrderService.peekBest(stockCode, OrderType.BUY))
+                .hasValueSatisfying(buy -> {
+                    assertThat(buy.getId()).isEqualTo(100L);
+                    assertThat(buy.getRemainQuantity()).isEqualTo(50L);
+                });
+    }
+
+    @Test
+    @DisplayName("같은 가격의 매수도 먼저 들어온 주문부터 체결되고, 부분 체결된 주문은 맨 앞 자리를 유지한다")
+    void sameBuyPriceMatchesInTimeOrderAndKeepsPartialFillAtHead() {
+        redisStockOrderService.push(OrderType.BUY, order(7L, 1_000L, 10L, T0.plusSeconds(2)));
+        redisStockOrderService.push(OrderType.BUY, order(9L, 1_000L, 10L, T0.plusSeconds(1)));
+        redisStockOrderService.push(OrderType.BUY, order(3L, 1_000L, 10L, T0.plusSeconds(1)));
+        redisStockOrderService.push(OrderType.BUY, order(8L, 990L, 10L, T0)); // 더 싼 매수는 가장 먼저 들어와도 뒤
+        redisStockOrderService.push(OrderType.SELL, order(50L, 1_000L, 15L, T0.plusSeconds(3)));
+
+        List<MatchingPair> pairs = redisStockOrderService.popMatchPairs(stockCode, 10);
+
+        assertThat(pairs).extracting(pair -> pair.getBuyDTO().getId()).containsExactly(3L, 9L);
+        assertThat(pairs).extracting(MatchingPair::getExecutableQuantityValue).containsExactly(10L, 5L);
+        assertThat(redisStockOrderService.depth(stockCode, OrderType.SELL)).isZero();
+
+        assertThat(redisStockOrderService.peekBest(stockCode, OrderType.BUY))
+                .hasValueSatisfying(buy -> {
+                    assertThat(buy.getId()).isEqualTo(9L);
+                    assertThat(buy.getRemainQuantity()).isEqualTo(5L);
+                });
+
+        // 다음 매도는 부분 체결된 9 의 잔여분부터 채운 뒤 7 로 넘어감
+        redisStockOrderService.push(OrderType.SELL, order(51L, 1_000L, 10L, T0.plusSeconds(4)));
+        assertThat(redisStockOrderService.popMatchPairs(stockCode, 10))
+                .extracting(pair -> pair.getBuyDTO().getId())
+                .containsExactly(9L, 7L);
+    }
+}
@@ -0,0 +1,29 @@
+package com.portfolio2025.first.loadgen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LatencyRecorderTest {
+
+    @Test
+    @DisplayName("워커별 기록을 합친 뒤 nearest-rank 백분위를 계산한다")
+    void mergedPercentiles() {
+        LatencyRecorder first = new LatencyRecorder(1);
+        LatencyRecorder second = new LatencyRecorder(1);
+        for (int micros = 1; micros <= 1_000; micros++) {
+            (micros % 2 == 0 ? first : second).record(micros * 1_000L);
+        }
+
+        LatencyRecorder merged = new LatencyRecorder(0);
+        merged.merge(first);
+        merged.merge(second);
+
+        assertThat(merged.count()).isEqualTo(1_000);
+        assertThat(merged.percentileMicros(50)).isEqualTo(500);
+        assertThat(merged.percentileMicros(99)).isEqualTo(990);
+        assertThat(merged.percentileMicros(99.9)).isEqualTo(999);
+        assertThat(merged.maxMicros()).isEqualTo(1_000);
+    }
+}
@@ -0,0 +1,60 @@
+package com.portfolio2025.first.loadgen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.portfolio2025.first.RedisRegister;
+import com.portfolio2025.first.dto.LoadTestReportDTO;
+import com.portfolio2025.first.dto.LoadTestRequestDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+/**
+ * 프로세스 안에서만 도는 부하 테스트 - 내장 Kafka / H2 / 메모리 호가창, Redis 는 mock 으로 대체
+ * ./gradlew loadTest 로 실행 (기본 test 태스크에서는 제외), 조건은 -Dloadgen.request.* 로 변경
+ */
+@Tag("load")
+@SpringBootTest
+@ActiveProfiles("loadtest")
+@DirtiesContext
+@EmbeddedKafka(partitions = 1,
+        topics = {"order.created", "match.request", "trade.synced", "invalid.order.created"},
+        brokerProperties = {
+                "listeners=PLAINTEXT://localhost:9092",
+                "port=9092"
+        })
+class LocalLoadTest {
+
+    @Autowired private LoadTestSeeder loadTestSeeder;
+    @Autowired private LoadGenerator loadGenerator;
+    @Autowired private Environment environment;
+
+    @MockitoBean private RedisRegister redisRegister; // 중복 처리 확인 - 항상 미처리로 응답
+    @MockitoBean private RedissonClient redissonClient; // 주문 수정 락에서만 사용
+
+    @Test
+    @DisplayName("시드 생성 후 Zipf 분포 주문을 넣고 처리량 / 지연 시간 백분위를 보고한다")
+    void runLoad() {
+        LoadTestRequestDTO request = Binder.get(environment)
+                .bind("loadgen.request", LoadTestRequestDTO.class)
+                .orElseGet(LoadTestRequestDTO::new);
+
+        LoadTestFixture fixture = loadTestSeeder.seed(request);
+        LoadTestReportDTO report = loadGenerator.run(request, fixture);
+
+        assertThat(fixture.userIds()).hasSize(request.getUsers());
+        assertThat(report.getAcceptedOrders() + report.getRejectedOrders()).isEqualTo(request.getOrders());
+        assertThat(report.getAcceptedOrders()).isPositive();
+        assertThat(report.getP50Micros()).isLessThanOrEqualTo(report.getP99Micros());
+        assertThat(report.getP99Micros()).isLessThanOrEqualTo(report.getMaxMicros());
+    }
+}
@@ -0,0 +1,37 @@
+package com.portfolio2025.first.loadgen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ZipfSamplerTest {
+
+    @Test
+    @DisplayName("skew 가 클수록 앞 순위 종목이 더 자주 뽑힌다")
+    void headIsHotter() {
+        ZipfSampler sampler = new ZipfSampler(10, 1.0);
+        int[] counts = new int[sampler.size()];
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.next()]++;
+        }
+
+        // 1위 : 2위 ≈ 2 : 1, 1위 ≈ 1 / H(10) ≈ 34%
+        assertThat(counts[0]).isGreaterThan(counts[1]);
+        assertThat(counts[1]).isGreaterThan(counts[9]);
+        assertThat(counts[0] / 100_000.0).isBetween(0.32, 0.36);
+    }
+
+    @Test
+    @DisplayName("skew 0 은 균등 분포이고 경계값도 범위를 벗어나지 않는다")
+    void uniformAndBounds() {
+        ZipfSampler sampler = new ZipfSampler(4, 0.0);
+
+        assertThat(sampler.sample(0.0)).isZero();
+        assertThat(sampler.sample(0.25)).isEqualTo(1);
+        assertThat(sampler.sample(0.74)).isEqualTo(2);
+        assertThat(sampler.sample(0.9999999)).isEqualTo(3);
+        assertThatThrownBy(() -> new ZipfSampler(0, 1.0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
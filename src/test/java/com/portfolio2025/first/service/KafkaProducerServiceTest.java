@@ -0,0 +1,140 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.dto.event.OrderCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class KafkaProducerServiceTest {
+
+    private KafkaTemplate<String, Object> kafkaTemplate;
+    private KafkaDlqService kafkaDlqService;
+    private SimpleMeterRegistry meterRegistry;
+    private KafkaProducerService kafkaProducerService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        kafkaDlqService = mock(KafkaDlqService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        kafkaProducerService = new KafkaProducerService(kafkaTemplate, kafkaDlqService, meterRegistry);
+        ReflectionTestUtils.setField(kafkaProducerService, "maxInFlightSends", 1);
+        ReflectionTestUtils.setField(kafkaProducerService, "backpressureTimeoutMs", 10L);
+        ReflectionTestUtils.setField(kafkaProducerService, "failureQueueCapacity", 1);
+        kafkaProducerService.init();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        kafkaProducerService.shutdown();
+    }
+
+    @Test
+    @DisplayName("브로커 응답을 기다리지 않고 반환하며, 실패는 호출한 쪽이 아니라 DLQ 로 넘어간다")
+    void failureGoesToDlq() {
+        CompletableFuture<SendResult<String, Object>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send("match.request", "005930", "005930")).thenReturn(future);
+
+        kafkaProducerService.publishMatchRequest("005930");
+        verify(kafkaDlqService, never()).sendPublishError(anyString(), anyString(), any(), any());
+
+        future.completeExceptionally(new IllegalStateException("broker down"));
+
+        verify(kafkaDlqService, timeout(5000)).sendPublishError(eq("match.request"), eq("005930"), eq("005930"), any());
+        assertThat(meterRegistry.counter("kafka.publish.failed").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("kafka.publish.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("ack 대기 중인 레코드가 상한에 닿으면 자리가 날 때까지 기다리다가 넘으면 DLQ 로 넘긴다")
+    void backpressureWhenInFlightIsFull() {
+        CompletableFuture<SendResult<String, Object>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(eq("match.request"), anyString(), anyString())).thenReturn(pending);
+
+        kafkaProducerService.publishMatchRequest("005930");
+        kafkaProducerService.publishMatchRequest("000660");
+
+        verify(kafkaTemplate, times(1)).send(eq("match.request"), anyString(), anyString());
+        verify(kafkaDlqService, timeout(5000)).sendPublishError(eq("match.request"), eq("000660"), eq("000660"), any());
+        assertThat(meterRegistry.get("kafka.publish.inflight").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("실패 처리(DLQ 전송)는 ack 콜백을 실행한 스레드(producer I/O)가 아니라 별도 스레드에서 실행한다")
+    void failureHandledOffProducerThread() throws Exception {
+        CompletableFuture<SendResult<String, Object>> future = new CompletableFuture<>();
+        when(kafkaTemplate.send("match.request", "005930", "005930")).thenReturn(future);
+        CompletableFuture<Thread> dlqThread = new CompletableFuture<>();
+        doAnswer(invocation -> dlqThread.complete(Thread.currentThread()))
+                .when(kafkaDlqService).sendPublishError(anyString(), anyString(), any(), any());
+
+        kafkaProducerService.publishMatchRequest("005930");
+        Thread producerThread = new Thread(() -> future.completeExceptionally(new IllegalStateException("broker down")),
+                "kafka-producer-network-thread");
+        producerThread.start();
+        producerThread.join();
+
+        assertThat(dlqThread.get(5, TimeUnit.SECONDS).getName()).isEqualTo("kafka-publish-failure");
+    }
+
+    @Test
+    @DisplayName("order.created 는 orderId 가 아니라 stockCode 를 key 로 발행해서 같은 종목은 같은 파티션으로 간다")
+    void orderCreatedIsKeyedByStockCode() {
+        OrderCreatedEvent event = new OrderCreatedEvent(1_000L, 7L, 7L, "005930", 3L, 95_000L, "BUY", null);
+        when(kafkaTemplate.send("order.created", "005930", event)).thenReturn(new CompletableFuture<>());
+
+        kafkaProducerService.publishOrderCreated(event);
+
+        verify(kafkaTemplate).send("order.created", "005930", event);
+    }
+
+    @Test
+    @DisplayName("실패 처리 대기 큐가 가득 차면 예외 없이 버리고 rejected 지표를 올린다")
+    void failureQueueIsBounded() throws InterruptedException {
+        CountDownLatch dlqStarted = new CountDownLatch(1);
+        CountDownLatch releaseDlq = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            dlqStarted.countDown();
+            releaseDlq.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(kafkaDlqService).sendPublishError(anyString(), anyString(), any(), any());
+
+        for (String stockCode : new String[]{"005930", "000660", "035420"}) {
+            CompletableFuture<SendResult<String, Object>> future = new CompletableFuture<>();
+            when(kafkaTemplate.send("match.request", stockCode, stockCode)).thenReturn(future);
+            kafkaProducerService.publishMatchRequest(stockCode);
+            // 실패 완료는 producer 스레드 역할 - 큐가 넘쳐도 예외가 올라오지 않음
+            future.completeExceptionally(new IllegalStateException("broker down"));
+            if (stockCode.equals("005930")) {
+                assertThat(dlqStarted.await(5, TimeUnit.SECONDS)).isTrue(); // 첫 실패가 워커를 점유
+            }
+        }
+
+        // 실행 중 1 + 대기 1 -> 세 번째는 버려짐
+        assertThat(meterRegistry.counter("kafka.publish.failure.rejected").count()).isEqualTo(1.0);
+        releaseDlq.countDown();
+        verify(kafkaDlqService, timeout(5000).times(2)).sendPublishError(anyString(), anyString(), any(), any());
+        verify(kafkaDlqService, never()).sendPublishError(eq("match.request"), eq("035420"), any(), any());
+    }
+}
@@ -0,0 +1,114 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import com.portfolio2025.first.domain.ledger.LedgerEntryType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class LedgerJournalFileTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 25, 9, 0);
+    private static final long SEGMENT_RECORDS = 1024 * 1024 / LedgerJournalFile.RECORD_SIZE;
+
+    @TempDir
+    Path tempDir;
+
+    private LedgerJournalFile openJournal(long forceBytes) {
+        LedgerJournalFile journal = new LedgerJournalFile();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "path", tempDir.resolve("ledger.journal").toString());
+        ReflectionTestUtils.setField(journal, "windowSizeMb", 1);
+        ReflectionTestUtils.setField(journal, "forceBytes", forceBytes);
+        journal.open();
+        return journal;
+    }
+
+    private static List<LedgerEntry> entries(int count, long amount) {
+        LedgerEntry entry = LedgerEntry.create(1L, BalanceKey.cash(1L, LedgerBucket.AVAILABLE), LedgerEntryType.DEBIT,
+                amount, null, NOW);
+        return Collections.nCopies(count, entry);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("세그먼트가 가득 차면 다음 세그먼트로 넘어가고, 반영이 끝난 세그먼트만 삭제해도 레코드 번호는 이어진다")
+    void rotatesAndTruncatesSegments() throws IOException {
+        LedgerJournalFile journal = openJournal(Long.MAX_VALUE);
+        journal.append(1L, entries((int) SEGMENT_RECORDS * 2, -1L));
+        journal.append(2L, entries(10, -2L));
+        assertThat(segmentFiles()).isEqualTo(3L);
+
+        assertThat(journal.truncateBefore(SEGMENT_RECORDS * 2 - 1)).isEqualTo(1);
+        assertThat(journal.truncateBefore(SEGMENT_RECORDS * 2)).isEqualTo(1);
+        assertThat(journal.truncateBefore(Long.MAX_VALUE)).isZero(); // 쓰는 중인 세그먼트는 남김
+        assertThat(segmentFiles()).isEqualTo(1L);
+        journal.close();
+
+        LedgerJournalFile reopened = openJournal(Long.MAX_VALUE);
+        assertThat(reopened.size()).isEqualTo(SEGMENT_RECORDS * 2 + 10);
+        List<LedgerJournalFile.Logged> tail = new ArrayList<>();
+        assertThat(reopened.read(SEGMENT_RECORDS * 2, tail::add)).isEqualTo(10L);
+        assertThat(tail).extracting(LedgerJournalFile.Logged::txId).containsOnly(2L);
+        assertThatThrownBy(() -> reopened.read(0, logged -> { }))
+                .isInstanceOf(IllegalStateException.class);
+
+        reopened.append(3L, entries(1, -3L));
+        assertThat(reopened.size()).isEqualTo(SEGMENT_RECORDS * 2 + 11);
+    }
+
+    @Test
+    @DisplayName("마지막 force 이후 force-bytes 이상 기록하면 주기를 기다리지 않고 force 한다")
+    void forcesAfterBoundedBytes() {
+        LedgerJournalFile journal = openJournal(LedgerJournalFile.RECORD_SIZE * 3L);
+
+        journal.append(1L, entries(2, -1L));
+        assertThat((long) ReflectionTestUtils.getField(journal, "unforced"))
+                .isEqualTo(LedgerJournalFile.RECORD_SIZE * 2L);
+
+        journal.append(2L, entries(1, -1L));
+        assertThat((long) ReflectionTestUtils.getField(journal, "unforced")).isZero();
+
+        journal.append(3L, entries(1, -1L));
+        journal.force(); // force-interval-ms 주기
+        assertThat((long) ReflectionTestUtils.getField(journal, "unforced")).isZero();
+    }
+
+    @Test
+    @DisplayName("세그먼트 경계를 넘는 append 가 실패하면 새 세그먼트를 버리고 시작 위치로 되돌린다")
+    void rollsBackAcrossSegments() throws IOException {
+        LedgerJournalFile journal = openJournal(Long.MAX_VALUE);
+        journal.append(1L, entries((int) SEGMENT_RECORDS - 1, -1L));
+        List<LedgerEntry> failing = new ArrayList<>(entries(2, -2L));
+        failing.add(null);
+
+        assertThatThrownBy(() -> journal.append(2L, failing)).isInstanceOf(NullPointerException.class);
+
+        assertThat(journal.size()).isEqualTo(SEGMENT_RECORDS - 1);
+        assertThat(segmentFiles()).isEqualTo(1L);
+        journal.append(3L, entries(2, -3L));
+        assertThat(journal.size()).isEqualTo(SEGMENT_RECORDS + 1);
+        List<LedgerJournalFile.Logged> tail = new ArrayList<>();
+        journal.read(SEGMENT_RECORDS - 1, tail::add);
+        assertThat(tail).extracting(LedgerJournalFile.Logged::txId).containsExactly(3L, 3L);
+    }
+}
@@ -0,0 +1,249 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.PortfolioType;
+import com.portfolio2025.first.domain.id.TsidFactory;
+import com.portfolio2025.first.domain.id.TsidGenerator;
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import com.portfolio2025.first.domain.ledger.LedgerEntryType;
+import com.portfolio2025.first.domain.ledger.LedgerJournal;
+import com.portfolio2025.first.domain.vo.Money;
+import com.portfolio2025.first.repository.LedgerEntryRepository;
+import com.portfolio2025.first.repository.PortfolioRepository;
+import com.portfolio2025.first.repository.PortfolioStockRepository;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class LedgerServiceTest {
+
+    private static final BalanceKey BUYER_AVAILABLE = BalanceKey.cash(1L, LedgerBucket.AVAILABLE);
+    private static final BalanceKey BUYER_RESERVED = BalanceKey.cash(1L, LedgerBucket.RESERVED);
+    private static final BalanceKey SELLER_AVAILABLE = BalanceKey.cash(2L, LedgerBucket.AVAILABLE);
+
+    private LedgerWriteBehind ledgerWriteBehind;
+    private PortfolioRepository portfolioRepository;
+    private LedgerService ledgerService;
+    private Portfolio buyer;
+
+    @BeforeEach
+    void setUp() {
+        TsidGenerator.install(new TsidFactory(1));
+        ledgerWriteBehind = mock(LedgerWriteBehind.class);
+        portfolioRepository = mock(PortfolioRepository.class);
+        LedgerBalanceCache cache = new LedgerBalanceCache(portfolioRepository, mock(PortfolioStockRepository.class),
+                mock(LedgerEntryRepository.class), ledgerWriteBehind, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(cache, "shardCount", 4);
+        cache.warmUp();
+        ledgerService = new LedgerService(cache, ledgerWriteBehind);
+
+        buyer = portfolio(1L, 10_000L);
+        portfolio(2L, 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private Portfolio portfolio(Long id, long availableCash) {
+        Portfolio portfolio = Portfolio.builder().portfolioType(PortfolioType.STOCK).build();
+        portfolio.deposit(new Money(availableCash));
+        ReflectionTestUtils.setField(portfolio, "id", id);
+        when(portfolioRepository.findById(id)).thenReturn(Optional.of(portfolio));
+        return portfolio;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LedgerEntry> appendedEntries(int times) {
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerWriteBehind, times(times)).append(entries.capture());
+        return entries.getValue();
+    }
+
+    @Test
+    @DisplayName("예약하면 거래 가능 -> 예약으로 합계 0 인 원장 두 줄이 저널로 넘어가고, 잔액보다 큰 예약은 거절된다")
+    void reserveCash() {
+        ledgerService.reserveCash(buyer, new Money(3_000L));
+
+        assertThat(ledgerService.balance(BUYER_AVAILABLE)).isEqualTo(7_000L);
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(3_000L);
+        List<LedgerEntry> entries = appendedEntries(1);
+        assertThat(entries).extracting(LedgerEntry::getAmount).containsExactly(-3_000L, 3_000L);
+        assertThat(entries).extracting(LedgerEntry::getEntryType).containsOnly(LedgerEntryType.RESERVE);
+        assertThat(entries).extracting(LedgerEntry::getJournalId).containsOnly(entries.get(0).getJournalId());
+
+        assertThatThrownBy(() -> ledgerService.reserveCash(buyer, new Money(7_001L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("보유 현금이 부족");
+        assertThat(ledgerService.balance(BUYER_AVAILABLE)).isEqualTo(7_000L);
+        verify(ledgerWriteBehind, times(1)).append(anyList());
+    }
+
+    @Test
+    @DisplayName("정정은 이전 예약 해제와 새 예약을 한 분개로 남기고, 잔액은 해제분을 포함한 차액만 검증한다")
+    void rereserveCashNetsReleaseAndReserve() {
+        ledgerService.reserveCash(buyer, new Money(6_000L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        when(ledgerWriteBehind.begin()).thenReturn(7L);
+        // 거래 가능 4_000 - 해제분 6_000 을 합쳐야 9_000 재예약 가능
+        ledgerService.rereserveCash(buyer, new Money(6_000L), new Money(9_000L));
+        assertThat(ledgerService.balance(BUYER_AVAILABLE)).isEqualTo(1_000L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(ledgerService.balance(BUYER_AVAILABLE)).isEqualTo(1_000L);
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(9_000L);
+        assertThat(preparedEntries(7L)).extracting(LedgerEntry::getEntryType, LedgerEntry::getAmount)
+                .containsExactly(
+                        tuple(LedgerEntryType.RELEASE, -6_000L), tuple(LedgerEntryType.RELEASE, 6_000L),
+                        tuple(LedgerEntryType.RESERVE, -9_000L), tuple(LedgerEntryType.RESERVE, 9_000L));
+
+        assertThatThrownBy(() -> ledgerService.rereserveCash(buyer, new Money(9_000L), new Money(10_001L)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("보유 현금이 부족");
+
+        ledgerService.rereserveCash(buyer, new Money(9_000L), new Money(2_000L));
+        assertThat(ledgerService.balance(BUYER_AVAILABLE)).isEqualTo(8_000L);
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(2_000L);
+    }
+
+    @Test
+    @DisplayName("트랜잭션 안에서는 차감은 바로, 원장 기록은 커밋 직전, 증가는 커밋 후 반영되고 롤백되면 차감만 복구된다")
+    void creditsAfterCommitAndRestoresDebitsOnRollback() {
+        ledgerService.reserveCash(buyer, new Money(5_000L));
+        LedgerJournal trade = LedgerJournal.of(100L)
+                .debit(BUYER_RESERVED, LedgerEntryType.DEBIT, 4_000L)
+                .credit(SELLER_AVAILABLE, LedgerEntryType.CREDIT, 4_000L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        ledgerService.post(trade);
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(1_000L);
+        assertThat(ledgerService.balance(SELLER_AVAILABLE)).isEqualTo(4_000L); // 같은 트랜잭션에서는 보임
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(5_000L);
+        assertThat(ledgerService.balance(SELLER_AVAILABLE)).isZero();
+        verify(ledgerWriteBehind, times(1)).append(anyList()); // 예약만 기록
+
+        when(ledgerWriteBehind.begin()).thenReturn(42L);
+        TransactionSynchronizationManager.initSynchronization();
+        ledgerService.post(trade);
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.beforeCommit(false));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(1_000L);
+        assertThat(ledgerService.balance(SELLER_AVAILABLE)).isEqualTo(4_000L);
+        verify(ledgerWriteBehind, times(1)).append(anyList());
+        assertThat(preparedEntries(42L)).extracting(LedgerEntry::getRefId).containsOnly(100L);
+    }
+
+    @Test
+    @DisplayName("커밋 전 저널 기록이 실패하면 예외가 커밋 전에 올라가고, 롤백으로 끝나면 차감이 복구된다")
+    void journalFailureBeforeCommitRollsBack() {
+        ledgerService.reserveCash(buyer, new Money(5_000L));
+        when(ledgerWriteBehind.prepare(anyLong(), anyList())).thenThrow(new IllegalStateException("journal full"));
+        LedgerJournal trade = LedgerJournal.of(100L)
+                .debit(BUYER_RESERVED, LedgerEntryType.DEBIT, 4_000L)
+                .credit(SELLER_AVAILABLE, LedgerEntryType.CREDIT, 4_000L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        ledgerService.post(trade);
+        assertThatThrownBy(() -> TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.beforeCommit(false)))
+                .isInstanceOf(IllegalStateException.class);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(5_000L);
+        assertThat(ledgerService.balance(SELLER_AVAILABLE)).isZero();
+        verify(ledgerWriteBehind, never()).complete(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("처음 쓰는 잔액은 원장 행을 넘기기 전에 적재해서, 그 사이 반영 + 압축된 스냅샷에 한 번 더 더하지 않는다")
+    void loadsFirstSeenKeyBeforeJournaling() {
+        Portfolio seller = portfolio(2L, 0L);
+        // 저널에 넘긴 직후 반영 + 압축이 끝나서 스냅샷 컬럼에 이미 더해진 상황
+        doAnswer(invocation -> {
+            seller.deposit(new Money(5_000L));
+            return null;
+        }).when(ledgerWriteBehind).append(anyList());
+
+        ledgerService.depositCash(seller, new Money(5_000L));
+
+        assertThat(ledgerService.balance(SELLER_AVAILABLE)).isEqualTo(5_000L);
+    }
+
+    @Test
+    @DisplayName("여러 포트폴리오에 걸친 분개는 한 곳이라도 잔액이 부족하면 아무것도 차감하지 않는다")
+    void debitsAreAllOrNothing() {
+        ledgerService.reserveCash(buyer, new Money(5_000L));
+        BalanceKey sellerReservedPosition = BalanceKey.position(2L, 7L, LedgerBucket.RESERVED);
+        LedgerJournal trade = LedgerJournal.of(100L)
+                .debit(BUYER_RESERVED, LedgerEntryType.DEBIT, 4_000L)
+                .credit(SELLER_AVAILABLE, LedgerEntryType.CREDIT, 4_000L)
+                .debit(sellerReservedPosition, LedgerEntryType.DEBIT, 1L)
+                .credit(BalanceKey.position(1L, 7L, LedgerBucket.AVAILABLE), LedgerEntryType.CREDIT, 1L);
+
+        assertThatThrownBy(() -> ledgerService.post(trade))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("예약된 수량보다 많이 차감할 수 없습니다");
+        assertThat(ledgerService.balance(BUYER_RESERVED)).isEqualTo(5_000L);
+        verify(ledgerWriteBehind, times(1)).append(anyList());
+    }
+
+    @Test
+    @DisplayName("자산별 합계가 0 이 아닌 분개는 캐시도 원장도 바꾸지 않는다")
+    void rejectsUnbalancedJournal() {
+        LedgerJournal unbalanced = LedgerJournal.of(null)
+                .debit(BUYER_AVAILABLE, LedgerEntryType.DEBIT, 1_000L)
+                .credit(BalanceKey.position(2L, 7L, LedgerBucket.AVAILABLE), LedgerEntryType.CREDIT, 1_000L);
+
+        assertThatThrownBy(() -> ledgerService.post(unbalanced)).isInstanceOf(IllegalStateException.class);
+        assertThat(ledgerService.balance(BUYER_AVAILABLE)).isEqualTo(10_000L);
+        verify(ledgerWriteBehind, never()).append(anyList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LedgerEntry> preparedEntries(long txId) {
+        ArgumentCaptor<List<LedgerEntry>> entries = ArgumentCaptor.forClass(List.class);
+        verify(ledgerWriteBehind).prepare(eq(txId), entries.capture());
+        return entries.getValue();
+    }
+
+    private void complete(int status) {
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+}
@@ -0,0 +1,254 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.domain.id.TsidGenerator;
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerCheckpoint;
+import com.portfolio2025.first.domain.ledger.LedgerEntry;
+import com.portfolio2025.first.domain.ledger.LedgerEntryType;
+import com.portfolio2025.first.repository.LedgerCheckpointRepository;
+import com.portfolio2025.first.repository.LedgerCommitRepository;
+import com.portfolio2025.first.repository.LedgerEntryRepository;
+import com.portfolio2025.first.repository.PortfolioRepository;
+import com.portfolio2025.first.repository.PortfolioStockRepository;
+import com.portfolio2025.first.repository.TsidNodeLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+
+class LedgerWriteBehindTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 25, 9, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private LedgerEntryRepository ledgerEntryRepository;
+    private LedgerCheckpointRepository ledgerCheckpointRepository;
+    private LedgerCommitRepository ledgerCommitRepository;
+
+    @BeforeEach
+    void setUp() {
+        ledgerEntryRepository = mock(LedgerEntryRepository.class);
+        ledgerCheckpointRepository = mock(LedgerCheckpointRepository.class);
+        ledgerCommitRepository = mock(LedgerCommitRepository.class);
+        when(ledgerCheckpointRepository.advance(eq(LedgerWriteBehind.CHECKPOINT), anyLong(), anyLong(), any()))
+                .thenReturn(1);
+    }
+
+    private LedgerJournalFile openJournal() {
+        LedgerJournalFile journal = new LedgerJournalFile();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "path", tempDir.resolve("ledger.journal").toString());
+        ReflectionTestUtils.setField(journal, "windowSizeMb", 1);
+        journal.open();
+        return journal;
+    }
+
+    private LedgerWriteBehind writeBehind(LedgerJournalFile journal) {
+        TsidNodeAllocator tsidNodeAllocator = mock(TsidNodeAllocator.class);
+        when(tsidNodeAllocator.getNode()).thenReturn(1);
+        LedgerWriteBehind writeBehind = new LedgerWriteBehind(journal, tsidNodeAllocator, ledgerEntryRepository,
+                ledgerCheckpointRepository, ledgerCommitRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(writeBehind, "batchSize", 2);
+        writeBehind.init();
+        return writeBehind;
+    }
+
+    private void checkpointAt(long flushedRecords) {
+        LedgerCheckpoint checkpoint = LedgerCheckpoint.create(LedgerWriteBehind.CHECKPOINT, NOW);
+        ReflectionTestUtils.setField(checkpoint, "flushedRecords", flushedRecords);
+        when(ledgerCheckpointRepository.findById(LedgerWriteBehind.CHECKPOINT)).thenReturn(Optional.of(checkpoint));
+    }
+
+    private static LedgerEntry entry(long journalId, long amount) {
+        return LedgerEntry.create(journalId, BalanceKey.cash(1L, LedgerBucket.AVAILABLE), LedgerEntryType.DEBIT,
+                amount, journalId == 3L ? null : 100L, NOW);
+    }
+
+    private List<Long> savedAmounts(int times) {
+        ArgumentCaptor<LedgerEntry> saved = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository, times(times)).save(saved.capture());
+        return saved.getAllValues().stream().map(LedgerEntry::getAmount).toList();
+    }
+
+    @Test
+    @DisplayName("기록된 순서대로 묶음 INSERT 와 반영 위치 갱신을 하고, 실패한 묶음은 다음 flush 에서 같은 순서로 다시 반영한다")
+    void flushesInJournalOrder() {
+        checkpointAt(0);
+        LedgerWriteBehind writeBehind = writeBehind(openJournal());
+        writeBehind.recover();
+        writeBehind.append(List.of(entry(1L, -1L), entry(1L, -2L)));
+        writeBehind.append(List.of(entry(2L, -3L)));
+
+        when(ledgerCheckpointRepository.advance(eq(LedgerWriteBehind.CHECKPOINT), eq(0L), eq(2L), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+        writeBehind.flush();
+        assertThat(writeBehind.pendingCount()).isEqualTo(3L);
+
+        writeBehind.flush();
+
+        assertThat(savedAmounts(5)).containsExactly(-1L, -2L, -1L, -2L, -3L);
+        verify(ledgerCheckpointRepository).advance(eq(LedgerWriteBehind.CHECKPOINT), eq(2L), eq(3L), any());
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("커밋 결과가 정해지기 전의 트랜잭션부터는 기다리고, 롤백된 행은 건너뛰고, 결과를 모르면 커밋 표시로 판단한다")
+    void flushesOnlyCommittedTransactions() {
+        checkpointAt(0);
+        LedgerWriteBehind writeBehind = writeBehind(openJournal());
+        writeBehind.recover();
+        LedgerWriteBehind.Prepared rolledBack = writeBehind.prepare(11L, List.of(entry(1L, -1L)));
+        LedgerWriteBehind.Prepared unknown = writeBehind.prepare(12L, List.of(entry(2L, -2L)));
+        LedgerWriteBehind.Prepared committed = writeBehind.prepare(13L, List.of(entry(3L, -3L)));
+        when(ledgerCommitRepository.findExistingTxIds(anyCollection()))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<Long>>getArgument(0)));
+
+        writeBehind.flush();
+        verify(ledgerEntryRepository, never()).save(any());
+
+        writeBehind.complete(rolledBack, TransactionSynchronization.STATUS_ROLLED_BACK);
+        writeBehind.complete(unknown, TransactionSynchronization.STATUS_UNKNOWN);
+        writeBehind.flush();
+        assertThat(savedAmounts(1)).containsExactly(-2L);
+        assertThat(writeBehind.pendingCount()).isEqualTo(1L);
+
+        writeBehind.complete(committed, TransactionSynchronization.STATUS_COMMITTED);
+        writeBehind.flush();
+
+        assertThat(savedAmounts(2)).containsExactly(-2L, -3L);
+        verify(ledgerCommitRepository).findExistingTxIds(Set.of(12L));
+        verify(ledgerCommitRepository).deleteByTxIds(Set.of(11L, 12L));
+        verify(ledgerCommitRepository).deleteByTxIds(Set.of(13L));
+        verify(ledgerCheckpointRepository).advance(eq(LedgerWriteBehind.CHECKPOINT), eq(0L), eq(2L), any());
+        verify(ledgerCheckpointRepository).advance(eq(LedgerWriteBehind.CHECKPOINT), eq(2L), eq(3L), any());
+    }
+
+    @Test
+    @DisplayName("재시작하면 저널 꼬리 중 커밋 표시가 남아 있는 트랜잭션의 행만 INSERT 한다")
+    void recoversOnlyCommittedTransactions() throws IOException {
+        LedgerJournalFile journal = openJournal();
+        journal.append(21L, List.of(entry(1L, -1L), entry(1L, -2L)));
+        journal.append(22L, List.of(entry(2L, -3L)));
+        journal.append(0L, List.of(entry(3L, -4L)));
+        journal.close();
+        checkpointAt(0);
+        when(ledgerCommitRepository.findExistingTxIds(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(txId -> txId == 22L).toList());
+
+        LedgerWriteBehind recovered = writeBehind(openJournal());
+        assertThat(recovered.recover()).isEqualTo(4L);
+
+        assertThat(savedAmounts(2)).containsExactly(-3L, -4L);
+        verify(ledgerCheckpointRepository).advance(eq(LedgerWriteBehind.CHECKPOINT), eq(0L), eq(2L), any());
+        verify(ledgerCheckpointRepository).advance(eq(LedgerWriteBehind.CHECKPOINT), eq(2L), eq(4L), any());
+        assertThat(recovered.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("재시작하면 DB 반영 위치 이후의 저널 레코드만 다시 INSERT 한다")
+    void recoversUnflushedTail() throws IOException {
+        LedgerJournalFile journal = openJournal();
+        journal.append(0L, List.of(entry(1L, -1L), entry(1L, -2L), entry(3L, -3L)));
+        journal.close();
+        checkpointAt(2);
+
+        LedgerWriteBehind recovered = writeBehind(openJournal());
+        assertThat(recovered.recover()).isEqualTo(1L);
+
+        ArgumentCaptor<LedgerEntry> saved = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerEntryRepository).save(saved.capture());
+        assertThat(saved.getValue().getAmount()).isEqualTo(-3L);
+        assertThat(saved.getValue().getJournalId()).isEqualTo(3L);
+        assertThat(saved.getValue().getRefId()).isNull();
+        assertThat(saved.getValue().getCreatedAt()).isEqualTo(NOW);
+        verify(ledgerCheckpointRepository).advance(eq(LedgerWriteBehind.CHECKPOINT), eq(2L), eq(3L), any());
+    }
+
+    @Test
+    @DisplayName("스프링 시작 시 잔액 캐시가 먼저 만들어져도 TSID 노드 번호 배정 후에 저널 꼬리를 복구한다")
+    void recoversTailOnStartupAfterTsidNodeIsAssigned() throws IOException {
+        LedgerJournalFile journal = openJournal();
+        journal.append(0L, List.of(entry(1L, -1L), entry(1L, -2L), entry(3L, -3L)));
+        journal.close();
+        checkpointAt(1);
+        TsidGenerator.install(null);
+        // Hibernate 가 persist 시점에 @TsidId 를 채우는 것과 같이 저장할 때 TSID 를 발급
+        when(ledgerEntryRepository.save(any())).thenAnswer(invocation -> {
+            LedgerEntry saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", TsidGenerator.factory().next());
+            return saved;
+        });
+
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                    "ledger.journal.path", tempDir.resolve("ledger.journal").toString(),
+                    "ledger.journal.window-size-mb", "1",
+                    "id.tsid.node-id", "7")));
+            // 잔액 캐시를 먼저 등록 - 생성자 의존으로만 초기화 순서가 정해져야 함
+            context.register(LedgerBalanceCache.class, LedgerWriteBehind.class, LedgerJournalFile.class,
+                    TsidNodeAllocator.class);
+            context.registerBean(LedgerEntryRepository.class, () -> ledgerEntryRepository);
+            context.registerBean(LedgerCheckpointRepository.class, () -> ledgerCheckpointRepository);
+            context.registerBean(LedgerCommitRepository.class, () -> ledgerCommitRepository);
+            context.registerBean(PortfolioRepository.class, () -> mock(PortfolioRepository.class));
+            context.registerBean(PortfolioStockRepository.class, () -> mock(PortfolioStockRepository.class));
+            context.registerBean(TsidNodeLeaseRepository.class, () -> mock(TsidNodeLeaseRepository.class));
+            context.registerBean(PlatformTransactionManager.class, () -> mock(PlatformTransactionManager.class));
+            context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+            context.refresh();
+        }
+
+        assertThat(savedAmounts(2)).containsExactly(-2L, -3L);
+        verify(ledgerCheckpointRepository).advance(eq(LedgerWriteBehind.CHECKPOINT), eq(1L), eq(3L), any());
+    }
+
+    @Test
+    @DisplayName("반영 위치 행이 없는 DB 면 남아 있던 저널을 비우고 처음부터 기록한다")
+    void resetsJournalFromAnotherDatabase() throws IOException {
+        LedgerJournalFile journal = openJournal();
+        journal.append(0L, List.of(entry(1L, -1L)));
+        journal.close();
+
+        LedgerJournalFile reopened = openJournal();
+        LedgerWriteBehind writeBehind = writeBehind(reopened);
+        assertThat(writeBehind.recover()).isZero();
+
+        assertThat(reopened.size()).isZero();
+        verify(ledgerEntryRepository, never()).save(any());
+        verify(ledgerCheckpointRepository).save(any(LedgerCheckpoint.class));
+    }
+}
@@ -0,0 +1,212 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.exception.NonRetryableMatchException;
+import com.portfolio2025.first.exception.RetryableMatchException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MatchRetryStageTest {
+
+    private static final String STOCK_CODE = "005930";
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 20, 9, 0);
+
+    private KafkaDlqService kafkaDlqService;
+    private OrderBookStore orderBookStore;
+    private SimpleMeterRegistry meterRegistry;
+    private MatchRetryStage matchRetryStage;
+
+    @BeforeEach
+    void setUp() {
+        kafkaDlqService = mock(KafkaDlqService.class);
+        orderBookStore = mock(OrderBookStore.class);
+        meterRegistry = new SimpleMeterRegistry();
+        matchRetryStage = new MatchRetryStage(kafkaDlqService, orderBookStore, meterRegistry);
+        ReflectionTestUtils.setField(matchRetryStage, "maxAttempts", 3);
+        ReflectionTestUtils.setField(matchRetryStage, "initialBackoffMs", 10L);
+        ReflectionTestUtils.setField(matchRetryStage, "maxBackoffMs", 25L);
+        matchRetryStage.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        matchRetryStage.shutdown();
+    }
+
+    private MatchingPair pair(long buyId, long sellId) {
+        return new MatchingPair(
+                new StockOrderRedisDTO(buyId, STOCK_CODE, 100_000L, 3L, NOW),
+                new StockOrderRedisDTO(sellId, STOCK_CODE, 99_000L, 2L, NOW));
+    }
+
+    @Test
+    @DisplayName("대기 시간은 실패할 때마다 2배로 늘어나고 최대값에서 멈춘다")
+    void exponentialBackoff() {
+        assertThat(matchRetryStage.backoffMs(1)).isEqualTo(10L);
+        assertThat(matchRetryStage.backoffMs(2)).isEqualTo(20L);
+        assertThat(matchRetryStage.backoffMs(3)).isEqualTo(25L);
+        assertThat(matchRetryStage.backoffMs(40)).isEqualTo(25L);
+    }
+
+    @Test
+    @DisplayName("백오프가 끝나면 종목 트리거가 호출되고, 담당 워커가 실패 횟수와 함께 꺼내간다")
+    void dueRetryTriggersMatch() throws InterruptedException {
+        CountDownLatch due = new CountDownLatch(1);
+        matchRetryStage.onDue(stockCode -> due.countDown());
+
+        matchRetryStage.retry(STOCK_CODE, pair(1L, 2L), 1, new RetryableMatchException("lock timeout"));
+        assertThat(meterRegistry.get("matching.retry.pending").gauge().value()).isEqualTo(1.0);
+
+        assertThat(due.await(5, TimeUnit.SECONDS)).isTrue();
+        List<MatchRetryStage.PendingMatch> drained = matchRetryStage.drainDue(STOCK_CODE);
+        assertThat(drained).singleElement().satisfies(pending -> {
+            assertThat(pending.pair().getBuyDTO().getId()).isEqualTo(1L);
+            assertThat(pending.attempts()).isEqualTo(1);
+        });
+        assertThat(matchRetryStage.drainDue(STOCK_CODE)).isEmpty();
+        assertThat(meterRegistry.get("matching.retry.pending").gauge().value()).isZero();
+        verify(kafkaDlqService, never()).sendMatchError(anyString(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("최대 횟수만큼 실패하면 예약하지 않고 체결 수량을 호가창에 되돌린 뒤 match.failed 로 보낸다")
+    void exhaustedGoesToDlq() {
+        MatchingPair pair = pair(1L, 2L);
+
+        matchRetryStage.retry(STOCK_CODE, pair, 3, new RetryableMatchException("lock timeout"));
+
+        verify(orderBookStore).restore(pair);
+        verify(kafkaDlqService).sendMatchError(eq(STOCK_CODE), eq(pair), eq(3), any());
+        assertThat(meterRegistry.counter("matching.retry.exhausted").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("matching.retry.restored").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("matching.retry.scheduled").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("호가창 되돌리기가 실패해도 match.failed 기록은 남긴다")
+    void exhaustedStillDeadLettersWhenRestoreFails() {
+        MatchingPair pair = pair(1L, 2L);
+        doThrow(new IllegalStateException("redis down")).when(orderBookStore).restore(pair);
+
+        matchRetryStage.retry(STOCK_CODE, pair, 3, new RetryableMatchException("lock timeout"));
+
+        verify(kafkaDlqService).sendMatchError(eq(STOCK_CODE), eq(pair), eq(3), any());
+        assertThat(meterRegistry.counter("matching.retry.restored").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("재시도 불필요 실패로 바로 DLQ 에 보낸 pair 는 호가창에 되돌리지 않는다")
+    void deadLetterDoesNotRestore() {
+        MatchingPair pair = pair(1L, 2L);
+
+        matchRetryStage.deadLetter(STOCK_CODE, pair, 1, new NonRetryableMatchException("cancelled"));
+
+        verify(kafkaDlqService).sendMatchError(eq(STOCK_CODE), eq(pair), eq(1), any());
+        verify(orderBookStore, never()).restore(any());
+    }
+
+    @Test
+    @DisplayName("한쪽이 취소된 pair 를 DLQ 로 보내면 아직 체결 가능한 상대 주문의 수량만 바로 호가창에 되돌린다")
+    void deadLetterRestoresLiveSide() {
+        MatchingPair pair = pair(1L, 2L);
+
+        matchRetryStage.deadLetter(STOCK_CODE, pair, 1,
+                new NonRetryableMatchException("cancelled", EnumSet.of(OrderType.BUY)));
+
+        verify(kafkaDlqService).sendMatchError(eq(STOCK_CODE), eq(pair), eq(1), any());
+        verify(orderBookStore).restore(pair, OrderType.BUY);
+        verify(orderBookStore, never()).restore(pair, OrderType.SELL);
+        verify(orderBookStore, never()).restore(any());
+    }
+
+    @Test
+    @DisplayName("두 주문 모두 열려 있는 pair 는 체결 패스가 끝난 뒤에 pair 전체를 되돌린다")
+    void deadLetterDefersWholePairRestore() {
+        MatchingPair pair = pair(1L, 2L);
+
+        matchRetryStage.deadLetter(STOCK_CODE, pair, 1,
+                new NonRetryableMatchException("overflow", EnumSet.allOf(OrderType.class)));
+        verify(orderBookStore, never()).restore(any());
+
+        matchRetryStage.restoreDeferred(STOCK_CODE);
+        matchRetryStage.restoreDeferred(STOCK_CODE);
+
+        verify(orderBookStore, times(1)).restore(pair);
+        assertThat(meterRegistry.counter("matching.retry.restored").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("실패한 pair 는 호가창에 되돌리지 않고 재시도 단계로 넘긴 뒤 남은 교차 주문을 계속 체결한다")
+    void matchLoopKeepsGoing() {
+        OrderBookStore orderBookStore = mock(OrderBookStore.class);
+        TradeExecutionService tradeExecutionService = mock(TradeExecutionService.class);
+        MatchRetryStage stage = mock(MatchRetryStage.class);
+        TradeService tradeService = new TradeService(orderBookStore, tradeExecutionService, stage,
+                new OptimisticRetryExecutor(new SimpleMeterRegistry()));
+
+        MatchingPair failing = pair(1L, 2L);
+        MatchingPair next = pair(3L, 4L);
+        when(stage.drainDue(STOCK_CODE)).thenReturn(List.of());
+        when(orderBookStore.popMatchPairs(eq(STOCK_CODE), anyInt()))
+                .thenReturn(List.of(failing))
+                .thenReturn(List.of(next))
+                .thenReturn(List.of());
+        doThrow(new RetryableMatchException("lock timeout")).when(tradeExecutionService).matchSinglePair(failing);
+
+        tradeService.match(STOCK_CODE);
+
+        verify(stage).retry(eq(STOCK_CODE), eq(failing), eq(1), any());
+        verify(tradeExecutionService).matchSinglePair(next);
+        verify(orderBookStore).confirm(List.of(next));
+        verify(orderBookStore, never()).confirm(List.of(failing));
+        verify(orderBookStore, never()).restore(any());
+        verify(orderBookStore, times(3)).popMatchPairs(eq(STOCK_CODE), anyInt());
+    }
+
+    @Test
+    @DisplayName("재시도 불필요 예외로 실패한 pair 는 재시도 단계를 거치지 않고 바로 DLQ 로 보낸다")
+    void nonRetryableGoesStraightToDlq() {
+        OrderBookStore orderBookStore = mock(OrderBookStore.class);
+        TradeExecutionService tradeExecutionService = mock(TradeExecutionService.class);
+        MatchRetryStage stage = mock(MatchRetryStage.class);
+        TradeService tradeService = new TradeService(orderBookStore, tradeExecutionService, stage,
+                new OptimisticRetryExecutor(new SimpleMeterRegistry()));
+
+        MatchingPair missing = pair(1L, 2L);
+        when(stage.drainDue(STOCK_CODE)).thenReturn(List.of());
+        when(orderBookStore.popMatchPairs(eq(STOCK_CODE), anyInt()))
+                .thenReturn(List.of(missing))
+                .thenReturn(List.of());
+        doThrow(new NonRetryableMatchException("주문 ID에 해당하는 StockOrder를 찾을 수 없습니다. id=2"))
+                .when(tradeExecutionService).matchSinglePair(missing);
+
+        tradeService.match(STOCK_CODE);
+
+        verify(stage).deadLetter(eq(STOCK_CODE), eq(missing), eq(1), any());
+        verify(stage, never()).retry(anyString(), any(), anyInt(), any());
+        verify(stage).restoreDeferred(STOCK_CODE);
+    }
+}
@@ -0,0 +1,186 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.book.JournalRecord;
+import com.portfolio2025.first.domain.book.JournalRecord.Type;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MatchingJournalTest {
+
+    private static final String STOCK_CODE = "005930";
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 9, 9, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private MatchingJournal openJournal() {
+        MatchingJournal journal = new MatchingJournal();
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "path", tempDir.resolve("matching.journal").toString());
+        ReflectionTestUtils.setField(journal, "windowSizeMb", 1);
+        journal.open();
+        return journal;
+    }
+
+    private OrderBookEngine engine(MatchingJournal journal) {
+        return new OrderBookEngine(journal);
+    }
+
+    private StockOrderRedisDTO order(long id, long price, long quantity, int secondsLater) {
+        return new StockOrderRedisDTO(id, STOCK_CODE, price, quantity, NOW.plusSeconds(secondsLater));
+    }
+
+    @Test
+    @DisplayName("재시작 후 저널을 재생하면 접수 / 체결 / 취소 / 복구가 반영된 호가창이 그대로 만들어진다")
+    void replayRebuildsBooks() throws IOException {
+        MatchingJournal journal = openJournal();
+        OrderBookEngine engine = engine(journal);
+        engine.push(OrderType.SELL, order(1L, 100_000L, 5L, 0));
+        engine.push(OrderType.SELL, order(2L, 101_000L, 5L, 1));
+        engine.push(OrderType.BUY, order(3L, 100_000L, 3L, 2));
+        engine.push(OrderType.BUY, order(4L, 99_000L, 1L, 3));
+        engine.confirm(engine.popMatchPairs(STOCK_CODE, 100));
+        engine.cancel(STOCK_CODE, OrderType.BUY, 4L);
+        engine.push(OrderType.BUY, order(5L, 101_000L, 4L, 4));
+        List<MatchingPair> pairs = engine.popMatchPairs(STOCK_CODE, 100);
+        engine.confirm(pairs.subList(0, pairs.size() - 1));
+        engine.restore(pairs.getLast()); // 커밋 실패
+        journal.close();
+
+        OrderBookEngine recovered = engine(openJournal());
+        recovered.recover();
+
+        assertThat(recovered.depth(STOCK_CODE, OrderType.BUY)).isEqualTo(engine.depth(STOCK_CODE, OrderType.BUY));
+        assertThat(recovered.depth(STOCK_CODE, OrderType.SELL)).isEqualTo(engine.depth(STOCK_CODE, OrderType.SELL));
+        assertThat(recovered.popMatchPairs(STOCK_CODE, 100))
+                .extracting(p -> p.getBuyDTO().getId() + ":" + p.getSellDTO().getId() + ":"
+                        + p.getExecutableQuantity().getQuantityValue())
+                .containsExactlyElementsOf(engine.popMatchPairs(STOCK_CODE, 100).stream()
+                        .map(p -> p.getBuyDTO().getId() + ":" + p.getSellDTO().getId() + ":"
+                                + p.getExecutableQuantity().getQuantityValue())
+                        .toList());
+    }
+
+    @Test
+    @DisplayName("커밋(confirm)하지 못한 체결 후보의 차감은 저널에 남지 않아서 재시작하면 호가창에 수량이 그대로 있다")
+    void unconfirmedFillIsNotReplayed() throws IOException {
+        MatchingJournal journal = openJournal();
+        OrderBookEngine engine = engine(journal);
+        engine.push(OrderType.SELL, order(1L, 100_000L, 5L, 0));
+        engine.push(OrderType.BUY, order(2L, 100_000L, 3L, 1));
+        engine.push(OrderType.BUY, order(3L, 100_000L, 4L, 2));
+        List<MatchingPair> pairs = engine.popMatchPairs(STOCK_CODE, 100);
+        engine.confirm(pairs.subList(0, 1)); // 2번 매수와의 체결만 커밋, 3번 매수와의 체결은 서버 중단
+        journal.close();
+
+        OrderBookEngine recovered = engine(openJournal());
+        recovered.recover();
+
+        assertThat(recovered.peekBest(STOCK_CODE, OrderType.SELL)).get()
+                .extracting(StockOrderRedisDTO::getId, StockOrderRedisDTO::getRemainQuantity)
+                .containsExactly(1L, 2L);
+        assertThat(recovered.peekBest(STOCK_CODE, OrderType.BUY)).get()
+                .extracting(StockOrderRedisDTO::getId, StockOrderRedisDTO::getRemainQuantity)
+                .containsExactly(3L, 4L);
+    }
+
+    @Test
+    @DisplayName("스냅샷 후에는 살아 있는 주문만 ACCEPT 로 남고, 재생 결과는 스냅샷 전과 같으며 이후 기록도 이어진다")
+    void compactKeepsReplayResult() throws IOException {
+        MatchingJournal journal = openJournal();
+        OrderBookEngine engine = engine(journal);
+        engine.push(OrderType.SELL, order(1L, 100_000L, 5L, 0));
+        engine.push(OrderType.SELL, order(2L, 101_000L, 5L, 1));
+        engine.push(OrderType.SELL, order(3L, 102_000L, 5L, 2));
+        engine.push(OrderType.BUY, order(4L, 100_000L, 7L, 3));
+        engine.push(OrderType.BUY, order(5L, 99_000L, 2L, 4));
+        engine.push(OrderType.BUY, order(6L, 98_000L, 2L, 5));
+        engine.confirm(engine.popMatchPairs(STOCK_CODE, 100)); // 1번 매도 전량, 4번 매수 5주 체결
+        engine.cancel(STOCK_CODE, OrderType.BUY, 6L);
+        engine.updateQuantity(STOCK_CODE, OrderType.SELL, 3L, 8L);
+
+        long before = journal.size();
+        long after = journal.compact();
+        engine.push(OrderType.BUY, order(7L, 102_000L, 4L, 6));
+        journal.close();
+
+        List<JournalRecord> records = new ArrayList<>();
+        MatchingJournal reopened = openJournal();
+        reopened.replay(records::add);
+        assertThat(after).isLessThan(before).isEqualTo(4L); // 2, 3번 매도 + 4, 5번 매수
+        assertThat(records).hasSize(5);
+        assertThat(records.subList(0, 4)).extracting(JournalRecord::type).containsOnly(Type.ACCEPT);
+        assertThat(records).filteredOn(record -> record.stockOrderId() == 3L).singleElement()
+                .extracting(JournalRecord::quantity).isEqualTo(8L);
+
+        OrderBookEngine recovered = engine(reopened);
+        recovered.recover();
+        assertThat(recovered.depth(STOCK_CODE, OrderType.BUY)).isEqualTo(engine.depth(STOCK_CODE, OrderType.BUY));
+        assertThat(recovered.depth(STOCK_CODE, OrderType.SELL)).isEqualTo(engine.depth(STOCK_CODE, OrderType.SELL));
+        assertThat(signatures(recovered.popMatchPairs(STOCK_CODE, 100)))
+                .containsExactlyElementsOf(signatures(engine.popMatchPairs(STOCK_CODE, 100)));
+    }
+
+    @Test
+    @DisplayName("교체 전에 중단된 스냅샷 파일은 다음 open 에서 지우고 원래 저널을 그대로 사용한다")
+    void interruptedCompactIsDiscarded() throws IOException {
+        MatchingJournal journal = openJournal();
+        journal.append(JournalRecord.of(Type.ACCEPT, OrderType.BUY, order(1L, 100_000L, 1L, 0), 1L));
+        journal.close();
+        Path leftover = tempDir.resolve("matching.journal.compact");
+        Files.write(leftover, new byte[MatchingJournal.RECORD_SIZE]);
+
+        MatchingJournal reopened = openJournal();
+
+        assertThat(leftover).doesNotExist();
+        assertThat(reopened.size()).isEqualTo(1L);
+        reopened.close();
+    }
+
+    private static List<String> signatures(List<MatchingPair> pairs) {
+        return pairs.stream()
+                .map(p -> p.getBuyDTO().getId() + ":" + p.getSellDTO().getId() + ":"
+                        + p.getExecutableQuantity().getQuantityValue())
+                .toList();
+    }
+
+    @Test
+    @DisplayName("기록 도중 깨진 마지막 레코드는 버리고 그 자리부터 이어서 기록한다")
+    void tornRecordIsTruncated() throws IOException {
+        MatchingJournal journal = openJournal();
+        journal.append(JournalRecord.of(Type.ACCEPT, OrderType.BUY, order(1L, 100_000L, 1L, 0), 1L));
+        journal.append(JournalRecord.of(Type.ACCEPT, OrderType.BUY, order(2L, 100_000L, 1L, 1), 1L));
+        journal.close();
+
+        // 두 번째 레코드 일부만 기록된 상황
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("matching.journal"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), MatchingJournal.RECORD_SIZE + 20);
+        }
+
+        MatchingJournal reopened = openJournal();
+        reopened.append(JournalRecord.of(Type.CANCEL, OrderType.BUY, order(1L, 100_000L, 0L, 0), 0L));
+
+        List<JournalRecord> records = new ArrayList<>();
+        reopened.replay(records::add);
+
+        assertThat(records).extracting(JournalRecord::type).containsExactly(Type.ACCEPT, Type.CANCEL);
+        assertThat(records.getFirst().toDTO()).isEqualTo(order(1L, 100_000L, 1L, 0));
+        reopened.close();
+    }
+}
@@ -0,0 +1,99 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class MatchingSchedulerTest {
+
+    private TradeService tradeService;
+    private SimpleMeterRegistry meterRegistry;
+    private MatchingScheduler matchingScheduler;
+
+    @BeforeEach
+    void setUp() {
+        tradeService = mock(TradeService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        matchingScheduler = new MatchingScheduler(tradeService, mock(MatchRetryStage.class), meterRegistry);
+        ReflectionTestUtils.setField(matchingScheduler, "workerCount", 2);
+        matchingScheduler.initWorkers();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        matchingScheduler.shutdown();
+    }
+
+    @Test
+    @DisplayName("체결 패스 실행 중 들어온 트리거들은 하나의 후속 패스로 합쳐진다")
+    void coalesceTriggersWhileRunning() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(tradeService).match("005930");
+
+        matchingScheduler.requestMatch("005930");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 첫 패스가 실행 중인 동안 트리거 100건
+        for (int i = 0; i < 100; i++) {
+            matchingScheduler.requestMatch("005930");
+        }
+        release.countDown();
+
+        // 최초 1회 + 실행 중 들어온 트리거에 대한 마지막 1회
+        verify(tradeService, timeout(5000).times(2)).match("005930");
+        assertThat(meterRegistry.counter("matching.trigger.received").count()).isEqualTo(101);
+        assertThat(meterRegistry.counter("matching.trigger.coalesced").count()).isEqualTo(99);
+    }
+
+    @Test
+    @DisplayName("트리거가 한 번이면 체결 패스도 한 번 실행된다")
+    void singleTrigger() {
+        matchingScheduler.requestMatch("000660");
+
+        verify(tradeService, timeout(5000).times(1)).match("000660");
+        assertThat(meterRegistry.counter("matching.trigger.coalesced").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("submit 작업은 종목 담당 워커에서 실행 중인 체결 패스가 끝난 뒤 실행된다")
+    void submitRunsAfterRunningPassOnSameWorker() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean passRunning = new AtomicBoolean();
+        doAnswer(invocation -> {
+            passRunning.set(true);
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            passRunning.set(false);
+            return null;
+        }).when(tradeService).match("005930");
+
+        matchingScheduler.requestMatch("005930");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> result = matchingScheduler.submit("005930",
+                () -> (passRunning.get() ? "overlap-" : "") + Thread.currentThread().getName());
+        assertThat(result).isNotDone();
+
+        release.countDown();
+        assertThat(result.get(5, TimeUnit.SECONDS)).startsWith("match-worker-");
+    }
+}
@@ -0,0 +1,99 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.portfolio2025.first.domain.Portfolio;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class OptimisticRetryExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticRetryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new OptimisticRetryExecutor(meterRegistry);
+        ReflectionTestUtils.setField(executor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(executor, "initialBackoffMs", 1L);
+        ReflectionTestUtils.setField(executor, "maxBackoffMs", 4L);
+    }
+
+    private static ObjectOptimisticLockingFailureException versionConflict() {
+        return new ObjectOptimisticLockingFailureException(Portfolio.class, 1L);
+    }
+
+    @Test
+    @DisplayName("버전 충돌이 나면 다시 실행하고, 성공하면 결과를 돌려준다")
+    void retriesVersionConflict() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.execute("order.place", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw versionConflict();
+            }
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.counter("concurrency.retry", "operation", "order.place").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("최대 횟수만큼 충돌하면 포기하고 예외를 그대로 던진다, 충돌이 아닌 예외는 재시도하지 않는다")
+    void boundedAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.run("match.single", () -> {
+            calls.incrementAndGet();
+            throw versionConflict();
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(calls).hasValue(3);
+        assertThat(meterRegistry.counter("concurrency.retry.exhausted", "operation", "match.single").count())
+                .isEqualTo(1.0);
+
+        calls.set(0);
+        assertThatThrownBy(() -> executor.run("order.place", () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("잔액이 부족합니다");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("바깥 트랜잭션 안에서는 재시도하지 않고 한 번만 실행한다")
+    void noRetryInsideOuterTransaction() {
+        AtomicInteger calls = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            assertThatThrownBy(() -> executor.run("order.place", () -> {
+                calls.incrementAndGet();
+                throw versionConflict();
+            })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("대기 상한은 2배씩 늘어나고 최대값에서 멈추며, 실제 대기는 0 ~ 상한 사이의 임의 값이다")
+    void jitteredBackoff() {
+        assertThat(executor.backoffCapMs(1)).isEqualTo(1L);
+        assertThat(executor.backoffCapMs(2)).isEqualTo(2L);
+        assertThat(executor.backoffCapMs(3)).isEqualTo(4L);
+        assertThat(executor.backoffCapMs(50)).isEqualTo(4L);
+        for (int i = 0; i < 100; i++) {
+            assertThat(executor.jitteredBackoffMs(3)).isBetween(0L, 4L);
+        }
+    }
+}
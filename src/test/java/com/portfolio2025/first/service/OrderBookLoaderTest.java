@@ -0,0 +1,69 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.dto.RestingStockOrderDTO;
+import com.portfolio2025.first.repository.StockOrderRepository;
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class OrderBookLoaderTest {
+
+    private StockOrderRepository stockOrderRepository;
+    private OrderBookStore orderBookStore;
+    private OrderBookLoader orderBookLoader;
+
+    @BeforeEach
+    void setUp() {
+        stockOrderRepository = mock(StockOrderRepository.class);
+        orderBookStore = mock(OrderBookStore.class);
+        orderBookLoader = new OrderBookLoader(stockOrderRepository, orderBookStore,
+                mock(PlatformTransactionManager.class));
+    }
+
+    private RestingStockOrderDTO row(long id, String stockCode) {
+        return new RestingStockOrderDTO(id, stockCode, 100_000L, 1L, LocalDateTime.of(2025, 8, 10, 9, 0),
+                id % 2 == 0 ? OrderType.BUY : OrderType.SELL);
+    }
+
+    @Test
+    @DisplayName("종목이 바뀌거나 묶음이 가득 차면 끊어서 적재한다")
+    void loadGroupedByStock() {
+        when(stockOrderRepository.streamRestingOrders()).thenReturn(Stream.concat(
+                LongStream.rangeClosed(1, 1_500).mapToObj(id -> row(id, "000660")),
+                LongStream.rangeClosed(1_501, 1_510).mapToObj(id -> row(id, "005930"))));
+
+        long loaded = orderBookLoader.load();
+
+        assertThat(loaded).isEqualTo(1_510);
+        verify(orderBookStore, times(2)).pushAll(eq("000660"), anyList());
+        verify(orderBookStore, times(1)).pushAll(eq("005930"), anyList());
+    }
+
+    @Test
+    @DisplayName("if-empty 모드에서 호가창에 대기 주문이 있으면 DB 적재를 건너뛴다")
+    void skipWhenBookHasRestingOrders() {
+        ReflectionTestUtils.setField(orderBookLoader, "mode", "if-empty");
+        when(orderBookStore.hasRestingOrders()).thenReturn(true);
+
+        orderBookLoader.afterSingletonsInstantiated();
+
+        verify(stockOrderRepository, never()).streamRestingOrders();
+        verify(orderBookStore, never()).pushAll(anyString(), anyList());
+    }
+}
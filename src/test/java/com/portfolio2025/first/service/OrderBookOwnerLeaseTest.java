@@ -0,0 +1,137 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class OrderBookOwnerLeaseTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private MatchingScheduler matchingScheduler;
+    private KafkaListenerEndpointRegistry listenerRegistry;
+    private OrderBookOwnerLease lease;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        matchingScheduler = mock(MatchingScheduler.class);
+        listenerRegistry = mock(KafkaListenerEndpointRegistry.class);
+        lease = new OrderBookOwnerLease(redisTemplate, matchingScheduler, listenerRegistry);
+        ReflectionTestUtils.setField(lease, "leaseTtlMs", 50L);
+        ReflectionTestUtils.setField(lease, "retryIntervalMs", 10L);
+    }
+
+    @Test
+    @DisplayName("비어 있는 임대 키를 잡으면 바로 기동한다")
+    void acquireWhenFree() throws InterruptedException {
+        when(valueOperations.setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(true);
+
+        lease.acquire();
+
+        assertThat(lease.isHeld()).isTrue();
+    }
+
+    @Test
+    @DisplayName("이전 서버의 임대가 만료될 때까지 기다렸다가 잡는다")
+    void acquireAfterPreviousOwnerExpires() throws InterruptedException {
+        when(valueOperations.setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(false)
+                .thenReturn(true);
+
+        lease.acquire();
+
+        assertThat(lease.isHeld()).isTrue();
+        verify(valueOperations, times(2)).setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @DisplayName("다른 서버가 ttl 이 지나도록 임대를 놓지 않으면 기동을 실패시킨다")
+    void secondNodeFailsToStart() {
+        when(valueOperations.setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(false);
+        when(valueOperations.get(OrderBookOwnerLease.LEASE_KEY)).thenReturn("node-a:1:abcd1234");
+
+        assertThatThrownBy(() -> lease.acquire())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("node-a:1:abcd1234");
+        assertThat(lease.isHeld()).isFalse();
+    }
+
+    @Test
+    @DisplayName("연장에 실패하면 임대를 다시 잡고, 종료 후에는 연장하지 않는다")
+    @SuppressWarnings("unchecked")
+    void heartbeatReacquiresLostLease() throws InterruptedException {
+        when(valueOperations.setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        lease.acquire();
+
+        lease.heartbeat();
+
+        verify(valueOperations, times(2)).setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class));
+        assertThat(lease.isHeld()).isTrue();
+
+        lease.release();
+        lease.heartbeat();
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(), any());
+        verify(valueOperations, never()).get(anyString());
+    }
+
+    @Test
+    @DisplayName("다른 서버가 임대를 가져가면 체결과 실행 중인 리스너를 멈추고, 다시 잡으면 멈췄던 리스너만 재개한다")
+    @SuppressWarnings("unchecked")
+    void heartbeatStandsDownWhenLeaseIsTaken() throws InterruptedException {
+        MessageListenerContainer running = mock(MessageListenerContainer.class);
+        MessageListenerContainer idle = mock(MessageListenerContainer.class);
+        when(running.isRunning()).thenReturn(true);
+        when(listenerRegistry.getListenerContainers()).thenReturn(List.of(running, idle));
+        when(valueOperations.setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(true)
+                .thenReturn(false);
+        when(valueOperations.get(OrderBookOwnerLease.LEASE_KEY)).thenReturn("node-b:1:abcd1234");
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+        lease.acquire();
+
+        lease.heartbeat(); // 연장 실패 + 다른 서버가 잡음
+        lease.heartbeat(); // 이미 멈춘 상태 - 다시 멈추지 않음 (연장 시도 없이 재획득 실패)
+
+        assertThat(lease.isStandingDown()).isTrue();
+        verify(matchingScheduler, times(1)).pause();
+        verify(running, times(1)).stop();
+        verify(idle, never()).stop();
+
+        when(valueOperations.setIfAbsent(eq(OrderBookOwnerLease.LEASE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(true);
+        lease.heartbeat(); // 다시 잡음
+
+        assertThat(lease.isStandingDown()).isFalse();
+        verify(matchingScheduler).resume();
+        verify(running).start();
+        verify(idle, never()).start();
+    }
+}
@@ -0,0 +1,176 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.domain.outbox.OutboxEvent;
+import com.portfolio2025.first.domain.outbox.OutboxStatus;
+import com.portfolio2025.first.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private KafkaProducerService kafkaProducerService;
+    private KafkaDlqService kafkaDlqService;
+    private RedisTemplate<String, String> redisTemplate;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        kafkaProducerService = mock(KafkaProducerService.class);
+        kafkaDlqService = mock(KafkaDlqService.class);
+        redisTemplate = mock(RedisTemplate.class);
+        outboxRelay = new OutboxRelay(outboxEventRepository, kafkaProducerService, kafkaDlqService,
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), redisTemplate);
+        ReflectionTestUtils.setField(outboxRelay, "batchSize", 3);
+        ReflectionTestUtils.setField(outboxRelay, "maxAttempts", 3);
+        outboxRelay.init();
+    }
+
+    private OutboxEvent event(long id, int attempts) {
+        return event(id, String.valueOf(id), attempts);
+    }
+
+    private OutboxEvent event(long id, String key, int attempts) {
+        OutboxEvent event = OutboxEvent.create("order.created", key, payload(id));
+        ReflectionTestUtils.setField(event, "id", id);
+        ReflectionTestUtils.setField(event, "attempts", attempts);
+        return event;
+    }
+
+    private byte[] payload(long id) {
+        return ("{\"orderId\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("ack 받은 이벤트만 SENT, 실패한 이벤트는 재시도 횟수만 올리고 PENDING 으로 남긴다")
+    void marksOnlyAckedEventsAsSent() {
+        when(outboxEventRepository.findPending(3)).thenReturn(List.of(event(1L, 0), event(2L, 0)));
+        when(kafkaProducerService.sendAsync("order.created", "1", payload(1L)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(kafkaProducerService.sendAsync("order.created", "2", payload(2L)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThat(outboxRelay.flush()).isEqualTo(1);
+
+        verify(outboxEventRepository).updateStatus(eq(List.of(1L)), eq(OutboxStatus.SENT), any(LocalDateTime.class));
+        verify(outboxEventRepository).increaseAttempts(List.of(2L));
+        verify(kafkaDlqService, never()).sendPublishError(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("최대 재시도 횟수를 넘긴 이벤트는 FAILED 로 바꾸고 DLQ 로 넘긴다")
+    void exhaustedEventGoesToDlq() {
+        when(outboxEventRepository.findPending(3)).thenReturn(List.of(event(7L, 2)));
+        when(kafkaProducerService.sendAsync(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        outboxRelay.flush();
+
+        verify(outboxEventRepository).updateStatus(eq(List.of(7L)), eq(OutboxStatus.FAILED), isNull());
+        verify(kafkaDlqService).sendPublishError(eq("order.created"), eq("7"), eq(payload(7L)), any());
+    }
+
+    @Test
+    @DisplayName("가득 찬 묶음을 모두 보냈으면 기다리지 않고 다음 묶음을 이어서 처리한다")
+    void drainsBacklogInOneRun() {
+        when(outboxEventRepository.findPending(3))
+                .thenReturn(List.of(event(1L, 0), event(2L, 0), event(3L, 0)))
+                .thenReturn(List.of(event(4L, 0)));
+        when(kafkaProducerService.sendAsync(anyString(), anyString(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).updateStatus(eq(List.of(1L, 2L, 3L)), eq(OutboxStatus.SENT), any(LocalDateTime.class));
+        verify(outboxEventRepository).updateStatus(eq(List.of(4L)), eq(OutboxStatus.SENT), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("같은 key 의 앞 이벤트가 실패하면 뒤 이벤트는 보내지 않고 PENDING 으로 남긴다 - 다른 key 는 그대로 발행")
+    void sameKeyStopsAtFirstFailure() {
+        when(outboxEventRepository.findPending(3))
+                .thenReturn(List.of(event(1L, "005930", 0), event(2L, "000660", 0), event(3L, "005930", 0)));
+        when(kafkaProducerService.sendAsync("order.created", "005930", payload(1L)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaProducerService.sendAsync("order.created", "000660", payload(2L)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        assertThat(outboxRelay.flush()).isEqualTo(1);
+
+        verify(kafkaProducerService, never()).sendAsync("order.created", "005930", payload(3L));
+        verify(outboxEventRepository).updateStatus(eq(List.of(2L)), eq(OutboxStatus.SENT), any(LocalDateTime.class));
+        verify(outboxEventRepository).increaseAttempts(List.of(1L));
+    }
+
+    @Test
+    @DisplayName("같은 key 도 앞 이벤트의 ack 를 기다리지 않고 id 순서로 한꺼번에 보낸다")
+    void sameKeySendsWithoutWaitingForAck() {
+        CompletableFuture<Void> firstAck = new CompletableFuture<>();
+        when(outboxEventRepository.findPending(3))
+                .thenReturn(List.of(event(1L, "005930", 0), event(2L, "005930", 0)));
+        when(kafkaProducerService.sendAsync("order.created", "005930", payload(1L))).thenReturn(firstAck);
+        when(kafkaProducerService.sendAsync("order.created", "005930", payload(2L)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        CompletableFuture<Integer> flushed = CompletableFuture.supplyAsync(outboxRelay::flush);
+        InOrder inOrder = inOrder(kafkaProducerService);
+        inOrder.verify(kafkaProducerService, timeout(5000)).sendAsync("order.created", "005930", payload(1L));
+        inOrder.verify(kafkaProducerService, timeout(5000)).sendAsync("order.created", "005930", payload(2L));
+        assertThat(flushed).isNotDone();
+
+        firstAck.complete(null);
+        assertThat(flushed.join()).isEqualTo(2);
+        verify(outboxEventRepository).updateStatus(eq(List.of(1L, 2L)), eq(OutboxStatus.SENT), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("다른 서버가 relay 임대를 가지고 있으면 조회 / 발행하지 않고, 임대를 잡은 서버만 발행한다")
+    @SuppressWarnings("unchecked")
+    void onlyLeaseHolderRelays() {
+        ValueOperations<String, String> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(OutboxRelay.LEASE_KEY), anyString(), any(Duration.class)))
+                .thenReturn(false)
+                .thenReturn(true);
+        when(outboxEventRepository.findPending(3)).thenReturn(List.of());
+        ReflectionTestUtils.setField(outboxRelay, "leaseEnabled", true);
+        ReflectionTestUtils.setField(outboxRelay, "leaseTtlMs", 10_000L);
+        outboxRelay.init();
+
+        outboxRelay.relay();
+        verify(outboxEventRepository, never()).findPending(anyInt());
+
+        outboxRelay.relay();
+        outboxRelay.relay(); // ttl 의 1/3 이 지나기 전에는 연장 없이 그대로 실행
+        verify(outboxEventRepository, times(2)).findPending(3);
+        verify(valueOperations, times(2)).setIfAbsent(eq(OutboxRelay.LEASE_KEY), anyString(), any(Duration.class));
+    }
+}
@@ -0,0 +1,298 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.domain.MatchingPair;
+import com.portfolio2025.first.domain.Order;
+import com.portfolio2025.first.domain.Portfolio;
+import com.portfolio2025.first.domain.PortfolioStock;
+import com.portfolio2025.first.domain.PortfolioType;
+import com.portfolio2025.first.domain.ledger.BalanceKey;
+import com.portfolio2025.first.domain.ledger.LedgerBucket;
+import com.portfolio2025.first.domain.ledger.LedgerEntryType;
+import com.portfolio2025.first.domain.ledger.LedgerJournal;
+import com.portfolio2025.first.domain.order.OrderType;
+import com.portfolio2025.first.domain.stock.Stock;
+import com.portfolio2025.first.domain.stock.StockOrder;
+import com.portfolio2025.first.domain.stock.StockOrderStatus;
+import com.portfolio2025.first.domain.vo.Money;
+import com.portfolio2025.first.domain.vo.Quantity;
+import com.portfolio2025.first.dto.StockOrderRedisDTO;
+import com.portfolio2025.first.dto.event.TradeSavedEvent;
+import com.portfolio2025.first.exception.NonRetryableMatchException;
+import com.portfolio2025.first.repository.PortfolioStockRepository;
+import com.portfolio2025.first.repository.StockOrderRepository;
+import com.portfolio2025.first.repository.TradeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class TradeExecutionServiceTest {
+
+    private static final String STOCK_CODE = "005930";
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 25, 9, 0);
+
+    private TradeRepository tradeRepository;
+    private StockOrderRepository stockOrderRepository;
+    private PortfolioStockRepository portfolioStockRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private LedgerService ledgerService;
+    private TradeExecutionService tradeExecutionService;
+
+    // 트랜잭션마다 DB 에서 새로 읽는 것처럼 조회할 때마다 새 엔티티를 만듦 - 롤백된 배치의 변경이 남지 않음
+    private final Map<Long, Supplier<StockOrder>> stockOrderRows = new HashMap<>();
+    private final Map<Long, StockOrder> loaded = new HashMap<>(); // 마지막으로 조회된 엔티티
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        tradeRepository = mock(TradeRepository.class);
+        stockOrderRepository = mock(StockOrderRepository.class);
+        portfolioStockRepository = mock(PortfolioStockRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ledgerService = mock(LedgerService.class);
+        tradeExecutionService = new TradeExecutionService(tradeRepository, portfolioStockRepository,
+                stockOrderRepository, eventPublisher, ledgerService);
+
+        stock = Stock.builder().id(7L).stockCode(STOCK_CODE).stockPrice(new Money(100_000L)).build();
+        when(stockOrderRepository.findAllByIdsWithAllRelations(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            List<StockOrder> rows = new ArrayList<>();
+            for (Long id : ids) {
+                Supplier<StockOrder> row = stockOrderRows.get(id);
+                if (row != null) {
+                    StockOrder stockOrder = row.get();
+                    loaded.put(id, stockOrder);
+                    rows.add(stockOrder);
+                }
+            }
+            return rows;
+        });
+        when(tradeRepository.findTradedOrderIds(anyCollection(), anyCollection())).thenReturn(List.of());
+        when(portfolioStockRepository.findAllByPortfoliosAndStocks(anyCollection(), anyCollection()))
+                .thenReturn(List.of());
+    }
+
+    private Portfolio portfolio(Long id) {
+        Portfolio portfolio = Portfolio.builder().portfolioType(PortfolioType.STOCK).build();
+        ReflectionTestUtils.setField(portfolio, "id", id);
+        return portfolio;
+    }
+
+    private StockOrder stockOrder(Long id, OrderType orderType, Portfolio portfolio, long price, long quantity) {
+        return stockOrder(id, orderType, portfolio, price, quantity, stockOrder -> { });
+    }
+
+    /** setup - DB 에 저장되어 있는 상태 (취소 / 이전 체결) **/
+    private StockOrder stockOrder(Long id, OrderType orderType, Portfolio portfolio, long price, long quantity,
+                                  Consumer<StockOrder> setup) {
+        Supplier<StockOrder> row = () -> {
+            StockOrder stockOrder = StockOrder.createStockOrder(stock, new Quantity(quantity), new Money(price),
+                    portfolio);
+            ReflectionTestUtils.setField(stockOrder, "id", id);
+            Order.createSingleOrder(portfolio, stockOrder, orderType, new Money(price * quantity));
+            setup.accept(stockOrder);
+            return stockOrder;
+        };
+        stockOrderRows.put(id, row);
+        return row.get();
+    }
+
+    private static MatchingPair pair(StockOrder buy, StockOrder sell, long buyRemain, long sellRemain) {
+        return new MatchingPair(dto(buy, buyRemain), dto(sell, sellRemain));
+    }
+
+    private static StockOrderRedisDTO dto(StockOrder stockOrder, long remainQuantity) {
+        return new StockOrderRedisDTO(stockOrder.getId(), STOCK_CODE, stockOrder.getRequestedPrice().getMoneyValue(),
+                remainQuantity, NOW);
+    }
+
+    private List<LedgerJournal> postedJournals(int count) {
+        ArgumentCaptor<LedgerJournal> captor = ArgumentCaptor.forClass(LedgerJournal.class);
+        verify(ledgerService, times(count)).post(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static long amountOf(LedgerJournal journal, BalanceKey key, LedgerEntryType type) {
+        return journal.getLegs().stream()
+                .filter(leg -> leg.key().equals(key) && leg.type() == type)
+                .mapToLong(LedgerJournal.Leg::amount)
+                .sum();
+    }
+
+    @Test
+    @DisplayName("같은 계좌가 여러 pair 에 등장하면 한 번 조회한 주문 / 보유 종목에 순서대로 누적 반영하고 체결마다 분개한다")
+    void severalPairsOnSameAccount() {
+        Portfolio buyer = portfolio(10L);
+        Portfolio seller = portfolio(20L);
+        StockOrder buy = stockOrder(1L, OrderType.BUY, buyer, 100_000L, 10L);
+        StockOrder cheapSell = stockOrder(2L, OrderType.SELL, seller, 99_000L, 4L);
+        StockOrder sell = stockOrder(3L, OrderType.SELL, seller, 100_000L, 6L);
+
+        tradeExecutionService.matchPairs(List.of(pair(buy, cheapSell, 10L, 4L), pair(buy, sell, 6L, 6L)));
+
+        verify(stockOrderRepository, times(1)).findAllByIdsWithAllRelations(anyCollection());
+        verify(tradeRepository, times(2)).save(any());
+        verify(portfolioStockRepository, times(1)).save(any(PortfolioStock.class)); // 두 번째 체결은 배치에 추가된 보유 종목 사용
+        assertThat(loaded.get(1L).getStockOrderStatus()).isEqualTo(StockOrderStatus.FILLED);
+        assertThat(loaded.get(1L).getRemainedQuantity()).isEqualTo(Quantity.ZERO);
+        assertThat(loaded.get(2L).getStockOrderStatus()).isEqualTo(StockOrderStatus.FILLED);
+        assertThat(loaded.get(3L).getStockOrderStatus()).isEqualTo(StockOrderStatus.FILLED);
+
+        List<LedgerJournal> journals = postedJournals(2);
+        BalanceKey buyerReserved = BalanceKey.cash(10L, LedgerBucket.RESERVED);
+        BalanceKey sellerAvailable = BalanceKey.cash(20L, LedgerBucket.AVAILABLE);
+        assertThat(amountOf(journals.get(0), sellerAvailable, LedgerEntryType.CREDIT)).isEqualTo(396_000L);
+        assertThat(amountOf(journals.get(0), buyerReserved, LedgerEntryType.RELEASE)).isEqualTo(-4_000L); // 지정가 차액
+        assertThat(amountOf(journals.get(1), sellerAvailable, LedgerEntryType.CREDIT)).isEqualTo(600_000L);
+        assertThat(amountOf(journals.get(1), buyerReserved, LedgerEntryType.RELEASE)).isZero();
+        assertThat(amountOf(journals.get(1), BalanceKey.position(10L, 7L, LedgerBucket.AVAILABLE),
+                LedgerEntryType.CREDIT)).isEqualTo(6L);
+    }
+
+    @Test
+    @DisplayName("부분 체결된 주문은 PARTIALLY_FILLED 로 남고 잔여 수량이 이벤트에 담기며, 다음 묶음에서 나머지가 체결된다")
+    void partialFills() {
+        Portfolio buyer = portfolio(10L);
+        StockOrder buy = stockOrder(1L, OrderType.BUY, buyer, 100_000L, 10L);
+        StockOrder sell = stockOrder(2L, OrderType.SELL, portfolio(20L), 100_000L, 4L);
+
+        tradeExecutionService.matchPairs(List.of(pair(buy, sell, 10L, 4L)));
+
+        assertThat(loaded.get(1L).getStockOrderStatus()).isEqualTo(StockOrderStatus.PARTIALLY_FILLED);
+        assertThat(loaded.get(1L).getRemainedQuantity()).isEqualTo(new Quantity(6L));
+        assertThat(loaded.get(2L).getStockOrderStatus()).isEqualTo(StockOrderStatus.FILLED);
+        ArgumentCaptor<TradeSavedEvent> event = ArgumentCaptor.forClass(TradeSavedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getBuyDTO().getRemainQuantity()).isEqualTo(6L);
+        assertThat(event.getValue().getSellDTO().getRemainQuantity()).isZero();
+
+        // 커밋된 상태에서 다음 매도 주문과 나머지 6주 체결
+        StockOrder partiallyFilled = loaded.get(1L);
+        stockOrderRows.put(1L, () -> partiallyFilled);
+        StockOrder nextSell = stockOrder(3L, OrderType.SELL, portfolio(30L), 100_000L, 8L);
+
+        tradeExecutionService.matchPairs(List.of(pair(buy, nextSell, 6L, 8L)));
+
+        assertThat(loaded.get(1L).getStockOrderStatus()).isEqualTo(StockOrderStatus.FILLED);
+        assertThat(loaded.get(3L).getStockOrderStatus()).isEqualTo(StockOrderStatus.PARTIALLY_FILLED);
+        assertThat(loaded.get(3L).getRemainedQuantity()).isEqualTo(new Quantity(2L));
+    }
+
+    @Test
+    @DisplayName("배치 중 한 pair 라도 실패하면 배치 전체가 실패하고, TradeService 가 pair 마다 새 트랜잭션으로 다시 체결한다")
+    void rollsBackWholeBatchWhenOnePairFails() {
+        StockOrder buy = stockOrder(1L, OrderType.BUY, portfolio(10L), 100_000L, 5L);
+        StockOrder sell = stockOrder(2L, OrderType.SELL, portfolio(20L), 100_000L, 5L);
+        StockOrder staleBuy = stockOrder(3L, OrderType.BUY, portfolio(30L), 100_000L, 5L);
+        StockOrder cancelledSell = stockOrder(4L, OrderType.SELL, portfolio(40L), 100_000L, 5L,
+                stockOrder -> stockOrder.updateStatus(StockOrderStatus.CANCELLED));
+        MatchingPair good = pair(buy, sell, 5L, 5L);
+        MatchingPair stale = pair(staleBuy, cancelledSell, 5L, 5L);
+
+        // 앞 pair 를 반영한 뒤에 실패 - 예외가 그대로 나가므로 @Transactional 이 앞 pair 까지 전부 롤백
+        assertThatThrownBy(() -> tradeExecutionService.matchPairs(List.of(good, stale)))
+                .isInstanceOf(NonRetryableMatchException.class);
+        verify(tradeRepository, times(1)).save(any());
+
+        OrderBookStore orderBookStore = mock(OrderBookStore.class);
+        MatchRetryStage matchRetryStage = mock(MatchRetryStage.class);
+        TradeService tradeService = new TradeService(orderBookStore, tradeExecutionService, matchRetryStage,
+                new OptimisticRetryExecutor(new SimpleMeterRegistry()));
+        when(orderBookStore.popMatchPairs(eq(STOCK_CODE), anyInt()))
+                .thenReturn(List.of(good, stale))
+                .thenReturn(List.of());
+
+        tradeService.match(STOCK_CODE);
+
+        assertThat(loaded.get(1L).getStockOrderStatus()).isEqualTo(StockOrderStatus.FILLED);
+        assertThat(loaded.get(2L).getStockOrderStatus()).isEqualTo(StockOrderStatus.FILLED);
+        verify(orderBookStore).confirm(List.of(good));
+        verify(orderBookStore, never()).confirm(List.of(good, stale));
+        verify(matchRetryStage).deadLetter(eq(STOCK_CODE), eq(stale), eq(1), any(NonRetryableMatchException.class));
+    }
+
+    @Test
+    @DisplayName("재시도 단계에서 늦게 꺼낸 pair 의 주문이 그 사이 취소되었으면 체결하지 않고 재시도 불필요 예외로 끝낸다")
+    void rejectsPairOfCancelledOrder() {
+        StockOrder buy = stockOrder(1L, OrderType.BUY, portfolio(10L), 100_000L, 5L);
+        StockOrder sell = stockOrder(2L, OrderType.SELL, portfolio(20L), 100_000L, 5L,
+                stockOrder -> stockOrder.updateStatus(StockOrderStatus.CANCELLED));
+
+        assertThatThrownBy(() -> tradeExecutionService.matchSinglePair(pair(buy, sell, 5L, 5L)))
+                .isInstanceOfSatisfying(NonRetryableMatchException.class, e ->
+                        assertThat(e.getRestorableSides()).containsExactly(OrderType.BUY))
+                .hasMessageContaining("stockOrderId=2");
+
+        verify(tradeRepository, never()).save(any());
+        verify(ledgerService, never()).post(any());
+    }
+
+    @Test
+    @DisplayName("이미 다른 체결로 잔여 수량이 줄어든 주문의 pair 는 체결하지 않는다")
+    void rejectsPairExceedingRemainQuantity() {
+        StockOrder buy = stockOrder(1L, OrderType.BUY, portfolio(10L), 100_000L, 5L,
+                stockOrder -> stockOrder.applyExecution(new Quantity(4L), new Money(100_000L)));
+        StockOrder sell = stockOrder(2L, OrderType.SELL, portfolio(20L), 100_000L, 5L);
+
+        assertThatThrownBy(() -> tradeExecutionService.matchSinglePair(pair(buy, sell, 5L, 5L)))
+                .isInstanceOfSatisfying(NonRetryableMatchException.class, e ->
+                        assertThat(e.getRestorableSides()).containsExactly(OrderType.SELL))
+                .hasMessageContaining("stockOrderId=1");
+
+        verify(ledgerService, never()).post(any());
+    }
+
+    @Test
+    @DisplayName("주문을 찾을 수 없는 pair 는 재시도해도 소용없으므로 재시도 불필요 예외로 끝낸다")
+    void missingStockOrderIsNonRetryable() {
+        StockOrder buy = stockOrder(1L, OrderType.BUY, portfolio(10L), 100_000L, 5L);
+        StockOrder sell = stockOrder(2L, OrderType.SELL, portfolio(20L), 100_000L, 5L);
+        stockOrderRows.remove(2L);
+
+        assertThatThrownBy(() -> tradeExecutionService.matchSinglePair(pair(buy, sell, 5L, 5L)))
+                .isInstanceOfSatisfying(NonRetryableMatchException.class, e ->
+                        assertThat(e.getRestorableSides()).containsExactly(OrderType.BUY))
+                .hasMessageContaining("id=2");
+
+        verify(tradeRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("체결 금액이 long 범위를 넘으면 재시도하지 않고 재시도 불필요 예외로 끝낸다")
+    void amountOverflowIsNonRetryable() {
+        StockOrder buy = stockOrder(1L, OrderType.BUY, portfolio(10L), 100_000L, 5L);
+        StockOrder sell = stockOrder(2L, OrderType.SELL, portfolio(20L), 100_000L, 5L);
+        MatchingPair overflowing = new MatchingPair(dto(buy, 5L),
+                new StockOrderRedisDTO(sell.getId(), STOCK_CODE, Long.MAX_VALUE / 2, 5L, NOW));
+
+        assertThatThrownBy(() -> tradeExecutionService.matchSinglePair(overflowing))
+                .isInstanceOfSatisfying(NonRetryableMatchException.class, e ->
+                        assertThat(e.getRestorableSides()).containsExactlyInAnyOrder(OrderType.BUY, OrderType.SELL))
+                .hasMessageContaining("범위를 초과");
+
+        verify(ledgerService, never()).post(any());
+    }
+}
@@ -0,0 +1,151 @@
+package com.portfolio2025.first.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.portfolio2025.first.domain.id.TsidFactory;
+import com.portfolio2025.first.domain.id.TsidGenerator;
+import com.portfolio2025.first.domain.id.TsidNodeLease;
+import com.portfolio2025.first.repository.TsidNodeLeaseRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class TsidNodeAllocatorTest {
+
+    private static final String OWNER = "test-host:1:abcd1234";
+    private static final int START = Math.floorMod(OWNER.hashCode(), TsidFactory.MAX_NODE + 1);
+
+    private TsidNodeLeaseRepository tsidNodeLeaseRepository;
+    private TsidNodeAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        tsidNodeLeaseRepository = mock(TsidNodeLeaseRepository.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        allocator = new TsidNodeAllocator(tsidNodeLeaseRepository, transactionManager);
+        ReflectionTestUtils.setField(allocator, "fixedNodeId", -1);
+        ReflectionTestUtils.setField(allocator, "leaseTtlMs", 60_000L);
+        ReflectionTestUtils.setField(allocator, "owner", OWNER);
+        ReflectionTestUtils.setField(allocator, "transactionTemplate", new TransactionTemplate(transactionManager));
+    }
+
+    private int node(int offset) {
+        return (START + offset) & TsidFactory.MAX_NODE;
+    }
+
+    /** 모든 번호를 다른 서버가 살아 있는 임대로 가진 상태 **/
+    private List<TsidNodeLease> allLive() {
+        List<TsidNodeLease> leases = new ArrayList<>();
+        for (int nodeId = 0; nodeId <= TsidFactory.MAX_NODE; nodeId++) {
+            leases.add(TsidNodeLease.create(nodeId, "other:" + nodeId, LocalDateTime.now()));
+        }
+        return leases;
+    }
+
+    @Test
+    @DisplayName("비어 있는 번호는 INSERT 로 임대하고 TsidGenerator 에 설치한다")
+    void claimFreeNode() {
+        when(tsidNodeLeaseRepository.findAll()).thenReturn(List.of());
+
+        allocator.init();
+
+        assertThat(allocator.getNode()).isEqualTo(START);
+        assertThat(TsidFactory.nodeOf(TsidGenerator.factory().next())).isEqualTo(START);
+        verify(tsidNodeLeaseRepository).save(any(TsidNodeLease.class));
+    }
+
+    @Test
+    @DisplayName("heartbeat 가 ttl 보다 오래된 임대는 조건부 UPDATE 로 가져온다")
+    void takeOverExpiredLease() {
+        List<TsidNodeLease> leases = allLive();
+        int expired = node(5);
+        leases.set(expired, TsidNodeLease.create(expired, "dead", LocalDateTime.now().minusMinutes(10)));
+        when(tsidNodeLeaseRepository.findAll()).thenReturn(leases);
+        when(tsidNodeLeaseRepository.takeOver(eq(expired), eq(OWNER), any(), any())).thenReturn(1);
+
+        assertThat(allocator.allocate()).isEqualTo(expired);
+        verify(tsidNodeLeaseRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("조회 이후 다른 서버가 같은 번호를 먼저 가져가면(INSERT 충돌 / UPDATE 0건) 다음 번호를 시도한다")
+    void conflictingClaimMovesToNextNode() {
+        // node(0), node(1) 은 비어 있고 node(2) 는 만료 - 나머지는 살아 있는 임대
+        int expired = node(2);
+        List<TsidNodeLease> leases = new ArrayList<>(allLive().stream()
+                .filter(lease -> lease.getNodeId() != node(0) && lease.getNodeId() != node(1)
+                        && lease.getNodeId() != expired)
+                .toList());
+        leases.add(TsidNodeLease.create(expired, "dead", LocalDateTime.now().minusMinutes(10)));
+        when(tsidNodeLeaseRepository.findAll()).thenReturn(leases);
+        when(tsidNodeLeaseRepository.save(any(TsidNodeLease.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate node_id"));
+        when(tsidNodeLeaseRepository.takeOver(anyInt(), anyString(), any(), any())).thenReturn(0);
+
+        assertThatThrownBy(() -> allocator.allocate()).isInstanceOf(IllegalStateException.class);
+
+        ArgumentCaptor<TsidNodeLease> inserted = ArgumentCaptor.forClass(TsidNodeLease.class);
+        verify(tsidNodeLeaseRepository, times(2)).save(inserted.capture());
+        assertThat(inserted.getAllValues()).extracting(TsidNodeLease::getNodeId).containsExactly(node(0), node(1));
+        verify(tsidNodeLeaseRepository).takeOver(eq(expired), eq(OWNER), any(), any());
+    }
+
+    @Test
+    @DisplayName("heartbeat 갱신이 0건이면(다른 서버가 가져감) 새 번호를 임대해서 다시 설치한다")
+    void failedRenewalReallocates() {
+        when(tsidNodeLeaseRepository.findAll())
+                .thenReturn(List.of())
+                .thenReturn(List.of(TsidNodeLease.create(START, "other", LocalDateTime.now())));
+        allocator.init();
+        when(tsidNodeLeaseRepository.renew(eq(START), eq(OWNER), any())).thenReturn(0);
+
+        allocator.heartbeat();
+
+        assertThat(allocator.getNode()).isEqualTo(node(1));
+        assertThat(TsidFactory.nodeOf(TsidGenerator.factory().next())).isEqualTo(node(1));
+    }
+
+    @Test
+    @DisplayName("heartbeat 갱신 중 DB 예외는 번호를 유지한 채 다음 주기에 다시 시도한다")
+    void renewalErrorKeepsNode() {
+        when(tsidNodeLeaseRepository.findAll()).thenReturn(List.of());
+        allocator.init();
+        when(tsidNodeLeaseRepository.renew(eq(START), eq(OWNER), any()))
+                .thenThrow(new DataIntegrityViolationException("connection reset"));
+
+        allocator.heartbeat();
+
+        assertThat(allocator.getNode()).isEqualTo(START);
+        verify(tsidNodeLeaseRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("1024 개 번호가 모두 살아 있는 임대면 기동을 실패시킨다")
+    void exhaustedNodes() {
+        when(tsidNodeLeaseRepository.findAll()).thenReturn(allLive());
+
+        assertThatThrownBy(() -> allocator.allocate())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("1024");
+        verify(tsidNodeLeaseRepository, never()).save(any());
+        verify(tsidNodeLeaseRepository, never()).takeOver(anyInt(), anyString(), any(), any());
+    }
+}